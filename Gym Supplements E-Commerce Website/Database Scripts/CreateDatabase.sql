@@ -23,10 +23,12 @@ SET NAMES utf8mb4;
 -- =========================================
 SET FOREIGN_KEY_CHECKS = 0;
 
+DROP TABLE IF EXISTS `order_outbox`;
 DROP TABLE IF EXISTS `discount_order`;
 DROP TABLE IF EXISTS `order_item`;
 DROP TABLE IF EXISTS `order`;
 DROP TABLE IF EXISTS `user_account_role`;
+DROP TABLE IF EXISTS `product_rating_summary`;
 DROP TABLE IF EXISTS `product_review`;
 DROP TABLE IF EXISTS `product_image`;
 DROP TABLE IF EXISTS `product_category`;
@@ -79,6 +81,8 @@ CREATE TABLE `discount` (
   `discount_id`   BINARY(16)   NOT NULL COMMENT 'Khóa chính của bảng khuyến mãi (UUID v4 lưu dạng BINARY(16))',
   `discount_code` VARCHAR(50)  NOT NULL COMMENT 'Mã giảm giá hiển thị cho người dùng',
   `discount_type` ENUM('PERCENT','FIXED_AMOUNT') NOT NULL COMMENT 'Loại giảm giá: PERCENT theo phần trăm, FIXED_AMOUNT theo số tiền cố định',
+  `discount_value` DECIMAL(15,2) NOT NULL DEFAULT 0.00 COMMENT 'Giá trị giảm: số phần trăm (PERCENT, 0-100) hoặc số tiền (FIXED_AMOUNT)',
+  `max_discount_amount` DECIMAL(15,2) NULL COMMENT 'Số tiền giảm tối đa của mã PERCENT (NULL nếu không giới hạn)',
   `description`   NVARCHAR(255) NULL COMMENT 'Mô tả ngắn về chương trình khuyến mãi',
   `start_at`      DATETIME     NOT NULL COMMENT 'Thời điểm bắt đầu áp dụng khuyến mãi',
   `end_at`        DATETIME     NOT NULL COMMENT 'Thời điểm kết thúc khuyến mãi',
@@ -120,6 +124,7 @@ CREATE TABLE `role` (
   `is_active`       TINYINT(1)   NOT NULL DEFAULT 1 COMMENT 'Trạng thái hoạt động của tài khoản (1: hoạt động, 0: khóa)',
 
   PRIMARY KEY (`user_account_id`),
+  UNIQUE KEY `uk_user_name` (`user_name`),
   UNIQUE KEY `uk_user_email` (`email`),
   UNIQUE KEY `uk_user_phone` (`phone_number`)
 ) ENGINE=InnoDB
@@ -151,6 +156,8 @@ CREATE TABLE `product` (
   `quantity`     INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Số lượng tồn kho hiện tại',
   `price`        DECIMAL(15,2) NOT NULL DEFAULT 0.00 COMMENT 'Giá niêm yết của sản phẩm',
   `is_available` TINYINT(1)   NOT NULL DEFAULT 1 COMMENT 'Trạng thái hiển thị sản phẩm (1: đang bán, 0: ẩn)',
+  `created_at`   DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'Thời điểm tạo sản phẩm',
+  `updated_at`   DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'Thời điểm cập nhật sản phẩm gần nhất (tồn kho, giá, thông tin)',
 
   PRIMARY KEY (`product_id`)
 ) ENGINE=InnoDB
@@ -194,7 +201,7 @@ CREATE TABLE `wishlist` (
   `user_account_id` BINARY(16) NOT NULL COMMENT 'Người sở hữu danh sách yêu thích',
 
   PRIMARY KEY (`wishlist_id`),
-  KEY `idx_wishlist_user` (`user_account_id`),
+  UNIQUE KEY `uk_wishlist_user` (`user_account_id`),
   CONSTRAINT `fk_wishlist_user`
     FOREIGN KEY (`user_account_id`)
     REFERENCES `user_account`(`user_account_id`)
@@ -215,7 +222,7 @@ CREATE TABLE `wishlist_item` (
   `quantity`         INT UNSIGNED NOT NULL DEFAULT 1 COMMENT 'Số lượng mong muốn cho sản phẩm trong wishlist',
 
   PRIMARY KEY (`wishlist_item_id`),
-  KEY `idx_wishlist_item_wishlist` (`wishlist_id`),
+  UNIQUE KEY `uk_wishlist_item_product` (`wishlist_id`, `product_id`),
   KEY `idx_wishlist_item_product` (`product_id`),
   CONSTRAINT `fk_wishlist_item_wishlist`
     FOREIGN KEY (`wishlist_id`)
@@ -313,7 +320,7 @@ CREATE TABLE `product_review` (
   `created_at`        DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'Thời điểm người dùng gửi đánh giá',
 
   PRIMARY KEY (`product_review_id`),
-  KEY `idx_product_review_product` (`product_id`),
+  KEY `idx_product_review_product` (`product_id`, `created_at`, `product_review_id`),
   KEY `idx_product_review_user` (`user_account_id`),
   CONSTRAINT `fk_product_review_product`
     FOREIGN KEY (`product_id`)
@@ -330,6 +337,31 @@ CREATE TABLE `product_review` (
   COLLATE = utf8mb4_unicode_ci
   COMMENT = 'Lưu đánh giá và nhận xét của người dùng cho từng sản phẩm';
 
+-- =========================================
+-- BẢNG TỔNG HỢP ĐÁNH GIÁ THEO SẢN PHẨM
+-- =========================================
+CREATE TABLE `product_rating_summary` (
+  `product_id`   BINARY(16)   NOT NULL COMMENT 'Khóa chính, đồng thời là khóa ngoại tới bảng product',
+  `review_count` INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Tổng số đánh giá của sản phẩm',
+  `rating_sum`   INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Tổng điểm của tất cả đánh giá (trung bình = rating_sum / review_count)',
+  `star_1`       INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Số đánh giá 1 sao',
+  `star_2`       INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Số đánh giá 2 sao',
+  `star_3`       INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Số đánh giá 3 sao',
+  `star_4`       INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Số đánh giá 4 sao',
+  `star_5`       INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Số đánh giá 5 sao',
+  `updated_at`   DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'Thời điểm cập nhật gần nhất',
+
+  PRIMARY KEY (`product_id`),
+  CONSTRAINT `fk_product_rating_summary_product`
+    FOREIGN KEY (`product_id`)
+    REFERENCES `product`(`product_id`)
+    ON DELETE CASCADE
+    ON UPDATE CASCADE
+) ENGINE=InnoDB
+  DEFAULT CHARSET = utf8mb4
+  COLLATE = utf8mb4_unicode_ci
+  COMMENT = 'Tổng hợp số lượng, tổng điểm và phân bố sao của đánh giá theo từng sản phẩm (cập nhật cùng transaction với product_review)';
+
 -- =========================================
 -- BẢNG PHÂN QUYỀN TÀI KHOẢN (N-N GIỮA USER VÀ ROLE)
 -- =========================================
@@ -361,7 +393,7 @@ CREATE TABLE `order` (
   `order_id`         BINARY(16)   NOT NULL COMMENT 'Khóa chính của bảng đơn hàng (UUID v4 lưu dạng BINARY(16))',
   `user_account_id`  BINARY(16)   NOT NULL COMMENT 'Khách hàng đặt đơn hàng',
   `user_address_id`  BINARY(16)   NOT NULL COMMENT 'Địa chỉ giao hàng được chọn',
-  `shipping_unit_id` BINARY(16)   NOT NULL COMMENT 'Đơn vị vận chuyển xử lý đơn',
+  `shipping_unit_id` BINARY(16)       NULL COMMENT 'Đơn vị vận chuyển xử lý đơn (NULL: chưa gán, pipeline xử lý đơn sẽ gán)',
   `original_price`   DECIMAL(15,2) NOT NULL DEFAULT 0.00 COMMENT 'Tổng giá trị hàng hóa trước khi giảm giá',
   `discount_amount`  DECIMAL(15,2) NOT NULL DEFAULT 0.00 COMMENT 'Tổng số tiền giảm giá áp dụng cho đơn hàng',
   `final_price`      DECIMAL(15,2) NOT NULL DEFAULT 0.00 COMMENT 'Số tiền khách phải thanh toán sau giảm giá',
@@ -370,11 +402,16 @@ CREATE TABLE `order` (
   `payment_method`   ENUM('COD','BANK_TRANSFER','CREDIT_CARD','EWALLET','OTHER') NOT NULL DEFAULT 'COD'
                      COMMENT 'Phương thức thanh toán của đơn hàng',
   `created_at`       DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'Thời điểm tạo đơn hàng',
+  `idempotency_key`  VARCHAR(100)      NULL COMMENT 'Khóa idempotency do client gửi khi đặt hàng, chống tạo trùng đơn khi gửi lại',
+  `idempotency_request_hash` VARCHAR(64) NULL COMMENT 'SHA-256 (hex) nội dung request đặt hàng đi kèm idempotency_key; gửi lại cùng khóa với nội dung khác bị từ chối',
+  `stock_reserved_at` DATETIME         NULL COMMENT 'Thời điểm đã trừ tồn kho cho đơn (NULL: chưa giữ hàng)',
 
   PRIMARY KEY (`order_id`),
-  KEY `idx_order_user` (`user_account_id`),
+  UNIQUE KEY `uk_order_idempotency` (`user_account_id`, `idempotency_key`),
+  KEY `idx_order_user_created` (`user_account_id`, `created_at`),
   KEY `idx_order_address` (`user_address_id`),
   KEY `idx_order_shipping_unit` (`shipping_unit_id`),
+  KEY `idx_order_status_created` (`order_status`, `created_at`),
   CONSTRAINT `fk_order_user`
     FOREIGN KEY (`user_account_id`)
     REFERENCES `user_account`(`user_account_id`)
@@ -447,3 +484,24 @@ CREATE TABLE `discount_order` (
   DEFAULT CHARSET = utf8mb4
   COLLATE = utf8mb4_unicode_ci
   COMMENT = 'Bảng liên kết nhiều nhiều giữa đơn hàng và chương trình khuyến mãi';
+
+-- =========================================
+-- BẢNG OUTBOX SỰ KIỆN ĐƠN HÀNG
+-- =========================================
+CREATE TABLE `order_outbox` (
+  `outbox_id`    BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT 'Khóa chính, tăng dần theo thứ tự ghi sự kiện',
+  `order_id`     BINARY(16)      NOT NULL COMMENT 'Đơn hàng phát sinh sự kiện (không đặt khóa ngoại để không khóa bảng order khi ghi)',
+  `from_status`  VARCHAR(20)         NULL COMMENT 'Trạng thái trước khi chuyển',
+  `to_status`    VARCHAR(20)     NOT NULL COMMENT 'Trạng thái sau khi chuyển',
+  `occurred_at`  DATETIME(3)     NOT NULL COMMENT 'Thời điểm chuyển trạng thái (cùng transaction với UPDATE order)',
+  `available_at` DATETIME(3)     NOT NULL COMMENT 'Thời điểm sớm nhất được gửi (lease của poller / thời điểm thử lại)',
+  `attempts`     INT UNSIGNED    NOT NULL DEFAULT 0 COMMENT 'Số lần gửi thất bại',
+  `published_at` DATETIME(3)         NULL COMMENT 'Thời điểm đã gửi thành công (NULL: chưa gửi)',
+
+  PRIMARY KEY (`outbox_id`),
+  KEY `idx_order_outbox_pending` (`published_at`, `available_at`),
+  KEY `idx_order_outbox_order` (`order_id`)
+) ENGINE=InnoDB
+  DEFAULT CHARSET = utf8mb4
+  COLLATE = utf8mb4_unicode_ci
+  COMMENT = 'Sự kiện chuyển trạng thái đơn hàng chờ gửi cho các hệ thống vận chuyển / email (transactional outbox)';
@@ -0,0 +1,29 @@
+package project.gymecommerce.Configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import project.gymecommerce.Models.Identifier.UuidV7Generator;
+
+@Configuration
+public class IdGenerationConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGenerationConfiguration.class);
+
+    // V7 (mặc định) hoặc V4 để quay về UUID ngẫu nhiên trong giai đoạn migration
+    private static final String UUID_MODE_PROPERTY = "app.id.uuid-mode";
+
+    // Đặt chế độ ở giai đoạn BeanFactoryPostProcessor: chạy trước khi bất kỳ bean thường nào được tạo,
+    // kể cả entityManagerFactory và các bean insert dữ liệu lúc khởi động
+    @Bean
+    public static BeanFactoryPostProcessor uuidModeInitializer(Environment environment) {
+        return beanFactory -> {
+            UuidV7Generator.Mode mode = environment.getProperty(UUID_MODE_PROPERTY, UuidV7Generator.Mode.class, UuidV7Generator.Mode.V7);
+            UuidV7Generator.setMode(mode);
+            log.info("Chế độ sinh khóa chính UUID: {}", mode);
+        };
+    }
+}
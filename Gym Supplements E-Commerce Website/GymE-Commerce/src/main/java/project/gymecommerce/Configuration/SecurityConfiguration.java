@@ -1,28 +1,36 @@
 package project.gymecommerce.Configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.JdbcUserDetailsManager;
-import org.springframework.security.provisioning.UserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import project.gymecommerce.Security.BoundedBCryptPasswordEncoder;
+import project.gymecommerce.Security.CachingUserDetailsManager;
 
 import javax.sql.DataSource;
 import java.io.IOException;
+import java.time.Duration;
 
 @Configuration
 public class SecurityConfiguration {
 
+    // JdbcUserDetailsManager được bọc bởi cache (kích thước + TTL) để đăng nhập không phải chạy 2 query mỗi lần
     @Bean
-    public UserDetailsManager userDetailsManager(DataSource dataSource) {
+    public CachingUserDetailsManager userDetailsManager(DataSource dataSource,
+                                                       JdbcTemplate jdbcTemplate,
+                                                       MeterRegistry meterRegistry,
+                                                       @Value("${app.cache.user-details.max-size:10000}") long maxSize,
+                                                       @Value("${app.cache.user-details.ttl:5m}") Duration ttl) {
         JdbcUserDetailsManager manager = new JdbcUserDetailsManager(dataSource);
 
         // Query lấy user theo email
@@ -39,19 +47,29 @@ public class SecurityConfiguration {
                         "WHERE ua.email = ?"
         );
 
-        return manager;
+        // Query đổi mật khẩu theo schema user_account (mặc định của JdbcUserDetailsManager dùng bảng users)
+        manager.setChangePasswordSql("UPDATE user_account SET hashed_password = ? WHERE email = ?");
+
+        return new CachingUserDetailsManager(manager, jdbcTemplate, maxSize, ttl, meterRegistry);
     }
 
+    // BCrypt chạy trên executor giới hạn; cost được hiệu chỉnh khi khởi động theo target-latency
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedBCryptPasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                                        @Value("${app.security.bcrypt.threads:0}") int threads,
+                                                        @Value("${app.security.bcrypt.queue-capacity:200}") int queueCapacity,
+                                                        @Value("${app.security.bcrypt.target-latency:250ms}") Duration targetLatency,
+                                                        @Value("${app.security.bcrypt.max-wait:5s}") Duration maxWait) {
+        // threads = 0: dùng một nửa số core để phần còn lại phục vụ render trang
+        int hashThreads = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedBCryptPasswordEncoder(hashThreads, queueCapacity, targetLatency, maxWait, meterRegistry);
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/login", "/register", "/hardfuel","/about","/contact").permitAll()
+                        .requestMatchers("/login", "/register", "/hardfuel","/about","/contact", "/products/**").permitAll()
                         .requestMatchers("/admin/**").hasRole("ADMIN")
                         .requestMatchers("/employee/**").hasRole("EMPLOYEE")
                         .requestMatchers("/customer/**").hasRole("CUSTOMER")
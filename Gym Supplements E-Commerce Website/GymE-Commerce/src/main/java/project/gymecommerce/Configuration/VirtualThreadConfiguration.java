@@ -0,0 +1,38 @@
+package project.gymecommerce.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import project.gymecommerce.Monitoring.VirtualThreadPinningMonitor;
+
+import java.time.Duration;
+
+/**
+ * Chế độ virtual thread cho tầng web.
+ * - Bật / tắt bằng spring.threads.virtual.enabled: khi bật, Spring Boot chạy request của Tomcat,
+ *   tác vụ @Async (applicationTaskExecutor) và @Scheduled trên virtual thread; khi tắt quay về thread pool platform.
+ * - Tầng JDBC: virtual thread không còn bị giới hạn bởi server.tomcat.threads.max, nên HikariCP
+ *   (spring.datasource.hikari.maximum-pool-size) trở thành giới hạn thật cho số query đồng thời xuống MySQL.
+ * - Pinning: {@link VirtualThreadPinningMonitor} ghi nhận các lần virtual thread bị pin (ví dụ synchronized trong driver).
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class VirtualThreadConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfiguration.class);
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnBooleanProperty(name = {"spring.threads.virtual.enabled", "app.threads.pinning-monitor.enabled"})
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                                                   @Value("${app.threads.pinning-monitor.threshold:20ms}") Duration threshold) {
+        log.info("Chế độ virtual thread đang bật cho Tomcat, @Async và JDBC");
+        return new VirtualThreadPinningMonitor(threshold, meterRegistry);
+    }
+}
@@ -0,0 +1,26 @@
+package project.gymecommerce.Controllers.RestController;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import project.gymecommerce.DTOs.Order.DiscountCheckDTO;
+import project.gymecommerce.Services.DiscountCodeService;
+
+@RestController
+public class DiscountController {
+
+    private final DiscountCodeService discountCodeService;
+
+    @Autowired
+    public DiscountController(DiscountCodeService discountCodeService) {
+        this.discountCodeService = discountCodeService;
+    }
+
+    // kiểm tra mã giảm giá khi refresh giỏ hàng (đọc từ bộ nhớ, không tiêu lượt dùng)
+    @GetMapping("/discounts/{discountCode}")
+    public ResponseEntity<DiscountCheckDTO> checkDiscountCode(@PathVariable("discountCode") String discountCode) {
+        return ResponseEntity.ok(discountCodeService.check(discountCode));
+    }
+}
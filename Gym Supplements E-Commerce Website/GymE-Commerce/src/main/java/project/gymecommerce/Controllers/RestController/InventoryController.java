@@ -0,0 +1,49 @@
+package project.gymecommerce.Controllers.RestController;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import project.gymecommerce.DTOs.Order.StockReservationDTO.StockLine;
+import project.gymecommerce.Services.InventoryService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+public class InventoryController {
+
+    private final InventoryService inventoryService;
+
+    @Autowired
+    public InventoryController(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    // nhân viên nhập hàng cho nhiều sản phẩm một lần; sản phẩm hết hàng có hàng trở lại sẽ được thông báo cho người có trong wishlist
+    @PostMapping("/employee/inventory/restock")
+    public ResponseEntity<Void> restock(@RequestBody List<StockLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<UUID, Integer> quantities = new HashMap<>();
+        for (StockLine line : lines) {
+            if (line == null || line.productId() == null || line.quantity() < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            quantities.merge(line.productId(), line.quantity(), Integer::sum);
+        }
+        try {
+            inventoryService.restock(quantities);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            if ("Product not found".equals(e.getMessage())) {
+                return ResponseEntity.notFound().build();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package project.gymecommerce.Controllers.RestController;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import project.gymecommerce.DTOs.CursorPageDTO;
+import project.gymecommerce.DTOs.Order.CheckoutRequestDTO;
+import project.gymecommerce.DTOs.Order.CheckoutResultDTO;
+import project.gymecommerce.DTOs.Order.OrderHistoryDTO;
+import project.gymecommerce.DTOs.Order.OrderResponseDTO;
+import project.gymecommerce.DTOs.Order.OrderStatusUpdateDTO;
+import project.gymecommerce.DTOs.Order.StatusTransitionResultDTO;
+import project.gymecommerce.Services.CheckoutService;
+import project.gymecommerce.Services.OrderHistoryService;
+import project.gymecommerce.Services.OrderStatusService;
+
+import java.util.UUID;
+
+@RestController
+public class OrderController {
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final CheckoutService checkoutService;
+    private final OrderStatusService orderStatusService;
+    private final OrderHistoryService orderHistoryService;
+
+    @Autowired
+    public OrderController(CheckoutService checkoutService,
+                           OrderStatusService orderStatusService,
+                           OrderHistoryService orderHistoryService) {
+        this.checkoutService = checkoutService;
+        this.orderStatusService = orderStatusService;
+        this.orderHistoryService = orderHistoryService;
+    }
+
+    // lịch sử đơn hàng của khách hàng theo trang (keyset, mới nhất trước), truyền nextCursor của trang trước vào "after"
+    @GetMapping("/orders")
+    public ResponseEntity<CursorPageDTO<OrderHistoryDTO>> getOrderHistory(
+            Authentication authentication,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(orderHistoryService.findHistory(authentication.getName(), after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // đặt hàng (đơn PENDING, được xử lý tiếp bởi pipeline); client gửi lại cùng Idempotency-Key khi retry sẽ nhận lại đơn ban đầu (200) thay vì tạo đơn mới (201)
+    // cùng Idempotency-Key nhưng nội dung request khác -> 409
+    @PostMapping("/orders")
+    public ResponseEntity<OrderResponseDTO> checkout(
+            Authentication authentication,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody CheckoutRequestDTO request) {
+        try {
+            CheckoutResultDTO result = checkoutService.checkout(authentication.getName(), idempotencyKey, request);
+            if (result.replayed()) {
+                return ResponseEntity.ok().header(REPLAYED_HEADER, "true").body(result.order());
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(result.order());
+        } catch (RuntimeException e) {
+            if ("Invalid checkout request".equals(e.getMessage())
+                    || "Invalid idempotency key".equals(e.getMessage())
+                    || "Address not found".equals(e.getMessage())
+                    || "Shipping unit not found".equals(e.getMessage())
+                    || "Product not available".equals(e.getMessage())
+                    || "Invalid discount code".equals(e.getMessage())
+                    || "Amount out of range".equals(e.getMessage())) {
+                return ResponseEntity.badRequest().build();
+            } else if ("Idempotency key reused with a different request".equals(e.getMessage())) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            throw e;
+        }
+    }
+
+    // khách hàng huỷ đơn của mình; 409 nếu đơn vừa được chuyển sang trạng thái khác (ví dụ đã giao cho vận chuyển)
+    @PostMapping("/orders/{orderId}/cancel")
+    public ResponseEntity<Void> cancelOrder(Authentication authentication, @PathVariable("orderId") UUID orderId) {
+        try {
+            if (orderStatusService.cancelByCustomer(authentication.getName(), orderId)) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            if ("Order not found".equals(e.getMessage())) {
+                return ResponseEntity.notFound().build();
+            } else if ("Invalid status transition".equals(e.getMessage())) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            throw e;
+        }
+    }
+
+    // nhân viên chuyển trạng thái hàng loạt (ví dụ CONFIRMED -> SHIPPING); đơn đã bị đổi trước nằm trong "rejected"
+    @PostMapping("/employee/orders/status")
+    public ResponseEntity<StatusTransitionResultDTO> updateOrderStatus(@RequestBody OrderStatusUpdateDTO request) {
+        try {
+            return ResponseEntity.ok(orderStatusService.transitionAll(request.orderIds(), request.from(), request.to()));
+        } catch (RuntimeException e) {
+            if ("Invalid status transition".equals(e.getMessage())) {
+                return ResponseEntity.badRequest().build();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package project.gymecommerce.Controllers.RestController;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import project.gymecommerce.DTOs.CursorPageDTO;
+import project.gymecommerce.DTOs.Product.ProductCatalogDTO;
+import project.gymecommerce.DTOs.Product.ProductListingDTO;
+import project.gymecommerce.DTOs.Product.ProductRatingDTO;
+import project.gymecommerce.DTOs.Product.ProductReviewDTO;
+import project.gymecommerce.Search.ProductFacetIndex;
+import project.gymecommerce.Services.ProductFacetService;
+import project.gymecommerce.Services.ProductRatingService;
+import project.gymecommerce.Services.ProductReviewService;
+import project.gymecommerce.Services.ProductSearchService;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@RestController
+public class ProductController {
+
+    private final ProductSearchService productSearchService;
+    private final ProductFacetService productFacetService;
+    private final ProductRatingService productRatingService;
+    private final ProductReviewService productReviewService;
+
+    @Autowired
+    public ProductController(ProductSearchService productSearchService,
+                             ProductFacetService productFacetService,
+                             ProductRatingService productRatingService,
+                             ProductReviewService productReviewService) {
+        this.productSearchService = productSearchService;
+        this.productFacetService = productFacetService;
+        this.productRatingService = productRatingService;
+        this.productReviewService = productReviewService;
+    }
+
+    // danh sách sản phẩm lọc theo thương hiệu / danh mục / còn hàng / khoảng giá, kèm số lượng từng facet
+    @GetMapping("/products")
+    public ResponseEntity<ProductListingDTO> getProducts(
+            @RequestParam(name = "brand", required = false) Set<String> brands,
+            @RequestParam(name = "category", required = false) Set<String> categories,
+            @RequestParam(name = "inStock", required = false) Boolean inStock,
+            @RequestParam(name = "price", required = false) Set<String> priceBuckets,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "24") int size) {
+        ProductFacetIndex.Filter filter = new ProductFacetIndex.Filter(brands, categories, inStock, priceBuckets);
+        return ResponseEntity.ok(productFacetService.findListing(filter, page, size));
+    }
+
+    // tìm kiếm sản phẩm theo tên, mô tả, thương hiệu, danh mục (không phân biệt dấu)
+    @GetMapping("/products/search")
+    public ResponseEntity<List<ProductCatalogDTO>> searchProducts(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productSearchService.searchProducts(query, limit));
+    }
+
+    // tổng hợp đánh giá (số review, điểm trung bình, phân bố sao) của một sản phẩm
+    @GetMapping("/products/{productId}/rating")
+    public ResponseEntity<ProductRatingDTO> getProductRating(@PathVariable UUID productId) {
+        return ResponseEntity.ok(productRatingService.findByProductId(productId));
+    }
+
+    // danh sách đánh giá của sản phẩm theo trang (keyset), truyền nextCursor của trang trước vào "after"
+    @GetMapping("/products/{productId}/reviews")
+    public ResponseEntity<CursorPageDTO<ProductReviewDTO>> getProductReviews(
+            @PathVariable UUID productId,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(productReviewService.findFeed(productId, after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,19 +1,23 @@
 package project.gymecommerce.Controllers.RestController;
 
-import org.apache.coyote.Response;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import project.gymecommerce.DTOs.CursorPageDTO;
+import project.gymecommerce.DTOs.User.UserAccountSummaryDTO;
 import project.gymecommerce.Models.User.UserAccount;
 import project.gymecommerce.Services.UserAccountServiceImplement;
 
-import java.util.Set;
-
 @RestController
 public class UserController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final UserAccountServiceImplement userAccountService;
 
     @Autowired
@@ -21,10 +25,25 @@ public class UserController {
         this.userAccountService = userAccountService;
     }
 
-    // lấy toàn bộ userAccount
+    // lấy danh sách userAccount theo trang (keyset), truyền nextCursor của trang trước vào "after"
     @GetMapping("/users")
-    public ResponseEntity<Set<UserAccount>> getAllUserAccounts() {
-        return ResponseEntity.ok(userAccountService.findAll());
+    public ResponseEntity<CursorPageDTO<UserAccountSummaryDTO>> getUserAccounts(
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "size", defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(userAccountService.findPage(after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // export toàn bộ userAccount dạng NDJSON, ghi dần ra response thay vì gom vào bộ nhớ
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUserAccounts() {
+        StreamingResponseBody body = userAccountService::exportNdjson;
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
     }
 
     //Tạo user mới
@@ -0,0 +1,73 @@
+package project.gymecommerce.Controllers.RestController;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import project.gymecommerce.DTOs.Order.CheckoutRequestDTO;
+import project.gymecommerce.DTOs.Order.WishlistLineDTO;
+import project.gymecommerce.Services.WishlistService;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@RestController
+public class WishlistController {
+
+    private final WishlistService wishlistService;
+
+    @Autowired
+    public WishlistController(WishlistService wishlistService) {
+        this.wishlistService = wishlistService;
+    }
+
+    // wishlist của người dùng đang đăng nhập
+    @GetMapping("/wishlist")
+    public ResponseEntity<List<WishlistLineDTO>> getWishlist(Authentication authentication) {
+        return ResponseEntity.ok(wishlistService.findItems(authentication.getName()));
+    }
+
+    // đánh dấu sản phẩm đã thích trên trang danh sách: trả về các productId (trong danh sách truyền vào) nằm trong wishlist
+    @GetMapping("/wishlist/contains")
+    public ResponseEntity<Set<UUID>> getWishlisted(Authentication authentication,
+                                                   @RequestParam(name = "productIds") List<UUID> productIds) {
+        return ResponseEntity.ok(wishlistService.findWishlisted(authentication.getName(), productIds));
+    }
+
+    // thêm nhiều sản phẩm một lần; 400 nếu có sản phẩm không còn bán hoặc wishlist vượt quá giới hạn
+    @PostMapping("/wishlist/items")
+    public ResponseEntity<List<WishlistLineDTO>> addItems(Authentication authentication,
+                                                          @RequestBody List<WishlistLineDTO> lines) {
+        try {
+            wishlistService.addAll(authentication.getName(), lines);
+            return ResponseEntity.ok(wishlistService.findItems(authentication.getName()));
+        } catch (RuntimeException e) {
+            if ("Invalid wishlist request".equals(e.getMessage())
+                    || "Product not available".equals(e.getMessage())
+                    || "Wishlist is full".equals(e.getMessage())) {
+                return ResponseEntity.badRequest().build();
+            }
+            throw e;
+        }
+    }
+
+    // xoá nhiều sản phẩm một lần
+    @PostMapping("/wishlist/items/remove")
+    public ResponseEntity<List<WishlistLineDTO>> removeItems(Authentication authentication,
+                                                             @RequestBody List<UUID> productIds) {
+        wishlistService.removeAll(authentication.getName(), productIds);
+        return ResponseEntity.ok(wishlistService.findItems(authentication.getName()));
+    }
+
+    // chuyển sản phẩm sang giỏ hàng: trả về các dòng hàng để client thêm vào giỏ (lines của POST /orders)
+    @PostMapping("/wishlist/move-to-cart")
+    public ResponseEntity<List<CheckoutRequestDTO.CheckoutLine>> moveToCart(Authentication authentication,
+                                                                           @RequestBody List<UUID> productIds) {
+        return ResponseEntity.ok(wishlistService.moveToCart(authentication.getName(), productIds));
+    }
+}
@@ -0,0 +1,15 @@
+package project.gymecommerce.DTOs;
+
+import java.util.List;
+
+/**
+ * Một trang kết quả phân trang theo keyset (cursor).
+ * - Ý nghĩa: items là dữ liệu của trang hiện tại; nextCursor dùng làm tham số "after" để lấy trang kế tiếp.
+ * - Lưu ý: nextCursor = null nghĩa là đã hết dữ liệu.
+ */
+public record CursorPageDTO<T>(List<T> items, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,35 @@
+package project.gymecommerce.DTOs;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Vị trí của dòng cuối trang khi phân trang theo keyset (created_at, id).
+ * - Ý nghĩa: dùng chung cho các danh sách sắp theo (created_at, khóa chính UUID) như lịch sử đơn hàng, đánh giá sản phẩm.
+ * - Định dạng: "createdAt|id" mã hóa Base64 URL-safe (không padding), client chỉ cần gửi lại nguyên chuỗi.
+ * - Lưu ý: chuỗi không giải mã được ném IllegalArgumentException("Invalid cursor"), controller trả về 400.
+ */
+public record KeysetCursorDTO(LocalDateTime createdAt, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursorDTO decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) throw new IllegalArgumentException("Missing separator");
+            return new KeysetCursorDTO(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
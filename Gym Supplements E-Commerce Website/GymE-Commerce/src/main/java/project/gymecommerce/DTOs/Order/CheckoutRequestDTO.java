@@ -0,0 +1,23 @@
+package project.gymecommerce.DTOs.Order;
+
+import project.gymecommerce.Models.Order.Order;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Nội dung request đặt hàng.
+ * - Ý nghĩa: địa chỉ giao hàng (phải thuộc khách hàng đang đăng nhập), đơn vị vận chuyển, phương thức thanh toán
+ *   và các dòng hàng; giá được lấy từ product tại thời điểm đặt, không nhận giá từ client.
+ * - Lưu ý: shippingUnitId có thể null, khi đó pipeline xử lý đơn tự gán đơn vị vận chuyển.
+ * - discountCodes: các mã giảm giá (có thể null); mỗi mã bị tiêu một lượt dùng khi đặt hàng thành công.
+ */
+public record CheckoutRequestDTO(UUID userAddressId,
+                                 UUID shippingUnitId,
+                                 Order.PaymentMethod paymentMethod,
+                                 List<CheckoutLine> lines,
+                                 List<String> discountCodes) {
+
+    public record CheckoutLine(UUID productId, int quantity) {
+    }
+}
@@ -0,0 +1,8 @@
+package project.gymecommerce.DTOs.Order;
+
+/**
+ * Kết quả đặt hàng.
+ * - replayed = true: request trùng khóa idempotency với một đơn đã tạo trước đó, order là đơn ban đầu.
+ */
+public record CheckoutResultDTO(OrderResponseDTO order, boolean replayed) {
+}
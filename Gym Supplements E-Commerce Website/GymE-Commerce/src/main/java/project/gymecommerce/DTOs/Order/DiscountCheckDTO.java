@@ -0,0 +1,22 @@
+package project.gymecommerce.DTOs.Order;
+
+import project.gymecommerce.Models.Order.Discount;
+import project.gymecommerce.Pricing.DiscountCodeIndex;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Kết quả kiểm tra / sử dụng một mã giảm giá.
+ * - Lưu ý: discountId, discountType, endAt là null khi status = NOT_FOUND.
+ */
+public record DiscountCheckDTO(String discountCode,
+                               DiscountCodeIndex.Status status,
+                               UUID discountId,
+                               Discount.DiscountType discountType,
+                               LocalDateTime endAt) {
+
+    public boolean isValid() {
+        return status == DiscountCodeIndex.Status.VALID;
+    }
+}
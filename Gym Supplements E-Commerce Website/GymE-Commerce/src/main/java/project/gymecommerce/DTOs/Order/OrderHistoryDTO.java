@@ -0,0 +1,35 @@
+package project.gymecommerce.DTOs.Order;
+
+import project.gymecommerce.Models.Order.Order;
+import project.gymecommerce.Pricing.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Một dòng trong lịch sử đơn hàng của khách hàng.
+ * - Ý nghĩa: chỉ gồm các cột cần hiển thị, lấy bằng constructor expression trong một query
+ *   nên không nạp entity Order / OrderItem / Discount cho từng dòng.
+ * - thumbnailUrl: ảnh mặc định của sản phẩm đầu tiên (theo thứ tự thêm vào đơn) có ảnh; null nếu không có.
+ */
+public record OrderHistoryDTO(UUID orderId,
+                              LocalDateTime createdAt,
+                              Order.OrderStatus orderStatus,
+                              BigDecimal finalPrice,
+                              long itemCount,
+                              String thumbnailUrl) {
+
+    // Dùng trong JPQL: final_price được map thành long (đơn vị nhỏ nhất) qua MoneyConverter
+    public OrderHistoryDTO(UUID orderId,
+                           LocalDateTime createdAt,
+                           Order.OrderStatus orderStatus,
+                           Long finalPriceMinor,
+                           Long itemCount,
+                           String thumbnailUrl) {
+        this(orderId, createdAt, orderStatus,
+                Money.toBigDecimal(finalPriceMinor == null ? Money.ZERO : finalPriceMinor),
+                itemCount == null ? 0L : itemCount,
+                thumbnailUrl);
+    }
+}
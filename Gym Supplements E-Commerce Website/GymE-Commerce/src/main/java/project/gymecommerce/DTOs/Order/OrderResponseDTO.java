@@ -0,0 +1,45 @@
+package project.gymecommerce.DTOs.Order;
+
+import project.gymecommerce.Models.Order.Order;
+import project.gymecommerce.Models.Order.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Thông tin đơn hàng trả về cho client sau khi đặt hàng.
+ * - Lưu ý: bất biến và không tham chiếu entity, nên có thể giữ trong bộ nhớ để trả lại khi client gửi lại request.
+ */
+public record OrderResponseDTO(UUID orderId,
+                               Order.OrderStatus orderStatus,
+                               Order.PaymentMethod paymentMethod,
+                               BigDecimal originalPrice,
+                               BigDecimal discountAmount,
+                               BigDecimal finalPrice,
+                               LocalDateTime createdAt,
+                               List<OrderLine> items) {
+
+    public record OrderLine(UUID productId, int quantity, BigDecimal unitPrice, BigDecimal lineTotal) {
+    }
+
+    // Tạo từ entity; chỉ đọc productId của Product (không khởi tạo proxy)
+    public static OrderResponseDTO from(Order order) {
+        List<OrderLine> items = order.getOrderItems().stream()
+                .map(OrderResponseDTO::line)
+                .toList();
+        return new OrderResponseDTO(order.getOrderId(),
+                order.getOrderStatus(),
+                order.getPaymentMethod(),
+                order.getOriginalPrice(),
+                order.getDiscountAmount(),
+                order.getFinalPrice(),
+                order.getCreatedAt(),
+                items);
+    }
+
+    private static OrderLine line(OrderItem item) {
+        return new OrderLine(item.getProduct().getProductId(), item.getQuantity(), item.getUnitPrice(), item.getLineTotal());
+    }
+}
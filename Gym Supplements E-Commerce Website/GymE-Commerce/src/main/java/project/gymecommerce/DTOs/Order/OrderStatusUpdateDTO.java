@@ -0,0 +1,13 @@
+package project.gymecommerce.DTOs.Order;
+
+import project.gymecommerce.Models.Order.Order;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request chuyển trạng thái hàng loạt của nhân viên (ví dụ CONFIRMED -> SHIPPING cho nhiều đơn cùng lúc).
+ * - Lưu ý: chỉ các đơn còn ở trạng thái from mới được chuyển.
+ */
+public record OrderStatusUpdateDTO(List<UUID> orderIds, Order.OrderStatus from, Order.OrderStatus to) {
+}
@@ -0,0 +1,12 @@
+package project.gymecommerce.DTOs.Order;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Kết quả chuyển trạng thái hàng loạt.
+ * - applied: các đơn đã được chuyển.
+ * - rejected: các đơn không còn ở trạng thái yêu cầu (đã bị người khác đổi trước) hoặc không tồn tại.
+ */
+public record StatusTransitionResultDTO(List<UUID> applied, List<UUID> rejected) {
+}
@@ -0,0 +1,19 @@
+package project.gymecommerce.DTOs.Order;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Kết quả trừ tồn kho cho các dòng hàng của một đơn.
+ * - Ý nghĩa: reservedLines đã được trừ kho thành công; rejectedLines không đủ tồn kho (hoặc product không tồn tại)
+ *   và không bị trừ, đơn hàng vẫn có thể tiếp tục với các dòng còn lại.
+ */
+public record StockReservationDTO(List<StockLine> reservedLines, List<StockLine> rejectedLines) {
+
+    public record StockLine(UUID productId, int quantity) {
+    }
+
+    public boolean isFullyReserved() {
+        return rejectedLines.isEmpty();
+    }
+}
@@ -0,0 +1,9 @@
+package project.gymecommerce.DTOs.Order;
+
+import java.util.UUID;
+
+/**
+ * Một sản phẩm trong wishlist kèm số lượng mong muốn (quantity < 1 được hiểu là 1 khi thêm).
+ */
+public record WishlistLineDTO(UUID productId, int quantity) {
+}
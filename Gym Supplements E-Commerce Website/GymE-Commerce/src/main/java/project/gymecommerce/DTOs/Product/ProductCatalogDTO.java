@@ -0,0 +1,49 @@
+package project.gymecommerce.DTOs.Product;
+
+import project.gymecommerce.Models.Product.Brand;
+import project.gymecommerce.Models.Product.Category;
+import project.gymecommerce.Models.Product.Product;
+import project.gymecommerce.Models.Product.ProductImage;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ảnh chụp (snapshot) bất biến của một sản phẩm dùng cho trang catalog.
+ * - Ý nghĩa: gồm thông tin product, ảnh mặc định, tên thương hiệu và danh mục; an toàn để giữ trong cache
+ *   vì không tham chiếu tới entity / persistence context nào.
+ * - Lưu ý: updatedAt là phiên bản của snapshot, dùng để loại bỏ dữ liệu cũ khi product được cập nhật.
+ */
+public record ProductCatalogDTO(UUID productId,
+                                String productName,
+                                String description,
+                                Integer quantity,
+                                BigDecimal price,
+                                Boolean isAvailable,
+                                String defaultImageUrl,
+                                List<String> brandNames,
+                                List<String> categoryNames,
+                                LocalDateTime updatedAt) {
+
+    // Tạo snapshot từ entity đã được fetch đầy đủ productImages, brands, categories
+    public static ProductCatalogDTO from(Product product) {
+        String defaultImageUrl = product.getProductImages().stream()
+                .filter(image -> Boolean.TRUE.equals(image.getIsDefault()))
+                .map(ProductImage::getImageUrl)
+                .findFirst()
+                .orElse(null);
+        return new ProductCatalogDTO(
+                product.getProductId(),
+                product.getProductName(),
+                product.getDescription(),
+                product.getQuantity(),
+                product.getPrice(),
+                product.getIsAvailable(),
+                defaultImageUrl,
+                product.getBrands().stream().map(Brand::getBrandName).toList(),
+                product.getCategories().stream().map(Category::getCategoryName).toList(),
+                product.getUpdatedAt());
+    }
+}
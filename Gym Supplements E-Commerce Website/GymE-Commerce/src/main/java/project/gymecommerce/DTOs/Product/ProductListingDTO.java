@@ -0,0 +1,22 @@
+package project.gymecommerce.DTOs.Product;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Một trang danh sách sản phẩm đã lọc kèm số lượng theo từng facet.
+ * - Ý nghĩa: brandCounts / categoryCounts / stockCounts / priceBucketCounts cho biết
+ *   có bao nhiêu sản phẩm nếu chọn thêm giá trị đó (tính với bộ lọc của các nhóm còn lại).
+ * - ratings: tổng hợp đánh giá (số sao trung bình, số review) của các sản phẩm trong trang.
+ */
+public record ProductListingDTO(List<ProductCatalogDTO> products,
+                                int totalCount,
+                                int page,
+                                int size,
+                                Map<String, Integer> brandCounts,
+                                Map<String, Integer> categoryCounts,
+                                Map<String, Integer> stockCounts,
+                                Map<String, Integer> priceBucketCounts,
+                                Map<UUID, ProductRatingDTO> ratings) {
+}
@@ -0,0 +1,47 @@
+package project.gymecommerce.DTOs.Product;
+
+import java.util.UUID;
+
+/**
+ * Tổng hợp đánh giá của một sản phẩm: số lượng, tổng điểm và số đánh giá theo từng mức sao.
+ * - Ý nghĩa: hiển thị điểm trung bình / số review / biểu đồ sao mà không phải nạp ProductReview.
+ * - Lưu ý: bất biến; mỗi thay đổi tạo bản ghi mới qua {@link #apply(Integer, Integer)}.
+ */
+public record ProductRatingDTO(UUID productId,
+                               int reviewCount,
+                               long ratingSum,
+                               int star1,
+                               int star2,
+                               int star3,
+                               int star4,
+                               int star5) {
+
+    public static ProductRatingDTO empty(UUID productId) {
+        return new ProductRatingDTO(productId, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    // Điểm trung bình, 0 nếu chưa có đánh giá
+    public double averageRating() {
+        return reviewCount == 0 ? 0 : (double) ratingSum / reviewCount;
+    }
+
+    // Áp dụng một thay đổi: bỏ previousRating (nếu có) và thêm newRating (nếu có)
+    public ProductRatingDTO apply(Integer previousRating, Integer newRating) {
+        int[] stars = {star1, star2, star3, star4, star5};
+        int count = reviewCount;
+        long sum = ratingSum;
+        if (previousRating != null) {
+            count--;
+            sum -= previousRating;
+            stars[previousRating - 1]--;
+        }
+        if (newRating != null) {
+            count++;
+            sum += newRating;
+            stars[newRating - 1]++;
+        }
+        return new ProductRatingDTO(productId, Math.max(count, 0), Math.max(sum, 0),
+                Math.max(stars[0], 0), Math.max(stars[1], 0), Math.max(stars[2], 0),
+                Math.max(stars[3], 0), Math.max(stars[4], 0));
+    }
+}
@@ -0,0 +1,16 @@
+package project.gymecommerce.DTOs.Product;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Một dòng trong danh sách đánh giá của sản phẩm.
+ * - Ý nghĩa: chỉ gồm các cột cần hiển thị và tên người đánh giá, lấy bằng constructor expression
+ *   nên không nạp entity ProductReview / UserAccount cho từng dòng.
+ */
+public record ProductReviewDTO(UUID productReviewId,
+                               Integer rating,
+                               String comment,
+                               LocalDateTime createdAt,
+                               String userName) {
+}
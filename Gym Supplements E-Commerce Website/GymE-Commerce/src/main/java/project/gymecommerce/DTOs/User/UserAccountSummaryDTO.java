@@ -0,0 +1,17 @@
+package project.gymecommerce.DTOs.User;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Bản rút gọn của UserAccount dùng cho danh sách / export.
+ * - Ý nghĩa: chỉ chứa các cột của bảng user_account, không kéo theo roles, orders, productReviews.
+ * - Lưu ý: được tạo trực tiếp bằng JPQL constructor expression nên không có entity nào được quản lý trong persistence context.
+ */
+public record UserAccountSummaryDTO(UUID userAccountId,
+                                    String userName,
+                                    String email,
+                                    String phoneNumber,
+                                    Boolean isActive,
+                                    LocalDateTime createdAt) {
+}
@@ -0,0 +1,8 @@
+package project.gymecommerce.DTOs.User;
+
+/**
+ * Các cột định danh duy nhất của user_account (email, user_name, phone_number).
+ * - Ý nghĩa: dùng để xác định trường nào bị trùng khi đăng ký mà không phải nạp cả entity UserAccount.
+ */
+public record UserIdentityDTO(String email, String userName, String phoneNumber) {
+}
@@ -0,0 +1,107 @@
+package project.gymecommerce.Events;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import project.gymecommerce.Pipeline.BatchingStage;
+import project.gymecommerce.Services.WishlistService;
+import project.gymecommerce.Wishlist.BackInStockDispatcher;
+import project.gymecommerce.Wishlist.BackInStockDispatcher.Notification;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscriber gửi thông báo "có hàng trở lại" cho người dùng có sản phẩm trong wishlist.
+ * - Luồng: ProductRestockedEvent (sau commit) chỉ đưa productId vào hàng đợi giới hạn của một {@link BatchingStage}
+ *   (không chờ khi đầy), nên transaction nhập hàng không bị chậm lại dù có bao nhiêu người theo dõi; worker
+ *   của stage lấy người nhận từ chỉ mục ngược của WishlistService và gửi qua {@link BackInStockDispatcher}
+ *   theo lô, tối đa app.wishlist.back-in-stock.rate-per-second thông báo mỗi giây.
+ * - Lưu ý: chưa cấu hình mail server; thông báo được ghi vào file app.wishlist.back-in-stock.file
+ *   (mỗi dòng: thời điểm, user_account_id, product_id) hoặc ghi log nếu không cấu hình file.
+ * - Metrics: wishlist.notifications.queue.size / .batch / .rejected / .failed với tag stage=back-in-stock.
+ */
+@Component
+public class BackInStockSubscriber implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BackInStockSubscriber.class);
+
+    private final BatchingStage<UUID> stage;
+    private final BackInStockDispatcher dispatcher;
+    private final Path file;
+
+    @Autowired
+    public BackInStockSubscriber(WishlistService wishlistService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.wishlist.back-in-stock.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${app.wishlist.back-in-stock.batch-size:500}") int batchSize,
+                                 @Value("${app.wishlist.back-in-stock.rate-per-second:200}") int ratePerSecond,
+                                 @Value("${app.wishlist.back-in-stock.file:}") String file) {
+        this.file = file.isBlank() ? null : Path.of(file);
+        this.dispatcher = new BackInStockDispatcher(wishlistService::findWatchers, this::send, batchSize, ratePerSecond,
+                System::nanoTime, TimeUnit.NANOSECONDS::sleep);
+        this.stage = new BatchingStage<>("back-in-stock", "wishlist.notifications", 1, queueCapacity, batchSize, Duration.ZERO,
+                this::dispatch, this::dropped, meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductRestocked(ProductRestockedEvent event) {
+        List<UUID> rejected = new ArrayList<>();
+        for (UUID productId : event.productIds()) {
+            if (!stage.offer(productId)) rejected.add(productId);
+        }
+        if (!rejected.isEmpty()) {
+            dropped(rejected);
+        }
+    }
+
+    @Override
+    public void close() {
+        stage.close();
+    }
+
+    private void dispatch(List<UUID> productIds) {
+        int sent = dispatcher.dispatch(productIds);
+        if (sent > 0) {
+            log.info("Đã gửi {} thông báo có hàng trở lại cho {} sản phẩm vào lúc: {}", sent, productIds.size(), LocalDateTime.now());
+        }
+    }
+
+    private void dropped(List<UUID> productIds) {
+        log.error("Bỏ qua thông báo có hàng trở lại cho {} sản phẩm: {}", productIds.size(), productIds);
+    }
+
+    // --- Sink: file cục bộ hoặc log ---
+    private void send(List<Notification> notifications) {
+        if (file == null) {
+            notifications.forEach(notification -> log.info("Email: sản phẩm {} đã có hàng trở lại, gửi cho người dùng {}",
+                    notification.productId(), notification.userAccountId()));
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<String> lines = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            lines.add(now + "\t" + notification.userAccountId() + "\t" + notification.productId());
+        }
+        try {
+            Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
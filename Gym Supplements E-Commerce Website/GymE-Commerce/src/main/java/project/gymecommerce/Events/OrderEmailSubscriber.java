@@ -0,0 +1,28 @@
+package project.gymecommerce.Events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Subscriber gửi email thông báo trạng thái đơn cho khách hàng.
+ * - Lưu ý: chưa cấu hình mail server, hiện chỉ ghi log nội dung thông báo.
+ */
+@Component
+public class OrderEmailSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEmailSubscriber.class);
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        switch (event.newStatus()) {
+            case CONFIRMED -> log.info("Email: đơn hàng {} đã được xác nhận", event.orderId());
+            case SHIPPING -> log.info("Email: đơn hàng {} đang được giao", event.orderId());
+            case COMPLETED -> log.info("Email: đơn hàng {} đã giao thành công", event.orderId());
+            case CANCELLED -> log.info("Email: đơn hàng {} đã bị huỷ", event.orderId());
+            default -> {
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package project.gymecommerce.Events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import project.gymecommerce.Models.Order.Order;
+
+/**
+ * Subscriber phía vận chuyển: bàn giao đơn đã xác nhận và thu hồi đơn bị huỷ.
+ * - Lưu ý: chưa tích hợp API của đơn vị vận chuyển, hiện chỉ ghi log; exception ném ra ở đây khiến
+ *   sự kiện được outbox gửi lại sau.
+ */
+@Component
+public class OrderShippingSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderShippingSubscriber.class);
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.newStatus() == Order.OrderStatus.CONFIRMED) {
+            log.info("Bàn giao đơn hàng {} cho đơn vị vận chuyển", event.orderId());
+        } else if (event.newStatus() == Order.OrderStatus.CANCELLED && event.previousStatus() != Order.OrderStatus.PENDING) {
+            log.info("Thu hồi yêu cầu vận chuyển của đơn hàng {}", event.orderId());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package project.gymecommerce.Events;
+
+import project.gymecommerce.Models.Order.Order;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Sự kiện chuyển trạng thái đơn hàng, được đọc từ bảng order_outbox và phát cho các subscriber trong ứng dụng.
+ * - Ý nghĩa: báo cho bộ phận vận chuyển / email khi đơn được xác nhận, huỷ, giao hàng...
+ * - Lưu ý: phát ngoài transaction, sau khi thay đổi trạng thái đã commit; gửi theo kiểu at-least-once nên
+ *   subscriber có thể nhận lại cùng một sự kiện (dùng outboxId để bỏ qua bản trùng nếu cần).
+ */
+public record OrderStatusChangedEvent(long outboxId,
+                                      UUID orderId,
+                                      Order.OrderStatus previousStatus,
+                                      Order.OrderStatus newStatus,
+                                      LocalDateTime occurredAt) {
+}
@@ -0,0 +1,44 @@
+package project.gymecommerce.Events;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import project.gymecommerce.Models.Product.Product;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity listener của Product: chuyển các lifecycle callback thành ProductChangedEvent.
+ * - Lưu ý: Spring Boot cấu hình SpringBeanContainer cho Hibernate nên listener này được inject như một bean.
+ */
+@Component
+public class ProductChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void afterInsert(Product product) {
+        publish(product, ProductChangedEvent.ChangeType.CREATED);
+    }
+
+    @PostUpdate
+    public void afterUpdate(Product product) {
+        publish(product, ProductChangedEvent.ChangeType.UPDATED);
+    }
+
+    @PostRemove
+    public void afterDelete(Product product) {
+        publish(product, ProductChangedEvent.ChangeType.DELETED);
+    }
+
+    private void publish(Product product, ProductChangedEvent.ChangeType changeType) {
+        LocalDateTime updatedAt = product.getUpdatedAt() == null ? LocalDateTime.now() : product.getUpdatedAt();
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getProductId(), updatedAt, changeType));
+    }
+}
@@ -0,0 +1,15 @@
+package project.gymecommerce.Events;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Sự kiện phát ra khi một Product được thêm / cập nhật / xóa.
+ * - Ý nghĩa: cho phép cache, chỉ mục tìm kiếm... cập nhật theo thay đổi của bảng product.
+ * - Lưu ý: được publish trong transaction; bên nhận nên dùng @TransactionalEventListener(AFTER_COMMIT)
+ *   để chỉ xử lý khi dữ liệu đã thực sự được commit.
+ */
+public record ProductChangedEvent(UUID productId, LocalDateTime updatedAt, ChangeType changeType) {
+
+    public enum ChangeType {CREATED, UPDATED, DELETED}
+}
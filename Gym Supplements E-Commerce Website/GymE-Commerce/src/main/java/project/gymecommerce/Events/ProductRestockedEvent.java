@@ -0,0 +1,13 @@
+package project.gymecommerce.Events;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sự kiện phát ra khi tồn kho của các sản phẩm tăng từ 0 lên số dương.
+ * - Ý nghĩa: kích hoạt thông báo "có hàng trở lại" cho người dùng có sản phẩm trong wishlist.
+ * - Lưu ý: được publish trong transaction cộng tồn kho; bên nhận dùng @TransactionalEventListener(AFTER_COMMIT).
+ */
+public record ProductRestockedEvent(List<UUID> productIds, LocalDateTime restockedAt) {
+}
@@ -0,0 +1,13 @@
+package project.gymecommerce.Events;
+
+import java.util.UUID;
+
+/**
+ * Sự kiện phát ra khi một ProductReview được thêm / sửa điểm / xóa, biểu diễn dưới dạng thay đổi điểm.
+ * - Thêm: previousRating = null, newRating = điểm mới.
+ * - Xóa: previousRating = điểm cũ, newRating = null.
+ * - Sửa: cả hai khác null (chỉ phát khi điểm thực sự thay đổi).
+ * - Lưu ý: được publish trong lúc Hibernate flush, tức là vẫn nằm trong transaction ghi review.
+ */
+public record ProductReviewChangedEvent(UUID productId, Integer previousRating, Integer newRating) {
+}
@@ -0,0 +1,60 @@
+package project.gymecommerce.Events;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import project.gymecommerce.Models.Product.ProductReview;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * JPA entity listener của ProductReview: chuyển các lifecycle callback thành ProductReviewChangedEvent.
+ * - Điểm đã lưu trong database được ghi nhớ trên entity (@PostLoad / sau mỗi lần ghi) để tính được thay đổi
+ *   khi sửa hoặc xóa review.
+ * - Lưu ý: bulk JPQL / SQL (DELETE FROM ProductReview ...) không đi qua listener này.
+ */
+@Component
+public class ProductReviewListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductReviewListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostLoad
+    public void afterLoad(ProductReview review) {
+        review.markRatingPersisted();
+    }
+
+    @PostPersist
+    public void afterInsert(ProductReview review) {
+        publish(review, null, review.getRating());
+        review.markRatingPersisted();
+    }
+
+    @PostUpdate
+    public void afterUpdate(ProductReview review) {
+        Integer previous = review.getPersistedRating();
+        if (!Objects.equals(previous, review.getRating())) {
+            publish(review, previous, review.getRating());
+        }
+        review.markRatingPersisted();
+    }
+
+    @PostRemove
+    public void afterDelete(ProductReview review) {
+        Integer previous = review.getPersistedRating() != null ? review.getPersistedRating() : review.getRating();
+        publish(review, previous, null);
+    }
+
+    private void publish(ProductReview review, Integer previousRating, Integer newRating) {
+        UUID productId = review.getProduct() == null ? null : review.getProduct().getProductId();
+        if (productId == null) return;
+        eventPublisher.publishEvent(new ProductReviewChangedEvent(productId, previousRating, newRating));
+    }
+}
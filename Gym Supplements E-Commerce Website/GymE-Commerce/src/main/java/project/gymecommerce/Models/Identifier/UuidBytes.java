@@ -0,0 +1,31 @@
+package project.gymecommerce.Models.Identifier;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Chuyển đổi UUID <-> byte[16] theo đúng định dạng Hibernate lưu vào cột BINARY(16) (big-endian, msb trước).
+ * - Ý nghĩa: dùng cho các truy vấn JDBC viết tay (JdbcTemplate) trên các cột khóa chính / khóa ngoại UUID.
+ */
+public final class UuidBytes {
+
+    private UuidBytes() {
+    }
+
+    public static byte[] toBytes(UUID uuid) {
+        if (uuid == null) return null;
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes == null) return null;
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("UUID phải có đúng 16 byte");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
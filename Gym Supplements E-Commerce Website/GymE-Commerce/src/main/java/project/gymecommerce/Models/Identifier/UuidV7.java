@@ -0,0 +1,22 @@
+package project.gymecommerce.Models.Identifier;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Đánh dấu khóa chính UUID được sinh bởi {@link UuidV7Generator}.
+ * - Ý nghĩa: thay cho @GeneratedValue(strategy = GenerationType.UUID) (UUID v4 ngẫu nhiên),
+ *   sinh UUID v7 tăng dần theo thời gian để insert vào cuối B-tree clustered index của InnoDB.
+ * - Lưu ý: cột vẫn là BINARY(16), nên các bản ghi UUID v4 cũ vẫn tồn tại song song không cần migrate.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface UuidV7 {
+}
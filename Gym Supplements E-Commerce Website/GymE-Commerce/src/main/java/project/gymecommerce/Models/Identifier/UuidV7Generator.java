@@ -0,0 +1,119 @@
+package project.gymecommerce.Models.Identifier;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bộ sinh khóa chính UUID v7 (RFC 9562) cho toàn bộ entity trong project.gymecommerce.Models.
+ *
+ * Cấu trúc 128 bit:
+ * - 48 bit unix timestamp (mili giây) -> khóa mới luôn nằm ở cuối index, tránh page split trên orders/order_item.
+ * - 4 bit version (0111) + 12 bit bộ đếm trong cùng mili giây -> đảm bảo tăng đơn điệu trong một JVM.
+ * - 2 bit variant (10) + 62 bit ngẫu nhiên -> không đoán được khóa giữa các instance.
+ *
+ * Chế độ migration (xem {@link Mode}):
+ * - V7: mặc định, sinh UUID v7.
+ * - V4: quay về UUID v4 ngẫu nhiên (giống GenerationType.UUID cũ) nếu cần rollback.
+ * Ở cả hai chế độ, id đã được gán sẵn (ví dụ khi import/backfill dữ liệu v4 cũ) được giữ nguyên.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    public enum Mode {V7, V4}
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // (timestamp << 12) | counter của UUID v7 được sinh gần nhất
+    private static final AtomicLong LAST_STAMP = new AtomicLong();
+
+    private static volatile Mode mode = Mode.V7;
+
+    public UuidV7Generator() {
+    }
+
+    // --- Cấu hình chế độ (IdGenerationConfiguration đặt từ app.id.uuid-mode trước khi EntityManagerFactory được tạo) ---
+    public static void setMode(Mode newMode) {
+        mode = newMode == null ? Mode.V7 : newMode;
+    }
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    // --- Hibernate Generator ---
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        if (currentValue != null) {
+            return currentValue;
+        }
+        return nextId();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    /**
+     * Cho phép giữ nguyên id được gán sẵn thay vì luôn sinh mới.
+     * - Ý nghĩa: hỗ trợ import dữ liệu cũ (UUID v4) song song với khóa v7 mới.
+     */
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+
+    // --- Sinh UUID v7 ---
+    /**
+     * Sinh khóa chính mới theo chế độ hiện tại (V7 hoặc V4).
+     * - Ý nghĩa: dùng cho các chỗ insert bằng JDBC (không đi qua Hibernate) để vẫn tuân theo app.id.uuid-mode.
+     */
+    public static UUID nextId() {
+        return mode == Mode.V4 ? UUID.randomUUID() : nextV7();
+    }
+
+    /**
+     * Sinh một UUID v7 mới, tăng dần đơn điệu trong JVM.
+     * - Hành vi: nếu nhiều id được sinh trong cùng mili giây, 12 bit rand_a dùng làm bộ đếm;
+     *   khi bộ đếm tràn, timestamp được đẩy lên 1ms để giữ thứ tự.
+     */
+    public static UUID nextV7() {
+        long now = System.currentTimeMillis() << 12;
+        long stamp;
+        while (true) {
+            long last = LAST_STAMP.get();
+            stamp = Math.max(now, last + 1);
+            if (LAST_STAMP.compareAndSet(last, stamp)) {
+                break;
+            }
+        }
+
+        long timestamp = stamp >>> 12;
+        long counter = stamp & 0xFFFL;
+        long msb = (timestamp << 16) | 0x7000L | counter;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Kiểm tra một UUID có phải dạng v7 (tăng theo thời gian) hay không.
+     * - Ý nghĩa: phân biệt bản ghi mới với bản ghi v4 cũ trong giai đoạn chuyển tiếp.
+     */
+    public static boolean isTimeOrdered(UUID uuid) {
+        return uuid != null && uuid.version() == 7;
+    }
+
+    /**
+     * Trích timestamp (epoch millis) từ UUID v7; trả về -1 nếu là UUID v4 cũ.
+     */
+    public static long extractEpochMillis(UUID uuid) {
+        if (!isTimeOrdered(uuid)) return -1L;
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -3,7 +3,9 @@ package project.gymecommerce.Models.Order;
 import jakarta.persistence.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import project.gymecommerce.Models.Identifier.UuidV7;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.LinkedHashSet;
 import java.util.Objects;
@@ -15,6 +17,8 @@ CREATE TABLE `discount` (
   `discount_id`   BINARY(16)   NOT NULL COMMENT 'Khóa chính của bảng khuyến mãi (UUID v4 lưu dạng BINARY(16))',
   `discount_code` VARCHAR(50)  NOT NULL COMMENT 'Mã giảm giá hiển thị cho người dùng',
   `discount_type` ENUM('PERCENT','FIXED_AMOUNT') NOT NULL COMMENT 'Loại giảm giá: PERCENT theo phần trăm, FIXED_AMOUNT theo số tiền cố định',
+  `discount_value` DECIMAL(15,2) NOT NULL DEFAULT 0.00 COMMENT 'Giá trị giảm: số phần trăm (PERCENT, 0-100) hoặc số tiền (FIXED_AMOUNT)',
+  `max_discount_amount` DECIMAL(15,2) NULL COMMENT 'Số tiền giảm tối đa của mã PERCENT (NULL nếu không giới hạn)',
   `description`   NVARCHAR(255) NULL COMMENT 'Mô tả ngắn về chương trình khuyến mãi',
   `start_at`      DATETIME     NOT NULL COMMENT 'Thời điểm bắt đầu áp dụng khuyến mãi',
   `end_at`        DATETIME     NOT NULL COMMENT 'Thời điểm kết thúc khuyến mãi',
@@ -44,10 +48,10 @@ public class Discount {
     /**
      * Khóa chính của thực thể Discount, lưu dưới dạng UUID (Binary(16) trong DB).
      * - Ý nghĩa: định danh duy nhất cho một chương trình khuyến mãi.
-     * - Lưu ý: sử dụng GenerationType.UUID để Hibernate tự sinh UUID (UUID v4) khi persist.
+     * - Lưu ý: sử dụng @UuidV7 để Hibernate tự sinh UUID khi persist.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "discount_id", nullable = false)
     @JdbcTypeCode(SqlTypes.BINARY)
     private UUID discountId;
@@ -70,6 +74,22 @@ public class Discount {
     @Column(name = "discount_type", nullable = false, length = 20)
     private DiscountType discountType;
 
+    /**
+     * Giá trị giảm của mã.
+     * - Ý nghĩa: với PERCENT là số phần trăm (ví dụ 10.00 = giảm 10%); với FIXED_AMOUNT là số tiền được trừ.
+     * - Lưu ý: các mã được cộng dồn trên originalPrice của đơn hàng (xem DiscountPricingEngine).
+     */
+    @Column(name = "discount_value", nullable = false, precision = 15, scale = 2)
+    private BigDecimal discountValue = BigDecimal.ZERO;
+
+    /**
+     * Số tiền giảm tối đa của mã PERCENT.
+     * - Ý nghĩa: chặn trên cho số tiền giảm theo phần trăm trên đơn hàng lớn.
+     * - Lưu ý: null nghĩa là không giới hạn; bỏ qua với FIXED_AMOUNT.
+     */
+    @Column(name = "max_discount_amount", nullable = true, precision = 15, scale = 2)
+    private BigDecimal maxDiscountAmount;
+
     /**
      * Mô tả ngắn về chương trình khuyến mãi.
      * - Ý nghĩa: thông tin hiển thị cho đội marketing hoặc admin (không ảnh hưởng logic áp dụng).
@@ -207,6 +227,22 @@ public class Discount {
         this.discountType = discountType;
     }
 
+    public BigDecimal getDiscountValue() {
+        return discountValue;
+    }
+
+    public void setDiscountValue(BigDecimal discountValue) {
+        this.discountValue = discountValue == null ? BigDecimal.ZERO : discountValue;
+    }
+
+    public BigDecimal getMaxDiscountAmount() {
+        return maxDiscountAmount;
+    }
+
+    public void setMaxDiscountAmount(BigDecimal maxDiscountAmount) {
+        this.maxDiscountAmount = maxDiscountAmount;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -0,0 +1,27 @@
+package project.gymecommerce.Models.Order;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import project.gymecommerce.Pricing.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * Chuyển đổi tiền dạng long (đơn vị nhỏ nhất, xem {@link Money}) <-> cột DECIMAL(15,2).
+ * - Ý nghĩa: entity Order / OrderItem giữ tiền dạng long trong bộ nhớ; BigDecimal chỉ được tạo khi
+ *   Hibernate ghi hoặc đọc dòng dữ liệu.
+ * - Lưu ý: không autoApply, chỉ dùng cho các thuộc tính được đánh dấu @Convert.
+ */
+@Converter
+public class MoneyConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long minor) {
+        return Money.toBigDecimal(minor == null ? Money.ZERO : minor);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        return Money.toMinor(amount);
+    }
+}
@@ -1,10 +1,14 @@
 package project.gymecommerce.Models.Order;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import project.gymecommerce.Models.Identifier.UuidV7;
 import project.gymecommerce.Models.User.UserAccount;
 import project.gymecommerce.Models.User.UserAddress;
+import project.gymecommerce.Pricing.Money;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -18,7 +22,7 @@ CREATE TABLE `order` (
   `order_id`         BINARY(16)   NOT NULL COMMENT 'Khóa chính của bảng đơn hàng (UUID v4 lưu dạng BINARY(16))',
   `user_account_id`  BINARY(16)   NOT NULL COMMENT 'Khách hàng đặt đơn hàng',
   `user_address_id`  BINARY(16)   NOT NULL COMMENT 'Địa chỉ giao hàng được chọn',
-  `shipping_unit_id` BINARY(16)   NOT NULL COMMENT 'Đơn vị vận chuyển xử lý đơn',
+  `shipping_unit_id` BINARY(16)       NULL COMMENT 'Đơn vị vận chuyển xử lý đơn (NULL: chưa gán, pipeline xử lý đơn sẽ gán)',
   `original_price`   DECIMAL(15,2) NOT NULL DEFAULT 0.00 COMMENT 'Tổng giá trị hàng hóa trước khi giảm giá',
   `discount_amount`  DECIMAL(15,2) NOT NULL DEFAULT 0.00 COMMENT 'Tổng số tiền giảm giá áp dụng cho đơn hàng',
   `final_price`      DECIMAL(15,2) NOT NULL DEFAULT 0.00 COMMENT 'Số tiền khách phải thanh toán sau giảm giá',
@@ -27,11 +31,16 @@ CREATE TABLE `order` (
   `payment_method`   ENUM('COD','BANK_TRANSFER','CREDIT_CARD','EWALLET','OTHER') NOT NULL DEFAULT 'COD'
                      COMMENT 'Phương thức thanh toán của đơn hàng',
   `created_at`       DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'Thời điểm tạo đơn hàng',
+  `idempotency_key`  VARCHAR(100)      NULL COMMENT 'Khóa idempotency do client gửi khi đặt hàng, chống tạo trùng đơn khi gửi lại',
+  `idempotency_request_hash` VARCHAR(64) NULL COMMENT 'SHA-256 (hex) nội dung request đặt hàng đi kèm idempotency_key; gửi lại cùng khóa với nội dung khác bị từ chối',
+  `stock_reserved_at` DATETIME         NULL COMMENT 'Thời điểm đã trừ tồn kho cho đơn (NULL: chưa giữ hàng)',
 
   PRIMARY KEY (`order_id`),
-  KEY `idx_order_user` (`user_account_id`),
+  UNIQUE KEY `uk_order_idempotency` (`user_account_id`, `idempotency_key`),
+  KEY `idx_order_user_created` (`user_account_id`, `created_at`),
   KEY `idx_order_address` (`user_address_id`),
   KEY `idx_order_shipping_unit` (`shipping_unit_id`),
+  KEY `idx_order_status_created` (`order_status`, `created_at`),
   CONSTRAINT `fk_order_user`
     FOREIGN KEY (`user_account_id`)
     REFERENCES `user_account`(`user_account_id`)
@@ -53,21 +62,72 @@ CREATE TABLE `order` (
   COMMENT = 'Lưu thông tin các đơn hàng được tạo trên hệ thống';
  */
 @Entity
-@Table(name = "orders")
+@DynamicUpdate
+@Table(name = "orders",
+        uniqueConstraints = @UniqueConstraint(name = "uk_order_idempotency", columnNames = {"user_account_id", "idempotency_key"}),
+        indexes = {
+                @Index(name = "idx_order_status_created", columnList = "order_status, created_at"),
+                @Index(name = "idx_order_user_created", columnList = "user_account_id, created_at")
+        })
+/*
+ * Các fetch profile của OrderRepository (entity graph nạp cùng đơn trong một câu SELECT):
+ * - summary: danh sách đơn (lịch sử đơn hàng) - chỉ kèm đơn vị vận chuyển, không nạp collection nên phân trang được trong SQL.
+ * - detail: chi tiết một đơn - địa chỉ, đơn vị vận chuyển, các dòng hàng kèm sản phẩm.
+ * - adminExport: xuất đơn cho quản trị - như detail, kèm tài khoản khách hàng.
+ * discounts không nằm trong graph nào (join cùng orderItems sẽ nhân số dòng), được nạp theo lô nhờ @BatchSize.
+ */
+@NamedEntityGraph(name = Order.SUMMARY_GRAPH,
+        attributeNodes = @NamedAttributeNode("shippingUnit"))
+@NamedEntityGraph(name = Order.DETAIL_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("userAddress"),
+                @NamedAttributeNode("shippingUnit"),
+                @NamedAttributeNode(value = "orderItems", subgraph = "items")
+        },
+        subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")))
+@NamedEntityGraph(name = Order.ADMIN_EXPORT_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("userAccount"),
+                @NamedAttributeNode("userAddress"),
+                @NamedAttributeNode("shippingUnit"),
+                @NamedAttributeNode(value = "orderItems", subgraph = "items")
+        },
+        subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")))
 public class Order {
 
+    public static final String SUMMARY_GRAPH = "Order.summary";
+    public static final String DETAIL_GRAPH = "Order.detail";
+    public static final String ADMIN_EXPORT_GRAPH = "Order.adminExport";
+
     // --- Enum lưu ra DB dưới dạng STRING để dễ đọc / tránh bị sai khi vị trí enum thay đổi ---
-    public enum OrderStatus {PENDING, CONFIRMED, SHIPPING, COMPLETED, CANCELLED, RETURNED}
+    public enum OrderStatus {
+        PENDING, CONFIRMED, SHIPPING, COMPLETED, CANCELLED, RETURNED;
+
+        /**
+         * Bảng chuyển trạng thái hợp lệ của đơn hàng.
+         * - PENDING -> CONFIRMED / CANCELLED; CONFIRMED -> SHIPPING / CANCELLED;
+         *   SHIPPING -> COMPLETED / RETURNED; COMPLETED -> RETURNED; CANCELLED và RETURNED là trạng thái cuối.
+         */
+        public boolean canTransitionTo(OrderStatus next) {
+            return switch (this) {
+                case PENDING -> next == CONFIRMED || next == CANCELLED;
+                case CONFIRMED -> next == SHIPPING || next == CANCELLED;
+                case SHIPPING -> next == COMPLETED || next == RETURNED;
+                case COMPLETED -> next == RETURNED;
+                case CANCELLED, RETURNED -> false;
+            };
+        }
+    }
     public enum PaymentMethod {COD, BANK_TRANSFER, CREDIT_CARD, EWALLET, OTHER}
 
     // --- Các thuộc tính chính ---
     /**
      * Khóa chính của đơn hàng, lưu dưới dạng UUID (Binary(16) trong DB).
      * - Ý nghĩa: định danh duy nhất cho một đơn hàng.
-     * - Lưu ý: sử dụng GenerationType.UUID để Hibernate tự sinh UUID (UUID v4) khi persist.
+     * - Lưu ý: sử dụng @UuidV7 để Hibernate tự sinh UUID khi persist.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "order_id", nullable = false)
     @JdbcTypeCode(SqlTypes.BINARY)
     private UUID orderId;
@@ -114,31 +174,35 @@ public class Order {
     private ShippingUnit shippingUnit;
 
     /**
-     * Tổng giá trị hàng hoá trước khi áp dụng các chương trình giảm giá.
-     * - Ý nghĩa: cơ sở để tính discountAmount và finalPrice.
-     * - Lưu ý: dùng BigDecimal với precision/scale phù hợp để đảm bảo chính xác về tài chính.
+     * Tổng giá trị hàng hoá trước khi áp dụng các chương trình giảm giá, theo đơn vị nhỏ nhất (xem {@link Money}).
+     * - Ý nghĩa: cơ sở để tính discountAmount và finalPrice; được cộng / trừ lineTotal khi thêm / bớt dòng hàng.
+     * - Lưu ý: giữ dạng long để tính toán chính xác mà không tạo BigDecimal; MoneyConverter đổi sang DECIMAL(15,2)
+     *   khi đọc / ghi DB.
      */
     @Column(name = "original_price", nullable = false, precision = 15, scale = 2)
+    @Convert(converter = MoneyConverter.class)
     @JdbcTypeCode(SqlTypes.DECIMAL)
-    private BigDecimal originalPrice = BigDecimal.ZERO;
+    private long originalPrice = Money.ZERO;
 
     /**
-     * Tổng tiền được giảm cho đơn (tổng của tất cả mã/chiết khấu áp dụng).
+     * Tổng tiền được giảm cho đơn (tổng của tất cả mã/chiết khấu áp dụng), theo đơn vị nhỏ nhất.
      * - Ý nghĩa: số tiền sẽ bị trừ khỏi originalPrice khi tính finalPrice.
      * - Lưu ý: luôn >= 0; kiểm tra ở tầng service/validate.
      */
     @Column(name = "discount_amount", nullable = false, precision = 15, scale = 2)
+    @Convert(converter = MoneyConverter.class)
     @JdbcTypeCode(SqlTypes.DECIMAL)
-    private BigDecimal discountAmount = BigDecimal.ZERO;
+    private long discountAmount = Money.ZERO;
 
     /**
-     * Số tiền khách hàng phải thanh toán sau khi trừ các khoản giảm giá.
+     * Số tiền khách hàng phải thanh toán sau khi trừ các khoản giảm giá, theo đơn vị nhỏ nhất.
      * - Ý nghĩa: finalPrice = max(0, originalPrice - discountAmount).
      * - Lưu ý: trường này thường do hệ thống tính toán, không nên cho phép set trực tiếp trừ khi có lý do cụ thể.
      */
     @Column(name = "final_price", nullable = false, precision = 15, scale = 2)
+    @Convert(converter = MoneyConverter.class)
     @JdbcTypeCode(SqlTypes.DECIMAL)
-    private BigDecimal finalPrice = BigDecimal.ZERO;
+    private long finalPrice = Money.ZERO;
 
     /**
      * Trạng thái hiện tại của đơn hàng.
@@ -166,11 +230,36 @@ public class Order {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    /**
+     * Khóa idempotency của request đặt hàng (có thể null).
+     * - Ý nghĩa: client gửi lại cùng khóa khi retry; unique (user_account_id, idempotency_key) đảm bảo
+     *   chỉ một đơn được tạo cho mỗi khóa của một khách hàng.
+     */
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 (hex) nội dung request đặt hàng gắn với idempotencyKey (null nếu đặt hàng không có khóa).
+     * - Ý nghĩa: request gửi lại cùng khóa chỉ nhận lại đơn cũ khi nội dung trùng khớp; khác nội dung thì bị từ chối.
+     */
+    @Column(name = "idempotency_request_hash", length = 64)
+    private String idempotencyRequestHash;
+
+    /**
+     * Thời điểm tồn kho của đơn đã được trừ (null nếu chưa giữ hàng).
+     * - Ý nghĩa: pipeline xử lý đơn chỉ trừ tồn kho khi cột này còn null (UPDATE có điều kiện), nên một đơn
+     *   được đưa lại vào pipeline (sau lỗi hoặc restart) không bị trừ kho hai lần.
+     */
+    @Column(name = "stock_reserved_at")
+    private LocalDateTime stockReservedAt;
+
     /**
      * Các mã giảm giá áp dụng cho đơn hàng.
      * - Ý nghĩa: biểu diễn quan hệ many-to-many giữa Order và Discount (bảng trung gian discount_order).
-     * - Lưu ý: fetch LAZY và cascade hạn chế để tránh tác động không mong muốn khi sửa discount.
+     * - Lưu ý: fetch LAZY và cascade hạn chế để tránh tác động không mong muốn khi sửa discount;
+     *   khi duyệt nhiều đơn, mã giảm giá của tối đa 50 đơn được nạp trong một query (@BatchSize).
      */
+    @BatchSize(size = 50)
     @ManyToMany(fetch = FetchType.LAZY,
             cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH})
     @JoinTable(name = "discount_order",
@@ -191,9 +280,9 @@ public class Order {
         this.userAccount = userAccount;
         this.userAddress = userAddress;
         this.shippingUnit = shippingUnit;
-        this.originalPrice = originalPrice == null ? BigDecimal.ZERO : originalPrice;
-        this.discountAmount = BigDecimal.ZERO;
-        this.finalPrice = this.originalPrice.subtract(this.discountAmount);
+        this.originalPrice = Money.toMinor(originalPrice);
+        this.discountAmount = Money.ZERO;
+        this.finalPrice = this.originalPrice;
         this.orderStatus = orderStatus == null ? OrderStatus.PENDING : orderStatus;
         this.paymentMethod = paymentMethod == null ? PaymentMethod.COD : paymentMethod;
     }
@@ -203,25 +292,24 @@ public class Order {
     protected void prePersist() {
         // Trước khi persist lần đầu:
         // - Đảm bảo createdAt có giá trị (nếu chưa set) = thời điểm hiện tại.
-        // - Đảm bảo các trường tiền tệ không null để tránh lỗi DB.
-        // - Tính finalPrice mặc định nếu chưa được set: originalPrice - discountAmount (>= 0).
+        // - Các trường tiền tệ là long (mặc định 0) nên không cần kiểm tra null.
         if (this.createdAt == null) {
             this.createdAt = LocalDateTime.now();
         }
-        if (this.originalPrice == null) this.originalPrice = BigDecimal.ZERO;
-        if (this.discountAmount == null) this.discountAmount = BigDecimal.ZERO;
-        if (this.finalPrice == null) this.finalPrice = this.originalPrice.subtract(this.discountAmount);
     }
 
     // --- Helper methods để duy trì quan hệ hai chiều ---
     /**
      * Thêm một OrderItem vào đơn.
      * - Hành vi: nếu item là null sẽ bỏ qua; thêm item vào collection và set quan hệ ngược item.order = this.
-     * - Tác động: gọi recalculateFinalPrice() để cập nhật lại finalPrice theo thay đổi.
+     * - Tác động: cộng lineTotal của item vào originalPrice rồi gọi recalculateFinalPrice(); cả hai là phép tính long
+     *   O(1), không duyệt lại các dòng hàng khác và không tạo BigDecimal.
      */
     public void addOrderItem(OrderItem item) {
         if (item == null) return;
-        orderItems.add(item);
+        if (orderItems.add(item)) {
+            this.originalPrice = Money.plus(this.originalPrice, item.getLineTotalMinor());
+        }
         item.setOrder(this);
         recalculateFinalPrice();
     }
@@ -229,15 +317,31 @@ public class Order {
     /**
      * Loại bỏ một OrderItem khỏi đơn.
      * - Hành vi: nếu item là null sẽ bỏ qua; xóa item khỏi collection và clear quan hệ ngược (item.order = null).
-     * - Tác động: cập nhật lại finalPrice sau khi xóa.
+     * - Tác động: trừ lineTotal của item khỏi originalPrice và cập nhật lại finalPrice sau khi xóa.
      */
     public void removeOrderItem(OrderItem item) {
         if (item == null) return;
-        orderItems.remove(item);
+        if (orderItems.remove(item)) {
+            this.originalPrice = Money.minusFloorZero(this.originalPrice, item.getLineTotalMinor());
+        }
         item.setOrder(null);
         recalculateFinalPrice();
     }
 
+    /**
+     * Tính lại originalPrice bằng tổng lineTotal của các dòng hàng.
+     * - Ý nghĩa: dùng sau khi sửa quantity / unitPrice của dòng hàng đã nằm trong đơn (addOrderItem / removeOrderItem
+     *   chỉ cộng / trừ phần thay đổi).
+     */
+    public void recalculateOriginalPrice() {
+        long total = Money.ZERO;
+        for (OrderItem item : orderItems) {
+            total = Money.plus(total, item.getLineTotalMinor());
+        }
+        this.originalPrice = total;
+        recalculateFinalPrice();
+    }
+
     /**
      * Áp một mã giảm giá (Discount) lên đơn.
      * - Hành vi: nếu discount null thì bỏ qua; thêm vào collection discounts và đồng bộ danh sách orders bên Discount.
@@ -269,12 +373,7 @@ public class Order {
      *   đã được tính ở tầng service/business trước khi gọi phương thức này.
      */
     public void recalculateFinalPrice() {
-        if (this.originalPrice == null) this.originalPrice = BigDecimal.ZERO;
-        if (this.discountAmount == null) this.discountAmount = BigDecimal.ZERO;
-        this.finalPrice = this.originalPrice.subtract(this.discountAmount);
-        if (this.finalPrice.compareTo(BigDecimal.ZERO) < 0) {
-            this.finalPrice = BigDecimal.ZERO;
-        }
+        this.finalPrice = Money.minusFloorZero(this.originalPrice, this.discountAmount);
     }
 
     // --- Getters & Setters ---
@@ -319,37 +418,66 @@ public class Order {
     }
 
     public BigDecimal getOriginalPrice() {
+        return Money.toBigDecimal(originalPrice);
+    }
+
+    // Các getter / setter *Minor làm việc trực tiếp với đơn vị nhỏ nhất, không đổi qua BigDecimal
+    public long getOriginalPriceMinor() {
         return originalPrice;
     }
 
     public void setOriginalPrice(BigDecimal originalPrice) {
-        this.originalPrice = originalPrice == null ? BigDecimal.ZERO : originalPrice;
+        setOriginalPriceMinor(Money.toMinor(originalPrice));
+    }
+
+    public void setOriginalPriceMinor(long originalPrice) {
+        this.originalPrice = originalPrice;
         recalculateFinalPrice();
     }
 
     public BigDecimal getDiscountAmount() {
+        return Money.toBigDecimal(discountAmount);
+    }
+
+    public long getDiscountAmountMinor() {
         return discountAmount;
     }
 
     public void setDiscountAmount(BigDecimal discountAmount) {
-        this.discountAmount = discountAmount == null ? BigDecimal.ZERO : discountAmount;
+        setDiscountAmountMinor(Money.toMinor(discountAmount));
+    }
+
+    public void setDiscountAmountMinor(long discountAmount) {
+        this.discountAmount = discountAmount;
         recalculateFinalPrice();
     }
 
     public BigDecimal getFinalPrice() {
+        return Money.toBigDecimal(finalPrice);
+    }
+
+    public long getFinalPriceMinor() {
         return finalPrice;
     }
 
     // finalPrice thường do hệ thống tính, không set trực tiếp trừ khi có lý do
     public void setFinalPrice(BigDecimal finalPrice) {
-        this.finalPrice = finalPrice;
+        this.finalPrice = Money.toMinor(finalPrice);
     }
 
     public OrderStatus getOrderStatus() {
         return orderStatus;
     }
 
+    /**
+     * Đổi trạng thái đơn trên entity, chỉ cho phép các bước có trong {@link OrderStatus#canTransitionTo}.
+     * - Lưu ý: khi nhiều người cùng sửa một đơn nên dùng OrderStatusService (UPDATE có điều kiện theo trạng thái cũ).
+     */
     public void setOrderStatus(OrderStatus orderStatus) {
+        if (this.orderStatus != null && orderStatus != this.orderStatus
+                && (orderStatus == null || !this.orderStatus.canTransitionTo(orderStatus))) {
+            throw new IllegalStateException("Invalid status transition " + this.orderStatus + " -> " + orderStatus);
+        }
         this.orderStatus = orderStatus;
     }
 
@@ -370,6 +498,30 @@ public class Order {
         this.createdAt = createdAt;
     }
 
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyRequestHash() {
+        return idempotencyRequestHash;
+    }
+
+    public void setIdempotencyRequestHash(String idempotencyRequestHash) {
+        this.idempotencyRequestHash = idempotencyRequestHash;
+    }
+
+    public LocalDateTime getStockReservedAt() {
+        return stockReservedAt;
+    }
+
+    public void setStockReservedAt(LocalDateTime stockReservedAt) {
+        this.stockReservedAt = stockReservedAt;
+    }
+
     public Set<Discount> getDiscounts() {
         return discounts;
     }
@@ -410,9 +562,9 @@ public class Order {
                 ", userAccountId=" + (userAccount == null ? null : userAccount.getUserAccountId()) +
                 ", userAddressId=" + (userAddress == null ? null : userAddress.getUserAddressId()) +
                 ", shippingUnitId=" + (shippingUnit == null ? null : shippingUnit.getShippingUnitId()) +
-                ", originalPrice=" + originalPrice +
-                ", discountAmount=" + discountAmount +
-                ", finalPrice=" + finalPrice +
+                ", originalPrice=" + getOriginalPrice() +
+                ", discountAmount=" + getDiscountAmount() +
+                ", finalPrice=" + getFinalPrice() +
                 ", orderStatus=" + orderStatus +
                 ", paymentMethod=" + paymentMethod +
                 ", createdAt=" + createdAt +
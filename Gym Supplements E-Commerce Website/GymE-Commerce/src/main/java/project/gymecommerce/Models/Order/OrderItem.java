@@ -3,7 +3,9 @@ package project.gymecommerce.Models.Order;
 import jakarta.persistence.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import project.gymecommerce.Models.Identifier.UuidV7;
 import project.gymecommerce.Models.Product.Product;
+import project.gymecommerce.Pricing.Money;
 
 import java.math.BigDecimal;
 import java.util.Objects;
@@ -47,7 +49,7 @@ public class OrderItem {
      * - Lưu ý: Hibernate sinh UUID tự động khi persist.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "order_item_id", nullable = false)
     @JdbcTypeCode(SqlTypes.BINARY)
     private UUID orderItemId;
@@ -83,22 +85,25 @@ public class OrderItem {
     private Integer quantity = 1;
 
     /**
-     * Đơn giá áp dụng tại thời điểm đặt hàng.
+     * Đơn giá áp dụng tại thời điểm đặt hàng, theo đơn vị nhỏ nhất (xem {@link Money}).
      * - Ý nghĩa: dùng để tính lineTotal và giữ lịch sử giá (không phụ thuộc giá hiện tại của product).
-     * - Lưu ý: sử dụng BigDecimal để đảm bảo chính xác cho tính toán tài chính.
+     * - Lưu ý: giữ dạng long để tính toán chính xác mà không tạo BigDecimal; MoneyConverter đổi sang DECIMAL(15,2)
+     *   khi đọc / ghi DB.
      */
     @Column(name = "unit_price", nullable = false, precision = 15, scale = 2)
+    @Convert(converter = MoneyConverter.class)
     @JdbcTypeCode(SqlTypes.DECIMAL)
-    private BigDecimal unitPrice = BigDecimal.ZERO;
+    private long unitPrice = Money.ZERO;
 
     /**
-     * Thành tiền của dòng hàng = unitPrice * quantity (sau khi áp dụng khuyến mãi nếu có).
+     * Thành tiền của dòng hàng = unitPrice * quantity (sau khi áp dụng khuyến mãi nếu có), theo đơn vị nhỏ nhất.
      * - Ý nghĩa: thể hiện giá trị dòng hàng đã được quy về tiền tệ.
      * - Lưu ý: luôn được tính lại trong preSave và khi thay đổi các trường liên quan.
      */
     @Column(name = "line_total", nullable = false, precision = 15, scale = 2)
+    @Convert(converter = MoneyConverter.class)
     @JdbcTypeCode(SqlTypes.DECIMAL)
-    private BigDecimal lineTotal = BigDecimal.ZERO;
+    private long lineTotal = Money.ZERO;
 
     // --- Constructors ---
     public OrderItem() {
@@ -113,9 +118,7 @@ public class OrderItem {
         this.product = product;
         this.order = order;
         this.quantity = (quantity == null || quantity < 1) ? 1 : quantity;
-        this.unitPrice = (product != null && product.getPrice() != null)
-                ? product.getPrice()
-                : BigDecimal.ZERO;
+        this.unitPrice = product != null ? Money.toMinor(product.getPrice()) : Money.ZERO;
         recalculateLineTotal();
     }
 
@@ -125,10 +128,8 @@ public class OrderItem {
     @PreUpdate
     protected void preSave() {
         // Trước khi lưu hoặc cập nhật:
-        // - Đảm bảo unitPrice không null.
         // - Đảm bảo quantity >= 1.
         // - Tính lại lineTotal để lưu vào DB luôn đúng.
-        if (this.unitPrice == null) this.unitPrice = BigDecimal.ZERO;
         if (this.quantity == null || this.quantity < 1) this.quantity = 1;
         recalculateLineTotal();
     }
@@ -136,14 +137,11 @@ public class OrderItem {
     // --- Business method để tính lại lineTotal ---
     /**
      * Tính lại lineTotal theo unitPrice và quantity.
-     * - Công thức: lineTotal = unitPrice * quantity.
+     * - Công thức: lineTotal = unitPrice * quantity (phép nhân long, không cấp phát).
      * - Lưu ý: bảo đảm không trả về giá trị âm; nếu âm sẽ đặt về 0.
      */
     public void recalculateLineTotal() {
-        this.lineTotal = this.unitPrice.multiply(BigDecimal.valueOf(this.quantity));
-        if (this.lineTotal.compareTo(BigDecimal.ZERO) < 0) {
-            this.lineTotal = BigDecimal.ZERO;
-        }
+        this.lineTotal = Math.max(Money.ZERO, Money.times(this.unitPrice, this.quantity));
     }
 
     // --- Getters & Setters ---
@@ -163,11 +161,19 @@ public class OrderItem {
         this.product = product;
         // cập nhật unitPrice nếu muốn lấy giá hiện tại của product
         if (product != null && product.getPrice() != null) {
-            this.unitPrice = product.getPrice();
+            this.unitPrice = Money.toMinor(product.getPrice());
             recalculateLineTotal();
         }
     }
 
+    /**
+     * Gán reference tới Product mà không cập nhật unitPrice (khác setProduct).
+     * - Ý nghĩa: dùng khi lưu đơn đã chốt giá, chỉ cần thay entity Product bằng reference của persistence context hiện tại.
+     */
+    public void attachProductReference(Product product) {
+        this.product = product;
+    }
+
     public Order getOrder() {
         return order;
     }
@@ -186,6 +192,11 @@ public class OrderItem {
     }
 
     public BigDecimal getUnitPrice() {
+        return Money.toBigDecimal(unitPrice);
+    }
+
+    // Đơn giá theo đơn vị nhỏ nhất, dùng cho các phép tính tổng tiền
+    public long getUnitPriceMinor() {
         return unitPrice;
     }
 
@@ -194,16 +205,24 @@ public class OrderItem {
      * - Lưu ý: setter gọi recalculateLineTotal() để cập nhật lineTotal tương ứng.
      */
     public void setUnitPrice(BigDecimal unitPrice) {
-        this.unitPrice = unitPrice == null ? BigDecimal.ZERO : unitPrice;
+        setUnitPriceMinor(Money.toMinor(unitPrice));
+    }
+
+    public void setUnitPriceMinor(long unitPrice) {
+        this.unitPrice = unitPrice;
         recalculateLineTotal();
     }
 
     public BigDecimal getLineTotal() {
+        return Money.toBigDecimal(lineTotal);
+    }
+
+    public long getLineTotalMinor() {
         return lineTotal;
     }
 
     public void setLineTotal(BigDecimal lineTotal) {
-        this.lineTotal = lineTotal == null ? BigDecimal.ZERO : lineTotal;
+        this.lineTotal = Money.toMinor(lineTotal);
     }
 
     // --- equals & hashCode (dựa vào orderItemId nếu đã persist) ---
@@ -228,8 +247,8 @@ public class OrderItem {
                 ", productId=" + (product == null ? null : product.getProductId()) +
                 ", orderId=" + (order == null ? null : order.getOrderId()) +
                 ", quantity=" + quantity +
-                ", unitPrice=" + unitPrice +
-                ", lineTotal=" + lineTotal +
+                ", unitPrice=" + getUnitPrice() +
+                ", lineTotal=" + getLineTotal() +
                 '}';
     }
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package project.gymecommerce.Models.Order;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import project.gymecommerce.Models.Identifier.UuidV7;
 
 import java.util.LinkedHashSet;
 import java.util.Objects;
@@ -24,15 +27,17 @@ CREATE TABLE `shipping_unit` (
 
 @Entity
 @Table(name = "shipping_unit")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference.shippingUnit")
 public class ShippingUnit {
 
     /**
      * Khóa chính của đơn vị vận chuyển, lưu dưới dạng UUID (Binary(16) trong DB).
      * - Ý nghĩa: định danh duy nhất cho một hãng/cơ sở vận chuyển trong hệ thống.
-     * - Lưu ý: Hibernate sẽ sinh UUID tự động khi persist nếu sử dụng GenerationType.UUID.
+     * - Lưu ý: Hibernate sẽ sinh UUID tự động khi persist bằng @UuidV7.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "shipping_unit_id", nullable = false)
     @JdbcTypeCode(SqlTypes.BINARY)
     private UUID shippingUnitId;
@@ -3,6 +3,7 @@ package project.gymecommerce.Models.Order;
 import jakarta.persistence.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import project.gymecommerce.Models.Identifier.UuidV7;
 import project.gymecommerce.Models.User.UserAccount;
 
 import java.util.Objects;
@@ -14,7 +15,7 @@ CREATE TABLE `wishlist` (
   `user_account_id` BINARY(16) NOT NULL COMMENT 'Người sở hữu danh sách yêu thích',
 
   PRIMARY KEY (`wishlist_id`),
-  KEY `idx_wishlist_user` (`user_account_id`),
+  UNIQUE KEY `uk_wishlist_user` (`user_account_id`),
   CONSTRAINT `fk_wishlist_user`
     FOREIGN KEY (`user_account_id`)
     REFERENCES `user_account`(`user_account_id`)
@@ -33,10 +34,10 @@ public class Wishlist {
     /**
      * Khóa chính wishlist_id, lưu dưới dạng UUID (Binary(16) trong DB).
      * - Ý nghĩa: định danh duy nhất cho danh sách yêu thích của một user.
-     * - Lưu ý: Hibernate sinh UUID tự động khi persist nếu dùng GenerationType.UUID.
+     * - Lưu ý: Hibernate sinh UUID tự động khi persist bằng @UuidV7.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "wishlist_id", nullable = false)
     @JdbcTypeCode(SqlTypes.BINARY)
     private UUID wishlistId;
@@ -3,6 +3,7 @@ package project.gymecommerce.Models.Order;
 import jakarta.persistence.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import project.gymecommerce.Models.Identifier.UuidV7;
 import project.gymecommerce.Models.Product.Product;
 
 import java.util.Objects;
@@ -16,7 +17,7 @@ CREATE TABLE `wishlist_item` (
   `quantity`         INT UNSIGNED NOT NULL DEFAULT 1 COMMENT 'Số lượng mong muốn cho sản phẩm trong wishlist',
 
   PRIMARY KEY (`wishlist_item_id`),
-  KEY `idx_wishlist_item_wishlist` (`wishlist_id`),
+  UNIQUE KEY `uk_wishlist_item_product` (`wishlist_id`, `product_id`),
   KEY `idx_wishlist_item_product` (`product_id`),
   CONSTRAINT `fk_wishlist_item_wishlist`
     FOREIGN KEY (`wishlist_id`)
@@ -35,16 +36,17 @@ CREATE TABLE `wishlist_item` (
  */
 
 @Entity
-@Table(name = "wishlist_item")
+@Table(name = "wishlist_item",
+        uniqueConstraints = @UniqueConstraint(name = "uk_wishlist_item_product", columnNames = {"wishlist_id", "product_id"}))
 public class WishlistItem {
 
     /**
      * Khóa chính của wishlist item, lưu dưới dạng UUID (Binary(16) trong DB).
      * - Ý nghĩa: định danh duy nhất cho một mục trong danh sách yêu thích.
-     * - Lưu ý: Hibernate sinh UUID tự động khi persist nếu dùng GenerationType.UUID.
+     * - Lưu ý: Hibernate sinh UUID tự động khi persist bằng @UuidV7.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "wishlist_item_id", nullable = false)
     @JdbcTypeCode(SqlTypes.BINARY)
     private UUID wishlistItemId;
@@ -1,8 +1,11 @@
 package project.gymecommerce.Models.Product;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import project.gymecommerce.Models.Identifier.UuidV7;
 
 import java.util.LinkedHashSet;
 import java.util.Objects;
@@ -29,15 +32,17 @@ CREATE TABLE `brand` (
                 @UniqueConstraint(name = "uk_brand_name", columnNames = {"brand_name"})
         }
 )
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference.brand")
 public class Brand {
 
     /**
-     * Khóa chính brand_id lưu dạng BINARY(16) (UUID v4).
+     * Khóa chính brand_id lưu dạng BINARY(16) (UUID v7, vẫn đọc được khóa v4 cũ).
      * - Ý nghĩa: định danh duy nhất cho một thương hiệu trong hệ thống.
-     * - Lưu ý: Hibernate sẽ sinh UUID tự động khi persist nếu dùng GenerationType.UUID.
+     * - Lưu ý: Hibernate sẽ sinh UUID tự động khi persist bằng @UuidV7.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "brand_id", nullable = false)
     @JdbcTypeCode(SqlTypes.BINARY)
     private UUID brandId;
@@ -55,8 +60,9 @@ public class Brand {
      * Tập các sản phẩm thuộc thương hiệu này.
      * - Ý nghĩa: quan hệ nhiều-nhiều giữa Brand và Product thông qua bảng trung gian product_brand.
      * - Lưu ý: Fetch LAZY để tránh tải collection không cần thiết; cascade hạn chế để tránh tác động không mong muốn
-     *   khi sửa Brand.
+     *   khi sửa Brand. Danh sách id sản phẩm được giữ trong second-level cache (region reference.brand.products).
      */
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference.brand.products")
     @ManyToMany(fetch = FetchType.LAZY,
             cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH})
     @JoinTable(name = "product_brand",
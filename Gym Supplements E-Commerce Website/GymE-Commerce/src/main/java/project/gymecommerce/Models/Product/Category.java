@@ -1,8 +1,11 @@
 package project.gymecommerce.Models.Product;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import project.gymecommerce.Models.Identifier.UuidV7;
 
 import java.util.LinkedHashSet;
 import java.util.Objects;
@@ -29,15 +32,17 @@ CREATE TABLE `category` (
                 @UniqueConstraint(name = "uk_category_name", columnNames = {"category_name"})
         }
 )
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference.category")
 public class Category {
 
     /**
      * Khóa chính category_id, lưu dưới dạng UUID (Binary(16) trong DB).
      * - Ý nghĩa: định danh duy nhất cho một danh mục sản phẩm.
-     * - Lưu ý: Hibernate sinh UUID tự động khi persist nếu dùng GenerationType.UUID.
+     * - Lưu ý: Hibernate sinh UUID tự động khi persist bằng @UuidV7.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "category_id", nullable = false)
     @JdbcTypeCode(SqlTypes.BINARY)
     private UUID categoryId;
@@ -55,7 +60,9 @@ public class Category {
      * Tập các sản phẩm thuộc danh mục này.
      * - Ý nghĩa: quan hệ nhiều-nhiều giữa Category và Product thông qua bảng trung gian product_category.
      * - Lưu ý: Fetch LAZY để tránh tải collection không cần thiết; cascade hạn chế để tránh tác động không mong muốn khi sửa Category.
+     *   Danh sách id sản phẩm được giữ trong second-level cache (region reference.category.products).
      */
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference.category.products")
     @ManyToMany(fetch = FetchType.LAZY,
             cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH})
     @JoinTable(name = "product_category",
@@ -3,6 +3,8 @@ package project.gymecommerce.Models.Product;
 import jakarta.persistence.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import project.gymecommerce.Events.ProductChangeListener;
+import project.gymecommerce.Models.Identifier.UuidV7;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -19,6 +21,8 @@ CREATE TABLE `product` (
   `quantity`     INT UNSIGNED NOT NULL DEFAULT 0 COMMENT 'Số lượng tồn kho hiện tại',
   `price`        DECIMAL(15,2) NOT NULL DEFAULT 0.00 COMMENT 'Giá niêm yết của sản phẩm',
   `is_available` TINYINT(1)   NOT NULL DEFAULT 1 COMMENT 'Trạng thái hiển thị sản phẩm (1: đang bán, 0: ẩn)',
+  `created_at`   DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'Thời điểm tạo sản phẩm',
+  `updated_at`   DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'Thời điểm cập nhật sản phẩm gần nhất (tồn kho, giá, thông tin)',
 
   PRIMARY KEY (`product_id`)
 ) ENGINE=InnoDB
@@ -29,15 +33,16 @@ CREATE TABLE `product` (
 
 @Entity
 @Table(name = "product")
+@EntityListeners(ProductChangeListener.class)
 public class Product {
 
     /**
      * Khóa chính product_id, lưu dưới dạng UUID (Binary(16) trong DB).
      * - Ý nghĩa: định danh duy nhất cho một sản phẩm.
-     * - Lưu ý: Hibernate sinh UUID tự động khi persist nếu dùng GenerationType.UUID.
+     * - Lưu ý: Hibernate sinh UUID tự động khi persist bằng @UuidV7.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "product_id", nullable = false)
     @JdbcTypeCode(SqlTypes.BINARY)
     private UUID productId;
@@ -3,6 +3,7 @@ package project.gymecommerce.Models.Product;
 import jakarta.persistence.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import project.gymecommerce.Models.Identifier.UuidV7;
 
 import java.util.UUID;
 
@@ -33,10 +34,10 @@ public class ProductImage {
     /**
      * Khóa chính của bảng product_image, lưu dưới dạng UUID (Binary(16) trong DB).
      * - Ý nghĩa: định danh duy nhất cho một ảnh sản phẩm.
-     * - Lưu ý: Hibernate sẽ sinh UUID tự động khi persist nếu dùng GenerationType.UUID.
+     * - Lưu ý: Hibernate sẽ sinh UUID tự động khi persist bằng @UuidV7.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "product_image_id", nullable = false)
     @JdbcTypeCode(SqlTypes.BINARY)
     private UUID productImageId;
@@ -6,6 +6,8 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import project.gymecommerce.Events.ProductReviewListener;
+import project.gymecommerce.Models.Identifier.UuidV7;
 import project.gymecommerce.Models.User.UserAccount;
 
 import java.time.LocalDateTime;
@@ -22,7 +24,7 @@ CREATE TABLE `product_review` (
   `created_at`        DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'Thời điểm người dùng gửi đánh giá',
 
   PRIMARY KEY (`product_review_id`),
-  KEY `idx_product_review_product` (`product_id`),
+  KEY `idx_product_review_product` (`product_id`, `created_at`, `product_review_id`),
   KEY `idx_product_review_user` (`user_account_id`),
   CONSTRAINT `fk_product_review_product`
     FOREIGN KEY (`product_id`)
@@ -40,16 +42,18 @@ CREATE TABLE `product_review` (
   COMMENT = 'Lưu đánh giá và nhận xét của người dùng cho từng sản phẩm';
  */
 @Entity
-@Table(name = "product_review")
+@Table(name = "product_review",
+        indexes = @Index(name = "idx_product_review_product", columnList = "product_id, created_at, product_review_id"))
+@EntityListeners(ProductReviewListener.class)
 public class ProductReview {
 
     /**
      * Khóa chính product_review_id, lưu dưới dạng UUID (Binary(16) trong DB).
      * - Ý nghĩa: định danh duy nhất cho một đánh giá sản phẩm.
-     * - Lưu ý: Hibernate sinh UUID tự động khi persist nếu dùng GenerationType.UUID.
+     * - Lưu ý: Hibernate sinh UUID tự động khi persist bằng @UuidV7.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "product_review_id", nullable = false)
     @JdbcTypeCode(SqlTypes.BINARY)
     private UUID productReviewId;
@@ -105,6 +109,14 @@ public class ProductReview {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    /**
+     * Điểm đánh giá đang lưu trong database (không map vào cột nào).
+     * - Ý nghĩa: ProductReviewListener dùng để tính thay đổi điểm khi review bị sửa / xóa,
+     *   cập nhật bảng tổng hợp product_rating_summary.
+     */
+    @Transient
+    private Integer persistedRating;
+
     // --- Constructors ---
     public ProductReview() { }
 
@@ -181,6 +193,14 @@ public class ProductReview {
         this.createdAt = createdAt;
     }
 
+    public Integer getPersistedRating() {
+        return persistedRating;
+    }
+
+    public void markRatingPersisted() {
+        this.persistedRating = this.rating;
+    }
+
     // --- equals & hashCode ---
     /**
      * equals/hashCode dựa trên productReviewId nếu đã persist; nếu null thì fallback identity.
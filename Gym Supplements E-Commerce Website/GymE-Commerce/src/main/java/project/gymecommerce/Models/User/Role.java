@@ -1,8 +1,11 @@
 package project.gymecommerce.Models.User;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import project.gymecommerce.Models.Identifier.UuidV7;
 
 import java.util.LinkedHashSet;
 import java.util.Objects;
@@ -29,15 +32,17 @@ CREATE TABLE `role` (
                 @UniqueConstraint(name = "uk_role_name", columnNames = {"role_name"})
         }
 )
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference.role")
 public class Role {
 
     /**
-     * Khóa chính role_id lưu dưới dạng BINARY(16) (UUID v4).
+     * Khóa chính role_id lưu dưới dạng BINARY(16) (UUID v7, vẫn đọc được khóa v4 cũ).
      * - Ý nghĩa: định danh duy nhất cho một vai trò trong hệ thống.
-     * - Lưu ý: Hibernate có thể tự sinh UUID khi persist nếu dùng GenerationType.UUID.
+     * - Lưu ý: Hibernate có thể tự sinh UUID khi persist bằng @UuidV7.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "role_id", nullable = false)
     @JdbcTypeCode(SqlTypes.BINARY)
     private UUID roleId;
@@ -1,8 +1,11 @@
 package project.gymecommerce.Models.User;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import project.gymecommerce.Models.Identifier.UuidV7;
 import project.gymecommerce.Models.Order.Order;
 import project.gymecommerce.Models.Product.ProductReview;
 
@@ -24,6 +27,7 @@ CREATE TABLE `user_account` (
   `is_active`       TINYINT(1)   NOT NULL DEFAULT 1 COMMENT 'Trạng thái hoạt động của tài khoản (1: hoạt động, 0: khóa)',
 
   PRIMARY KEY (`user_account_id`),
+  UNIQUE KEY `uk_user_name` (`user_name`),
   UNIQUE KEY `uk_user_email` (`email`),
   UNIQUE KEY `uk_user_phone` (`phone_number`)
 ) ENGINE=InnoDB
@@ -35,6 +39,7 @@ CREATE TABLE `user_account` (
 @Table(
         name = "user_account",
         uniqueConstraints = {
+                @UniqueConstraint(name = "uk_user_name", columnNames = {"user_name"}),
                 @UniqueConstraint(name = "uk_user_email", columnNames = {"email"}),
                 @UniqueConstraint(name = "uk_user_phone", columnNames = {"phone_number"})
         }
@@ -42,19 +47,19 @@ CREATE TABLE `user_account` (
 public class UserAccount {
 
     /**
-     * Khóa chính user_account_id lưu dạng BINARY(16) (UUID v4).
-     * Hibernate sẽ tự sinh UUID khi insert (GenerationType.UUID).
+     * Khóa chính user_account_id lưu dạng BINARY(16) (UUID v7, vẫn đọc được khóa v4 cũ).
+     * Hibernate sẽ tự sinh UUID khi insert (@UuidV7).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "user_account_id", nullable = false)
     @JdbcTypeCode(SqlTypes.BINARY)
     private UUID userAccountId;
 
     /**
-     * Tên hiển thị của người dùng.
+     * Tên hiển thị của người dùng. Là duy nhất (uk_user_name).
      */
-    @Column(name = "user_name", nullable = false, length = 100, unique = true)
+    @Column(name = "user_name", nullable = false, length = 100)
     private String userName;
 
     /**
@@ -105,7 +110,10 @@ public class UserAccount {
     /**
      * Quan hệ nhiều-nhiều giữa user_account và role (bảng trung gian: user_account_role).
      * Không cascade REMOVE để tránh vô tình xóa role khi xóa user.
+     * Danh sách role_id của từng tài khoản được giữ trong second-level cache (region reference.userAccount.roles),
+     * Role tương ứng lấy từ region reference.role.
      */
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference.userAccount.roles")
     @ManyToMany(fetch = FetchType.LAZY,
             cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH})
     @JoinTable(name = "user_account_role",
@@ -3,6 +3,7 @@ package project.gymecommerce.Models.User;
 import jakarta.persistence.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import project.gymecommerce.Models.Identifier.UuidV7;
 import project.gymecommerce.Models.Order.Order;
 
 import java.time.LocalDateTime;
@@ -45,10 +46,10 @@ public class UserAddress {
     /**
      * Khóa chính user_address_id, lưu dưới dạng UUID (Binary(16) trong DB).
      * - Ý nghĩa: định danh duy nhất cho một địa chỉ người dùng.
-     * - Lưu ý: Hibernate sinh UUID tự động khi persist nếu dùng GenerationType.UUID.
+     * - Lưu ý: Hibernate sinh UUID tự động khi persist bằng @UuidV7.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "user_address_id", nullable = false)
     @JdbcTypeCode(SqlTypes.BINARY)
     private UUID userAddressId;
@@ -0,0 +1,102 @@
+package project.gymecommerce.Monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Theo dõi virtual thread bị "pin" vào carrier thread bằng JFR event jdk.VirtualThreadPinned.
+ * - Ý nghĩa: khi virtual thread block trong khi đang pin (synchronized trên JDK cũ, native frame, class init...),
+ *   nó giữ luôn carrier thread; nếu điều này xảy ra trên đường đi của JDBC thì số request đồng thời
+ *   thực tế lại bị giới hạn bởi số core giống như thread pool thông thường.
+ * - Phân loại: mỗi event được gắn tag source = driver (com.mysql / com.zaxxer.hikari / org.hibernate),
+ *   app (project.gymecommerce) hoặc other, đếm ở metric jvm.threads.virtual.pinned và log stack trace rút gọn.
+ * - Lưu ý: chỉ ghi nhận các lần pin lâu hơn threshold để không tạo nhiễu.
+ */
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+    private static final List<String> DRIVER_PACKAGES = List.of("com.mysql.", "com.zaxxer.hikari.", "org.hibernate.");
+    private static final String APP_PACKAGE = "project.gymecommerce.";
+
+    private final RecordingStream stream;
+    private final Counter driverPinned;
+    private final Counter appPinned;
+    private final Counter otherPinned;
+
+    public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        this.driverPinned = pinnedCounter(meterRegistry, "driver");
+        this.appPinned = pinnedCounter(meterRegistry, "app");
+        this.otherPinned = pinnedCounter(meterRegistry, "other");
+
+        this.stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Đang theo dõi virtual thread bị pin (ngưỡng {} ms)", threshold.toMillis());
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+
+        String source = classify(frames);
+        switch (source) {
+            case "driver" -> driverPinned.increment();
+            case "app" -> appPinned.increment();
+            default -> otherPinned.increment();
+        }
+
+        // Bỏ qua frame không có thông tin method (giống classify)
+        StringBuilder trace = new StringBuilder();
+        int logged = 0;
+        for (RecordedFrame frame : frames) {
+            if (logged == LOGGED_FRAMES) break;
+            if (frame.getMethod() == null) continue;
+            logged++;
+            trace.append("\n\tat ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+        }
+        log.warn("Virtual thread bị pin {} ms (nguồn: {}){}", event.getDuration().toMillis(), source, trace);
+    }
+
+    // Frame đầu tiên thuộc driver / ứng dụng quyết định nguồn gây pin
+    private static String classify(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            if (frame.getMethod() == null) continue;
+            String className = frame.getMethod().getType().getName();
+            for (String driverPackage : DRIVER_PACKAGES) {
+                if (className.startsWith(driverPackage)) return "driver";
+            }
+            if (className.startsWith(APP_PACKAGE)) return "app";
+        }
+        return "other";
+    }
+
+    private static Counter pinnedCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("jvm.threads.virtual.pinned")
+                .description("Số lần virtual thread bị pin vào carrier thread lâu hơn ngưỡng")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,157 @@
+package project.gymecommerce.Pipeline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Một bước xử lý của pipeline: hàng đợi giới hạn + một nhóm thread riêng, xử lý phần tử theo lô.
+ * - Backpressure: offer() chờ tối đa offerTimeout khi hàng đợi đầy rồi trả về false, nên bước phía trước
+ *   (hoặc request HTTP) chậm lại theo tốc độ của bước này thay vì dồn phần tử vô hạn trong bộ nhớ.
+ * - Lô: mỗi worker lấy một phần tử (chờ nếu hàng đợi rỗng) rồi drainTo thêm tối đa batchSize - 1 phần tử,
+ *   nên khi tải cao một transaction xử lý nhiều đơn, khi tải thấp từng đơn được xử lý ngay.
+ * - Lỗi: handler ném exception thì cả lô được chuyển cho onFailure; worker tiếp tục với lô tiếp theo.
+ * - Metrics (tên bắt đầu bằng metricPrefix do nơi tạo stage truyền vào, tag stage=name): {prefix}.queue.size,
+ *   {prefix}.batch (Timer), {prefix}.rejected (offer hết thời gian chờ), {prefix}.failed (số phần tử trong lô lỗi).
+ *   Ví dụ pipeline đơn hàng dùng order.pipeline: order.pipeline.queue.size{stage=confirm}.
+ */
+public class BatchingStage<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchingStage.class);
+
+    private static final long POLL_MILLIS = 200;
+
+    private final String name;
+    private final int batchSize;
+    private final Duration offerTimeout;
+    private final BlockingQueue<T> queue;
+    private final Consumer<List<T>> handler;
+    private final Consumer<List<T>> onFailure;
+    private final ExecutorService workers;
+    private final Timer batchTimer;
+    private final Counter rejected;
+    private final Counter failed;
+    private volatile boolean running = true;
+
+    public BatchingStage(String name,
+                         String metricPrefix,
+                         int threads,
+                         int queueCapacity,
+                         int batchSize,
+                         Duration offerTimeout,
+                         Consumer<List<T>> handler,
+                         Consumer<List<T>> onFailure,
+                         MeterRegistry meterRegistry) {
+        this.name = name;
+        this.batchSize = Math.max(1, batchSize);
+        this.offerTimeout = offerTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.handler = handler;
+        this.onFailure = onFailure;
+        this.batchTimer = Timer.builder(metricPrefix + ".batch").tag("stage", name).register(meterRegistry);
+        this.rejected = Counter.builder(metricPrefix + ".rejected").tag("stage", name).register(meterRegistry);
+        this.failed = Counter.builder(metricPrefix + ".failed").tag("stage", name).register(meterRegistry);
+        Gauge.builder(metricPrefix + ".queue.size", queue, BlockingQueue::size).tag("stage", name).register(meterRegistry);
+
+        int workerCount = Math.max(1, threads);
+        this.workers = Executors.newFixedThreadPool(workerCount, namedThreadFactory(metricPrefix + "-" + name));
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::runWorker);
+        }
+    }
+
+    /**
+     * Đưa một phần tử vào hàng đợi của bước này.
+     * - Hành vi: chờ tối đa offerTimeout nếu hàng đợi đầy; trả về false nếu vẫn đầy hoặc stage đã đóng.
+     */
+    public boolean offer(T item) {
+        if (!running) {
+            return false;
+        }
+        try {
+            if (queue.offer(item, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Stage {} dừng khi còn {} phần tử trong hàng đợi", name, queue.size());
+        }
+    }
+
+    // --- Vòng lặp của worker ---
+    private void runWorker() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running) {
+            T first;
+            try {
+                first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) continue;
+
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            List<T> current = List.copyOf(batch);
+            batch.clear();
+            try {
+                batchTimer.record(() -> handler.accept(current));
+            } catch (RuntimeException e) {
+                failed.increment(current.size());
+                log.error("Stage {} lỗi khi xử lý lô {} phần tử", name, current.size(), e);
+                onFailure.accept(current);
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
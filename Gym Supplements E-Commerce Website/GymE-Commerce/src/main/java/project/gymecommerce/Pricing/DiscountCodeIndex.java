@@ -0,0 +1,237 @@
+package project.gymecommerce.Pricing;
+
+import project.gymecommerce.Models.Order.Discount;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Index mã giảm giá trong bộ nhớ, khóa theo discount_code (đã chuẩn hóa: bỏ khoảng trắng, viết hoa).
+ * - Kiểm tra mã: chỉ đọc map và so sánh thời gian (startAt <= now < endAt), không truy vấn DB.
+ * - Số lượt dùng (mã có quantity): mỗi instance giữ một phần hạn mức (allotment) đã lấy trước từ cột
+ *   discount.quantity; mỗi lượt dùng là một CAS giảm bộ đếm cục bộ. Khi hết phần hạn mức, {@link Allotter}
+ *   lấy thêm một khối từ DB bằng UPDATE có điều kiện. Tổng số lượt dùng trên mọi instance vì vậy không bao giờ
+ *   vượt quá quantity ban đầu (phần hạn mức chưa dùng được trả lại khi mã hết hiệu lực hoặc app dừng).
+ * - Mã không giới hạn (quantity = NULL) chỉ đếm số lượt dùng bằng LongAdder.
+ */
+public class DiscountCodeIndex {
+
+    public enum Status {VALID, NOT_FOUND, DISABLED, NOT_STARTED, EXPIRED, EXHAUSTED}
+
+    // Dữ liệu của một dòng discount tại thời điểm nạp; quantity = số lượt còn lại trong DB (null: không giới hạn)
+    public record Snapshot(UUID discountId,
+                           String discountCode,
+                           Discount.DiscountType discountType,
+                           LocalDateTime startAt,
+                           LocalDateTime endAt,
+                           boolean available,
+                           Long quantity,
+                           BigDecimal discountValue,
+                           BigDecimal maxDiscountAmount) {
+    }
+
+    // Lấy tối đa wanted lượt từ DB cho instance này; trả về số lượt thực sự lấy được (0 nếu đã hết)
+    @FunctionalInterface
+    public interface Allotter {
+        long claim(UUID discountId, long wanted);
+    }
+
+    private static final class Entry {
+        private volatile Snapshot snapshot;
+        // Số lượt còn lại trong DB theo lần nạp / lấy hạn mức gần nhất
+        private volatile long databaseRemaining;
+        private final AtomicLong allotment = new AtomicLong();
+        private final LongAdder redeemed = new LongAdder();
+        private final ReentrantLock claimLock = new ReentrantLock();
+
+        private Entry(Snapshot snapshot) {
+            this.snapshot = snapshot;
+            this.databaseRemaining = snapshot.quantity() == null ? 0 : snapshot.quantity();
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long blockSize;
+
+    public DiscountCodeIndex(long blockSize) {
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    public static String normalize(String code) {
+        return code == null ? "" : code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Nạp lại toàn bộ mã từ DB, giữ nguyên bộ đếm của các mã đã có.
+     * - Mã được tạo lại với discountId khác: entry cũ bị thay bằng entry mới, hạn mức cũ trả về theo discountId cũ.
+     * - Trả về: phần hạn mức chưa dùng của các mã không còn dùng được (bị xóa, tắt, hết hạn, tạo lại) theo discountId,
+     *   bên gọi cần cộng lại vào discount.quantity.
+     */
+    public Map<UUID, Long> refresh(Collection<Snapshot> snapshots, LocalDateTime now) {
+        Map<UUID, Long> surplus = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (Snapshot snapshot : snapshots) {
+            String code = normalize(snapshot.discountCode());
+            seen.add(code);
+            Entry entry = entries.get(code);
+            if (entry == null || !entry.snapshot.discountId().equals(snapshot.discountId())) {
+                // Thay trong map trước rồi mới lấy hạn mức của entry cũ, giống như khi gỡ mã bên dưới
+                Entry replaced = entries.put(code, new Entry(snapshot));
+                if (replaced != null) takeSurplus(replaced, surplus);
+                entry = entries.get(code);
+            }
+            entry.snapshot = snapshot;
+            entry.databaseRemaining = snapshot.quantity() == null ? 0 : snapshot.quantity();
+            Status status = timeStatus(snapshot, now);
+            if (status != Status.VALID) {
+                takeSurplus(entry, surplus);
+            }
+        }
+        // Gỡ khỏi map trước rồi mới lấy hạn mức, để release() chạy song song luôn thấy được mã đã bị gỡ
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Entry> mapping = it.next();
+            if (seen.contains(mapping.getKey())) continue;
+            it.remove();
+            takeSurplus(mapping.getValue(), surplus);
+        }
+        return surplus;
+    }
+
+    // Kiểm tra mã cho giỏ hàng, không tiêu lượt dùng
+    public Status check(String code, LocalDateTime now) {
+        Entry entry = entries.get(normalize(code));
+        if (entry == null) return Status.NOT_FOUND;
+        Snapshot snapshot = entry.snapshot;
+        Status status = timeStatus(snapshot, now);
+        if (status != Status.VALID || snapshot.quantity() == null) return status;
+        return entry.allotment.get() > 0 || entry.databaseRemaining > 0 ? Status.VALID : Status.EXHAUSTED;
+    }
+
+    public Optional<Snapshot> find(String code) {
+        Entry entry = entries.get(normalize(code));
+        return entry == null ? Optional.empty() : Optional.of(entry.snapshot);
+    }
+
+    /**
+     * Tiêu một lượt dùng của mã.
+     * - Hành vi: CAS trên phần hạn mức cục bộ; khi hết thì một thread (khóa theo mã) lấy thêm blockSize lượt
+     *   qua allotter, các thread khác chờ rồi thử lại. Trả về EXHAUSTED khi DB cũng đã hết lượt.
+     */
+    public Status redeem(String code, LocalDateTime now, Allotter allotter) {
+        Entry entry = entries.get(normalize(code));
+        if (entry == null) return Status.NOT_FOUND;
+        Snapshot snapshot = entry.snapshot;
+        Status status = timeStatus(snapshot, now);
+        if (status != Status.VALID) return status;
+
+        if (snapshot.quantity() == null) {
+            entry.redeemed.increment();
+            return Status.VALID;
+        }
+        if (tryTake(entry)) {
+            entry.redeemed.increment();
+            return Status.VALID;
+        }
+
+        entry.claimLock.lock();
+        try {
+            // Thread khác có thể vừa lấy thêm hạn mức
+            if (tryTake(entry)) {
+                entry.redeemed.increment();
+                return Status.VALID;
+            }
+            long claimed = allotter.claim(snapshot.discountId(), blockSize);
+            if (claimed <= 0) {
+                entry.databaseRemaining = 0;
+                return Status.EXHAUSTED;
+            }
+            entry.databaseRemaining = Math.max(0, entry.databaseRemaining - claimed);
+            // Dùng luôn một lượt trong khối vừa lấy
+            entry.allotment.addAndGet(claimed - 1);
+            entry.redeemed.increment();
+            return Status.VALID;
+        } finally {
+            entry.claimLock.unlock();
+        }
+    }
+
+    /**
+     * Trả lại một lượt đã tiêu (ví dụ transaction đặt hàng bị rollback).
+     * - Hành vi: nếu mã vẫn còn trong index thì lượt được cộng lại vào hạn mức cục bộ.
+     * - Trả về: lượt cần cộng lại vào discount.quantity theo discountId khi mã đã bị refresh() gỡ
+     *   (hoặc được nạp lại với discountId khác) trong lúc đặt hàng; bên gọi trả về DB như surplus của refresh().
+     */
+    public Map<UUID, Long> release(String code, UUID discountId) {
+        String key = normalize(code);
+        Entry entry = entries.get(key);
+        if (entry == null || !entry.snapshot.discountId().equals(discountId)) {
+            return Map.of(discountId, 1L);
+        }
+        entry.redeemed.decrement();
+        if (entry.snapshot.quantity() == null) return Map.of();
+        entry.allotment.incrementAndGet();
+        // refresh() có thể vừa gỡ mã sau khi ta đọc entry: phần chưa được refresh() lấy thì trả về DB ở đây
+        Map<UUID, Long> surplus = new HashMap<>();
+        if (entries.get(key) != entry) {
+            takeSurplus(entry, surplus);
+        }
+        return surplus;
+    }
+
+    public long redeemedCount(String code) {
+        Entry entry = entries.get(normalize(code));
+        return entry == null ? 0 : entry.redeemed.sum();
+    }
+
+    public long allotment(String code) {
+        Entry entry = entries.get(normalize(code));
+        return entry == null ? 0 : entry.allotment.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Lấy ra toàn bộ hạn mức chưa dùng (khi app dừng) để trả lại DB
+    public Map<UUID, Long> drainAllotments() {
+        Map<UUID, Long> surplus = new HashMap<>();
+        entries.values().forEach(entry -> takeSurplus(entry, surplus));
+        return surplus;
+    }
+
+    // --- Helpers ---
+    private static boolean tryTake(Entry entry) {
+        while (true) {
+            long current = entry.allotment.get();
+            if (current <= 0) return false;
+            if (entry.allotment.compareAndSet(current, current - 1)) return true;
+        }
+    }
+
+    private static void takeSurplus(Entry entry, Map<UUID, Long> surplus) {
+        long unused = entry.allotment.getAndSet(0);
+        if (unused > 0) {
+            surplus.merge(entry.snapshot.discountId(), unused, Long::sum);
+        }
+    }
+
+    private static Status timeStatus(Snapshot snapshot, LocalDateTime now) {
+        if (!snapshot.available()) return Status.DISABLED;
+        if (snapshot.startAt() != null && now.isBefore(snapshot.startAt())) return Status.NOT_STARTED;
+        if (snapshot.endAt() != null && !now.isBefore(snapshot.endAt())) return Status.EXPIRED;
+        return Status.VALID;
+    }
+}
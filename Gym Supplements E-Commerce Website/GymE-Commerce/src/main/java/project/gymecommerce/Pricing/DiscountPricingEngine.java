@@ -0,0 +1,84 @@
+package project.gymecommerce.Pricing;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tính tiền giảm của đơn hàng khi áp nhiều mã PERCENT / FIXED_AMOUNT cùng lúc.
+ * - Biên dịch: {@link #compile} đổi các snapshot bảng discount thành {@link DiscountRule} (long, basis point) một lần
+ *   mỗi chu kỳ nạp lại, rồi thay cả map bằng một lần ghi volatile; luồng tính tiền không bao giờ thấy map dở dang.
+ * - Cộng dồn: mỗi mã được tính trên cùng tổng tiền hàng (phần trăm không nhân dồn lên nhau), mã PERCENT bị chặn bởi
+ *   max_discount_amount của nó; tổng tiền giảm không vượt quá tổng tiền hàng. Vì là phép cộng nên kết quả không
+ *   phụ thuộc thứ tự áp mã.
+ * - Hiệu năng: đường tính tiền không cấp phát đối tượng; tiền là long theo đơn vị nhỏ nhất ({@link Money}).
+ */
+public class DiscountPricingEngine {
+
+    private volatile Map<UUID, DiscountRule> rules = Map.of();
+
+    // Thay toàn bộ luật bằng dữ liệu vừa nạp; mã bị xoá khỏi DB sẽ không còn được tính
+    public void compile(Collection<DiscountCodeIndex.Snapshot> snapshots) {
+        Map<UUID, DiscountRule> compiled = HashMap.newHashMap(snapshots.size());
+        for (DiscountCodeIndex.Snapshot snapshot : snapshots) {
+            compiled.put(snapshot.discountId(), compile(snapshot));
+        }
+        rules = compiled;
+    }
+
+    public static DiscountRule compile(DiscountCodeIndex.Snapshot snapshot) {
+        // Money.toMinor của một phần trăm scale 2 chính là basis point (10.00 -> 1000)
+        long value = Money.toMinor(snapshot.discountValue());
+        long cap = snapshot.maxDiscountAmount() == null ? Long.MAX_VALUE : Money.toMinor(snapshot.maxDiscountAmount());
+        return new DiscountRule(snapshot.discountId(), snapshot.discountType(), value, cap,
+                snapshot.startAt(), snapshot.endAt(), snapshot.available());
+    }
+
+    public DiscountRule rule(UUID discountId) {
+        return rules.get(discountId);
+    }
+
+    // true nếu mọi mã trong discountIds đã có luật (mã vừa được tạo có thể chưa được nạp)
+    public boolean covers(Collection<UUID> discountIds) {
+        Map<UUID, DiscountRule> current = rules;
+        for (UUID discountId : discountIds) {
+            if (!current.containsKey(discountId)) return false;
+        }
+        return true;
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * Tổng tiền giảm (đơn vị nhỏ nhất) cho tổng tiền hàng subtotalMinor với các mã discountIds tại thời điểm now.
+     * - Hành vi: bỏ qua mã không có luật, đã tắt hoặc ngoài thời gian áp dụng.
+     */
+    public long discountMinor(long subtotalMinor, Collection<UUID> discountIds, LocalDateTime now) {
+        if (subtotalMinor <= 0 || discountIds.isEmpty()) return 0;
+        Map<UUID, DiscountRule> current = rules;
+        long total = 0;
+        for (UUID discountId : discountIds) {
+            DiscountRule rule = current.get(discountId);
+            if (rule == null || !rule.appliesAt(now)) continue;
+            total += Math.min(subtotalMinor - total, rule.amountFor(subtotalMinor));
+            if (total == subtotalMinor) break;
+        }
+        return total;
+    }
+
+    // Như trên nhưng với các luật đã được tra sẵn (dùng lại cho nhiều lần tính trên cùng một giỏ hàng)
+    public static long discountMinor(long subtotalMinor, DiscountRule[] applied, LocalDateTime now) {
+        if (subtotalMinor <= 0) return 0;
+        long total = 0;
+        for (DiscountRule rule : applied) {
+            if (rule == null || !rule.appliesAt(now)) continue;
+            total += Math.min(subtotalMinor - total, rule.amountFor(subtotalMinor));
+            if (total == subtotalMinor) break;
+        }
+        return total;
+    }
+}
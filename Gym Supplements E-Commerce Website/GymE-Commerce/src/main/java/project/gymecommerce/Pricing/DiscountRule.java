@@ -0,0 +1,86 @@
+package project.gymecommerce.Pricing;
+
+import project.gymecommerce.Models.Order.Discount;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Luật giảm giá đã được biên dịch từ một dòng discount.
+ * - Ý nghĩa: mọi giá trị tiền được đổi sẵn sang số nguyên đơn vị nhỏ nhất (1/100, khớp DECIMAL(15,2)) và phần trăm
+ *   sang basis point (1/10000), nên việc tính tiền giảm chỉ gồm phép nhân / chia long, không tạo BigDecimal.
+ * - Làm tròn: tiền giảm theo phần trăm được làm tròn HALF_UP tới đơn vị nhỏ nhất.
+ * - Tràn số: subtotal được chia cho 10000 trước khi nhân với basis point, nên không tràn long với mọi subtotal.
+ */
+public final class DiscountRule {
+
+    static final long BASIS_POINTS = 10_000L;
+    private static final long HALF_BASIS_POINTS = BASIS_POINTS / 2;
+
+    private final UUID discountId;
+    private final Discount.DiscountType discountType;
+    // PERCENT: basis point (10.00% -> 1000); FIXED_AMOUNT: số tiền theo đơn vị nhỏ nhất
+    private final long value;
+    // Tiền giảm tối đa (đơn vị nhỏ nhất) của mã PERCENT; Long.MAX_VALUE nếu không giới hạn
+    private final long capMinor;
+    private final LocalDateTime startAt;
+    private final LocalDateTime endAt;
+    private final boolean available;
+
+    DiscountRule(UUID discountId,
+                 Discount.DiscountType discountType,
+                 long value,
+                 long capMinor,
+                 LocalDateTime startAt,
+                 LocalDateTime endAt,
+                 boolean available) {
+        this.discountId = discountId;
+        this.discountType = discountType;
+        this.value = discountType == Discount.DiscountType.PERCENT
+                ? Math.clamp(value, 0L, BASIS_POINTS)
+                : Math.max(0L, value);
+        this.capMinor = capMinor < 0 ? 0 : capMinor;
+        this.startAt = startAt;
+        this.endAt = endAt;
+        this.available = available;
+    }
+
+    // Mã đang bật và now nằm trong [startAt, endAt)
+    public boolean appliesAt(LocalDateTime now) {
+        return available
+                && (startAt == null || !now.isBefore(startAt))
+                && (endAt == null || now.isBefore(endAt));
+    }
+
+    /**
+     * Số tiền giảm của riêng luật này trên tổng tiền hàng subtotalMinor (chưa chặn bởi subtotal).
+     * - PERCENT: round(subtotal * bp / 10000), không vượt quá capMinor.
+     * - FIXED_AMOUNT: giá trị cố định.
+     */
+    public long amountFor(long subtotalMinor) {
+        if (discountType != Discount.DiscountType.PERCENT) {
+            return value;
+        }
+        // subtotal = q * 10000 + r: q * bp <= subtotal và r * bp < 10^8, không tràn như subtotal * bp
+        long q = subtotalMinor / BASIS_POINTS;
+        long r = subtotalMinor % BASIS_POINTS;
+        long amount = q * value + (r * value + HALF_BASIS_POINTS) / BASIS_POINTS;
+        return Math.min(amount, capMinor);
+    }
+
+    public UUID getDiscountId() {
+        return discountId;
+    }
+
+    public Discount.DiscountType getDiscountType() {
+        return discountType;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public long getCapMinor() {
+        return capMinor;
+    }
+}
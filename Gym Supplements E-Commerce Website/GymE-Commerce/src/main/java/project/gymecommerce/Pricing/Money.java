@@ -0,0 +1,64 @@
+package project.gymecommerce.Pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Tiền tệ dạng long theo đơn vị nhỏ nhất (1/100), khớp chính xác với cột DECIMAL(15,2).
+ * - Ý nghĩa: 125000.50 đồng được lưu là 12500050L. Cộng / trừ / nhân với số lượng trên long là phép tính chính xác
+ *   (không có sai số như double) và không cấp phát đối tượng như BigDecimal, nên các phép tính tổng tiền
+ *   trên giỏ hàng / đơn hàng không tạo rác.
+ * - BigDecimal chỉ dùng ở biên: đọc / ghi cột DECIMAL (MoneyConverter), DTO trả về client, giá sản phẩm.
+ * - Tràn số: mọi phép tính dùng Math.*Exact và ném ArithmeticException("Amount out of range") thay vì trả kết quả sai
+ *   (giới hạn long lớn hơn nhiều so với DECIMAL(15,2) nên chỉ xảy ra với dữ liệu sai, ví dụ số lượng quá lớn);
+ *   controller trả 400 với lỗi này.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+    public static final long ZERO = 0L;
+    private static final String OUT_OF_RANGE = "Amount out of range";
+
+    private Money() {
+    }
+
+    // BigDecimal -> đơn vị nhỏ nhất, làm tròn HALF_UP nếu có nhiều hơn 2 chữ số thập phân; null -> 0
+    public static long toMinor(BigDecimal amount) {
+        if (amount == null) return ZERO;
+        try {
+            return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException(OUT_OF_RANGE);
+        }
+    }
+
+    // Đơn vị nhỏ nhất -> BigDecimal scale 2 (cùng scale với giá trị Hibernate đọc từ cột DECIMAL(15,2))
+    public static BigDecimal toBigDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public static long times(long unitMinor, int quantity) {
+        try {
+            return Math.multiplyExact(unitMinor, (long) quantity);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException(OUT_OF_RANGE);
+        }
+    }
+
+    public static long plus(long a, long b) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException(OUT_OF_RANGE);
+        }
+    }
+
+    // a - b, không nhỏ hơn 0 (tổng tiền sau giảm giá không âm)
+    public static long minusFloorZero(long a, long b) {
+        try {
+            return Math.max(ZERO, Math.subtractExact(a, b));
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException(OUT_OF_RANGE);
+        }
+    }
+}
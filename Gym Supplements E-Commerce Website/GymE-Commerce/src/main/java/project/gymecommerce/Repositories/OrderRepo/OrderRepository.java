@@ -1,11 +1,132 @@
 package project.gymecommerce.Repositories.OrderRepo;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import project.gymecommerce.DTOs.Order.OrderHistoryDTO;
 import project.gymecommerce.Models.Order.Order;
+import project.gymecommerce.Models.Order.ShippingUnit;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface OrderRepository extends JpaRepository <Order, UUID>{
+
+    // Đơn đã tạo với khóa idempotency của khách hàng (dùng khi client gửi lại request đặt hàng)
+    @EntityGraph(attributePaths = {"orderItems"})
+    Optional<Order> findByUserAccount_UserAccountIdAndIdempotencyKey(UUID userAccountId, String idempotencyKey);
+
+    // Nạp một lô đơn cùng các dòng hàng và sản phẩm trong một query (pipeline xử lý đơn)
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    List<Order> findWithItemsByOrderIdIn(Collection<UUID> orderIds);
+
+    // --- Fetch profile (entity graph khai báo trên Order) ---
+    // summary: trang lịch sử đơn của khách hàng, mới nhất trước; một query, phân trang trong SQL
+    @EntityGraph(Order.SUMMARY_GRAPH)
+    List<Order> findSummaryByUserAccount_UserAccountIdOrderByCreatedAtDesc(UUID userAccountId, Limit limit);
+
+    // detail: chi tiết một đơn của khách hàng (địa chỉ, vận chuyển, dòng hàng + sản phẩm); mã giảm giá nạp thêm một query
+    @EntityGraph(Order.DETAIL_GRAPH)
+    Optional<Order> findDetailByOrderIdAndUserAccount_UserAccountId(UUID orderId, UUID userAccountId);
+
+    // admin-export: bước 1 lấy id theo keyset (order_id v7 tăng theo thời gian), không nạp collection khi có LIMIT
+    @Query("SELECT o.orderId FROM Order o ORDER BY o.orderId")
+    List<UUID> findExportIds(Limit limit);
+
+    @Query("SELECT o.orderId FROM Order o WHERE o.orderId > :after ORDER BY o.orderId")
+    List<UUID> findExportIdsAfter(@Param("after") UUID after, Limit limit);
+
+    // admin-export: bước 2 nạp cả lô đơn kèm khách hàng, địa chỉ, vận chuyển, dòng hàng + sản phẩm trong một query
+    @EntityGraph(Order.ADMIN_EXPORT_GRAPH)
+    List<Order> findAdminExportByOrderIdInOrderByOrderId(Collection<UUID> orderIds);
+
+    // --- Lịch sử đơn hàng (projection, không nạp entity) ---
+    // Trang đầu tiên: đơn mới nhất trước, range scan trên idx_order_user_created; số dòng hàng và ảnh đại diện
+    // lấy bằng subquery tương quan trên order_item / product_image cho từng đơn của trang
+    @Query("SELECT new project.gymecommerce.DTOs.Order.OrderHistoryDTO(" +
+            "o.orderId, o.createdAt, o.orderStatus, o.finalPrice, " +
+            "(SELECT COUNT(i) FROM OrderItem i WHERE i.order = o), " +
+            "(SELECT pi.imageUrl FROM OrderItem fi JOIN ProductImage pi ON pi.product = fi.product " +
+            "WHERE fi.order = o AND pi.isDefault = true ORDER BY fi.orderItemId LIMIT 1)) " +
+            "FROM Order o WHERE o.userAccount.userAccountId = :userAccountId " +
+            "ORDER BY o.createdAt DESC, o.orderId DESC")
+    List<OrderHistoryDTO> findHistoryPage(@Param("userAccountId") UUID userAccountId, Limit limit);
+
+    // Các trang tiếp theo: chỉ đọc các đơn đứng sau cursor (createdAt, orderId), không dùng OFFSET
+    @Query("SELECT new project.gymecommerce.DTOs.Order.OrderHistoryDTO(" +
+            "o.orderId, o.createdAt, o.orderStatus, o.finalPrice, " +
+            "(SELECT COUNT(i) FROM OrderItem i WHERE i.order = o), " +
+            "(SELECT pi.imageUrl FROM OrderItem fi JOIN ProductImage pi ON pi.product = fi.product " +
+            "WHERE fi.order = o AND pi.isDefault = true ORDER BY fi.orderItemId LIMIT 1)) " +
+            "FROM Order o WHERE o.userAccount.userAccountId = :userAccountId " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.orderId < :orderId)) " +
+            "ORDER BY o.createdAt DESC, o.orderId DESC")
+    List<OrderHistoryDTO> findHistoryPageAfter(@Param("userAccountId") UUID userAccountId,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("orderId") UUID orderId,
+                                               Limit limit);
+
+    // Nạp một lô đơn cùng các mã giảm giá đã áp dụng
+    @EntityGraph(attributePaths = {"discounts"})
+    List<Order> findWithDiscountsByOrderIdIn(Collection<UUID> orderIds);
+
+    // Id các đơn ở trạng thái status được tạo trước thời điểm before (cũ nhất trước)
+    @Query("SELECT o.orderId FROM Order o WHERE o.orderStatus = :status AND o.createdAt < :before ORDER BY o.createdAt")
+    List<UUID> findIdsByStatusCreatedBefore(@Param("status") Order.OrderStatus status,
+                                            @Param("before") LocalDateTime before,
+                                            Limit limit);
+
+    // Trạng thái hiện tại của một đơn thuộc khách hàng (rỗng nếu đơn không tồn tại hoặc không phải của khách hàng này)
+    @Query("SELECT o.orderStatus FROM Order o WHERE o.orderId = :orderId AND o.userAccount.userAccountId = :userAccountId")
+    Optional<Order.OrderStatus> findStatusByOrderIdAndUserAccountId(@Param("orderId") UUID orderId,
+                                                                    @Param("userAccountId") UUID userAccountId);
+
+    // Id các đơn đã trừ tồn kho trong lô
+    @Query("SELECT o.orderId FROM Order o WHERE o.orderId IN :orderIds AND o.stockReservedAt IS NOT NULL")
+    List<UUID> findIdsWithStockReserved(@Param("orderIds") Collection<UUID> orderIds);
+
+    // Id các đơn trong lô còn ở trạng thái status
+    @Query("SELECT o.orderId FROM Order o WHERE o.orderId IN :orderIds AND o.orderStatus = :status")
+    List<UUID> findIdsByOrderIdInAndStatus(@Param("orderIds") Collection<UUID> orderIds,
+                                           @Param("status") Order.OrderStatus status);
+
+    // Id các đơn trong lô chưa được gán đơn vị vận chuyển
+    @Query("SELECT o.orderId FROM Order o WHERE o.orderId IN :orderIds AND o.shippingUnit IS NULL")
+    List<UUID> findIdsWithoutShippingUnit(@Param("orderIds") Collection<UUID> orderIds);
+
+    // Khóa (SELECT ... FOR UPDATE) các đơn trong lô còn ở trạng thái status, trước khi chuyển trạng thái và ghi outbox
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Order> findForUpdateByOrderIdInAndOrderStatus(Collection<UUID> orderIds, Order.OrderStatus orderStatus);
+
+    // Chuyển trạng thái có điều kiện: chỉ các đơn còn ở trạng thái from mới bị cập nhật
+    @Modifying
+    @Query("UPDATE Order o SET o.orderStatus = :to WHERE o.orderId IN :orderIds AND o.orderStatus = :from")
+    int transitionStatus(@Param("orderIds") Collection<UUID> orderIds,
+                         @Param("from") Order.OrderStatus from,
+                         @Param("to") Order.OrderStatus to);
+
+    // Đánh dấu đã trừ tồn kho; trả về 0 nếu đơn đã được đánh dấu trước đó
+    @Modifying
+    @Query("UPDATE Order o SET o.stockReservedAt = :reservedAt WHERE o.orderId = :orderId AND o.stockReservedAt IS NULL")
+    int markStockReserved(@Param("orderId") UUID orderId, @Param("reservedAt") LocalDateTime reservedAt);
+
+    // Bỏ đánh dấu sau khi đã hoàn lại tồn kho cho các đơn
+    @Modifying
+    @Query("UPDATE Order o SET o.stockReservedAt = NULL WHERE o.orderId IN :orderIds")
+    int releaseStockReservations(@Param("orderIds") Collection<UUID> orderIds);
+
+    // Gán đơn vị vận chuyển cho các đơn chưa có
+    @Modifying
+    @Query("UPDATE Order o SET o.shippingUnit = :shippingUnit WHERE o.orderId IN :orderIds AND o.shippingUnit IS NULL")
+    int assignShippingUnit(@Param("orderIds") Collection<UUID> orderIds, @Param("shippingUnit") ShippingUnit shippingUnit);
 }
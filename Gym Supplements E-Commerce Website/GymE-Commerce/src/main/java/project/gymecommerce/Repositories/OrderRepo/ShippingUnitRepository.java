@@ -1,9 +1,19 @@
 package project.gymecommerce.Repositories.OrderRepo;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import project.gymecommerce.Models.Order.ShippingUnit;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface ShippingUnitRepository extends JpaRepository <ShippingUnit, UUID>{
+
+    // Chỉ lấy khóa chính của các đơn vị vận chuyển (dùng khi phân đơn); kết quả nằm trong query cache tới khi bảng shipping_unit thay đổi
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT s.shippingUnitId FROM ShippingUnit s ORDER BY s.shippingUnitId")
+    List<UUID> findAllShippingUnitIds();
 }
@@ -1,11 +1,20 @@
 package project.gymecommerce.Repositories.OrderRepo;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import project.gymecommerce.DTOs.Order.WishlistLineDTO;
 import project.gymecommerce.Models.Order.WishlistItem;
 
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface WishlistItemRepository extends JpaRepository<WishlistItem, UUID>{
+
+    // Các sản phẩm trong một wishlist (chỉ productId + quantity, không nạp Product)
+    @Query("SELECT new project.gymecommerce.DTOs.Order.WishlistLineDTO(wi.product.productId, wi.quantity) " +
+            "FROM WishlistItem wi WHERE wi.wishlist.wishlistId = :wishlistId")
+    List<WishlistLineDTO> findLinesByWishlistId(@Param("wishlistId") UUID wishlistId);
 }
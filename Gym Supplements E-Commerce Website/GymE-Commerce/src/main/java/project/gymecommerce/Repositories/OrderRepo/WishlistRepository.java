@@ -1,11 +1,18 @@
 package project.gymecommerce.Repositories.OrderRepo;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import project.gymecommerce.Models.Order.Wishlist;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface WishlistRepository extends JpaRepository <Wishlist, UUID>{
+
+    // Chỉ lấy khóa chính wishlist của người dùng (tối đa một dòng vì user_account_id là unique)
+    @Query("SELECT w.wishlistId FROM Wishlist w WHERE w.userAccount.userAccountId = :userAccountId")
+    Optional<UUID> findWishlistIdByUserAccountId(@Param("userAccountId") UUID userAccountId);
 }
@@ -1,11 +1,36 @@
 package project.gymecommerce.Repositories.ProductRepo;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import project.gymecommerce.Models.Product.Product;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, UUID> {
+
+    // Tải product kèm ảnh, thương hiệu, danh mục trong một query (dùng để dựng snapshot catalog)
+    @EntityGraph(attributePaths = {"productImages", "brands", "categories"})
+    Optional<Product> findCatalogByProductId(UUID productId);
+
+    @EntityGraph(attributePaths = {"productImages", "brands", "categories"})
+    List<Product> findCatalogByProductIdIn(Collection<UUID> productIds);
+
+    // Chỉ lấy khóa chính của toàn bộ product (dùng để dựng index theo từng lô)
+    @Query("SELECT p.productId FROM Product p")
+    List<UUID> findAllProductIds();
+
+    // Lọc ra các productId còn tồn tại và đang bán (kiểm tra trước khi thêm vào wishlist)
+    @Query("SELECT p.productId FROM Product p WHERE p.productId IN :productIds AND p.isAvailable = true")
+    List<UUID> findAvailableProductIdsIn(@Param("productIds") Collection<UUID> productIds);
+
+    // Lọc ra các productId còn tồn tại (sản phẩm có thể bị xoá trước khi thay đổi wishlist được ghi xuống DB)
+    @Query("SELECT p.productId FROM Product p WHERE p.productId IN :productIds")
+    List<UUID> findExistingProductIdsIn(@Param("productIds") Collection<UUID> productIds);
 }
@@ -1,11 +1,37 @@
 package project.gymecommerce.Repositories.ProductRepo;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import project.gymecommerce.DTOs.Product.ProductReviewDTO;
 import project.gymecommerce.Models.Product.ProductReview;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ProductReviewRepository extends JpaRepository <ProductReview, UUID>{
+
+    // Trang đầu tiên của danh sách đánh giá (mới nhất trước), đi theo index (product_id, created_at, product_review_id)
+    @Query("SELECT new project.gymecommerce.DTOs.Product.ProductReviewDTO(" +
+            "r.productReviewId, r.rating, r.comment, r.createdAt, u.userName) " +
+            "FROM ProductReview r JOIN r.userAccount u " +
+            "WHERE r.product.productId = :productId " +
+            "ORDER BY r.createdAt DESC, r.productReviewId DESC")
+    List<ProductReviewDTO> findFeedPage(@Param("productId") UUID productId, Limit limit);
+
+    // Các trang tiếp theo: chỉ đọc các đánh giá đứng sau cursor (createdAt, productReviewId), không dùng OFFSET
+    @Query("SELECT new project.gymecommerce.DTOs.Product.ProductReviewDTO(" +
+            "r.productReviewId, r.rating, r.comment, r.createdAt, u.userName) " +
+            "FROM ProductReview r JOIN r.userAccount u " +
+            "WHERE r.product.productId = :productId " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.productReviewId < :reviewId)) " +
+            "ORDER BY r.createdAt DESC, r.productReviewId DESC")
+    List<ProductReviewDTO> findFeedPageAfter(@Param("productId") UUID productId,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("reviewId") UUID reviewId,
+                                             Limit limit);
 }
@@ -1,6 +1,9 @@
 package project.gymecommerce.Repositories.UserRepo;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import project.gymecommerce.Models.User.Role;
 
@@ -9,5 +12,7 @@ import java.util.UUID;
 
 @Repository
 public interface RoleRepository extends JpaRepository <Role, UUID>{
-    Optional<Object> findByRoleName(String roleCustomer);
+    // Query cache: kết quả (role_id) được giữ trong default-query-results-region, Role lấy từ region reference.role
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Role> findByRoleName(String roleName);
 }
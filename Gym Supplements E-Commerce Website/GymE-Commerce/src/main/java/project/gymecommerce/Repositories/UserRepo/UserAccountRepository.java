@@ -1,15 +1,39 @@
 package project.gymecommerce.Repositories.UserRepo;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.RepositoryDefinition;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import project.gymecommerce.DTOs.User.UserAccountSummaryDTO;
+import project.gymecommerce.DTOs.User.UserIdentityDTO;
 import project.gymecommerce.Models.User.UserAccount;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+// Chỉ khai báo các thao tác CRUD được dùng (triển khai bởi SimpleJpaRepository): không có findAll() nạp toàn bộ bảng,
+// danh sách tài khoản đi qua findSummaryPage / findSummaryPageAfter hoặc streamAllSummaries
 @Repository
-public interface UserAccountRepository extends JpaRepository<UserAccount, UUID> {
+@RepositoryDefinition(domainClass = UserAccount.class, idClass = UUID.class)
+public interface UserAccountRepository {
 
+    <S extends UserAccount> S save(S userAccount);
+
+    <S extends UserAccount> S saveAndFlush(S userAccount);
+
+    Optional<UserAccount> findById(UUID userAccountId);
+
+    UserAccount getReferenceById(UUID userAccountId);
+
+    void deleteById(UUID userAccountId);
+
+    void deleteAllById(Iterable<? extends UUID> userAccountIds);
 
     boolean existsByEmail(String email);
 
@@ -20,4 +44,35 @@ public interface UserAccountRepository extends JpaRepository<UserAccount, UUID>
     boolean existsByUserName(String userName);
 
     boolean existsByPhoneNumber(String phoneNumber);
+
+    // Chỉ lấy khóa chính theo email (người dùng đang đăng nhập), không nạp entity
+    @Query("SELECT u.userAccountId FROM UserAccount u WHERE u.email = :email")
+    Optional<UUID> findUserAccountIdByEmail(@Param("email") String email);
+
+    // Một query duy nhất tìm các tài khoản trùng email / user_name / phone_number (tối đa 3 dòng vì cả 3 cột đều unique)
+    @Query("SELECT new project.gymecommerce.DTOs.User.UserIdentityDTO(u.email, u.userName, u.phoneNumber) " +
+            "FROM UserAccount u " +
+            "WHERE u.email = :email OR u.userName = :userName OR u.phoneNumber = :phoneNumber")
+    List<UserIdentityDTO> findIdentityConflicts(@Param("email") String email,
+                                                @Param("userName") String userName,
+                                                @Param("phoneNumber") String phoneNumber);
+
+    // Trang đầu tiên của danh sách tài khoản (keyset theo user_account_id)
+    @Query("SELECT new project.gymecommerce.DTOs.User.UserAccountSummaryDTO(" +
+            "u.userAccountId, u.userName, u.email, u.phoneNumber, u.isActive, u.createdAt) " +
+            "FROM UserAccount u ORDER BY u.userAccountId")
+    List<UserAccountSummaryDTO> findSummaryPage(Limit limit);
+
+    // Các trang tiếp theo: chỉ đọc các bản ghi có khóa lớn hơn cursor, không dùng OFFSET
+    @Query("SELECT new project.gymecommerce.DTOs.User.UserAccountSummaryDTO(" +
+            "u.userAccountId, u.userName, u.email, u.phoneNumber, u.isActive, u.createdAt) " +
+            "FROM UserAccount u WHERE u.userAccountId > :after ORDER BY u.userAccountId")
+    List<UserAccountSummaryDTO> findSummaryPageAfter(@Param("after") UUID after, Limit limit);
+
+    // Stream toàn bộ tài khoản; fetch size = Integer.MIN_VALUE để MySQL Connector/J trả từng dòng (bộ nhớ không đổi)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT new project.gymecommerce.DTOs.User.UserAccountSummaryDTO(" +
+            "u.userAccountId, u.userName, u.email, u.phoneNumber, u.isActive, u.createdAt) " +
+            "FROM UserAccount u ORDER BY u.userAccountId")
+    Stream<UserAccountSummaryDTO> streamAllSummaries();
 }
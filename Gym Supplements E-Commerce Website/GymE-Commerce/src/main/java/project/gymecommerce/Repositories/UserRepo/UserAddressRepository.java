@@ -8,4 +8,7 @@ import java.util.UUID;
 
 @Repository
 public interface UserAddressRepository extends JpaRepository <UserAddress, UUID>{
+
+    // Kiểm tra địa chỉ có thuộc về tài khoản hay không
+    boolean existsByUserAddressIdAndUserAccount_UserAccountId(UUID userAddressId, UUID userAccountId);
 }
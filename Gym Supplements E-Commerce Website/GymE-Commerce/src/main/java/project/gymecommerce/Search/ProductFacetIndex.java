@@ -0,0 +1,255 @@
+package project.gymecommerce.Search;
+
+import project.gymecommerce.DTOs.Product.ProductCatalogDTO;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index facet trong bộ nhớ: mỗi giá trị facet (thương hiệu, danh mục, còn hàng, khoảng giá) giữ một BitSet
+ * các sản phẩm thuộc về nó.
+ * - Chỉ chứa sản phẩm đang hiển thị (isAvailable = true); sản phẩm bị ẩn bị gỡ khỏi index khi index() nhận snapshot.
+ * - Còn hàng / hết hàng tính theo quantity > 0, không phải cờ isAvailable.
+ * - Ý nghĩa: lọc danh sách và đếm số sản phẩm cho từng facet chỉ là phép AND / cardinality trên BitSet,
+ *   không phải đi qua bảng product_brand / product_category cho mỗi request.
+ * - Đếm facet: số lượng của một nhóm facet được tính với bộ lọc của tất cả nhóm khác (không tính chính nhóm đó),
+ *   để người dùng thấy được nếu chọn thêm một thương hiệu khác thì có bao nhiêu sản phẩm.
+ * - Mã sản phẩm: mỗi product được gán một số nguyên nhỏ (vị trí bit); vị trí của sản phẩm đã xóa được dùng lại.
+ * - Đồng thời: đọc song song, ghi độc quyền qua ReadWriteLock.
+ */
+public class ProductFacetIndex {
+
+    public static final String IN_STOCK = "inStock";
+    public static final String OUT_OF_STOCK = "outOfStock";
+
+    public record Filter(Set<String> brands, Set<String> categories, Boolean inStock, Set<String> priceBuckets) {
+    }
+
+    public record Result(List<UUID> productIds,
+                         int totalCount,
+                         Map<String, Integer> brandCounts,
+                         Map<String, Integer> categoryCounts,
+                         Map<String, Integer> stockCounts,
+                         Map<String, Integer> priceBucketCounts) {
+    }
+
+    private record Entry(int bit, List<String> brands, List<String> categories, boolean inStock, String priceBucket) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Ngưỡng giá tăng dần, tạo thành các khoảng [0, b0), [b0, b1), ..., [bn, +)
+    private final List<BigDecimal> priceBoundaries;
+    private final List<String> priceBucketLabels;
+
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final List<UUID> productsByBit = new ArrayList<>();
+    private final Deque<Integer> freeBits = new ArrayDeque<>();
+    private final BitSet allProducts = new BitSet();
+    private final Map<String, BitSet> brandBits = new TreeMap<>();
+    private final Map<String, BitSet> categoryBits = new TreeMap<>();
+    private final BitSet inStockBits = new BitSet();
+    private final Map<String, BitSet> priceBucketBits = new LinkedHashMap<>();
+
+    public ProductFacetIndex(List<BigDecimal> priceBoundaries) {
+        this.priceBoundaries = priceBoundaries.stream().sorted().toList();
+        List<String> labels = new ArrayList<>();
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal upper : this.priceBoundaries) {
+            labels.add(lower.toPlainString() + "-" + upper.toPlainString());
+            lower = upper;
+        }
+        labels.add(lower.toPlainString() + "+");
+        this.priceBucketLabels = List.copyOf(labels);
+        for (String label : priceBucketLabels) priceBucketBits.put(label, new BitSet());
+    }
+
+    public List<String> getPriceBucketLabels() {
+        return priceBucketLabels;
+    }
+
+    // --- Ghi ---
+    // Thêm / cập nhật một sản phẩm; sản phẩm bị ẩn (isAvailable = false) chỉ bị gỡ khỏi index
+    public void index(ProductCatalogDTO product) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(product.productId());
+            if (!Boolean.TRUE.equals(product.isAvailable())) return;
+
+            int bit = freeBits.isEmpty() ? productsByBit.size() : freeBits.pop();
+            if (bit == productsByBit.size()) productsByBit.add(product.productId());
+            else productsByBit.set(bit, product.productId());
+
+            Entry entry = new Entry(bit,
+                    List.copyOf(product.brandNames()),
+                    List.copyOf(product.categoryNames()),
+                    product.quantity() != null && product.quantity() > 0,
+                    priceBucketOf(product.price()));
+            entries.put(product.productId(), entry);
+
+            allProducts.set(bit);
+            for (String brand : entry.brands()) brandBits.computeIfAbsent(brand, b -> new BitSet()).set(bit);
+            for (String category : entry.categories()) categoryBits.computeIfAbsent(category, c -> new BitSet()).set(bit);
+            if (entry.inStock()) inStockBits.set(bit);
+            priceBucketBits.get(entry.priceBucket()).set(bit);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void rebuild(Collection<ProductCatalogDTO> products) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            productsByBit.clear();
+            freeBits.clear();
+            allProducts.clear();
+            brandBits.clear();
+            categoryBits.clear();
+            inStockBits.clear();
+            priceBucketBits.values().forEach(BitSet::clear);
+            // write lock cho phép lồng nhau nên index() có thể được gọi khi đang giữ lock
+            for (ProductCatalogDTO product : products) index(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Đọc ---
+    public Result query(Filter filter, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet brandMatch = union(brandBits, filter.brands());
+            BitSet categoryMatch = union(categoryBits, filter.categories());
+            BitSet stockMatch = stockMatch(filter.inStock());
+            BitSet priceMatch = union(priceBucketBits, filter.priceBuckets());
+
+            BitSet matched = intersect(brandMatch, categoryMatch, stockMatch, priceMatch);
+
+            List<UUID> page = new ArrayList<>(Math.max(0, Math.min(limit, matched.cardinality())));
+            int skipped = 0;
+            for (int bit = matched.nextSetBit(0); bit >= 0 && page.size() < limit; bit = matched.nextSetBit(bit + 1)) {
+                if (skipped++ < offset) continue;
+                page.add(productsByBit.get(bit));
+            }
+
+            return new Result(page,
+                    matched.cardinality(),
+                    counts(brandBits, intersect(null, categoryMatch, stockMatch, priceMatch)),
+                    counts(categoryBits, intersect(brandMatch, null, stockMatch, priceMatch)),
+                    stockCounts(intersect(brandMatch, categoryMatch, null, priceMatch)),
+                    counts(priceBucketBits, intersect(brandMatch, categoryMatch, stockMatch, null)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // null = nhóm facet không được lọc
+    private BitSet union(Map<String, BitSet> bitsByValue, Set<String> selected) {
+        if (selected == null || selected.isEmpty()) return null;
+        BitSet union = new BitSet();
+        for (String value : selected) {
+            BitSet bits = bitsByValue.get(value);
+            if (bits != null) union.or(bits);
+        }
+        return union;
+    }
+
+    private BitSet stockMatch(Boolean inStock) {
+        if (inStock == null) return null;
+        BitSet bits = (BitSet) allProducts.clone();
+        if (inStock) bits.and(inStockBits);
+        else bits.andNot(inStockBits);
+        return bits;
+    }
+
+    private BitSet intersect(BitSet... filters) {
+        BitSet result = (BitSet) allProducts.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) result.and(filter);
+        }
+        return result;
+    }
+
+    private static Map<String, Integer> counts(Map<String, BitSet> bitsByValue, BitSet base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, BitSet> entry : bitsByValue.entrySet()) {
+            BitSet bits = (BitSet) entry.getValue().clone();
+            bits.and(base);
+            counts.put(entry.getKey(), bits.cardinality());
+        }
+        return counts;
+    }
+
+    private Map<String, Integer> stockCounts(BitSet base) {
+        BitSet inStock = (BitSet) base.clone();
+        inStock.and(inStockBits);
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put(IN_STOCK, inStock.cardinality());
+        counts.put(OUT_OF_STOCK, base.cardinality() - inStock.cardinality());
+        return counts;
+    }
+
+    private String priceBucketOf(BigDecimal price) {
+        BigDecimal value = price == null ? BigDecimal.ZERO : price;
+        for (int i = 0; i < priceBoundaries.size(); i++) {
+            if (value.compareTo(priceBoundaries.get(i)) < 0) return priceBucketLabels.get(i);
+        }
+        return priceBucketLabels.getLast();
+    }
+
+    private void removeLocked(UUID productId) {
+        Entry previous = entries.remove(productId);
+        if (previous == null) return;
+        int bit = previous.bit();
+
+        allProducts.clear(bit);
+        clearValues(brandBits, previous.brands(), bit);
+        clearValues(categoryBits, previous.categories(), bit);
+        inStockBits.clear(bit);
+        priceBucketBits.get(previous.priceBucket()).clear(bit);
+
+        productsByBit.set(bit, null);
+        freeBits.push(bit);
+    }
+
+    // Xóa bit của sản phẩm; bỏ hẳn giá trị facet (ví dụ thương hiệu) khi không còn sản phẩm nào
+    private static void clearValues(Map<String, BitSet> bitsByValue, List<String> values, int bit) {
+        for (String value : values) {
+            BitSet bits = bitsByValue.get(value);
+            if (bits == null) continue;
+            bits.clear(bit);
+            if (bits.isEmpty()) bitsByValue.remove(value);
+        }
+    }
+}
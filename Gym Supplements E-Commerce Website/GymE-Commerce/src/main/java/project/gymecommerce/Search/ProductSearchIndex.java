@@ -0,0 +1,218 @@
+package project.gymecommerce.Search;
+
+import project.gymecommerce.DTOs.Product.ProductCatalogDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index trong bộ nhớ cho tìm kiếm sản phẩm (tên, mô tả, thương hiệu, danh mục).
+ * - Cấu trúc: từ điển token (TreeMap, sắp xếp để tìm theo tiền tố) -> posting list (product -> trọng số).
+ *   Trọng số theo trường: tên 3, thương hiệu 2, danh mục 1.5, mô tả 1.
+ * - Truy vấn: mỗi token của câu truy vấn khớp chính xác, khớp tiền tố (token cuối, khi người dùng đang gõ)
+ *   hoặc khớp gần đúng (sai tối đa 1 ký tự, 2 ký tự với từ dài từ 8 ký tự). Điểm = tổng trọng số * idf * hệ số khớp,
+ *   sản phẩm khớp đủ mọi token của truy vấn được cộng thêm, trả về top-k bằng heap kích thước k.
+ * - Đồng thời: đọc song song, ghi (thêm / xóa sản phẩm) độc quyền qua ReadWriteLock.
+ */
+public class ProductSearchIndex {
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float BRAND_WEIGHT = 2f;
+    private static final float CATEGORY_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final double EXACT_FACTOR = 1.0;
+    private static final double PREFIX_FACTOR = 0.7;
+    private static final double FUZZY_FACTOR = 0.5;
+    private static final double ALL_TERMS_BONUS = 1.5;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    public record SearchHit(UUID productId, String productName, double score) {
+    }
+
+    private record Document(String productName, Map<String, Float> termWeights) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<UUID, Float>> postings = new TreeMap<>();
+    private final Map<UUID, Document> documents = new HashMap<>();
+
+    // --- Ghi ---
+    // Thêm mới hoặc thay thế toàn bộ token của một sản phẩm
+    public void index(ProductCatalogDTO product) {
+        Map<String, Float> termWeights = new HashMap<>();
+        addField(termWeights, product.productName(), NAME_WEIGHT);
+        addField(termWeights, product.description(), DESCRIPTION_WEIGHT);
+        for (String brandName : product.brandNames()) addField(termWeights, brandName, BRAND_WEIGHT);
+        for (String categoryName : product.categoryNames()) addField(termWeights, categoryName, CATEGORY_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(product.productId());
+            documents.put(product.productId(), new Document(product.productName(), termWeights));
+            termWeights.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(product.productId(), weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Dựng lại toàn bộ index (khi khởi động)
+    public void rebuild(Collection<ProductCatalogDTO> products) {
+        ProductSearchIndex fresh = new ProductSearchIndex();
+        for (ProductCatalogDTO product : products) fresh.index(product);
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            postings.putAll(fresh.postings);
+            documents.clear();
+            documents.putAll(fresh.documents);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Đọc ---
+    public List<SearchHit> search(String query, int limit) {
+        List<String> queryTerms = VietnameseTokenizer.tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) return List.of();
+
+        Map<UUID, Double> scores = new HashMap<>();
+        Map<UUID, Integer> matchedTerms = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            for (int i = 0; i < queryTerms.size(); i++) {
+                boolean lastTerm = i == queryTerms.size() - 1;
+                Map<UUID, Double> termScores = scoreTerm(queryTerms.get(i), lastTerm, documentCount);
+                termScores.forEach((productId, score) -> {
+                    scores.merge(productId, score, Double::sum);
+                    matchedTerms.merge(productId, 1, Integer::sum);
+                });
+            }
+
+            // Top-k: heap nhỏ nhất giữ k kết quả tốt nhất
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(limit + 1,
+                    (a, b) -> Double.compare(a.score(), b.score()));
+            for (Map.Entry<UUID, Double> entry : scores.entrySet()) {
+                double score = entry.getValue();
+                if (matchedTerms.get(entry.getKey()) == queryTerms.size()) score *= ALL_TERMS_BONUS;
+                if (top.size() < limit) {
+                    top.add(new SearchHit(entry.getKey(), documents.get(entry.getKey()).productName(), score));
+                } else if (score > top.peek().score()) {
+                    top.poll();
+                    top.add(new SearchHit(entry.getKey(), documents.get(entry.getKey()).productName(), score));
+                }
+            }
+
+            List<SearchHit> hits = new ArrayList<>(top);
+            hits.sort((a, b) -> Double.compare(b.score(), a.score()));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Điểm của một token truy vấn cho từng sản phẩm: lấy kiểu khớp tốt nhất (chính xác > tiền tố > gần đúng)
+    private Map<UUID, Double> scoreTerm(String queryTerm, boolean allowPrefix, int documentCount) {
+        Map<UUID, Double> termScores = new HashMap<>();
+
+        Map<UUID, Float> exact = postings.get(queryTerm);
+        if (exact != null) accumulate(termScores, exact, EXACT_FACTOR, documentCount);
+
+        if (allowPrefix && queryTerm.length() >= MIN_PREFIX_LENGTH) {
+            for (Map.Entry<String, Map<UUID, Float>> entry
+                    : postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+                accumulate(termScores, entry.getValue(), PREFIX_FACTOR, documentCount);
+            }
+        }
+
+        // Chỉ thử khớp gần đúng khi không có khớp chính xác / tiền tố
+        if (termScores.isEmpty() && queryTerm.length() >= MIN_FUZZY_LENGTH) {
+            int maxEdits = queryTerm.length() >= 8 ? 2 : 1;
+            for (Map.Entry<String, Map<UUID, Float>> entry : postings.entrySet()) {
+                String term = entry.getKey();
+                if (Math.abs(term.length() - queryTerm.length()) > maxEdits) continue;
+                if (withinEditDistance(queryTerm, term, maxEdits)) {
+                    accumulate(termScores, entry.getValue(), FUZZY_FACTOR, documentCount);
+                }
+            }
+        }
+        return termScores;
+    }
+
+    private static void accumulate(Map<UUID, Double> termScores, Map<UUID, Float> posting, double factor, int documentCount) {
+        double idf = Math.log(1 + (double) documentCount / posting.size());
+        posting.forEach((productId, weight) ->
+                termScores.merge(productId, weight * idf * factor, Math::max));
+    }
+
+    private void removeLocked(UUID productId) {
+        Document previous = documents.remove(productId);
+        if (previous == null) return;
+        for (String term : previous.termWeights().keySet()) {
+            Map<UUID, Float> posting = postings.get(term);
+            if (posting == null) continue;
+            posting.remove(productId);
+            if (posting.isEmpty()) postings.remove(term);
+        }
+    }
+
+    private static void addField(Map<String, Float> termWeights, String text, float weight) {
+        for (String token : VietnameseTokenizer.tokenize(text)) {
+            termWeights.merge(token, weight, Float::sum);
+        }
+    }
+
+    // Khoảng cách Damerau-Levenshtein (có hoán vị 2 ký tự liền kề) không vượt quá maxEdits
+    static boolean withinEditDistance(String a, String b, int maxEdits) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            int rowMin = Integer.MAX_VALUE;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, d[i - 2][j - 2] + 1);
+                }
+                d[i][j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) return false;
+        }
+        return d[a.length()][b.length()] <= maxEdits;
+    }
+}
@@ -0,0 +1,49 @@
+package project.gymecommerce.Search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tách từ cho tiếng Việt phục vụ index tìm kiếm.
+ * - Ý nghĩa: bỏ dấu (NFD + loại bỏ dấu kết hợp, đ -> d) và chuyển về chữ thường, để "sữa tăng cân",
+ *   "Sua Tang Can" và "sua tăng can" đều cho cùng các token "sua", "tang", "can".
+ * - Lưu ý: chỉ giữ chữ cái và chữ số; các ký tự khác (dấu câu, khoảng trắng, gạch nối) là dấu phân tách.
+ */
+public final class VietnameseTokenizer {
+
+    private VietnameseTokenizer() {
+    }
+
+    // Chuẩn hóa một chuỗi về dạng không dấu, chữ thường
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) return "";
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            if (c == 'đ' || c == 'Đ') c = 'd';
+            folded.append(c);
+        }
+        return folded.toString().toLowerCase(Locale.ROOT);
+    }
+
+    // Tách chuỗi thành danh sách token không dấu (giữ thứ tự, có thể trùng lặp)
+    public static List<String> tokenize(String text) {
+        String folded = fold(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < folded.length(); i++) {
+            if (Character.isLetterOrDigit(folded.charAt(i))) {
+                if (start < 0) start = i;
+            } else if (start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) tokens.add(folded.substring(start));
+        return tokens;
+    }
+}
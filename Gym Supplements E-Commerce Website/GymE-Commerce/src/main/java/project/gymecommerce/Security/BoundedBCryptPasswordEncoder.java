@@ -0,0 +1,155 @@
+package project.gymecommerce.Security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PasswordEncoder BCrypt chạy trên một executor giới hạn.
+ * - Ý nghĩa: BCrypt tốn CPU; khi nhiều người đăng ký / đăng nhập cùng lúc, việc hash trên chính thread request
+ *   có thể chiếm hết core và làm chậm việc render trang. Executor giới hạn số thread hash đồng thời,
+ *   hàng đợi có kích thước cố định và từ chối ngay khi quá tải thay vì làm nghẽn toàn bộ server.
+ * - Cost factor: được hiệu chỉnh khi khởi động để thời gian hash gần với targetLatency trên phần cứng hiện tại
+ *   (không thấp hơn MIN_STRENGTH). upgradeEncoding() trả về true cho hash có cost cũ hơn, để
+ *   DaoAuthenticationProvider tự hash lại mật khẩu khi người dùng đăng nhập thành công.
+ * - Metrics: executor.queued, executor.active, executor.completed... với tag name=passwordHashing.
+ */
+public class BoundedBCryptPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedBCryptPasswordEncoder.class);
+
+    // 10 là mặc định của BCryptPasswordEncoder; không hạ thấp hơn mức này dù máy chậm
+    static final int MIN_STRENGTH = 10;
+    static final int MAX_STRENGTH = 16;
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    private final int strength;
+
+    public BoundedBCryptPasswordEncoder(int threads,
+                                        int queueCapacity,
+                                        Duration targetLatency,
+                                        Duration maxWait,
+                                        MeterRegistry meterRegistry) {
+        this.strength = calibrateStrength(targetLatency);
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.maxWait = maxWait;
+        this.executor = new ThreadPoolExecutor(threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                namedThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "passwordHashing");
+        log.info("BCrypt cost = {} (mục tiêu {} ms), {} thread, hàng đợi {}", strength, targetLatency.toMillis(), threads, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Hash có cost thấp hơn cost hiện tại cần được hash lại (rehash-on-login)
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    // --- Thực thi trên executor và chờ kết quả ---
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.error("Hàng đợi hash mật khẩu đã đầy ({} tác vụ)", executor.getQueue().size());
+            throw new RuntimeException("Password hashing overloaded", e);
+        }
+
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Password hashing interrupted", e);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.error("Hash mật khẩu vượt quá thời gian chờ {} ms", maxWait.toMillis());
+            throw new RuntimeException("Password hashing timed out", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    // --- Hiệu chỉnh cost factor ---
+    /**
+     * Chọn cost lớn nhất mà thời gian hash vẫn không vượt quá targetLatency.
+     * - Hành vi: mỗi lần tăng cost thêm 1 thì thời gian hash tăng gấp đôi, nên dừng ngay khi vượt mục tiêu.
+     */
+    static int calibrateStrength(Duration targetLatency) {
+        long targetNanos = targetLatency.toNanos();
+        int chosen = MIN_STRENGTH;
+        for (int cost = MIN_STRENGTH; cost <= MAX_STRENGTH; cost++) {
+            BCryptPasswordEncoder probe = new BCryptPasswordEncoder(cost);
+            probe.encode("calibration"); // warm-up
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            long elapsed = System.nanoTime() - start;
+            if (elapsed > targetNanos) {
+                break;
+            }
+            chosen = cost;
+            // lần tiếp theo sẽ mất khoảng gấp đôi, bỏ qua nếu chắc chắn vượt mục tiêu
+            if (elapsed * 2 > targetNanos) {
+                break;
+            }
+        }
+        return chosen;
+    }
+
+    private static ThreadFactory namedThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package project.gymecommerce.Security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.provisioning.UserDetailsManager;
+
+import java.time.Duration;
+
+/**
+ * UserDetailsManager có cache, bọc quanh JdbcUserDetailsManager.
+ * - Ý nghĩa: mỗi lần đăng nhập JdbcUserDetailsManager chạy 2 query (user theo email + join user_account_role/role);
+ *   cache giữ kết quả theo email để phần lớn lượt đăng nhập không cần xuống MySQL.
+ * - Giới hạn: số phần tử tối đa và TTL; tài khoản bị khóa / đổi mật khẩu được evict ngay qua {@link #evict(String)}.
+ * - Lưu ý: luôn trả về bản sao của UserDetails vì ProviderManager xóa mật khẩu (eraseCredentials)
+ *   trên đối tượng trả về sau khi xác thực, nếu trả thẳng đối tượng trong cache thì lần đăng nhập sau sẽ lỗi.
+ * - UserDetailsPasswordService: DaoAuthenticationProvider gọi updatePassword() sau khi đăng nhập thành công
+ *   nếu PasswordEncoder báo hash cũ cần nâng cấp (rehash-on-login).
+ */
+public class CachingUserDetailsManager implements UserDetailsManager, UserDetailsPasswordService {
+
+    private static final String CACHE_NAME = "userDetails";
+    private static final String UPDATE_PASSWORD_SQL = "UPDATE user_account SET hashed_password = ? WHERE email = ?";
+
+    private final UserDetailsManager delegate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, UserDetails> cache;
+
+    public CachingUserDetailsManager(UserDetailsManager delegate,
+                                     JdbcTemplate jdbcTemplate,
+                                     long maxSize,
+                                     Duration ttl,
+                                     MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // UsernameNotFoundException từ delegate không được cache
+        UserDetails cached = cache.get(normalize(username), delegate::loadUserByUsername);
+        return User.withUserDetails(cached).build();
+    }
+
+    // Xóa cache của một tài khoản (gọi khi cập nhật / xóa tài khoản)
+    public void evict(String username) {
+        if (username == null) return;
+        cache.invalidate(normalize(username));
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    // --- Các thao tác ghi: chuyển cho delegate rồi evict ---
+    @Override
+    public void createUser(UserDetails user) {
+        delegate.createUser(user);
+        evict(user.getUsername());
+    }
+
+    @Override
+    public void updateUser(UserDetails user) {
+        delegate.updateUser(user);
+        evict(user.getUsername());
+    }
+
+    @Override
+    public void deleteUser(String username) {
+        delegate.deleteUser(username);
+        evict(username);
+    }
+
+    @Override
+    public void changePassword(String oldPassword, String newPassword) {
+        delegate.changePassword(oldPassword, newPassword);
+        // không biết chắc username của người gọi ở đây nên xóa toàn bộ cache
+        evictAll();
+    }
+
+    // Lưu hash mới (cost hiện tại) sau khi đăng nhập thành công với hash cũ
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        jdbcTemplate.update(UPDATE_PASSWORD_SQL, newPassword, user.getUsername());
+        evict(user.getUsername());
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
+    @Override
+    public boolean userExists(String username) {
+        return cache.getIfPresent(normalize(username)) != null || delegate.userExists(username);
+    }
+
+    // Email so sánh không phân biệt hoa thường (collation utf8mb4_unicode_ci)
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,10 @@
+package project.gymecommerce.Services;
+
+import project.gymecommerce.DTOs.Order.CheckoutRequestDTO;
+import project.gymecommerce.DTOs.Order.CheckoutResultDTO;
+
+public interface CheckoutService {
+
+    //đặt hàng cho khách hàng (theo email đăng nhập); cùng idempotencyKey sẽ trả lại đơn đã tạo thay vì tạo đơn mới
+    public CheckoutResultDTO checkout(String email, String idempotencyKey, CheckoutRequestDTO request);
+}
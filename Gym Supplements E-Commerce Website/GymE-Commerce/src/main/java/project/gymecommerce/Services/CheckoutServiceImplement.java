@@ -0,0 +1,348 @@
+package project.gymecommerce.Services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.DTOs.Order.CheckoutRequestDTO;
+import project.gymecommerce.DTOs.Order.CheckoutResultDTO;
+import project.gymecommerce.DTOs.Order.DiscountCheckDTO;
+import project.gymecommerce.DTOs.Order.OrderResponseDTO;
+import project.gymecommerce.Models.Order.Order;
+import project.gymecommerce.Models.Order.OrderItem;
+import project.gymecommerce.Models.Product.Product;
+import project.gymecommerce.Pricing.DiscountCodeIndex;
+import project.gymecommerce.Repositories.OrderRepo.DiscountRepository;
+import project.gymecommerce.Repositories.OrderRepo.OrderRepository;
+import project.gymecommerce.Repositories.OrderRepo.ShippingUnitRepository;
+import project.gymecommerce.Repositories.ProductRepo.ProductRepository;
+import project.gymecommerce.Repositories.UserRepo.UserAccountRepository;
+import project.gymecommerce.Repositories.UserRepo.UserAddressRepository;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Đặt hàng có chống trùng theo khóa idempotency.
+ * - Bộ nhớ: response của các đơn đã tạo được giữ trong cache (khóa = user + idempotency key), request gửi lại
+ *   chỉ tốn một lần tra cứu map thay vì chạy lại transaction đặt hàng.
+ * - Đồng thời: lock striping (mảng ReentrantLock cố định, chọn theo hash của khóa) chỉ bao việc tra cứu khóa và
+ *   đăng ký request đang đặt hàng; transaction đặt hàng chạy ngoài lock. Các request cùng khóa đến sau chờ kết quả
+ *   của request đầu tiên thay vì tạo đơn song song.
+ * - Nội dung request: hash SHA-256 của request được lưu cùng khóa; gửi lại cùng khóa với nội dung khác bị từ chối
+ *   thay vì trả về đơn của request cũ.
+ * - Database: unique (user_account_id, idempotency_key) trên orders chặn trùng giữa nhiều instance / sau khi restart;
+ *   khi insert bị vi phạm unique, đơn đã tồn tại được đọc lại và trả về.
+ * - Transaction đặt hàng chỉ lưu đơn PENDING; kiểm tra / trừ tồn kho, gán vận chuyển và xác nhận chạy sau commit
+ *   trong {@link OrderPipelineService}, nên request trả về ngay khi đơn đã được lưu.
+ * - Mã giảm giá: mỗi mã bị tiêu một lượt qua {@link DiscountCodeService} trong transaction đặt hàng; transaction
+ *   rollback thì lượt dùng được trả lại. Tiền giảm được tính bởi {@link DiscountPricingService}.
+ */
+@Service
+public class CheckoutServiceImplement implements CheckoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutServiceImplement.class);
+
+    private static final String CACHE_NAME = "checkoutIdempotency";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private record IdempotencyKey(UUID userAccountId, String key) {
+    }
+
+    // Đơn đã tạo cho một khóa, kèm hash request đã tạo ra nó (null với đơn tạo trước khi có cột hash)
+    private record CompletedCheckout(String requestHash, OrderResponseDTO order) {
+    }
+
+    // Request đang đặt hàng cho một khóa
+    private record InFlight(String requestHash, CompletableFuture<OrderResponseDTO> result) {
+    }
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final UserAccountRepository userAccountRepository;
+    private final UserAddressRepository userAddressRepository;
+    private final ShippingUnitRepository shippingUnitRepository;
+    private final OrderPipelineService orderPipelineService;
+    private final DiscountCodeService discountCodeService;
+    private final DiscountRepository discountRepository;
+    private final DiscountPricingService discountPricingService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Cache<IdempotencyKey, CompletedCheckout> completed;
+    private final Map<IdempotencyKey, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+
+    @Autowired
+    public CheckoutServiceImplement(OrderRepository orderRepository,
+                                    ProductRepository productRepository,
+                                    UserAccountRepository userAccountRepository,
+                                    UserAddressRepository userAddressRepository,
+                                    ShippingUnitRepository shippingUnitRepository,
+                                    OrderPipelineService orderPipelineService,
+                                    DiscountCodeService discountCodeService,
+                                    DiscountRepository discountRepository,
+                                    DiscountPricingService discountPricingService,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.checkout.idempotency.max-size:100000}") long maxSize,
+                                    @Value("${app.checkout.idempotency.ttl:24h}") Duration ttl,
+                                    @Value("${app.checkout.idempotency.stripes:64}") int stripeCount) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.userAccountRepository = userAccountRepository;
+        this.userAddressRepository = userAddressRepository;
+        this.shippingUnitRepository = shippingUnitRepository;
+        this.orderPipelineService = orderPipelineService;
+        this.discountCodeService = discountCodeService;
+        this.discountRepository = discountRepository;
+        this.discountPricingService = discountPricingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, CACHE_NAME);
+        this.stripes = new ReentrantLock[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public CheckoutResultDTO checkout(String email, String idempotencyKey, CheckoutRequestDTO request) {
+        validate(request);
+        UUID userAccountId = userAccountRepository.findUserAccountIdByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Không có khóa: không chống trùng
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return new CheckoutResultDTO(placeOrder(userAccountId, null, null, request), false);
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Invalid idempotency key");
+        }
+
+        IdempotencyKey key = new IdempotencyKey(userAccountId, idempotencyKey);
+        String requestHash = requestHash(request);
+        while (true) {
+            CompletedCheckout replay = completed.getIfPresent(key);
+            if (replay != null) {
+                return replayOf(replay, requestHash);
+            }
+
+            InFlight running;
+            InFlight claim = null;
+            ReentrantLock lock = stripes[Math.floorMod(key.hashCode(), stripes.length)];
+            lock.lock();
+            try {
+                // Kiểm tra lại sau khi có lock: request đồng thời có thể vừa tạo xong đơn
+                replay = completed.getIfPresent(key);
+                if (replay != null) {
+                    return replayOf(replay, requestHash);
+                }
+                running = inFlight.get(key);
+                if (running == null) {
+                    Optional<CompletedCheckout> existing = findExisting(key);
+                    if (existing.isPresent()) {
+                        completed.put(key, existing.get());
+                        return replayOf(existing.get(), requestHash);
+                    }
+                    claim = new InFlight(requestHash, new CompletableFuture<>());
+                    inFlight.put(key, claim);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (claim != null) {
+                return createOrder(userAccountId, key, claim, request);
+            }
+            if (!running.requestHash().equals(requestHash)) {
+                throw new RuntimeException("Idempotency key reused with a different request");
+            }
+            try {
+                return new CheckoutResultDTO(running.result().join(), true);
+            } catch (CompletionException e) {
+                // Request đầu tiên lỗi và không tạo đơn: chạy lại từ đầu, request này có thể tạo đơn
+            }
+        }
+    }
+
+    // Chạy bên ngoài lock; kết quả (hoặc lỗi) được báo cho các request cùng khóa đang chờ
+    private CheckoutResultDTO createOrder(UUID userAccountId, IdempotencyKey key, InFlight claim,
+                                          CheckoutRequestDTO request) {
+        try {
+            CheckoutResultDTO result;
+            try {
+                OrderResponseDTO created = placeOrder(userAccountId, key.key(), claim.requestHash(), request);
+                completed.put(key, new CompletedCheckout(claim.requestHash(), created));
+                result = new CheckoutResultDTO(created, false);
+            } catch (DataIntegrityViolationException e) {
+                // Instance khác đã tạo đơn với cùng khóa
+                CompletedCheckout original = findExisting(key).orElseThrow(() -> e);
+                completed.put(key, original);
+                result = replayOf(original, claim.requestHash());
+            }
+            claim.result().complete(result.order());
+            return result;
+        } catch (RuntimeException e) {
+            claim.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    // --- Transaction đặt hàng ---
+    private OrderResponseDTO placeOrder(UUID userAccountId, String idempotencyKey, String requestHash,
+                                        CheckoutRequestDTO request) {
+        if (!userAddressRepository.existsByUserAddressIdAndUserAccount_UserAccountId(request.userAddressId(), userAccountId)) {
+            throw new RuntimeException("Address not found");
+        }
+        // findById đọc từ second-level cache (region reference.shippingUnit); existsById luôn chạy một query
+        if (request.shippingUnitId() != null && shippingUnitRepository.findById(request.shippingUnitId()).isEmpty()) {
+            throw new RuntimeException("Shipping unit not found");
+        }
+
+        OrderResponseDTO response = transactionTemplate.execute(status -> {
+            // Gộp số lượng theo sản phẩm, giữ thứ tự client gửi
+            Map<UUID, Integer> quantities = new LinkedHashMap<>();
+            for (CheckoutRequestDTO.CheckoutLine line : request.lines()) {
+                quantities.merge(line.productId(), line.quantity(), Integer::sum);
+            }
+            Map<UUID, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                    .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+            Order order = new Order(userAccountRepository.getReferenceById(userAccountId),
+                    userAddressRepository.getReferenceById(request.userAddressId()),
+                    request.shippingUnitId() == null ? null : shippingUnitRepository.getReferenceById(request.shippingUnitId()),
+                    BigDecimal.ZERO,
+                    Order.OrderStatus.PENDING,
+                    request.paymentMethod());
+            order.setIdempotencyKey(idempotencyKey);
+            order.setIdempotencyRequestHash(requestHash);
+
+            for (Map.Entry<UUID, Integer> line : quantities.entrySet()) {
+                Product product = products.get(line.getKey());
+                if (product == null || !Boolean.TRUE.equals(product.getIsAvailable())) {
+                    throw new RuntimeException("Product not available");
+                }
+                OrderItem item = new OrderItem(product, order, line.getValue());
+                // addOrderItem cộng dồn originalPrice dạng long
+                order.addOrderItem(item);
+            }
+            applyDiscountCodes(order, request.discountCodes());
+            discountPricingService.applyTo(order);
+
+            // Trùng khóa idempotency bị phát hiện ở đây
+            orderRepository.saveAndFlush(order);
+            return OrderResponseDTO.from(order);
+        });
+
+        log.info("Đã tạo đơn hàng {} cho tài khoản {} vào lúc: {}", response.orderId(), userAccountId, LocalDateTime.now());
+        orderPipelineService.submit(response.orderId());
+        return response;
+    }
+
+    // Tiêu một lượt dùng cho mỗi mã; chỉ thêm vào phía Order (chủ sở hữu discount_order), không nạp Discount.orders
+    private void applyDiscountCodes(Order order, List<String> discountCodes) {
+        if (discountCodes == null || discountCodes.isEmpty()) return;
+        Set<String> codes = new LinkedHashSet<>();
+        discountCodes.forEach(code -> codes.add(DiscountCodeIndex.normalize(code)));
+        for (String code : codes) {
+            DiscountCheckDTO redemption = discountCodeService.redeem(code);
+            if (!redemption.isValid()) {
+                throw new RuntimeException("Invalid discount code");
+            }
+            UUID discountId = redemption.discountId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        discountCodeService.release(code, discountId);
+                    }
+                }
+            });
+            order.getDiscounts().add(discountRepository.getReferenceById(discountId));
+        }
+    }
+
+    private Optional<CompletedCheckout> findExisting(IdempotencyKey key) {
+        return readOnlyTransaction.execute(status ->
+                orderRepository.findByUserAccount_UserAccountIdAndIdempotencyKey(key.userAccountId(), key.key())
+                        .map(order -> new CompletedCheckout(order.getIdempotencyRequestHash(), OrderResponseDTO.from(order))));
+    }
+
+    // Khóa đã dùng cho request khác nội dung: từ chối, không trả đơn của request cũ
+    private static CheckoutResultDTO replayOf(CompletedCheckout completed, String requestHash) {
+        if (completed.requestHash() != null && !completed.requestHash().equals(requestHash)) {
+            throw new RuntimeException("Idempotency key reused with a different request");
+        }
+        return new CheckoutResultDTO(completed.order(), true);
+    }
+
+    // SHA-256 của nội dung request đã chuẩn hóa: gộp số lượng theo sản phẩm, bỏ thứ tự dòng hàng và mã giảm giá
+    private static String requestHash(CheckoutRequestDTO request) {
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        for (CheckoutRequestDTO.CheckoutLine line : request.lines()) {
+            quantities.merge(line.productId(), line.quantity(), Integer::sum);
+        }
+        Set<String> codes = new TreeSet<>();
+        if (request.discountCodes() != null) {
+            request.discountCodes().forEach(code -> codes.add(DiscountCodeIndex.normalize(code)));
+        }
+        String canonical = request.userAddressId() + "|" + request.shippingUnitId() + "|" + request.paymentMethod()
+                + "|" + quantities + "|" + codes;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void validate(CheckoutRequestDTO request) {
+        if (request == null || request.userAddressId() == null
+                || request.lines() == null || request.lines().isEmpty()) {
+            throw new RuntimeException("Invalid checkout request");
+        }
+        for (CheckoutRequestDTO.CheckoutLine line : request.lines()) {
+            if (line == null || line.productId() == null || line.quantity() < 1) {
+                throw new RuntimeException("Invalid checkout request");
+            }
+        }
+    }
+}
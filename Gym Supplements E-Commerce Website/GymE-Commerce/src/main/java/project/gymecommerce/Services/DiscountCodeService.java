@@ -0,0 +1,20 @@
+package project.gymecommerce.Services;
+
+import project.gymecommerce.DTOs.Order.DiscountCheckDTO;
+
+import java.util.UUID;
+
+public interface DiscountCodeService {
+
+    //kiểm tra mã giảm giá (giỏ hàng), không tiêu lượt dùng
+    public DiscountCheckDTO check(String discountCode);
+
+    //tiêu một lượt dùng của mã; không bao giờ vượt quá số lượng của mã
+    public DiscountCheckDTO redeem(String discountCode);
+
+    //trả lại một lượt đã tiêu (đặt hàng thất bại); trả thẳng về DB nếu mã đã bị gỡ khỏi bộ nhớ
+    public void release(String discountCode, UUID discountId);
+
+    //nạp lại mã từ DB và trả phần hạn mức không còn dùng được về cột discount.quantity
+    public void reconcile();
+}
@@ -0,0 +1,128 @@
+package project.gymecommerce.Services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.DTOs.Order.DiscountCheckDTO;
+import project.gymecommerce.Models.Identifier.UuidBytes;
+import project.gymecommerce.Pricing.DiscountCodeIndex;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Kiểm tra và sử dụng mã giảm giá qua {@link DiscountCodeIndex} trong bộ nhớ.
+ * - Kiểm tra mã ở mỗi lần refresh giỏ hàng không truy vấn DB.
+ * - Lượt dùng: discount.quantity trong DB là số lượt chưa được instance nào nhận. Instance lấy từng khối
+ *   (app.discounts.allotment-block lượt) bằng SELECT ... FOR UPDATE + UPDATE trong transaction riêng, rồi tiêu
+ *   dần trong bộ nhớ bằng CAS; không có read-modify-write entity Discount nên không thể dùng quá số lượng.
+ * - Đồng bộ (app.discounts.reconcile-interval): nạp lại mã từ DB (thay đổi của admin có hiệu lực sau tối đa một chu kỳ),
+ *   trả phần hạn mức của mã đã tắt / hết hạn / bị xoá về DB. Khi app dừng toàn bộ hạn mức còn lại được trả về.
+ * - Metrics: discount.redemptions (tag status).
+ */
+@Service
+public class DiscountCodeServiceImplement implements DiscountCodeService, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DiscountCodeServiceImplement.class);
+
+    private static final String LOCK_QUANTITY_SQL =
+            "SELECT quantity FROM discount WHERE discount_id = ? FOR UPDATE";
+    private static final String CLAIM_SQL =
+            "UPDATE discount SET quantity = quantity - ? WHERE discount_id = ? AND quantity >= ?";
+    private static final String GIVE_BACK_SQL =
+            "UPDATE discount SET quantity = quantity + ? WHERE discount_id = ? AND quantity IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DiscountSnapshotLoader discountSnapshotLoader;
+    private final TransactionTemplate claimTransaction;
+    private final MeterRegistry meterRegistry;
+    private final DiscountCodeIndex index;
+
+    @Autowired
+    public DiscountCodeServiceImplement(JdbcTemplate jdbcTemplate,
+                                        DiscountSnapshotLoader discountSnapshotLoader,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.discounts.allotment-block:20}") long allotmentBlock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.discountSnapshotLoader = discountSnapshotLoader;
+        // Transaction riêng: hạn mức đã nhận không bị trả lại khi transaction đặt hàng bên ngoài rollback
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+        this.claimTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.index = new DiscountCodeIndex(allotmentBlock);
+    }
+
+    @Override
+    public DiscountCheckDTO check(String discountCode) {
+        return toDto(discountCode, index.check(discountCode, LocalDateTime.now()));
+    }
+
+    @Override
+    public DiscountCheckDTO redeem(String discountCode) {
+        DiscountCodeIndex.Status status = index.redeem(discountCode, LocalDateTime.now(), this::claim);
+        meterRegistry.counter("discount.redemptions", "status", status.name()).increment();
+        return toDto(discountCode, status);
+    }
+
+    @Override
+    public void release(String discountCode, UUID discountId) {
+        giveBack(index.release(discountCode, discountId));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.discounts.reconcile-interval:30s}")
+    public void reconcile() {
+        try {
+            giveBack(index.refresh(discountSnapshotLoader.loadAll(), LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            log.error("Lỗi khi đồng bộ mã giảm giá từ DB", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        giveBack(index.drainAllotments());
+    }
+
+    // --- Lấy / trả hạn mức ---
+    private long claim(UUID discountId, long wanted) {
+        Long claimed = claimTransaction.execute(status -> {
+            byte[] id = UuidBytes.toBytes(discountId);
+            List<Long> remaining = jdbcTemplate.query(LOCK_QUANTITY_SQL, (rs, rowNum) -> rs.getLong("quantity"), id);
+            if (remaining.isEmpty() || remaining.getFirst() <= 0) return 0L;
+            long amount = Math.min(wanted, remaining.getFirst());
+            return jdbcTemplate.update(CLAIM_SQL, amount, id, amount) == 1 ? amount : 0L;
+        });
+        long result = claimed == null ? 0 : claimed;
+        log.debug("Nhận {} lượt dùng của mã giảm giá {}", result, discountId);
+        return result;
+    }
+
+    private void giveBack(Map<UUID, Long> surplus) {
+        if (surplus.isEmpty()) return;
+        List<Object[]> batch = new ArrayList<>(surplus.size());
+        surplus.forEach((discountId, quantity) -> batch.add(new Object[]{quantity, UuidBytes.toBytes(discountId)}));
+        jdbcTemplate.batchUpdate(GIVE_BACK_SQL, batch);
+        log.info("Trả lại hạn mức chưa dùng của {} mã giảm giá vào lúc: {}", surplus.size(), LocalDateTime.now());
+    }
+
+    private DiscountCheckDTO toDto(String discountCode, DiscountCodeIndex.Status status) {
+        return index.find(discountCode)
+                .map(snapshot -> new DiscountCheckDTO(snapshot.discountCode(), status, snapshot.discountId(),
+                        snapshot.discountType(), snapshot.endAt()))
+                .orElseGet(() -> new DiscountCheckDTO(DiscountCodeIndex.normalize(discountCode), status, null, null, null));
+    }
+}
@@ -0,0 +1,19 @@
+package project.gymecommerce.Services;
+
+import project.gymecommerce.Models.Order.Order;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.UUID;
+
+public interface DiscountPricingService {
+
+    //tính tổng tiền giảm cho tổng tiền hàng với các mã đã áp (cộng dồn, không vượt quá tổng tiền hàng)
+    public BigDecimal discountFor(BigDecimal originalPrice, Collection<UUID> discountIds);
+
+    //tính lại discountAmount / finalPrice của đơn hàng theo các mã trong order.getDiscounts()
+    public void applyTo(Order order);
+
+    //nạp lại luật giảm giá từ DB
+    public void reload();
+}
@@ -0,0 +1,73 @@
+package project.gymecommerce.Services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import project.gymecommerce.Models.Order.Discount;
+import project.gymecommerce.Models.Order.Order;
+import project.gymecommerce.Pricing.DiscountPricingEngine;
+import project.gymecommerce.Pricing.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tính tiền giảm của đơn hàng bằng {@link DiscountPricingEngine}.
+ * - Luật được nạp lại từ bảng discount cùng chu kỳ với DiscountCodeService (app.discounts.reconcile-interval);
+ *   mã vừa được tạo sau lần nạp gần nhất khiến service nạp lại ngay một lần thay vì tính thiếu tiền giảm.
+ * - applyTo() đọc / ghi tiền của Order dạng long ({@link Money}), không đổi qua BigDecimal.
+ */
+@Service
+public class DiscountPricingServiceImplement implements DiscountPricingService {
+
+    private static final Logger log = LoggerFactory.getLogger(DiscountPricingServiceImplement.class);
+
+    private final DiscountSnapshotLoader discountSnapshotLoader;
+    private final DiscountPricingEngine engine = new DiscountPricingEngine();
+
+    @Autowired
+    public DiscountPricingServiceImplement(DiscountSnapshotLoader discountSnapshotLoader) {
+        this.discountSnapshotLoader = discountSnapshotLoader;
+    }
+
+    @Override
+    public BigDecimal discountFor(BigDecimal originalPrice, Collection<UUID> discountIds) {
+        if (originalPrice == null || discountIds.isEmpty()) return BigDecimal.ZERO;
+        return Money.toBigDecimal(discountMinor(Money.toMinor(originalPrice), discountIds));
+    }
+
+    @Override
+    public void applyTo(Order order) {
+        // getDiscountId() không khởi tạo proxy (getReferenceById ở checkout)
+        List<UUID> discountIds = new ArrayList<>(order.getDiscounts().size());
+        for (Discount discount : order.getDiscounts()) {
+            discountIds.add(discount.getDiscountId());
+        }
+        order.setDiscountAmountMinor(discountMinor(order.getOriginalPriceMinor(), discountIds));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.discounts.reconcile-interval:30s}")
+    public void reload() {
+        try {
+            engine.compile(discountSnapshotLoader.loadAll());
+            log.debug("Đã nạp {} luật giảm giá", engine.size());
+        } catch (RuntimeException e) {
+            log.error("Lỗi khi nạp luật giảm giá từ DB", e);
+        }
+    }
+
+    private long discountMinor(long originalPriceMinor, Collection<UUID> discountIds) {
+        if (discountIds.isEmpty()) return Money.ZERO;
+        if (!engine.covers(discountIds)) {
+            reload();
+        }
+        return engine.discountMinor(originalPriceMinor, discountIds, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,42 @@
+package project.gymecommerce.Services;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import project.gymecommerce.Models.Identifier.UuidBytes;
+import project.gymecommerce.Models.Order.Discount;
+import project.gymecommerce.Pricing.DiscountCodeIndex;
+
+import java.util.List;
+
+/**
+ * Đọc toàn bộ bảng discount bằng JDBC cho các index mã giảm giá trong bộ nhớ.
+ * - Ý nghĩa: DiscountCodeIndex (kiểm tra / tiêu lượt dùng) và DiscountPricingEngine (tính tiền giảm) được nạp lại
+ *   định kỳ từ cùng một câu truy vấn, không hydrate entity Discount và collection orders của nó.
+ */
+@Component
+public class DiscountSnapshotLoader {
+
+    private static final String SELECT_ALL_SQL =
+            "SELECT discount_id, discount_code, discount_type, start_at, end_at, is_available, quantity, " +
+                    "discount_value, max_discount_amount FROM discount";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DiscountSnapshotLoader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<DiscountCodeIndex.Snapshot> loadAll() {
+        return jdbcTemplate.query(SELECT_ALL_SQL, (rs, rowNum) ->
+                new DiscountCodeIndex.Snapshot(
+                        UuidBytes.fromBytes(rs.getBytes("discount_id")),
+                        rs.getString("discount_code"),
+                        Discount.DiscountType.valueOf(rs.getString("discount_type")),
+                        rs.getTimestamp("start_at").toLocalDateTime(),
+                        rs.getTimestamp("end_at").toLocalDateTime(),
+                        rs.getBoolean("is_available"),
+                        rs.getObject("quantity", Long.class),
+                        rs.getBigDecimal("discount_value"),
+                        rs.getBigDecimal("max_discount_amount")));
+    }
+}
@@ -0,0 +1,29 @@
+package project.gymecommerce.Services;
+
+import project.gymecommerce.DTOs.Order.StockReservationDTO;
+import project.gymecommerce.Models.Order.OrderItem;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+public interface InventoryService {
+
+    //trừ tồn kho cho các dòng hàng (gộp theo product), trả về dòng thành công / bị từ chối
+    public StockReservationDTO reserve(Collection<OrderItem> orderItems);
+
+    //trừ tồn kho cho một sản phẩm; trả về false nếu không đủ hàng
+    public boolean decrease(UUID productId, int quantity);
+
+    //cộng lại tồn kho (huỷ đơn, hoàn trả, nhập hàng)
+    public void increase(UUID productId, int quantity);
+
+    //cộng lại tồn kho cho các dòng hàng của đơn bị huỷ (gộp theo product, một batch)
+    public void release(Collection<OrderItem> orderItems);
+
+    //hoàn lại các dòng đã trừ của một lần reserve() không trọn vẹn; không phát sự kiện nhập hàng
+    public void undoReservation(StockReservationDTO reservation);
+
+    //nhập hàng cho nhiều sản phẩm (productId -> số lượng cộng thêm) trong một batch
+    public void restock(Map<UUID, Integer> quantities);
+}
@@ -0,0 +1,245 @@
+package project.gymecommerce.Services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.gymecommerce.DTOs.Order.StockReservationDTO;
+import project.gymecommerce.DTOs.Order.StockReservationDTO.StockLine;
+import project.gymecommerce.Events.ProductChangedEvent;
+import project.gymecommerce.Events.ProductRestockedEvent;
+import project.gymecommerce.Models.Identifier.UuidBytes;
+import project.gymecommerce.Models.Order.OrderItem;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Trừ / cộng tồn kho bằng câu lệnh UPDATE có điều kiện thay vì read-modify-write qua entity Product.
+ * - Ý nghĩa: "quantity = quantity - ? WHERE quantity >= ?" được MySQL thực hiện nguyên tử trên từng dòng,
+ *   nên không thể bán vượt tồn kho dù nhiều khách cùng mua một SKU.
+ * - Hiệu năng: các dòng của một đơn được gộp theo product và gửi bằng một JDBC batch (một round trip).
+ *   Các product được sắp xếp theo product_id để mọi transaction khóa dòng theo cùng thứ tự, tránh deadlock.
+ * - Lưu ý: câu lệnh đi thẳng xuống JDBC nên Product đã nạp trong persistence context hiện tại có thể giữ
+ *   quantity cũ.
+ * - Sự kiện: sau mỗi lô UPDATE, một SELECT cho cả lô đọc lại quantity của các dòng vừa cập nhật (dòng vẫn
+ *   đang bị khóa bởi UPDATE nên không transaction nào khác chen vào). ProductChangedEvent chỉ được phát khi
+ *   trạng thái còn hàng / hết hàng thay đổi: quantity về 0 sau khi trừ, hoặc quantity mới bằng đúng số vừa
+ *   cộng (trước đó hết hàng, khi đó ProductRestockedEvent cũng được phát). Thay đổi số lượng khác không làm
+ *   mất cache catalog hay dựng lại chỉ mục; con số tồn kho trong cache cũ tối đa một TTL.
+ * - undoReservation() trả lại phần vừa trừ của một đơn thiếu hàng mà không phát sự kiện: sản phẩm chỉ về 0
+ *   trong chính transaction đó nên không phải là "có hàng trở lại".
+ */
+@Service
+public class InventoryServiceImplement implements InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryServiceImplement.class);
+
+    private static final String DECREASE_SQL =
+            "UPDATE product SET quantity = quantity - ?, updated_at = ? WHERE product_id = ? AND quantity >= ?";
+    private static final String INCREASE_SQL =
+            "UPDATE product SET quantity = quantity + ?, updated_at = ? WHERE product_id = ?";
+    private static final String SELECT_QUANTITIES_SQL =
+            "SELECT product_id, quantity FROM product WHERE product_id IN (%s)";
+    // Số product_id tối đa trong một mệnh đề IN khi đọc lại quantity sau UPDATE
+    private static final int QUANTITY_CHECK_CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public InventoryServiceImplement(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Trừ tồn kho cho cả đơn trong một batch; dòng thiếu hàng bị từ chối nhưng không huỷ các dòng khác
+    @Override
+    @Transactional
+    public StockReservationDTO reserve(Collection<OrderItem> orderItems) {
+        if (orderItems == null || orderItems.isEmpty()) {
+            return new StockReservationDTO(List.of(), List.of());
+        }
+
+        Map<UUID, Integer> quantities = aggregate(orderItems);
+        if (quantities.isEmpty()) {
+            return new StockReservationDTO(List.of(), List.of());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        List<StockLine> lines = new ArrayList<>(quantities.size());
+        List<Object[]> batch = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            lines.add(new StockLine(productId, quantity));
+            batch.add(new Object[]{quantity, updatedAt, UuidBytes.toBytes(productId), quantity});
+        });
+
+        int[] updateCounts = jdbcTemplate.batchUpdate(DECREASE_SQL, batch);
+
+        List<StockLine> reserved = new ArrayList<>();
+        List<StockLine> rejected = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            // Connector/J trả về số dòng thực sự bị ảnh hưởng cho từng UPDATE trong batch
+            if (updateCounts[i] > 0) {
+                reserved.add(lines.get(i));
+            } else {
+                rejected.add(lines.get(i));
+            }
+        }
+        publishSoldOut(reserved.stream().map(StockLine::productId).toList(), now);
+
+        if (!rejected.isEmpty()) {
+            log.warn("Không đủ tồn kho cho {} / {} sản phẩm: {}", rejected.size(), lines.size(), rejected);
+        }
+        return new StockReservationDTO(List.copyOf(reserved), List.copyOf(rejected));
+    }
+
+    @Override
+    @Transactional
+    public void release(Collection<OrderItem> orderItems) {
+        Map<UUID, Integer> quantities = aggregate(orderItems);
+        if (quantities.isEmpty()) return;
+        increaseAll(quantities);
+    }
+
+    @Override
+    @Transactional
+    public void undoReservation(StockReservationDTO reservation) {
+        if (reservation == null || reservation.reservedLines().isEmpty()) return;
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        reservation.reservedLines().forEach(line -> quantities.merge(line.productId(), line.quantity(), Integer::sum));
+        addStock(quantities, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    // Nhập hàng cho nhiều sản phẩm trong một batch
+    @Override
+    @Transactional
+    public void restock(Map<UUID, Integer> quantities) {
+        if (quantities == null || quantities.isEmpty()) return;
+        Map<UUID, Integer> sorted = new TreeMap<>();
+        quantities.forEach((productId, quantity) -> {
+            if (productId == null || quantity == null || quantity < 1) {
+                throw new IllegalArgumentException("Invalid stock quantity");
+            }
+            sorted.put(productId, quantity);
+        });
+        increaseAll(sorted);
+    }
+
+    @Override
+    @Transactional
+    public boolean decrease(UUID productId, int quantity) {
+        if (productId == null || quantity < 1) {
+            throw new IllegalArgumentException("Invalid stock quantity");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int updated = jdbcTemplate.update(DECREASE_SQL, quantity, Timestamp.valueOf(now), UuidBytes.toBytes(productId), quantity);
+        if (updated > 0) {
+            publishSoldOut(List.of(productId), now);
+            return true;
+        }
+        log.warn("Không đủ tồn kho cho sản phẩm {} (yêu cầu {})", productId, quantity);
+        return false;
+    }
+
+    @Override
+    @Transactional
+    public void increase(UUID productId, int quantity) {
+        if (productId == null || quantity < 1) {
+            throw new IllegalArgumentException("Invalid stock quantity");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int updated = jdbcTemplate.update(INCREASE_SQL, quantity, Timestamp.valueOf(now), UuidBytes.toBytes(productId));
+        if (updated == 0) {
+            log.error("Không tìm thấy sản phẩm với ID: {}", productId);
+            throw new RuntimeException("Product not found");
+        }
+        publishRestocked(Map.of(productId, quantity), now);
+    }
+
+    // Cộng tồn kho rồi phát sự kiện cho các sản phẩm có hàng trở lại
+    private void increaseAll(Map<UUID, Integer> quantities) {
+        LocalDateTime now = LocalDateTime.now();
+        addStock(quantities, Timestamp.valueOf(now));
+        publishRestocked(quantities, now);
+    }
+
+    // Cộng tồn kho theo thứ tự product_id của quantities (một batch), không phát sự kiện; lỗi như increase() nếu thiếu product
+    private void addStock(Map<UUID, Integer> quantities, Timestamp updatedAt) {
+        List<UUID> productIds = new ArrayList<>(quantities.size());
+        List<Object[]> batch = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            productIds.add(productId);
+            batch.add(new Object[]{quantity, updatedAt, UuidBytes.toBytes(productId)});
+        });
+        int[] updateCounts = jdbcTemplate.batchUpdate(INCREASE_SQL, batch);
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                log.error("Không tìm thấy sản phẩm với ID: {}", productIds.get(i));
+                throw new RuntimeException("Product not found");
+            }
+        }
+    }
+
+    // Phát ProductChangedEvent cho các sản phẩm vừa bán hết (quantity sau khi trừ = 0)
+    private void publishSoldOut(List<UUID> productIds, LocalDateTime now) {
+        if (productIds.isEmpty()) return;
+        quantitiesOf(productIds).forEach((productId, quantity) -> {
+            if (quantity == 0) {
+                eventPublisher.publishEvent(new ProductChangedEvent(productId, now, ProductChangedEvent.ChangeType.UPDATED));
+            }
+        });
+    }
+
+    // Phát ProductChangedEvent + ProductRestockedEvent cho các sản phẩm có quantity sau khi cộng đúng bằng số vừa cộng (trước đó = 0)
+    private void publishRestocked(Map<UUID, Integer> added, LocalDateTime now) {
+        List<UUID> restocked = new ArrayList<>();
+        quantitiesOf(added.keySet()).forEach((productId, quantity) -> {
+            if (quantity.equals(added.get(productId))) {
+                restocked.add(productId);
+                eventPublisher.publishEvent(new ProductChangedEvent(productId, now, ProductChangedEvent.ChangeType.UPDATED));
+            }
+        });
+        if (!restocked.isEmpty()) {
+            eventPublisher.publishEvent(new ProductRestockedEvent(List.copyOf(restocked), now));
+        }
+    }
+
+    // Đọc quantity hiện tại của các sản phẩm, mỗi lần tối đa QUANTITY_CHECK_CHUNK product_id
+    private Map<UUID, Integer> quantitiesOf(Collection<UUID> ids) {
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        List<UUID> productIds = new ArrayList<>(ids);
+        for (int from = 0; from < productIds.size(); from += QUANTITY_CHECK_CHUNK) {
+            List<UUID> chunk = productIds.subList(from, Math.min(from + QUANTITY_CHECK_CHUNK, productIds.size()));
+            String sql = SELECT_QUANTITIES_SQL.formatted(String.join(", ", Collections.nCopies(chunk.size(), "?")));
+            Object[] args = chunk.stream().map(UuidBytes::toBytes).toArray();
+            jdbcTemplate.query(sql, rs -> {
+                quantities.put(UuidBytes.fromBytes(rs.getBytes("product_id")), rs.getInt("quantity"));
+            }, args);
+        }
+        return quantities;
+    }
+
+    // Gộp số lượng theo product, TreeMap giữ thứ tự product_id cố định
+    private static Map<UUID, Integer> aggregate(Collection<OrderItem> orderItems) {
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        if (orderItems == null) return quantities;
+        for (OrderItem item : orderItems) {
+            if (item == null || item.getProduct() == null || item.getProduct().getProductId() == null) continue;
+            quantities.merge(item.getProduct().getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
@@ -0,0 +1,10 @@
+package project.gymecommerce.Services;
+
+import project.gymecommerce.DTOs.CursorPageDTO;
+import project.gymecommerce.DTOs.Order.OrderHistoryDTO;
+
+public interface OrderHistoryService {
+
+    //lấy một trang lịch sử đơn hàng của người dùng đang đăng nhập (mới nhất trước), truyền nextCursor của trang trước vào "after"
+    public CursorPageDTO<OrderHistoryDTO> findHistory(String email, String after, int size);
+}
@@ -0,0 +1,66 @@
+package project.gymecommerce.Services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.gymecommerce.DTOs.CursorPageDTO;
+import project.gymecommerce.DTOs.KeysetCursorDTO;
+import project.gymecommerce.DTOs.Order.OrderHistoryDTO;
+import project.gymecommerce.Repositories.OrderRepo.OrderRepository;
+import project.gymecommerce.Repositories.UserRepo.UserAccountRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lịch sử đơn hàng của khách hàng, phân trang theo keyset (created_at, order_id).
+ * - Ý nghĩa: mỗi trang là một query trả thẳng OrderHistoryDTO (constructor expression), không nạp Order,
+ *   Set<OrderItem> hay Set<Discount>; số dòng hàng và ảnh đại diện được tính trong cùng query.
+ * - Index: idx_order_user_created (user_account_id, created_at) - InnoDB kèm sẵn order_id ở cuối index,
+ *   nên cả ORDER BY created_at, order_id và điều kiện cursor đều là range scan.
+ * - Cursor: {@link KeysetCursorDTO} (createdAt, orderId) của dòng cuối trang.
+ */
+@Service
+public class OrderHistoryServiceImplement implements OrderHistoryService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final OrderRepository orderRepository;
+    private final UserAccountRepository userAccountRepository;
+
+    @Autowired
+    public OrderHistoryServiceImplement(OrderRepository orderRepository, UserAccountRepository userAccountRepository) {
+        this.orderRepository = orderRepository;
+        this.userAccountRepository = userAccountRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderHistoryDTO> findHistory(String email, String after, int size) {
+        int pageSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        UUID userAccountId = userAccountRepository.findUserAccountIdByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Lấy dư 1 bản ghi để biết còn trang tiếp theo hay không
+        Limit limit = Limit.of(pageSize + 1);
+        List<OrderHistoryDTO> rows;
+        if (after == null || after.isBlank()) {
+            rows = orderRepository.findHistoryPage(userAccountId, limit);
+        } else {
+            KeysetCursorDTO cursor = KeysetCursorDTO.decode(after);
+            rows = orderRepository.findHistoryPageAfter(userAccountId, cursor.createdAt(), cursor.id(), limit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new CursorPageDTO<>(rows, null);
+        }
+        List<OrderHistoryDTO> items = rows.subList(0, pageSize);
+        return new CursorPageDTO<>(List.copyOf(items), cursorOf(items.get(pageSize - 1)));
+    }
+
+    private static String cursorOf(OrderHistoryDTO last) {
+        return new KeysetCursorDTO(last.createdAt(), last.orderId()).encode();
+    }
+}
@@ -0,0 +1,15 @@
+package project.gymecommerce.Services;
+
+import project.gymecommerce.Models.Order.Order;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface OrderOutboxService {
+
+    //ghi sự kiện chuyển trạng thái vào order_outbox, bắt buộc gọi trong transaction đang cập nhật orders
+    public void append(Collection<UUID> orderIds, Order.OrderStatus from, Order.OrderStatus to);
+
+    //lấy một lô sự kiện chưa gửi, gửi cho subscriber và đánh dấu kết quả; trả về số sự kiện đã lấy
+    public int drain();
+}
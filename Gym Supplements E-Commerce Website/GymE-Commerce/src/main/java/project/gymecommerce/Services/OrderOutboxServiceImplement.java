@@ -0,0 +1,273 @@
+package project.gymecommerce.Services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.Events.OrderStatusChangedEvent;
+import project.gymecommerce.Models.Identifier.UuidBytes;
+import project.gymecommerce.Models.Order.Order;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transactional outbox cho sự kiện chuyển trạng thái đơn hàng.
+ * - Ghi: append() chèn các dòng order_outbox trong chính transaction cập nhật orders, nên sự kiện tồn tại
+ *   khi và chỉ khi thay đổi trạng thái được commit; không gọi hệ thống ngoài nào khi transaction còn mở.
+ * - Đọc: poller lấy một lô bằng SELECT ... FOR UPDATE SKIP LOCKED, đặt lease (available_at) rồi commit ngay;
+ *   việc gửi cho subscriber diễn ra ngoài transaction trên executor có parallelism giới hạn. Kết quả được ghi
+ *   bằng một transaction ngắn thứ hai. Nhiều instance có thể cùng poll mà không lấy trùng.
+ * - Thứ tự: một sự kiện chỉ được lấy khi mọi sự kiện trước đó của cùng đơn đã gửi xong, nên subscriber
+ *   luôn thấy trạng thái của một đơn theo đúng thứ tự.
+ * - Lỗi: sự kiện gửi lỗi được thử lại với backoff lũy thừa (retry-delay, tối đa max-retry-delay); instance chết
+ *   giữa chừng thì sự kiện được lấy lại khi lease hết hạn (at-least-once).
+ */
+@Service
+public class OrderOutboxServiceImplement implements OrderOutboxService, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderOutboxServiceImplement.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO order_outbox (order_id, from_status, to_status, occurred_at, available_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String CLAIM_SQL =
+            "SELECT o.outbox_id, o.order_id, o.from_status, o.to_status, o.occurred_at, o.attempts " +
+                    "FROM order_outbox o " +
+                    "WHERE o.published_at IS NULL AND o.available_at <= ? " +
+                    "AND NOT EXISTS (SELECT 1 FROM order_outbox e " +
+                    "WHERE e.order_id = o.order_id AND e.published_at IS NULL AND e.outbox_id < o.outbox_id) " +
+                    "ORDER BY o.outbox_id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String RETRY_SQL =
+            "UPDATE order_outbox SET attempts = attempts + 1, available_at = ? WHERE outbox_id = ?";
+    private static final String PURGE_SQL =
+            "DELETE FROM order_outbox WHERE published_at < ? LIMIT 10000";
+
+    private record OutboxRow(long outboxId, UUID orderId, Order.OrderStatus from, Order.OrderStatus to,
+                             LocalDateTime occurredAt, int attempts) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService deliveryExecutor;
+    private final int batchSize;
+    private final Duration lease;
+    private final Duration retryDelay;
+    private final Duration maxRetryDelay;
+    private final Duration retention;
+    private final Counter published;
+    private final Counter failed;
+    private final Timer lag;
+
+    @Autowired
+    public OrderOutboxServiceImplement(JdbcTemplate jdbcTemplate,
+                                       ApplicationEventPublisher eventPublisher,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${app.outbox.parallelism:4}") int parallelism,
+                                       @Value("${app.outbox.batch-size:200}") int batchSize,
+                                       @Value("${app.outbox.lease:30s}") Duration lease,
+                                       @Value("${app.outbox.retry-delay:5s}") Duration retryDelay,
+                                       @Value("${app.outbox.max-retry-delay:10m}") Duration maxRetryDelay,
+                                       @Value("${app.outbox.retention:7d}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deliveryExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism), namedThreadFactory());
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.retryDelay = retryDelay;
+        this.maxRetryDelay = maxRetryDelay;
+        this.retention = retention;
+        this.published = Counter.builder("order.outbox.published").register(meterRegistry);
+        this.failed = Counter.builder("order.outbox.failed").register(meterRegistry);
+        // Thời gian từ lúc chuyển trạng thái đến lúc subscriber nhận được sự kiện
+        this.lag = Timer.builder("order.outbox.lag").register(meterRegistry);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Collection<UUID> orderIds, Order.OrderStatus from, Order.OrderStatus to) {
+        if (orderIds == null || orderIds.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(orderIds.size());
+        for (UUID orderId : orderIds) {
+            batch.add(new Object[]{UuidBytes.toBytes(orderId), from == null ? null : from.name(), to.name(), now, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+    }
+
+    // Poll liên tục khi còn lô đầy, dừng khi đã hết sự kiện sẵn sàng
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:1s}")
+    public void poll() {
+        try {
+            while (drain() == batchSize) {
+                // lô đầy: có thể còn sự kiện, lấy tiếp ngay
+            }
+        } catch (RuntimeException e) {
+            log.error("Lỗi khi đọc order_outbox", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.purge-interval:1h}")
+    public void purgePublished() {
+        int deleted = jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+        if (deleted > 0) {
+            log.info("Xoá {} sự kiện outbox đã gửi vào lúc: {}", deleted, LocalDateTime.now());
+        }
+    }
+
+    @Override
+    public int drain() {
+        List<OutboxRow> claimed = claim();
+        if (claimed.isEmpty()) return 0;
+
+        // Gửi ngoài transaction
+        List<Callable<Boolean>> tasks = new ArrayList<>(claimed.size());
+        for (OutboxRow row : claimed) {
+            tasks.add(() -> deliver(row));
+        }
+        List<Long> delivered = new ArrayList<>(claimed.size());
+        List<OutboxRow> retry = new ArrayList<>();
+        List<Future<Boolean>> results = invokeAll(tasks);
+        for (int i = 0; i < claimed.size(); i++) {
+            if (isSuccess(results.get(i))) {
+                delivered.add(claimed.get(i).outboxId());
+            } else {
+                retry.add(claimed.get(i));
+            }
+        }
+
+        complete(delivered, retry);
+        return claimed.size();
+    }
+
+    @Override
+    public void close() {
+        deliveryExecutor.shutdownNow();
+    }
+
+    // --- Transaction 1: lấy lô và đặt lease ---
+    private List<OutboxRow> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxRow> rows = transactionTemplate.execute(status -> {
+            List<OutboxRow> locked = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new OutboxRow(
+                    rs.getLong("outbox_id"),
+                    UuidBytes.fromBytes(rs.getBytes("order_id")),
+                    rs.getString("from_status") == null ? null : Order.OrderStatus.valueOf(rs.getString("from_status")),
+                    Order.OrderStatus.valueOf(rs.getString("to_status")),
+                    rs.getTimestamp("occurred_at").toLocalDateTime(),
+                    rs.getInt("attempts")), Timestamp.valueOf(now), batchSize);
+            if (!locked.isEmpty()) {
+                List<Object> args = new ArrayList<>(locked.size() + 1);
+                args.add(Timestamp.valueOf(now.plus(lease)));
+                locked.forEach(row -> args.add(row.outboxId()));
+                jdbcTemplate.update("UPDATE order_outbox SET available_at = ? WHERE outbox_id IN (" + placeholders(locked.size()) + ")",
+                        args.toArray());
+            }
+            return locked;
+        });
+        return rows == null ? List.of() : rows;
+    }
+
+    private boolean deliver(OutboxRow row) {
+        try {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(row.outboxId(), row.orderId(), row.from(), row.to(), row.occurredAt()));
+            lag.record(Duration.between(row.occurredAt(), LocalDateTime.now()));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Gửi sự kiện outbox {} của đơn {} thất bại (lần {})", row.outboxId(), row.orderId(), row.attempts() + 1, e);
+            return false;
+        }
+    }
+
+    // --- Transaction 2: ghi kết quả gửi ---
+    private void complete(List<Long> delivered, List<OutboxRow> retry) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                List<Object> args = new ArrayList<>(delivered.size() + 1);
+                args.add(Timestamp.valueOf(now));
+                args.addAll(delivered);
+                jdbcTemplate.update("UPDATE order_outbox SET published_at = ? WHERE outbox_id IN (" + placeholders(delivered.size()) + ")",
+                        args.toArray());
+            }
+            if (!retry.isEmpty()) {
+                List<Object[]> batch = new ArrayList<>(retry.size());
+                for (OutboxRow row : retry) {
+                    batch.add(new Object[]{Timestamp.valueOf(now.plus(backoff(row.attempts()))), row.outboxId()});
+                }
+                jdbcTemplate.batchUpdate(RETRY_SQL, batch);
+            }
+        });
+        published.increment(delivered.size());
+        failed.increment(retry.size());
+    }
+
+    // retry-delay * 2^attempts, không vượt quá max-retry-delay
+    private Duration backoff(int attempts) {
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(attempts, 20));
+        return delay.compareTo(maxRetryDelay) > 0 ? maxRetryDelay : delay;
+    }
+
+    // Chờ toàn bộ lô gửi xong, tối đa bằng thời gian lease (quá hạn thì coi như lỗi và thử lại sau)
+    private List<Future<Boolean>> invokeAll(List<Callable<Boolean>> tasks) {
+        try {
+            return deliveryExecutor.invokeAll(tasks, lease.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.nCopies(tasks.size(), null);
+        }
+    }
+
+    private static boolean isSuccess(Future<Boolean> result) {
+        if (result == null) return false;
+        try {
+            return Boolean.TRUE.equals(result.get());
+        } catch (CancellationException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static ThreadFactory namedThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "order-outbox-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
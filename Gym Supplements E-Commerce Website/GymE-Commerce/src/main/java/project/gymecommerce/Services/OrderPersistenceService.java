@@ -0,0 +1,11 @@
+package project.gymecommerce.Services;
+
+import project.gymecommerce.Models.Order.Order;
+
+import java.util.List;
+
+public interface OrderPersistenceService {
+
+    //lưu nhiều đơn hàng (kèm order_item, discount_order) bằng JDBC batch, trả về số đơn đã lưu
+    public int saveAll(List<Order> orders);
+}
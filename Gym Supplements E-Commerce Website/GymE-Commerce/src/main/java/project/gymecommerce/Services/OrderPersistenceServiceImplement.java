@@ -0,0 +1,95 @@
+package project.gymecommerce.Services;
+
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.gymecommerce.Models.Order.Discount;
+import project.gymecommerce.Models.Order.Order;
+import project.gymecommerce.Models.Order.OrderItem;
+import project.gymecommerce.Models.Order.ShippingUnit;
+import project.gymecommerce.Models.Product.Product;
+import project.gymecommerce.Models.User.UserAccount;
+import project.gymecommerce.Models.User.UserAddress;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lưu đơn hàng số lượng lớn (import, đồng bộ từ kênh bán khác, benchmark...).
+ * - Ý nghĩa: với hibernate.jdbc.batch_size + order_inserts, các INSERT vào orders / order_item / discount_order
+ *   được gom theo bảng và gửi thành JDBC batch; rewriteBatchedStatements của MySQL Connector/J gộp mỗi batch
+ *   thành một câu INSERT nhiều dòng.
+ * - Persistence context được flush + clear sau mỗi lô batchSize đơn để bộ nhớ không tăng theo số đơn.
+ * - Lưu ý: các quan hệ ManyToOne (khách hàng, địa chỉ, đơn vị vận chuyển, sản phẩm) và discount được thay bằng
+ *   reference theo id trong persistence context hiện tại, vì entity truyền vào có thể đã detached sau clear().
+ */
+@Service
+public class OrderPersistenceServiceImplement implements OrderPersistenceService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPersistenceServiceImplement.class);
+
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    @Autowired
+    public OrderPersistenceServiceImplement(EntityManager entityManager,
+                                            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    @Transactional
+    public int saveAll(List<Order> orders) {
+        if (orders == null || orders.isEmpty()) return 0;
+        long start = System.nanoTime();
+
+        int count = 0;
+        for (Order order : orders) {
+            attachReferences(order);
+            entityManager.persist(order);
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        log.info("Đã lưu {} đơn hàng theo batch trong {} ms vào lúc: {}",
+                count, (System.nanoTime() - start) / 1_000_000, LocalDateTime.now());
+        return count;
+    }
+
+    private void attachReferences(Order order) {
+        if (order.getUserAccount() != null) {
+            order.setUserAccount(entityManager.getReference(UserAccount.class, order.getUserAccount().getUserAccountId()));
+        }
+        if (order.getUserAddress() != null) {
+            order.setUserAddress(entityManager.getReference(UserAddress.class, order.getUserAddress().getUserAddressId()));
+        }
+        if (order.getShippingUnit() != null) {
+            order.setShippingUnit(entityManager.getReference(ShippingUnit.class, order.getShippingUnit().getShippingUnitId()));
+        }
+        for (OrderItem item : order.getOrderItems()) {
+            if (item.getProduct() == null) continue;
+            // Giữ nguyên unitPrice đã chốt: gán thẳng reference thay vì setProduct() (setProduct đọc lại giá hiện tại)
+            Product product = entityManager.getReference(Product.class, item.getProduct().getProductId());
+            item.attachProductReference(product);
+        }
+        if (!order.getDiscounts().isEmpty()) {
+            // discount_order được ghi từ phía Order (owning side), không cần đồng bộ Discount.orders
+            Set<Discount> discounts = new LinkedHashSet<>();
+            for (Discount discount : order.getDiscounts()) {
+                discounts.add(entityManager.getReference(Discount.class, discount.getDiscountId()));
+            }
+            order.setDiscounts(discounts);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package project.gymecommerce.Services;
+
+import java.util.UUID;
+
+public interface OrderPipelineService {
+
+    //đưa đơn PENDING vào pipeline xử lý (kiểm tra kho -> giảm giá -> trừ kho -> gán vận chuyển -> xác nhận)
+    //trả về false nếu pipeline đang quá tải; đơn vẫn PENDING và sẽ được quét lại sau
+    public boolean submit(UUID orderId);
+
+    //số đơn đang nằm trong pipeline
+    public int inFlight();
+}
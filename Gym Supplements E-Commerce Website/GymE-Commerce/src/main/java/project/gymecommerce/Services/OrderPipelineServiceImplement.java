@@ -0,0 +1,318 @@
+package project.gymecommerce.Services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.DTOs.Order.StockReservationDTO;
+import project.gymecommerce.Models.Order.Discount;
+import project.gymecommerce.Models.Order.Order;
+import project.gymecommerce.Models.Order.OrderItem;
+import project.gymecommerce.Pipeline.BatchingStage;
+import project.gymecommerce.Repositories.OrderRepo.OrderRepository;
+import project.gymecommerce.Repositories.OrderRepo.ShippingUnitRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pipeline xử lý đơn hàng sau khi đặt: PENDING -> CONFIRMED (hoặc CANCELLED khi hết hàng).
+ * - Các bước: kiểm tra kho -> áp mã giảm giá -> trừ kho -> gán đơn vị vận chuyển -> xác nhận.
+ *   Mỗi bước là một {@link BatchingStage} với hàng đợi giới hạn và thread riêng; mỗi lô đơn được xử lý
+ *   trong một transaction (riêng bước trừ kho: mỗi đơn một transaction), kết quả được chuyển sang bước sau sau khi commit.
+ * - Backpressure: bước sau đầy thì worker của bước trước chờ (offer-timeout); hết thời gian chờ thì đơn rời
+ *   pipeline ở trạng thái PENDING và được sweeper đưa lại vào sau (app.orders.pipeline.stale-after).
+ * - Chạy lại an toàn: đơn không còn PENDING bị bỏ qua, việc trừ kho được đánh dấu bằng orders.stock_reserved_at
+ *   (UPDATE có điều kiện), nên một đơn đi qua pipeline nhiều lần chỉ bị trừ kho một lần.
+ * - Chuyển trạng thái (CONFIRMED / CANCELLED) đi qua {@link OrderStatusService}: chỉ đơn còn PENDING được chuyển
+ *   (đơn khách vừa huỷ không bị xác nhận lại) và sự kiện được ghi vào order_outbox trong cùng transaction.
+ * - Mã giảm giá hết hạn / bị tắt sau khi đặt hàng bị bỏ khỏi đơn; lượt dùng của mã được trả lại
+ *   ({@link DiscountCodeService#release}) sau khi transaction của bước commit.
+ * - Trừ kho: mỗi transaction chỉ khóa các dòng product của một đơn, theo thứ tự product_id như mọi thao tác của
+ *   {@link InventoryService} (huỷ đơn, nhập hàng), nên không deadlock với chúng và một đơn lỗi không rollback cả lô.
+ */
+@Service
+public class OrderPipelineServiceImplement implements OrderPipelineService, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPipelineServiceImplement.class);
+    private static final String METRIC_PREFIX = "order.pipeline";
+
+    private final OrderRepository orderRepository;
+    private final ShippingUnitRepository shippingUnitRepository;
+    private final InventoryService inventoryService;
+    private final OrderStatusService orderStatusService;
+    private final DiscountPricingService discountPricingService;
+    private final DiscountCodeService discountCodeService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration staleAfter;
+    private final int sweepBatchSize;
+
+    // Đơn đang nằm trong pipeline, tránh sweeper đưa trùng một đơn vào hai lần
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong shippingRoundRobin = new AtomicLong();
+
+    private final BatchingStage<UUID> validateStockStage;
+    private final BatchingStage<UUID> discountStage;
+    private final BatchingStage<UUID> reserveStage;
+    private final BatchingStage<UUID> shippingStage;
+    private final BatchingStage<UUID> confirmStage;
+
+    @Autowired
+    public OrderPipelineServiceImplement(OrderRepository orderRepository,
+                                         ShippingUnitRepository shippingUnitRepository,
+                                         InventoryService inventoryService,
+                                         OrderStatusService orderStatusService,
+                                         DiscountPricingService discountPricingService,
+                                         DiscountCodeService discountCodeService,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${app.orders.pipeline.threads:2}") int threads,
+                                         @Value("${app.orders.pipeline.queue-capacity:1000}") int queueCapacity,
+                                         @Value("${app.orders.pipeline.batch-size:50}") int batchSize,
+                                         @Value("${app.orders.pipeline.offer-timeout:2s}") Duration offerTimeout,
+                                         @Value("${app.orders.pipeline.stale-after:2m}") Duration staleAfter,
+                                         @Value("${app.orders.pipeline.sweep-batch-size:500}") int sweepBatchSize) {
+        this.orderRepository = orderRepository;
+        this.shippingUnitRepository = shippingUnitRepository;
+        this.inventoryService = inventoryService;
+        this.orderStatusService = orderStatusService;
+        this.discountPricingService = discountPricingService;
+        this.discountCodeService = discountCodeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.staleAfter = staleAfter;
+        this.sweepBatchSize = sweepBatchSize;
+
+        // Tạo từ bước cuối lên bước đầu để mỗi bước có sẵn bước kế tiếp
+        this.confirmStage = new BatchingStage<>("confirm", METRIC_PREFIX, threads, queueCapacity, batchSize, offerTimeout,
+                this::confirm, this::release, meterRegistry);
+        this.shippingStage = new BatchingStage<>("assign-shipping", METRIC_PREFIX, threads, queueCapacity, batchSize, offerTimeout,
+                this::assignShipping, this::release, meterRegistry);
+        this.reserveStage = new BatchingStage<>("reserve-stock", METRIC_PREFIX, threads, queueCapacity, batchSize, offerTimeout,
+                this::reserveStock, this::release, meterRegistry);
+        this.discountStage = new BatchingStage<>("apply-discounts", METRIC_PREFIX, threads, queueCapacity, batchSize, offerTimeout,
+                this::applyDiscounts, this::release, meterRegistry);
+        this.validateStockStage = new BatchingStage<>("validate-stock", METRIC_PREFIX, threads, queueCapacity, batchSize, offerTimeout,
+                this::validateStock, this::release, meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".in.flight", inFlight, Set::size).register(meterRegistry);
+    }
+
+    @Override
+    public boolean submit(UUID orderId) {
+        if (orderId == null || !inFlight.add(orderId)) {
+            return false;
+        }
+        if (validateStockStage.offer(orderId)) {
+            return true;
+        }
+        inFlight.remove(orderId);
+        log.warn("Pipeline xử lý đơn quá tải, đơn {} sẽ được xử lý lại sau", orderId);
+        return false;
+    }
+
+    @Override
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Đưa lại vào pipeline các đơn PENDING quá lâu (bị từ chối do quá tải, lỗi giữa chừng hoặc app restart).
+     * - Lưu ý: lần chạy đầu ngay khi khởi động, nên các đơn còn dở từ lần chạy trước được xử lý tiếp.
+     */
+    @Scheduled(fixedDelayString = "${app.orders.pipeline.sweep-interval:60s}")
+    public void sweepStalePendingOrders() {
+        List<UUID> stale = orderRepository.findIdsByStatusCreatedBefore(Order.OrderStatus.PENDING,
+                LocalDateTime.now().minus(staleAfter), Limit.of(sweepBatchSize));
+        int submitted = 0;
+        for (UUID orderId : stale) {
+            if (inFlight.contains(orderId)) continue;
+            if (!submit(orderId)) break;
+            submitted++;
+        }
+        if (submitted > 0) {
+            log.info("Đưa lại {} đơn PENDING vào pipeline vào lúc: {}", submitted, LocalDateTime.now());
+        }
+    }
+
+    @Override
+    public void close() {
+        validateStockStage.close();
+        discountStage.close();
+        reserveStage.close();
+        shippingStage.close();
+        confirmStage.close();
+    }
+
+    // --- Bước 1: kiểm tra tồn kho (chỉ đọc, chưa khóa dòng product) ---
+    private void validateStock(List<UUID> orderIds) {
+        List<UUID> passed = new ArrayList<>(orderIds.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            List<UUID> outOfStock = new ArrayList<>();
+            for (Order order : orderRepository.findWithItemsByOrderIdIn(orderIds)) {
+                if (order.getOrderStatus() != Order.OrderStatus.PENDING) continue;
+                // Đơn đã trừ kho ở lần chạy trước: không cần kiểm tra lại
+                if (order.getStockReservedAt() != null || hasStock(order)) {
+                    passed.add(order.getOrderId());
+                } else {
+                    outOfStock.add(order.getOrderId());
+                }
+            }
+            cancel(outOfStock);
+        });
+        forward(orderIds, passed, discountStage);
+    }
+
+    private static boolean hasStock(Order order) {
+        Map<UUID, Integer> required = new HashMap<>();
+        Map<UUID, Integer> available = new HashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            UUID productId = item.getProduct().getProductId();
+            required.merge(productId, item.getQuantity(), Integer::sum);
+            boolean sellable = Boolean.TRUE.equals(item.getProduct().getIsAvailable()) && item.getProduct().getQuantity() != null;
+            available.put(productId, sellable ? item.getProduct().getQuantity() : 0);
+        }
+        for (Map.Entry<UUID, Integer> entry : required.entrySet()) {
+            if (available.get(entry.getKey()) < entry.getValue()) return false;
+        }
+        return !required.isEmpty();
+    }
+
+    // --- Bước 2: bỏ các mã giảm giá đã hết hạn / bị tắt và tính lại discountAmount / finalPrice ---
+    private void applyDiscounts(List<UUID> orderIds) {
+        List<UUID> passed = new ArrayList<>(orderIds.size());
+        List<Discount> dropped = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (Order order : orderRepository.findWithDiscountsByOrderIdIn(orderIds)) {
+                if (order.getOrderStatus() != Order.OrderStatus.PENDING) continue;
+                // Chỉ sửa phía Order (chủ sở hữu bảng discount_order), không nạp Discount.orders
+                order.getDiscounts().removeIf(discount -> {
+                    if (isUsable(discount, now)) return false;
+                    dropped.add(discount);
+                    return true;
+                });
+                discountPricingService.applyTo(order);
+                passed.add(order.getOrderId());
+            }
+        });
+        // Đã commit: trả lại lượt dùng của các mã vừa bỏ khỏi đơn (rollback thì không tới đây, mã vẫn gắn với đơn)
+        dropped.forEach(discount -> discountCodeService.release(discount.getDiscountCode(), discount.getDiscountId()));
+        forward(orderIds, passed, reserveStage);
+    }
+
+    private static boolean isUsable(Discount discount, LocalDateTime now) {
+        return Boolean.TRUE.equals(discount.getIsAvailable())
+                && (discount.getStartAt() == null || !now.isBefore(discount.getStartAt()))
+                && (discount.getEndAt() == null || now.isBefore(discount.getEndAt()));
+    }
+
+    // --- Bước 3: trừ tồn kho, mỗi đơn một transaction; đơn thiếu hàng được hoàn lại phần đã trừ và bị huỷ ---
+    private void reserveStock(List<UUID> orderIds) {
+        List<UUID> passed = new ArrayList<>(orderIds.size());
+        for (UUID orderId : orderIds) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> reserveOrder(orderId)))) {
+                    passed.add(orderId);
+                }
+            } catch (RuntimeException e) {
+                // Đơn vẫn PENDING, sweeper sẽ đưa lại vào pipeline
+                log.error("Lỗi khi trừ tồn kho cho đơn {}", orderId, e);
+            }
+        }
+        forward(orderIds, passed, shippingStage);
+    }
+
+    // Trả về true nếu đơn đi tiếp sang bước gán vận chuyển
+    private boolean reserveOrder(UUID orderId) {
+        Order order = orderRepository.findWithItemsByOrderIdIn(List.of(orderId)).stream().findFirst().orElse(null);
+        if (order == null || order.getOrderStatus() != Order.OrderStatus.PENDING) return false;
+        if (orderRepository.markStockReserved(orderId, LocalDateTime.now()) == 0) {
+            return true; // đã trừ kho ở lần chạy trước
+        }
+        StockReservationDTO reservation = inventoryService.reserve(order.getOrderItems());
+        if (reservation.isFullyReserved()) return true;
+
+        inventoryService.undoReservation(reservation);
+        orderRepository.releaseStockReservations(List.of(orderId));
+        cancel(List.of(orderId));
+        return false;
+    }
+
+    // --- Bước 4: gán đơn vị vận chuyển (xoay vòng) cho các đơn khách chưa chọn ---
+    private void assignShipping(List<UUID> orderIds) {
+        List<UUID> pending = new ArrayList<>(orderIds.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            pending.addAll(orderRepository.findIdsByOrderIdInAndStatus(orderIds, Order.OrderStatus.PENDING));
+            if (pending.isEmpty()) return;
+            List<UUID> unassigned = orderRepository.findIdsWithoutShippingUnit(pending);
+            if (unassigned.isEmpty()) return;
+            List<UUID> shippingUnitIds = shippingUnitRepository.findAllShippingUnitIds();
+            if (shippingUnitIds.isEmpty()) {
+                log.warn("Chưa có đơn vị vận chuyển, {} đơn được xác nhận mà chưa gán vận chuyển", unassigned.size());
+                return;
+            }
+            Map<UUID, List<UUID>> byShippingUnit = new HashMap<>();
+            for (UUID orderId : unassigned) {
+                int index = (int) Math.floorMod(shippingRoundRobin.getAndIncrement(), (long) shippingUnitIds.size());
+                byShippingUnit.computeIfAbsent(shippingUnitIds.get(index), key -> new ArrayList<>()).add(orderId);
+            }
+            byShippingUnit.forEach((shippingUnitId, ids) ->
+                    orderRepository.assignShippingUnit(ids, shippingUnitRepository.getReferenceById(shippingUnitId)));
+        });
+        // Đơn đã bị huỷ ở bước trước (hoặc khách vừa huỷ) rời pipeline, không tính là "rejected" ở bước xác nhận
+        forward(orderIds, pending, confirmStage);
+    }
+
+    // --- Bước 5: PENDING -> CONFIRMED ---
+    private void confirm(List<UUID> orderIds) {
+        try {
+            int confirmed = orderStatusService.transitionAll(orderIds, Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED)
+                    .applied().size();
+            log.info("Đã xác nhận {} / {} đơn hàng vào lúc: {}", confirmed, orderIds.size(), LocalDateTime.now());
+        } finally {
+            release(orderIds);
+        }
+    }
+
+    // --- Helpers ---
+    private void cancel(List<UUID> orderIds) {
+        if (orderIds.isEmpty()) return;
+        // Chạy trong transaction của bước hiện tại
+        int cancelled = orderStatusService.transitionAll(orderIds, Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED)
+                .applied().size();
+        log.warn("Huỷ {} đơn hàng do không đủ tồn kho: {}", cancelled, orderIds);
+    }
+
+    // Chuyển các đơn còn xử lý tiếp sang bước sau; các đơn còn lại (đã huỷ / không còn PENDING) rời pipeline
+    private void forward(List<UUID> batch, List<UUID> passed, BatchingStage<UUID> next) {
+        Set<UUID> remaining = new HashSet<>(batch);
+        for (UUID orderId : passed) {
+            if (next.offer(orderId)) {
+                remaining.remove(orderId);
+            } else {
+                log.warn("Stage {} quá tải, đơn {} sẽ được xử lý lại sau", next.getName(), orderId);
+            }
+        }
+        release(remaining);
+    }
+
+    private void release(Collection<UUID> orderIds) {
+        inFlight.removeAll(orderIds);
+    }
+}
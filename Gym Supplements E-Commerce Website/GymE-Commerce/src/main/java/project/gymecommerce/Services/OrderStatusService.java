@@ -0,0 +1,19 @@
+package project.gymecommerce.Services;
+
+import project.gymecommerce.DTOs.Order.StatusTransitionResultDTO;
+import project.gymecommerce.Models.Order.Order;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface OrderStatusService {
+
+    //chuyển một đơn từ expected sang target (compare-and-set); false nếu đơn đã bị đổi trạng thái trước đó
+    public boolean transition(UUID orderId, Order.OrderStatus expected, Order.OrderStatus target);
+
+    //chuyển hàng loạt các đơn đang ở trạng thái from sang to; đơn không còn ở from được trả về trong rejected
+    public StatusTransitionResultDTO transitionAll(Collection<UUID> orderIds, Order.OrderStatus from, Order.OrderStatus to);
+
+    //khách hàng huỷ đơn của chính mình; false nếu đơn vừa bị nhân viên chuyển sang trạng thái khác
+    public boolean cancelByCustomer(String email, UUID orderId);
+}
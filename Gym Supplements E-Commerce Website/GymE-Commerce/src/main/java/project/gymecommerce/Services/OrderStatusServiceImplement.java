@@ -0,0 +1,167 @@
+package project.gymecommerce.Services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.DTOs.Order.StatusTransitionResultDTO;
+import project.gymecommerce.Models.Order.Order;
+import project.gymecommerce.Models.Order.OrderItem;
+import project.gymecommerce.Repositories.OrderRepo.OrderRepository;
+import project.gymecommerce.Repositories.UserRepo.UserAccountRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Chuyển trạng thái đơn hàng theo bảng {@link Order.OrderStatus#canTransitionTo}, không qua read-modify-write entity.
+ * - Một đơn: UPDATE orders SET order_status = target WHERE order_id = ? AND order_status = expected (compare-and-set);
+ *   0 dòng nghĩa là người khác đã đổi trạng thái trước (ví dụ khách huỷ đúng lúc nhân viên chuyển sang SHIPPING),
+ *   bên thua nhận false thay vì ghi đè.
+ * - Hàng loạt: mỗi lô (bulk-chunk-size đơn) khóa các đơn còn ở trạng thái from bằng SELECT ... FOR UPDATE rồi chạy
+ *   một câu UPDATE có điều kiện, nên biết chính xác đơn nào đã chuyển để ghi outbox.
+ * - Sau khi chuyển: ghi OrderStatusChangedEvent vào order_outbox trong cùng transaction; đơn bị huỷ khi đã trừ kho
+ *   được cộng lại tồn kho.
+ * - Metrics: order.status.transitions (tag from, to, outcome = applied | rejected).
+ */
+@Service
+public class OrderStatusServiceImplement implements OrderStatusService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusServiceImplement.class);
+
+    private final OrderRepository orderRepository;
+    private final UserAccountRepository userAccountRepository;
+    private final OrderOutboxService orderOutboxService;
+    private final InventoryService inventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int bulkChunkSize;
+
+    @Autowired
+    public OrderStatusServiceImplement(OrderRepository orderRepository,
+                                       UserAccountRepository userAccountRepository,
+                                       OrderOutboxService orderOutboxService,
+                                       InventoryService inventoryService,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${app.orders.status.bulk-chunk-size:200}") int bulkChunkSize) {
+        this.orderRepository = orderRepository;
+        this.userAccountRepository = userAccountRepository;
+        this.orderOutboxService = orderOutboxService;
+        this.inventoryService = inventoryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.bulkChunkSize = Math.max(1, bulkChunkSize);
+    }
+
+    @Override
+    public boolean transition(UUID orderId, Order.OrderStatus expected, Order.OrderStatus target) {
+        validate(expected, target);
+        Boolean applied = transactionTemplate.execute(status -> {
+            List<UUID> orderIds = List.of(orderId);
+            if (orderRepository.transitionStatus(orderIds, expected, target) == 0) {
+                return false;
+            }
+            afterTransition(orderIds, expected, target);
+            return true;
+        });
+        boolean result = Boolean.TRUE.equals(applied);
+        record(expected, target, result ? 1 : 0, result ? 0 : 1);
+        if (!result) {
+            log.warn("Đơn hàng {} không còn ở trạng thái {}, bỏ qua chuyển sang {}", orderId, expected, target);
+        }
+        return result;
+    }
+
+    @Override
+    public StatusTransitionResultDTO transitionAll(Collection<UUID> orderIds, Order.OrderStatus from, Order.OrderStatus to) {
+        validate(from, to);
+        if (orderIds == null || orderIds.isEmpty()) {
+            return new StatusTransitionResultDTO(List.of(), List.of());
+        }
+
+        List<UUID> distinct = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        List<UUID> applied = new ArrayList<>(distinct.size());
+        List<UUID> rejected = new ArrayList<>();
+        // Mỗi lô một transaction để không giữ khóa trên hàng trăm đơn cùng lúc (tham gia transaction ngoài nếu có)
+        for (int start = 0; start < distinct.size(); start += bulkChunkSize) {
+            List<UUID> chunk = distinct.subList(start, Math.min(start + bulkChunkSize, distinct.size()));
+            List<UUID> locked = transactionTemplate.execute(status -> transitionChunk(chunk, from, to));
+            Set<UUID> lockedSet = new HashSet<>(locked);
+            applied.addAll(locked);
+            for (UUID orderId : chunk) {
+                if (!lockedSet.contains(orderId)) rejected.add(orderId);
+            }
+        }
+
+        record(from, to, applied.size(), rejected.size());
+        if (!rejected.isEmpty()) {
+            log.warn("Chuyển {} -> {}: {} đơn bị từ chối vì không còn ở trạng thái {}", from, to, rejected.size(), from);
+        }
+        return new StatusTransitionResultDTO(List.copyOf(applied), List.copyOf(rejected));
+    }
+
+    @Override
+    public boolean cancelByCustomer(String email, UUID orderId) {
+        UUID userAccountId = userAccountRepository.findUserAccountIdByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Order.OrderStatus current = orderRepository.findStatusByOrderIdAndUserAccountId(orderId, userAccountId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        // Trạng thái vừa đọc là giá trị kỳ vọng của compare-and-set
+        return transition(orderId, current, Order.OrderStatus.CANCELLED);
+    }
+
+    // --- Helpers ---
+    private List<UUID> transitionChunk(List<UUID> chunk, Order.OrderStatus from, Order.OrderStatus to) {
+        List<UUID> locked = orderRepository.findForUpdateByOrderIdInAndOrderStatus(chunk, from).stream()
+                .map(Order::getOrderId)
+                .toList();
+        if (locked.isEmpty()) return List.of();
+        orderRepository.transitionStatus(locked, from, to);
+        afterTransition(locked, from, to);
+        return locked;
+    }
+
+    private void afterTransition(List<UUID> orderIds, Order.OrderStatus from, Order.OrderStatus to) {
+        orderOutboxService.append(orderIds, from, to);
+        if (to == Order.OrderStatus.CANCELLED) {
+            restock(orderIds);
+        }
+    }
+
+    // Cộng lại tồn kho cho các đơn bị huỷ sau khi đã trừ kho
+    private void restock(List<UUID> orderIds) {
+        List<UUID> reserved = orderRepository.findIdsWithStockReserved(orderIds);
+        if (reserved.isEmpty()) return;
+        List<OrderItem> items = new ArrayList<>();
+        for (Order order : orderRepository.findWithItemsByOrderIdIn(reserved)) {
+            items.addAll(order.getOrderItems());
+        }
+        inventoryService.release(items);
+        orderRepository.releaseStockReservations(reserved);
+    }
+
+    private static void validate(Order.OrderStatus from, Order.OrderStatus to) {
+        if (from == null || to == null || !from.canTransitionTo(to)) {
+            throw new RuntimeException("Invalid status transition");
+        }
+    }
+
+    private void record(Order.OrderStatus from, Order.OrderStatus to, int applied, int rejected) {
+        if (applied > 0) {
+            meterRegistry.counter("order.status.transitions", "from", from.name(), "to", to.name(), "outcome", "applied").increment(applied);
+        }
+        if (rejected > 0) {
+            meterRegistry.counter("order.status.transitions", "from", from.name(), "to", to.name(), "outcome", "rejected").increment(rejected);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package project.gymecommerce.Services;
+
+import project.gymecommerce.DTOs.Product.ProductCatalogDTO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ProductCatalogService {
+
+    //lấy snapshot catalog của một sản phẩm (ưu tiên cache)
+    public Optional<ProductCatalogDTO> findById(UUID productId);
+
+    //lấy snapshot của nhiều sản phẩm cho trang danh sách, giữ nguyên thứ tự productIds
+    public List<ProductCatalogDTO> findAllById(Collection<UUID> productIds);
+
+    //xóa một sản phẩm khỏi cache
+    public void evict(UUID productId);
+}
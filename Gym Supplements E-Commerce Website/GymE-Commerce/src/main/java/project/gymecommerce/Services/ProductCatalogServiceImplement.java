@@ -0,0 +1,149 @@
+package project.gymecommerce.Services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.DTOs.Product.ProductCatalogDTO;
+import project.gymecommerce.Events.ProductChangedEvent;
+import project.gymecommerce.Repositories.ProductRepo.ProductRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Cache đọc cho catalog sản phẩm, đặt trước ProductRepository.
+ * - Ý nghĩa: product ít thay đổi nên phần lớn lượt xem catalog được phục vụ từ bộ nhớ thay vì MySQL.
+ * - Giới hạn: số phần tử tối đa (app.cache.product.max-size) và thời gian sống (app.cache.product.ttl).
+ * - Invalidation: khi product được ghi, ProductChangedEvent (sau commit) xóa entry và ghi nhận updatedAt
+ *   làm "mốc" tối thiểu; snapshot nào được đọc với updatedAt cũ hơn mốc sẽ không được đưa vào cache.
+ * - Lưu ý: đổi tên Brand/Category không phát sự kiện, snapshot cũ chỉ tồn tại tối đa một TTL.
+ * - Metrics: cache.gets (hit/miss), cache.evictions, cache.size với tag cache=productCatalog tại /actuator/metrics.
+ */
+@Service
+public class ProductCatalogServiceImplement implements ProductCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalogServiceImplement.class);
+    private static final String CACHE_NAME = "productCatalog";
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Cache<UUID, ProductCatalogDTO> cache;
+    // updatedAt của lần ghi gần nhất đã commit cho từng product
+    private final Cache<UUID, LocalDateTime> invalidationMarks;
+
+    @Autowired
+    public ProductCatalogServiceImplement(ProductRepository productRepository,
+                                          PlatformTransactionManager transactionManager,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${app.cache.product.max-size:10000}") long maxSize,
+                                          @Value("${app.cache.product.ttl:10m}") Duration ttl) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.invalidationMarks = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    // Lấy snapshot catalog của một sản phẩm
+    @Override
+    public Optional<ProductCatalogDTO> findById(UUID productId) {
+        if (productId == null) return Optional.empty();
+
+        ProductCatalogDTO cached = cache.getIfPresent(productId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<ProductCatalogDTO> loaded = readOnlyTransaction.execute(status ->
+                productRepository.findCatalogByProductId(productId).map(ProductCatalogDTO::from));
+        loaded.ifPresent(this::putIfFresh);
+        return loaded;
+    }
+
+    // Lấy snapshot của nhiều sản phẩm; các sản phẩm chưa có trong cache được tải chung một query
+    @Override
+    public List<ProductCatalogDTO> findAllById(Collection<UUID> productIds) {
+        if (productIds == null || productIds.isEmpty()) return List.of();
+
+        Set<UUID> ids = new LinkedHashSet<>(productIds);
+        Map<UUID, ProductCatalogDTO> found = new HashMap<>(cache.getAllPresent(ids));
+
+        List<UUID> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            List<ProductCatalogDTO> loaded = readOnlyTransaction.execute(status ->
+                    productRepository.findCatalogByProductIdIn(missing).stream()
+                            .map(ProductCatalogDTO::from)
+                            .toList());
+            for (ProductCatalogDTO snapshot : loaded) {
+                found.put(snapshot.productId(), snapshot);
+                putIfFresh(snapshot);
+            }
+        }
+
+        List<ProductCatalogDTO> result = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            ProductCatalogDTO snapshot = found.get(id);
+            if (snapshot != null) result.add(snapshot);
+        }
+        return result;
+    }
+
+    @Override
+    public void evict(UUID productId) {
+        if (productId == null) return;
+        cache.invalidate(productId);
+    }
+
+    // Invalidation sau khi transaction ghi product đã commit
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.productId() == null) return;
+        invalidationMarks.asMap().merge(event.productId(), event.updatedAt(),
+                (current, incoming) -> incoming.isAfter(current) ? incoming : current);
+        cache.invalidate(event.productId());
+        log.debug("Đã xóa product {} khỏi cache catalog ({})", event.productId(), event.changeType());
+    }
+
+    // Chỉ cache snapshot không cũ hơn lần ghi đã commit gần nhất, và không ghi đè snapshot mới hơn
+    private void putIfFresh(ProductCatalogDTO snapshot) {
+        LocalDateTime mark = invalidationMarks.getIfPresent(snapshot.productId());
+        if (mark != null && snapshot.updatedAt() != null && snapshot.updatedAt().isBefore(mark)) {
+            return;
+        }
+        cache.asMap().merge(snapshot.productId(), snapshot, (current, incoming) ->
+                isNewer(incoming, current) ? incoming : current);
+    }
+
+    private static boolean isNewer(ProductCatalogDTO incoming, ProductCatalogDTO current) {
+        if (current.updatedAt() == null) return true;
+        if (incoming.updatedAt() == null) return false;
+        return !incoming.updatedAt().isBefore(current.updatedAt());
+    }
+}
@@ -0,0 +1,13 @@
+package project.gymecommerce.Services;
+
+import project.gymecommerce.DTOs.Product.ProductListingDTO;
+import project.gymecommerce.Search.ProductFacetIndex;
+
+public interface ProductFacetService {
+
+    //lấy một trang sản phẩm theo bộ lọc facet kèm số lượng từng facet
+    public ProductListingDTO findListing(ProductFacetIndex.Filter filter, int page, int size);
+
+    //dựng lại toàn bộ index facet từ database
+    public void rebuildIndex();
+}
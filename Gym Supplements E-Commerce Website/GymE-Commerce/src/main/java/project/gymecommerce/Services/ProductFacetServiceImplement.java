@@ -0,0 +1,103 @@
+package project.gymecommerce.Services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import project.gymecommerce.DTOs.Product.ProductCatalogDTO;
+import project.gymecommerce.DTOs.Product.ProductListingDTO;
+import project.gymecommerce.Events.ProductChangedEvent;
+import project.gymecommerce.Search.ProductFacetIndex;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Danh sách sản phẩm có lọc theo facet (thương hiệu, danh mục, còn hàng, khoảng giá) dựa trên {@link ProductFacetIndex}.
+ * - Chỉ liệt kê sản phẩm đang hiển thị (isAvailable); facet còn hàng tính theo quantity > 0 và được cập nhật
+ *   qua ProductChangedEvent mà InventoryService phát khi sản phẩm hết hàng / có hàng trở lại.
+ * - Dựng index: khi ứng dụng sẵn sàng; cập nhật từng sản phẩm khi nhận ProductChangedEvent sau commit (@Async).
+ * - Mỗi request chỉ thực hiện phép toán trên BitSet rồi lấy snapshot của đúng các sản phẩm trong trang
+ *   qua ProductCatalogService (ưu tiên cache), kèm tổng hợp đánh giá từ ProductRatingService (trong bộ nhớ).
+ * - Lưu ý: đổi tên Brand/Category không phát sự kiện; cần rebuildIndex() để facet dùng tên mới ngay.
+ */
+@Service
+public class ProductFacetServiceImplement implements ProductFacetService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFacetServiceImplement.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 24;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ProductSnapshotLoader productSnapshotLoader;
+    private final ProductCatalogService productCatalogService;
+    private final ProductRatingService productRatingService;
+    private final ProductFacetIndex index;
+
+    @Autowired
+    public ProductFacetServiceImplement(ProductSnapshotLoader productSnapshotLoader,
+                                        ProductCatalogService productCatalogService,
+                                        ProductRatingService productRatingService,
+                                        @Value("${app.facets.price-buckets:200000,500000,1000000,2000000}") List<BigDecimal> priceBuckets) {
+        this.productSnapshotLoader = productSnapshotLoader;
+        this.productCatalogService = productCatalogService;
+        this.productRatingService = productRatingService;
+        this.index = new ProductFacetIndex(priceBuckets);
+    }
+
+    @Override
+    public ProductListingDTO findListing(ProductFacetIndex.Filter filter, int page, int size) {
+        int pageSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        int pageNumber = Math.max(page, 0);
+        // Tính offset bằng long để page quá lớn không bị tràn int; vượt quá số sản phẩm thì trang rỗng
+        int offset = (int) Math.min((long) pageNumber * pageSize, Integer.MAX_VALUE);
+
+        ProductFacetIndex.Result result = index.query(filter, offset, pageSize);
+        List<ProductCatalogDTO> products = productCatalogService.findAllById(result.productIds());
+        return new ProductListingDTO(products,
+                result.totalCount(),
+                pageNumber,
+                pageSize,
+                result.brandCounts(),
+                result.categoryCounts(),
+                result.stockCounts(),
+                result.priceBucketCounts(),
+                productRatingService.findByProductIds(result.productIds()));
+    }
+
+    // Dựng index facet khi khởi động
+    @EventListener(ApplicationReadyEvent.class)
+    @Override
+    public void rebuildIndex() {
+        long start = System.nanoTime();
+        index.rebuild(productSnapshotLoader.loadAll());
+        log.info("Đã dựng index facet cho {} sản phẩm trong {} ms vào lúc: {}",
+                index.size(), (System.nanoTime() - start) / 1_000_000, LocalDateTime.now());
+    }
+
+    // Cập nhật bit của một sản phẩm sau khi transaction ghi đã commit
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.productId() == null) return;
+        if (event.changeType() == ProductChangedEvent.ChangeType.DELETED) {
+            index.remove(event.productId());
+            return;
+        }
+
+        Optional<ProductCatalogDTO> product = productSnapshotLoader.load(event.productId());
+        if (product.isPresent()) {
+            index.index(product.get());
+        } else {
+            index.remove(event.productId());
+        }
+    }
+}
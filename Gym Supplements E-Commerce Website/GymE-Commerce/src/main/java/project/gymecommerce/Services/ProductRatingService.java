@@ -0,0 +1,22 @@
+package project.gymecommerce.Services;
+
+import project.gymecommerce.DTOs.Product.ProductRatingDTO;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+public interface ProductRatingService {
+
+    //lấy tổng hợp đánh giá của một sản phẩm (từ bộ nhớ)
+    public ProductRatingDTO findByProductId(UUID productId);
+
+    //lấy tổng hợp đánh giá của nhiều sản phẩm cho trang danh sách
+    public Map<UUID, ProductRatingDTO> findByProductIds(Collection<UUID> productIds);
+
+    //nạp lại bộ nhớ từ bảng product_rating_summary
+    public void reload();
+
+    //tính lại bảng product_rating_summary từ product_review rồi nạp lại bộ nhớ
+    public void rebuildFromReviews();
+}
@@ -0,0 +1,171 @@
+package project.gymecommerce.Services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.DTOs.Product.ProductRatingDTO;
+import project.gymecommerce.Events.ProductChangedEvent;
+import project.gymecommerce.Events.ProductReviewChangedEvent;
+import project.gymecommerce.Models.Identifier.UuidBytes;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tổng hợp đánh giá theo sản phẩm (số lượng, tổng điểm, phân bố 1-5 sao), được duy trì tăng dần.
+ * - Ghi: mỗi ProductReviewChangedEvent cập nhật bảng product_rating_summary ngay trong transaction ghi review
+ *   (cùng connection), nên bảng tổng hợp luôn khớp với product_review khi commit / rollback.
+ * - Đọc: toàn bộ tổng hợp được giữ trong bộ nhớ; chỉ cộng thay đổi sau khi transaction đã commit.
+ * - Khởi động: nạp lại từ product_rating_summary (một query); nếu bảng trống mà đã có review
+ *   (lần triển khai đầu) thì tính lại từ product_review.
+ * - Lưu ý: bulk JPQL / SQL trên product_review không phát sự kiện, cần gọi rebuildFromReviews() sau khi chạy.
+ */
+@Service
+public class ProductRatingServiceImplement implements ProductRatingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductRatingServiceImplement.class);
+
+    private static final String ENSURE_ROW_SQL =
+            "INSERT IGNORE INTO product_rating_summary (product_id, updated_at) VALUES (?, ?)";
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE product_rating_summary SET " +
+                    "review_count = GREATEST(CAST(review_count AS SIGNED) + ?, 0), " +
+                    "rating_sum = GREATEST(CAST(rating_sum AS SIGNED) + ?, 0), " +
+                    "star_1 = GREATEST(CAST(star_1 AS SIGNED) + ?, 0), " +
+                    "star_2 = GREATEST(CAST(star_2 AS SIGNED) + ?, 0), " +
+                    "star_3 = GREATEST(CAST(star_3 AS SIGNED) + ?, 0), " +
+                    "star_4 = GREATEST(CAST(star_4 AS SIGNED) + ?, 0), " +
+                    "star_5 = GREATEST(CAST(star_5 AS SIGNED) + ?, 0), " +
+                    "updated_at = ? " +
+                    "WHERE product_id = ?";
+    private static final String SELECT_ALL_SQL =
+            "SELECT product_id, review_count, rating_sum, star_1, star_2, star_3, star_4, star_5 FROM product_rating_summary";
+    private static final String REBUILD_SQL =
+            "INSERT INTO product_rating_summary " +
+                    "(product_id, review_count, rating_sum, star_1, star_2, star_3, star_4, star_5, updated_at) " +
+                    "SELECT product_id, COUNT(*), SUM(rating), " +
+                    "SUM(rating = 1), SUM(rating = 2), SUM(rating = 3), SUM(rating = 4), SUM(rating = 5), NOW() " +
+                    "FROM product_review GROUP BY product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<UUID, ProductRatingDTO> ratings = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProductRatingServiceImplement(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public ProductRatingDTO findByProductId(UUID productId) {
+        ProductRatingDTO rating = ratings.get(productId);
+        return rating != null ? rating : ProductRatingDTO.empty(productId);
+    }
+
+    @Override
+    public Map<UUID, ProductRatingDTO> findByProductIds(Collection<UUID> productIds) {
+        Map<UUID, ProductRatingDTO> result = new HashMap<>();
+        for (UUID productId : productIds) {
+            result.put(productId, findByProductId(productId));
+        }
+        return result;
+    }
+
+    // Nạp tổng hợp đã lưu khi khởi động
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Boolean summaryEmpty = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS(SELECT 1 FROM product_rating_summary)", Boolean.class);
+        Boolean hasReviews = jdbcTemplate.queryForObject(
+                "SELECT EXISTS(SELECT 1 FROM product_review)", Boolean.class);
+        if (Boolean.TRUE.equals(summaryEmpty) && Boolean.TRUE.equals(hasReviews)) {
+            rebuildFromReviews();
+        } else {
+            reload();
+        }
+    }
+
+    @Override
+    public void reload() {
+        long start = System.nanoTime();
+        Map<UUID, ProductRatingDTO> loaded = new HashMap<>();
+        jdbcTemplate.query(SELECT_ALL_SQL, rs -> {
+            UUID productId = UuidBytes.fromBytes(rs.getBytes("product_id"));
+            loaded.put(productId, new ProductRatingDTO(productId,
+                    rs.getInt("review_count"),
+                    rs.getLong("rating_sum"),
+                    rs.getInt("star_1"),
+                    rs.getInt("star_2"),
+                    rs.getInt("star_3"),
+                    rs.getInt("star_4"),
+                    rs.getInt("star_5")));
+        });
+        ratings.clear();
+        ratings.putAll(loaded);
+        log.info("Đã nạp tổng hợp đánh giá của {} sản phẩm trong {} ms", loaded.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void rebuildFromReviews() {
+        Integer rows = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("DELETE FROM product_rating_summary");
+            return jdbcTemplate.update(REBUILD_SQL);
+        });
+        log.info("Đã tính lại tổng hợp đánh giá cho {} sản phẩm từ product_review vào lúc: {}", rows, LocalDateTime.now());
+        reload();
+    }
+
+    // Ghi thay đổi xuống product_rating_summary trong cùng transaction với review (chạy đồng bộ lúc flush)
+    @EventListener
+    public void onReviewChanged(ProductReviewChangedEvent event) {
+        int[] starDelta = new int[5];
+        int countDelta = 0;
+        int sumDelta = 0;
+        if (event.previousRating() != null) {
+            countDelta--;
+            sumDelta -= event.previousRating();
+            starDelta[event.previousRating() - 1]--;
+        }
+        if (event.newRating() != null) {
+            countDelta++;
+            sumDelta += event.newRating();
+            starDelta[event.newRating() - 1]++;
+        }
+
+        byte[] productId = UuidBytes.toBytes(event.productId());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(ENSURE_ROW_SQL, productId, now);
+        jdbcTemplate.update(APPLY_DELTA_SQL, countDelta, sumDelta,
+                starDelta[0], starDelta[1], starDelta[2], starDelta[3], starDelta[4], now, productId);
+    }
+
+    // Cập nhật bộ nhớ sau khi transaction ghi review đã commit
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReviewCommitted(ProductReviewChangedEvent event) {
+        ratings.compute(event.productId(), (productId, current) ->
+                (current != null ? current : ProductRatingDTO.empty(productId))
+                        .apply(event.previousRating(), event.newRating()));
+    }
+
+    // Sản phẩm bị xóa: dòng tổng hợp bị xóa theo khóa ngoại (ON DELETE CASCADE), chỉ cần bỏ khỏi bộ nhớ
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.changeType() == ProductChangedEvent.ChangeType.DELETED && event.productId() != null) {
+            ratings.remove(event.productId());
+        }
+    }
+}
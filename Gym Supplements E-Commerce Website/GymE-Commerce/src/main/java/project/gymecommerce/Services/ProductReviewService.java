@@ -0,0 +1,12 @@
+package project.gymecommerce.Services;
+
+import project.gymecommerce.DTOs.CursorPageDTO;
+import project.gymecommerce.DTOs.Product.ProductReviewDTO;
+
+import java.util.UUID;
+
+public interface ProductReviewService {
+
+    //lấy một trang đánh giá của sản phẩm (mới nhất trước), truyền nextCursor của trang trước vào "after"
+    public CursorPageDTO<ProductReviewDTO> findFeed(UUID productId, String after, int size);
+}
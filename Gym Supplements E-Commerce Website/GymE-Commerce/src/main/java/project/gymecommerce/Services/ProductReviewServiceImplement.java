@@ -0,0 +1,59 @@
+package project.gymecommerce.Services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.gymecommerce.DTOs.CursorPageDTO;
+import project.gymecommerce.DTOs.KeysetCursorDTO;
+import project.gymecommerce.DTOs.Product.ProductReviewDTO;
+import project.gymecommerce.Repositories.ProductRepo.ProductReviewRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Danh sách đánh giá của sản phẩm, phân trang theo keyset (created_at, product_review_id).
+ * - Ý nghĩa: mỗi trang là một range scan trên index (product_id, created_at, product_review_id),
+ *   chi phí không tăng theo số trang như OFFSET trên các sản phẩm có hàng chục nghìn đánh giá.
+ * - Cursor: {@link KeysetCursorDTO} (createdAt, productReviewId) của dòng cuối trang.
+ */
+@Service
+public class ProductReviewServiceImplement implements ProductReviewService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ProductReviewRepository productReviewRepository;
+
+    @Autowired
+    public ProductReviewServiceImplement(ProductReviewRepository productReviewRepository) {
+        this.productReviewRepository = productReviewRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductReviewDTO> findFeed(UUID productId, String after, int size) {
+        int pageSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        // Lấy dư 1 bản ghi để biết còn trang tiếp theo hay không
+        Limit limit = Limit.of(pageSize + 1);
+        List<ProductReviewDTO> rows;
+        if (after == null || after.isBlank()) {
+            rows = productReviewRepository.findFeedPage(productId, limit);
+        } else {
+            KeysetCursorDTO cursor = KeysetCursorDTO.decode(after);
+            rows = productReviewRepository.findFeedPageAfter(productId, cursor.createdAt(), cursor.id(), limit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new CursorPageDTO<>(rows, null);
+        }
+        List<ProductReviewDTO> items = rows.subList(0, pageSize);
+        return new CursorPageDTO<>(List.copyOf(items), cursorOf(items.get(pageSize - 1)));
+    }
+
+    private static String cursorOf(ProductReviewDTO last) {
+        return new KeysetCursorDTO(last.createdAt(), last.productReviewId()).encode();
+    }
+}
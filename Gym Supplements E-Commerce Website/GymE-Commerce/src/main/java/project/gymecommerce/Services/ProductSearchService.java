@@ -0,0 +1,18 @@
+package project.gymecommerce.Services;
+
+import project.gymecommerce.DTOs.Product.ProductCatalogDTO;
+import project.gymecommerce.Search.ProductSearchIndex;
+
+import java.util.List;
+
+public interface ProductSearchService {
+
+    //tìm sản phẩm theo từ khóa (có dấu / không dấu, tiền tố, gõ sai), trả về top-k theo điểm
+    public List<ProductSearchIndex.SearchHit> search(String query, int limit);
+
+    //tìm và trả về snapshot catalog của các sản phẩm khớp, giữ thứ tự xếp hạng
+    public List<ProductCatalogDTO> searchProducts(String query, int limit);
+
+    //dựng lại toàn bộ index từ database
+    public void rebuildIndex();
+}
@@ -0,0 +1,94 @@
+package project.gymecommerce.Services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import project.gymecommerce.DTOs.Product.ProductCatalogDTO;
+import project.gymecommerce.Events.ProductChangedEvent;
+import project.gymecommerce.Search.ProductSearchIndex;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Tìm kiếm sản phẩm bằng inverted index trong bộ nhớ ({@link ProductSearchIndex}) thay vì LIKE '%...%' trên MySQL.
+ * - Dựng index: khi ứng dụng sẵn sàng, đọc toàn bộ product theo từng lô kèm thương hiệu / danh mục.
+ * - Cập nhật: mỗi ProductChangedEvent (sau commit) đọc lại đúng sản phẩm đó và thay thế token trong index,
+ *   chạy @Async để không kéo dài request ghi.
+ * - Lưu ý: đổi tên Brand/Category không phát sự kiện; tên mới được index khi sản phẩm liên quan được ghi
+ *   hoặc khi gọi rebuildIndex().
+ */
+@Service
+public class ProductSearchServiceImplement implements ProductSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchServiceImplement.class);
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+
+    private final ProductSnapshotLoader productSnapshotLoader;
+    private final ProductCatalogService productCatalogService;
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Autowired
+    public ProductSearchServiceImplement(ProductSnapshotLoader productSnapshotLoader,
+                                         ProductCatalogService productCatalogService) {
+        this.productSnapshotLoader = productSnapshotLoader;
+        this.productCatalogService = productCatalogService;
+    }
+
+    @Override
+    public List<ProductSearchIndex.SearchHit> search(String query, int limit) {
+        return index.search(query, clampLimit(limit));
+    }
+
+    @Override
+    public List<ProductCatalogDTO> searchProducts(String query, int limit) {
+        List<UUID> productIds = search(query, limit).stream()
+                .map(ProductSearchIndex.SearchHit::productId)
+                .toList();
+        return productCatalogService.findAllById(productIds);
+    }
+
+    // Dựng index khi khởi động
+    @EventListener(ApplicationReadyEvent.class)
+    @Override
+    public void rebuildIndex() {
+        long start = System.nanoTime();
+        index.rebuild(productSnapshotLoader.loadAll());
+        log.info("Đã dựng index tìm kiếm cho {} sản phẩm trong {} ms vào lúc: {}",
+                index.size(), (System.nanoTime() - start) / 1_000_000, LocalDateTime.now());
+    }
+
+    // Cập nhật index cho một sản phẩm sau khi transaction ghi đã commit
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.productId() == null) return;
+        if (event.changeType() == ProductChangedEvent.ChangeType.DELETED) {
+            index.remove(event.productId());
+            return;
+        }
+
+        // Đọc thẳng từ database: cache catalog có thể chưa kịp bị xóa entry cũ
+        Optional<ProductCatalogDTO> product = productSnapshotLoader.load(event.productId());
+        if (product.isPresent()) {
+            index.index(product.get());
+        } else {
+            index.remove(event.productId());
+        }
+    }
+
+    private static int clampLimit(int limit) {
+        if (limit <= 0) return DEFAULT_LIMIT;
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
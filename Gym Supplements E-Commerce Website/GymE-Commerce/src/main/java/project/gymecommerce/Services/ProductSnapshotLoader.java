@@ -0,0 +1,52 @@
+package project.gymecommerce.Services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.DTOs.Product.ProductCatalogDTO;
+import project.gymecommerce.Repositories.ProductRepo.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Đọc snapshot catalog trực tiếp từ database (bỏ qua cache) cho các index trong bộ nhớ.
+ * - Ý nghĩa: index tìm kiếm và index facet cần dựng lại toàn bộ khi khởi động và đọc lại từng sản phẩm sau khi ghi;
+ *   đọc thẳng database để không lấy phải entry cũ trong cache catalog chưa kịp bị xóa.
+ */
+@Component
+public class ProductSnapshotLoader {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ProductSnapshotLoader(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Toàn bộ sản phẩm, đọc theo từng lô kèm ảnh / thương hiệu / danh mục
+    public List<ProductCatalogDTO> loadAll() {
+        List<UUID> productIds = readOnlyTransaction.execute(status -> productRepository.findAllProductIds());
+
+        List<ProductCatalogDTO> products = new ArrayList<>(productIds.size());
+        for (int from = 0; from < productIds.size(); from += BATCH_SIZE) {
+            List<UUID> batch = productIds.subList(from, Math.min(from + BATCH_SIZE, productIds.size()));
+            products.addAll(readOnlyTransaction.execute(status ->
+                    productRepository.findCatalogByProductIdIn(batch).stream()
+                            .map(ProductCatalogDTO::from)
+                            .toList()));
+        }
+        return products;
+    }
+
+    public Optional<ProductCatalogDTO> load(UUID productId) {
+        return readOnlyTransaction.execute(status ->
+                productRepository.findCatalogByProductId(productId).map(ProductCatalogDTO::from));
+    }
+}
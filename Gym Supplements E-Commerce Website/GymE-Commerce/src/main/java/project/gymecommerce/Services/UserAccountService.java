@@ -1,9 +1,12 @@
 package project.gymecommerce.Services;
 
+import project.gymecommerce.DTOs.CursorPageDTO;
+import project.gymecommerce.DTOs.User.UserAccountSummaryDTO;
 import project.gymecommerce.Models.User.UserAccount;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
 
 public interface UserAccountService {
@@ -17,8 +20,11 @@ public interface UserAccountService {
     //tìm tài khoản bằng số điện thoại
     public Optional<UserAccount> findByPhoneNumber(String phoneNumber);
 
-    //trả về toàn bộ tài khoản
-    public Set<UserAccount> findAll();
+    //trả về một trang tài khoản (keyset), after = cursor của trang trước hoặc null cho trang đầu
+    public CursorPageDTO<UserAccountSummaryDTO> findPage(String after, int size);
+
+    //ghi toàn bộ tài khoản ra dạng NDJSON (mỗi dòng một JSON) với bộ nhớ không đổi
+    public void exportNdjson(OutputStream outputStream) throws IOException;
 
     //thêm tài khoản mới
     public void save(UserAccount userAccount);
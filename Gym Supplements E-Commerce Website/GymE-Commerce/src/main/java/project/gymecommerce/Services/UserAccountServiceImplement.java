@@ -5,18 +5,30 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.DTOs.CursorPageDTO;
+import project.gymecommerce.DTOs.User.UserAccountSummaryDTO;
+import project.gymecommerce.DTOs.User.UserIdentityDTO;
 import project.gymecommerce.Models.User.Role;
 import project.gymecommerce.Models.User.UserAccount;
 import project.gymecommerce.Repositories.UserRepo.RoleRepository;
 import project.gymecommerce.Repositories.UserRepo.UserAccountRepository;
+import project.gymecommerce.Security.CachingUserDetailsManager;
 
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
 
 @Service
 public class UserAccountServiceImplement implements UserAccountService{
@@ -24,15 +36,34 @@ public class UserAccountServiceImplement implements UserAccountService{
     private final UserAccountRepository userAccountRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final JsonMapper jsonMapper;
+    private final CachingUserDetailsManager userDetailsManager;
+    private final TransactionTemplate transactionTemplate;
     private static final Logger log = LoggerFactory.getLogger(UserAccountServiceImplement.class);
 
+    // Giới hạn kích thước trang để một request không thể kéo toàn bộ bảng user_account
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    // Số dòng NDJSON ghi ra trước mỗi lần flush
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
+    private static final String CUSTOMER_ROLE_NAME = "ROLE_CUSTOMER";
+    // role_id của ROLE_CUSTOMER, nạp một lần rồi giữ trong bộ nhớ (bảng role gần như không đổi)
+    private volatile UUID customerRoleId;
+
     @Autowired
     public UserAccountServiceImplement(UserAccountRepository userAccountRepository,
                                        RoleRepository roleRepository,
-                                       PasswordEncoder passwordEncoder) {
+                                       PasswordEncoder passwordEncoder,
+                                       JsonMapper jsonMapper,
+                                       CachingUserDetailsManager userDetailsManager,
+                                       PlatformTransactionManager transactionManager) {
         this.userAccountRepository = userAccountRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.jsonMapper = jsonMapper;
+        this.userDetailsManager = userDetailsManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     // Tìm tài khoản bằng ID
@@ -74,20 +105,54 @@ public class UserAccountServiceImplement implements UserAccountService{
         return userAccount;
     }
 
-    // Trả về toàn bộ tài khoản
+    // Trả về một trang tài khoản theo keyset (user_account_id > after), không dùng OFFSET
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserAccountSummaryDTO> findPage(String after, int size) {
+        int pageSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        log.info("Đang lấy trang tài khoản sau cursor: {} (size={}) tại thời điểm: {}", after, pageSize, LocalDateTime.now());
+
+        // Lấy dư 1 bản ghi để biết còn trang tiếp theo hay không
+        Limit limit = Limit.of(pageSize + 1);
+        List<UserAccountSummaryDTO> rows;
+        if (after == null || after.isBlank()) {
+            rows = userAccountRepository.findSummaryPage(limit);
+        } else {
+            UUID cursor;
+            try {
+                cursor = UUID.fromString(after);
+            } catch (IllegalArgumentException e) {
+                log.error("Cursor không hợp lệ: {}", after);
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            rows = userAccountRepository.findSummaryPageAfter(cursor, limit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new CursorPageDTO<>(rows, null);
+        }
+        List<UserAccountSummaryDTO> items = rows.subList(0, pageSize);
+        String nextCursor = items.get(pageSize - 1).userAccountId().toString();
+        return new CursorPageDTO<>(List.copyOf(items), nextCursor);
+    }
+
+    // Ghi toàn bộ tài khoản ra NDJSON, đọc bằng cursor của MySQL nên bộ nhớ không phụ thuộc số lượng tài khoản
     @Override
-    public Set<UserAccount> findAll() {
-        log.info("Đang thực hiện lấy toàn bộ danh sách tài khoản tại thời điểm: " + LocalDateTime.now());
-        Iterable<UserAccount> iterable = userAccountRepository.findAll();
-        Set<UserAccount> userAccounts = StreamSupport.stream(iterable.spliterator(), false)
-                .collect(Collectors.toUnmodifiableSet());
-        if (userAccounts.isEmpty()) {
-            log.error("Danh sách tài khoản trống.");
-            throw new RuntimeException("Empty userAccounts List");
-        }
-
-        log.info("Đã lấy danh sách tài khoản thành công vào lúc: " + LocalDateTime.now());
-        return userAccounts;
+    @Transactional(readOnly = true)
+    public void exportNdjson(OutputStream outputStream) throws IOException {
+        log.info("Bắt đầu export danh sách tài khoản tại thời điểm: {}", LocalDateTime.now());
+        long count = 0;
+        try (Stream<UserAccountSummaryDTO> stream = userAccountRepository.streamAllSummaries()) {
+            for (UserAccountSummaryDTO summary : (Iterable<UserAccountSummaryDTO>) stream::iterator) {
+                outputStream.write(jsonMapper.writeValueAsBytes(summary));
+                outputStream.write('\n');
+                if (++count % EXPORT_FLUSH_INTERVAL == 0) {
+                    outputStream.flush();
+                }
+            }
+        }
+        outputStream.flush();
+        log.info("Đã export {} tài khoản thành công vào lúc: {}", count, LocalDateTime.now());
     }
 
     @Override
@@ -96,44 +161,72 @@ public class UserAccountServiceImplement implements UserAccountService{
     }
 
     // Phương thức đăng ký tài khoản mới và tự động gán vai trò "ROLE_CUSTOMER"
+    // Insert trước, để ràng buộc unique (uk_user_name, uk_user_email, uk_user_phone) xử lý cả trường hợp đăng ký đồng thời;
+    // chỉ khi insert thất bại mới chạy một query để biết trường nào bị trùng.
     @Override
     public UserAccount register(UserAccount userAccount) {
         log.info("Đang thực hiện đăng ký tài khoản mới vào lúc: " + LocalDateTime.now());
 
-        // Kiểm tra xem email đã tồn tại chưa
-        if (userAccountRepository.existsByEmail(userAccount.getEmail())) {
-            log.error("Email đã tồn tại: " + userAccount.getEmail());
-            throw new RuntimeException("Email already exists");
-        }
-
-        // Kiểm tra xem tên tài khoản đã tồn tại chưa
-        if (userAccountRepository.existsByUserName(userAccount.getUserName())) {
-            log.error("Tên tài khoản đã tồn tại: " + userAccount.getUserName());
-            throw new RuntimeException("UserName already exists");
-        }
+        // Hash mật khẩu
+        userAccount.setHashedPassword(passwordEncoder.encode(userAccount.getHashedPassword()));
 
-        // Kiểm tra xem tên số điện thoại đã tồn tại chưa
-        if (userAccountRepository.existsByPhoneNumber(userAccount.getPhoneNumber())) {
-            log.error("Tên số điện thoại đã tồn tại: " + userAccount.getPhoneNumber());
-            throw new RuntimeException("PhoneNumber already exists");
+        UUID roleId = getCustomerRoleId();
+        UserAccount savedUser;
+        try {
+            savedUser = transactionTemplate.execute(status -> {
+                // Tham chiếu tới vai trò "ROLE_CUSTOMER" theo id đã cache, không cần SELECT bảng role
+                userAccount.getRoles().add(roleRepository.getReferenceById(roleId));
+                return userAccountRepository.saveAndFlush(userAccount);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Khôi phục trạng thái object để form đăng ký có thể hiển thị lại
+            userAccount.setUserAccountId(null);
+            userAccount.getRoles().clear();
+            throw duplicateFieldException(userAccount, e);
         }
 
+        log.info("Đã đăng ký tài khoản thành công cho email: " + userAccount.getEmail() + " vào lúc: " + LocalDateTime.now());
+        return savedUser;
+    }
 
-            // Hash mật khẩu
-        userAccount.setHashedPassword(passwordEncoder.encode(userAccount.getHashedPassword()));
-
-        // Tìm vai trò "ROLE_CUSTOMER"
-        Role customerRole = (Role) roleRepository.findByRoleName("ROLE_CUSTOMER")
-                .orElseThrow(() -> new RuntimeException("Customer role not found"));
+    // Xác định trường bị trùng bằng một query duy nhất; giữ nguyên thông điệp lỗi mà RegisterController đang dùng
+    private RuntimeException duplicateFieldException(UserAccount userAccount, DataIntegrityViolationException cause) {
+        List<UserIdentityDTO> conflicts = userAccountRepository.findIdentityConflicts(
+                userAccount.getEmail(), userAccount.getUserName(), userAccount.getPhoneNumber());
 
-        // Gán vai trò cho tài khoản
-        userAccount.getRoles().add(customerRole);
+        for (UserIdentityDTO conflict : conflicts) {
+            if (conflict.email() != null && conflict.email().equalsIgnoreCase(userAccount.getEmail())) {
+                log.error("Email đã tồn tại: " + userAccount.getEmail());
+                return new RuntimeException("Email already exists", cause);
+            }
+        }
+        for (UserIdentityDTO conflict : conflicts) {
+            if (conflict.userName() != null && conflict.userName().equalsIgnoreCase(userAccount.getUserName())) {
+                log.error("Tên tài khoản đã tồn tại: " + userAccount.getUserName());
+                return new RuntimeException("UserName already exists", cause);
+            }
+        }
+        for (UserIdentityDTO conflict : conflicts) {
+            if (conflict.phoneNumber() != null && conflict.phoneNumber().equals(userAccount.getPhoneNumber())) {
+                log.error("Tên số điện thoại đã tồn tại: " + userAccount.getPhoneNumber());
+                return new RuntimeException("PhoneNumber already exists", cause);
+            }
+        }
 
-        // Lưu tài khoản mới
-        UserAccount savedUser = userAccountRepository.save(userAccount);
+        log.error("Đăng ký thất bại do vi phạm ràng buộc dữ liệu: {}", cause.getMostSpecificCause().getMessage());
+        return new RuntimeException("Registration failed", cause);
+    }
 
-        log.info("Đã đăng ký tài khoản thành công cho email: " + userAccount.getEmail() + " vào lúc: " + LocalDateTime.now());
-        return savedUser;
+    // role_id của ROLE_CUSTOMER được nạp ở lần đăng ký đầu tiên
+    private UUID getCustomerRoleId() {
+        UUID roleId = customerRoleId;
+        if (roleId == null) {
+            Role customerRole = roleRepository.findByRoleName(CUSTOMER_ROLE_NAME)
+                    .orElseThrow(() -> new RuntimeException("Customer role not found"));
+            roleId = customerRole.getRoleId();
+            customerRoleId = roleId;
+        }
+        return roleId;
     }
 
     // Cập nhật tài khoản
@@ -149,6 +242,7 @@ public class UserAccountServiceImplement implements UserAccountService{
         }
 
         UserAccount existing = existingOpt.get();
+        String previousEmail = existing.getEmail();
 
         // Cập nhật các trường nếu được cung cấp
         if (userAccount.getUserName() != null) {
@@ -173,6 +267,10 @@ public class UserAccountServiceImplement implements UserAccountService{
         // Có thể thêm cập nhật roles nếu cần, nhưng giả sử không cập nhật roles ở đây
 
         userAccountRepository.save(existing);
+
+        // Xóa thông tin đăng nhập đã cache (cả email cũ nếu email bị đổi)
+        userDetailsManager.evict(previousEmail);
+        userDetailsManager.evict(existing.getEmail());
         log.info("Đã cập nhật tài khoản với ID: {} thành công tại thời điểm: {}", id, LocalDateTime.now());
     }
 
@@ -181,12 +279,14 @@ public class UserAccountServiceImplement implements UserAccountService{
     public void delete(UUID id) {
         log.info("Đang xóa tài khoản với ID: {} tại thời điểm: {}", id, LocalDateTime.now());
 
-        if (!userAccountRepository.existsById(id)) {
+        Optional<UserAccount> existingOpt = userAccountRepository.findById(id);
+        if (existingOpt.isEmpty()) {
             log.error("Không tìm thấy tài khoản với ID: {}", id);
             throw new RuntimeException("User not found");
         }
 
         userAccountRepository.deleteById(id);
+        userDetailsManager.evict(existingOpt.get().getEmail());
         log.info("Đã xóa tài khoản với ID: {} thành công tại thời điểm: {}", id, LocalDateTime.now());
     }
 }
\ No newline at end of file
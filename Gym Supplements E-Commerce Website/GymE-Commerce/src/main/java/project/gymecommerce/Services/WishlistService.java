@@ -0,0 +1,36 @@
+package project.gymecommerce.Services;
+
+import project.gymecommerce.DTOs.Order.CheckoutRequestDTO;
+import project.gymecommerce.DTOs.Order.WishlistLineDTO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public interface WishlistService {
+
+    //các sản phẩm trong wishlist của người dùng đang đăng nhập
+    public List<WishlistLineDTO> findItems(String email);
+
+    //thêm nhiều sản phẩm một lần (sản phẩm đã có thì cập nhật số lượng), trả về số sản phẩm thay đổi
+    public int addAll(String email, List<WishlistLineDTO> lines);
+
+    //xoá nhiều sản phẩm một lần, trả về số sản phẩm đã xoá
+    public int removeAll(String email, Collection<UUID> productIds);
+
+    //chuyển sản phẩm sang giỏ hàng: xoá khỏi wishlist và trả về các dòng hàng (số lượng mong muốn) cho giỏ hàng
+    public List<CheckoutRequestDTO.CheckoutLine> moveToCart(String email, Collection<UUID> productIds);
+
+    //lọc ra các productId đã nằm trong wishlist (đánh dấu trên trang danh sách sản phẩm); không truy vấn DB khi wishlist đã được nạp
+    public Set<UUID> findWishlisted(String email, Collection<UUID> productIds);
+
+    //ghi các thay đổi đang chờ xuống wishlist_item
+    public void flush();
+
+    //các người dùng có sản phẩm trong wishlist (đọc từ chỉ mục ngược trong bộ nhớ)
+    public List<UUID> findWatchers(UUID productId);
+
+    //dựng lại chỉ mục ngược product -> người dùng từ bảng wishlist_item
+    public void rebuildWatcherIndex();
+}
@@ -0,0 +1,370 @@
+package project.gymecommerce.Services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.DTOs.Order.CheckoutRequestDTO;
+import project.gymecommerce.DTOs.Order.WishlistLineDTO;
+import project.gymecommerce.Models.Identifier.UuidBytes;
+import project.gymecommerce.Models.Identifier.UuidV7Generator;
+import project.gymecommerce.Repositories.OrderRepo.WishlistItemRepository;
+import project.gymecommerce.Repositories.OrderRepo.WishlistRepository;
+import project.gymecommerce.Repositories.ProductRepo.ProductRepository;
+import project.gymecommerce.Repositories.UserRepo.UserAccountRepository;
+import project.gymecommerce.Wishlist.ProductIdSet;
+import project.gymecommerce.Wishlist.ProductWishlistIndex;
+import project.gymecommerce.Wishlist.UserWishlist;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Wishlist với dữ liệu trong bộ nhớ và ghi xuống DB trễ (write-behind).
+ * - Bộ nhớ: wishlist của người dùng vừa truy cập được giữ trong cache Caffeine (app.wishlist.cache-*) dưới dạng
+ *   {@link ProductIdSet}; kiểm tra "đã thích chưa" trên trang danh sách sản phẩm chỉ là tìm kiếm nhị phân.
+ * - Ghi: thêm / xoá / chuyển sang giỏ hàng chỉ sửa bộ nhớ và ghi nhận người dùng vào danh sách dirty; mỗi
+ *   app.wishlist.flush-interval, thay đổi của mọi người dùng được ghi trong một transaction bằng hai JDBC batch
+ *   (upsert / delete từng sản phẩm thay đổi, không ghi lại cả tập). Khi app dừng, các thay đổi còn lại được ghi ngay.
+ * - Nhiều instance: sau mỗi lần ghi, wishlist của các người dùng vừa ghi được đọc lại từ DB để nhận thay đổi do
+ *   instance khác ghi; entry trong cache hết hạn sau app.wishlist.cache-ttl kể từ lần nạp / sửa gần nhất.
+ * - Sửa wishlist chạy trong compute của cache: cache không thể loại bỏ entry giữa lúc sửa và lúc ghi vào dirty,
+ *   và entry được nạp lại luôn lấy object trong dirty nếu có, nên mỗi người dùng chỉ có một object hiện hành.
+ * - Thêm sản phẩm kiểm tra sản phẩm còn bán bằng một query cho cả lô; lúc ghi, sản phẩm đã bị xoá được bỏ qua.
+ * - Chỉ mục ngược {@link ProductWishlistIndex} (product -> người dùng) được cập nhật bằng đúng các thay đổi vừa
+ *   commit trong flush; được dựng lại từ DB khi khởi động và mỗi app.wishlist.reindex-interval để nhận thay đổi
+ *   do instance khác ghi. Thay đổi chưa flush chưa có trong chỉ mục.
+ */
+@Service
+public class WishlistServiceImplement implements WishlistService, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WishlistServiceImplement.class);
+
+    private static final String CACHE_NAME = "wishlists";
+    private static final String INSERT_WISHLIST_SQL =
+            "INSERT INTO wishlist (wishlist_id, user_account_id) VALUES (?, ?) " +
+                    "ON DUPLICATE KEY UPDATE wishlist_id = wishlist_id";
+    private static final String UPSERT_ITEM_SQL =
+            "INSERT INTO wishlist_item (wishlist_item_id, wishlist_id, product_id, quantity) VALUES (?, ?, ?, ?) AS new " +
+                    "ON DUPLICATE KEY UPDATE quantity = new.quantity";
+    private static final String DELETE_ITEM_SQL =
+            "DELETE FROM wishlist_item WHERE wishlist_id = ? AND product_id = ?";
+    private static final String SELECT_WATCHERS_SQL =
+            "SELECT wi.product_id, w.user_account_id FROM wishlist_item wi JOIN wishlist w ON w.wishlist_id = wi.wishlist_id";
+    private static final String SELECT_ITEMS_OF_USERS_SQL =
+            "SELECT w.user_account_id, wi.product_id, wi.quantity FROM wishlist w " +
+                    "JOIN wishlist_item wi ON wi.wishlist_id = w.wishlist_id WHERE w.user_account_id IN (%s)";
+    private static final int RELOAD_CHUNK = 500;
+
+    private final WishlistRepository wishlistRepository;
+    private final WishlistItemRepository wishlistItemRepository;
+    private final ProductRepository productRepository;
+    private final UserAccountRepository userAccountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxItems;
+
+    private final Cache<UUID, UserWishlist> wishlists;
+    // email -> user_account_id, tránh một query cho mỗi lần kiểm tra trên trang danh sách sản phẩm
+    private final Cache<String, UUID> userAccountIds;
+    // Người dùng có thay đổi chưa ghi xuống DB
+    private final Map<UUID, UserWishlist> dirty = new ConcurrentHashMap<>();
+    private final ProductWishlistIndex watcherIndex = new ProductWishlistIndex();
+
+    @Autowired
+    public WishlistServiceImplement(WishlistRepository wishlistRepository,
+                                    WishlistItemRepository wishlistItemRepository,
+                                    ProductRepository productRepository,
+                                    UserAccountRepository userAccountRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.wishlist.max-items:200}") int maxItems,
+                                    @Value("${app.wishlist.cache-max-users:50000}") long cacheMaxUsers,
+                                    @Value("${app.wishlist.cache-ttl:30m}") Duration cacheTtl) {
+        this.wishlistRepository = wishlistRepository;
+        this.wishlistItemRepository = wishlistItemRepository;
+        this.productRepository = productRepository;
+        this.userAccountRepository = userAccountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxItems = maxItems;
+        this.wishlists = Caffeine.newBuilder()
+                .maximumSize(cacheMaxUsers)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, wishlists, CACHE_NAME);
+        this.userAccountIds = Caffeine.newBuilder()
+                .maximumSize(cacheMaxUsers)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    @Override
+    public List<WishlistLineDTO> findItems(String email) {
+        List<WishlistLineDTO> lines = new ArrayList<>();
+        wishlist(email).items().toMap().forEach((productId, quantity) -> lines.add(new WishlistLineDTO(productId, quantity)));
+        return lines;
+    }
+
+    @Override
+    public int addAll(String email, List<WishlistLineDTO> lines) {
+        if (lines == null || lines.isEmpty()) return 0;
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        for (WishlistLineDTO line : lines) {
+            if (line == null || line.productId() == null) {
+                throw new RuntimeException("Invalid wishlist request");
+            }
+            quantities.put(line.productId(), line.quantity());
+        }
+        if (quantities.size() > maxItems) {
+            throw new RuntimeException("Wishlist is full");
+        }
+        List<UUID> available = readOnlyTransaction.execute(status ->
+                productRepository.findAvailableProductIdsIn(quantities.keySet()));
+        if (available.size() != quantities.size()) {
+            throw new RuntimeException("Product not available");
+        }
+
+        return modify(email, wishlist -> wishlist.addAll(quantities, maxItems));
+    }
+
+    @Override
+    public int removeAll(String email, Collection<UUID> productIds) {
+        return remove(email, productIds).size();
+    }
+
+    @Override
+    public List<CheckoutRequestDTO.CheckoutLine> moveToCart(String email, Collection<UUID> productIds) {
+        List<CheckoutRequestDTO.CheckoutLine> lines = new ArrayList<>();
+        remove(email, productIds).forEach((productId, quantity) ->
+                lines.add(new CheckoutRequestDTO.CheckoutLine(productId, quantity)));
+        return lines;
+    }
+
+    @Override
+    public Set<UUID> findWishlisted(String email, Collection<UUID> productIds) {
+        if (productIds == null || productIds.isEmpty()) return Set.of();
+        ProductIdSet items = wishlist(email).items();
+        if (items.isEmpty()) return Set.of();
+        Set<UUID> wishlisted = new HashSet<>();
+        for (UUID productId : productIds) {
+            if (items.contains(productId)) wishlisted.add(productId);
+        }
+        return wishlisted;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.wishlist.flush-interval:5s}")
+    public synchronized void flush() {
+        if (dirty.isEmpty()) return;
+        List<UserWishlist> flushing = new ArrayList<>();
+        List<Map<UUID, Integer>> changes = new ArrayList<>();
+        for (UserWishlist wishlist : dirty.values()) {
+            Map<UUID, Integer> drained = wishlist.drainChanges();
+            if (drained.isEmpty()) continue;
+            flushing.add(wishlist);
+            changes.add(drained);
+        }
+        if (flushing.isEmpty()) return;
+
+        // wishlist_id của các dòng wishlist vừa tạo, chỉ gán vào bộ nhớ sau khi commit
+        Map<UserWishlist, UUID> created = new HashMap<>();
+        try {
+            int written = transactionTemplate.execute(status -> write(flushing, changes, created));
+            log.info("Đã ghi {} thay đổi wishlist của {} người dùng vào lúc: {}", written, flushing.size(), LocalDateTime.now());
+        } catch (RuntimeException e) {
+            for (int i = 0; i < flushing.size(); i++) {
+                flushing.get(i).restoreChanges(changes.get(i));
+            }
+            log.error("Lỗi khi ghi thay đổi wishlist của {} người dùng, sẽ thử lại", flushing.size(), e);
+            return;
+        }
+        created.forEach(UserWishlist::setWishlistId);
+        for (int i = 0; i < flushing.size(); i++) {
+            watcherIndex.apply(flushing.get(i).getUserAccountId(), changes.get(i));
+        }
+        reload(flushing);
+        // Chỉ bỏ khỏi dirty khi không có thay đổi mới trong lúc ghi
+        for (UserWishlist wishlist : flushing) {
+            dirty.computeIfPresent(wishlist.getUserAccountId(), (id, current) -> current.isDirty() ? current : null);
+        }
+    }
+
+    @Override
+    public List<UUID> findWatchers(UUID productId) {
+        return watcherIndex.watchers(productId);
+    }
+
+    // Cùng khóa với flush() để không có thay đổi nào được áp vào chỉ mục cũ trong lúc dựng chỉ mục mới
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.wishlist.reindex-interval:1h}", fixedDelayString = "${app.wishlist.reindex-interval:1h}")
+    public synchronized void rebuildWatcherIndex() {
+        long start = System.nanoTime();
+        Map<UUID, List<UUID>> usersByProduct = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(SELECT_WATCHERS_SQL, rs -> {
+            usersByProduct.computeIfAbsent(UuidBytes.fromBytes(rs.getBytes("product_id")), id -> new ArrayList<>())
+                    .add(UuidBytes.fromBytes(rs.getBytes("user_account_id")));
+        }));
+        watcherIndex.rebuild(usersByProduct);
+        log.info("Đã dựng chỉ mục wishlist cho {} sản phẩm trong {} ms vào lúc: {}",
+                watcherIndex.productCount(), (System.nanoTime() - start) / 1_000_000, LocalDateTime.now());
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    // --- Đọc / tạo wishlist trong bộ nhớ ---
+    private UserWishlist wishlist(String email) {
+        return wishlists.get(userAccountId(email), this::pendingOrLoad);
+    }
+
+    // Sửa wishlist và ghi vào dirty trong cùng một compute của cache trên khóa của người dùng
+    private <T> T modify(String email, Function<UserWishlist, T> change) {
+        AtomicReference<T> result = new AtomicReference<>();
+        wishlists.asMap().compute(userAccountId(email), (id, cached) -> {
+            UserWishlist wishlist = cached != null ? cached : pendingOrLoad(id);
+            result.set(change.apply(wishlist));
+            if (wishlist.isDirty()) {
+                dirty.put(id, wishlist);
+            }
+            return wishlist;
+        });
+        return result.get();
+    }
+
+    private UUID userAccountId(String email) {
+        return userAccountIds.get(email, key ->
+                userAccountRepository.findUserAccountIdByEmail(key)
+                        .orElseThrow(() -> new RuntimeException("User not found")));
+    }
+
+    // Người dùng còn thay đổi chưa ghi: dùng lại đúng object trong dirty thay vì nạp bản mới từ DB
+    private UserWishlist pendingOrLoad(UUID userAccountId) {
+        UserWishlist pending = dirty.get(userAccountId);
+        return pending != null ? pending : load(userAccountId);
+    }
+
+    private UserWishlist load(UUID userAccountId) {
+        return readOnlyTransaction.execute(status -> {
+            UUID wishlistId = wishlistRepository.findWishlistIdByUserAccountId(userAccountId).orElse(null);
+            if (wishlistId == null) {
+                return new UserWishlist(userAccountId, null, ProductIdSet.EMPTY);
+            }
+            Map<UUID, Integer> items = new LinkedHashMap<>();
+            for (WishlistLineDTO line : wishlistItemRepository.findLinesByWishlistId(wishlistId)) {
+                items.put(line.productId(), line.quantity());
+            }
+            return new UserWishlist(userAccountId, wishlistId, ProductIdSet.of(items));
+        });
+    }
+
+    private Map<UUID, Integer> remove(String email, Collection<UUID> productIds) {
+        if (productIds == null || productIds.isEmpty()) return Map.of();
+        return modify(email, wishlist -> wishlist.removeAll(new LinkedHashSet<>(productIds)));
+    }
+
+    // Đọc lại wishlist của các người dùng vừa ghi (sau commit); lỗi chỉ làm tập trong bộ nhớ chậm cập nhật
+    private void reload(List<UserWishlist> flushed) {
+        Map<UUID, Map<UUID, Integer>> stored = new HashMap<>();
+        List<UUID> userAccountIds = flushed.stream().map(UserWishlist::getUserAccountId).toList();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                for (int from = 0; from < userAccountIds.size(); from += RELOAD_CHUNK) {
+                    List<UUID> chunk = userAccountIds.subList(from, Math.min(from + RELOAD_CHUNK, userAccountIds.size()));
+                    String sql = SELECT_ITEMS_OF_USERS_SQL.formatted(String.join(", ", Collections.nCopies(chunk.size(), "?")));
+                    Object[] args = chunk.stream().map(UuidBytes::toBytes).toArray();
+                    jdbcTemplate.query(sql, rs -> {
+                        stored.computeIfAbsent(UuidBytes.fromBytes(rs.getBytes("user_account_id")), id -> new HashMap<>())
+                                .put(UuidBytes.fromBytes(rs.getBytes("product_id")), rs.getInt("quantity"));
+                    }, args);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Lỗi khi đọc lại wishlist của {} người dùng sau khi ghi", flushed.size(), e);
+            return;
+        }
+        for (UserWishlist wishlist : flushed) {
+            wishlist.rebase(ProductIdSet.of(stored.getOrDefault(wishlist.getUserAccountId(), Map.of())));
+        }
+    }
+
+    // --- Ghi xuống DB (trong transaction của flush) ---
+    private int write(List<UserWishlist> flushing, List<Map<UUID, Integer>> changes, Map<UserWishlist, UUID> created) {
+        created.clear();
+        createWishlistRows(flushing, created);
+
+        Set<UUID> upserted = new HashSet<>();
+        changes.forEach(change -> change.forEach((productId, quantity) -> {
+            if (quantity > 0) upserted.add(productId);
+        }));
+        Set<UUID> existing = upserted.isEmpty()
+                ? Set.of()
+                : new HashSet<>(productRepository.findExistingProductIdsIn(upserted));
+
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (int i = 0; i < flushing.size(); i++) {
+            UserWishlist wishlist = flushing.get(i);
+            byte[] wishlistId = UuidBytes.toBytes(created.getOrDefault(wishlist, wishlist.getWishlistId()));
+            for (Map.Entry<UUID, Integer> change : changes.get(i).entrySet()) {
+                byte[] productId = UuidBytes.toBytes(change.getKey());
+                if (change.getValue() <= 0) {
+                    deletes.add(new Object[]{wishlistId, productId});
+                } else if (existing.contains(change.getKey())) {
+                    upserts.add(new Object[]{UuidBytes.toBytes(UuidV7Generator.nextId()), wishlistId, productId, change.getValue()});
+                }
+            }
+        }
+        if (!upserts.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_ITEM_SQL, upserts);
+        if (!deletes.isEmpty()) jdbcTemplate.batchUpdate(DELETE_ITEM_SQL, deletes);
+        return upserts.size() + deletes.size();
+    }
+
+    // Tạo dòng wishlist cho người dùng lần đầu thêm sản phẩm (unique user_account_id chặn trùng giữa các instance)
+    private void createWishlistRows(List<UserWishlist> flushing, Map<UserWishlist, UUID> created) {
+        List<UserWishlist> missing = flushing.stream().filter(wishlist -> wishlist.getWishlistId() == null).toList();
+        if (missing.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>(missing.size());
+        for (UserWishlist wishlist : missing) {
+            rows.add(new Object[]{UuidBytes.toBytes(UuidV7Generator.nextId()), UuidBytes.toBytes(wishlist.getUserAccountId())});
+        }
+        jdbcTemplate.batchUpdate(INSERT_WISHLIST_SQL, rows);
+        for (UserWishlist wishlist : missing) {
+            created.put(wishlist, wishlistRepository.findWishlistIdByUserAccountId(wishlist.getUserAccountId())
+                    .orElseThrow(() -> new RuntimeException("Wishlist not found")));
+        }
+    }
+}
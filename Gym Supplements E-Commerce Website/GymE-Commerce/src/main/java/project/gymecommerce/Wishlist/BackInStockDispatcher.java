@@ -0,0 +1,92 @@
+package project.gymecommerce.Wishlist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Gửi thông báo "có hàng trở lại" theo lô với tốc độ giới hạn.
+ * - Ý nghĩa: nhập hàng cho hàng nghìn SKU có thể sinh ra rất nhiều thông báo; danh sách người nhận của từng
+ *   sản phẩm được duyệt dần và chuyển cho sink theo lô batchSize, không gom toàn bộ vào bộ nhớ.
+ * - Giới hạn tốc độ: mỗi lô được gửi sớm nhất khi lô trước đã "trả" đủ thời gian
+ *   (số thông báo / maxPerSecond), nên sink (mail server, file...) nhận trung bình không quá maxPerSecond.
+ * - Lưu ý: chỉ được gọi từ một thread (worker của hàng đợi thông báo).
+ */
+public class BackInStockDispatcher {
+
+    // Một thông báo: người dùng userAccountId có productId trong wishlist
+    public record Notification(UUID userAccountId, UUID productId) {
+    }
+
+    @FunctionalInterface
+    public interface Sleeper {
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    private final Function<UUID, List<UUID>> watchers;
+    private final Consumer<List<Notification>> sink;
+    private final int batchSize;
+    private final long nanosPerNotification;
+    private final LongSupplier nanoClock;
+    private final Sleeper sleeper;
+
+    // Thời điểm (nanoTime) sớm nhất được gửi lô tiếp theo
+    private long nextSendAt;
+
+    public BackInStockDispatcher(Function<UUID, List<UUID>> watchers,
+                                 Consumer<List<Notification>> sink,
+                                 int batchSize,
+                                 int maxPerSecond,
+                                 LongSupplier nanoClock,
+                                 Sleeper sleeper) {
+        this.watchers = watchers;
+        this.sink = sink;
+        this.batchSize = Math.max(1, batchSize);
+        this.nanosPerNotification = 1_000_000_000L / Math.max(1, maxPerSecond);
+        this.nanoClock = nanoClock;
+        this.sleeper = sleeper;
+        this.nextSendAt = nanoClock.getAsLong();
+    }
+
+    /**
+     * Gửi thông báo cho mọi người dùng có một trong các sản phẩm vừa có hàng trở lại.
+     * - Hành vi: trả về số thông báo đã gửi; sản phẩm trùng trong cùng lần gọi chỉ được xử lý một lần.
+     */
+    public int dispatch(Collection<UUID> productIds) {
+        int sent = 0;
+        List<Notification> batch = new ArrayList<>(batchSize);
+        for (UUID productId : new LinkedHashSet<>(productIds)) {
+            for (UUID userAccountId : watchers.apply(productId)) {
+                batch.add(new Notification(userAccountId, productId));
+                if (batch.size() == batchSize) {
+                    sent += send(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            sent += send(batch);
+        }
+        return sent;
+    }
+
+    private int send(List<Notification> batch) {
+        long wait = nextSendAt - nanoClock.getAsLong();
+        if (wait > 0) {
+            try {
+                sleeper.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Back-in-stock dispatch interrupted", e);
+            }
+        }
+        sink.accept(List.copyOf(batch));
+        nextSendAt = Math.max(nextSendAt, nanoClock.getAsLong()) + batch.size() * nanosPerNotification;
+        return batch.size();
+    }
+}
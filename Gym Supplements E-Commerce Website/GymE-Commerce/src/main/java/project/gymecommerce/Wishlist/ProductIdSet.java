@@ -0,0 +1,121 @@
+package project.gymecommerce.Wishlist;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Tập productId (kèm số lượng) bất biến, lưu gọn trong mảng nguyên thủy.
+ * - Bộ nhớ: mỗi sản phẩm chiếm 2 long (msb, lsb của UUID) + 1 int thay vì một UUID, một Integer và một node HashMap.
+ * - Tra cứu: mảng được sắp xếp theo (msb, lsb) nên contains() là tìm kiếm nhị phân, không cấp phát.
+ * - Thay đổi tạo một tập mới ({@link #with}); luồng đọc luôn thấy một tập hoàn chỉnh mà không cần khóa.
+ */
+public final class ProductIdSet {
+
+    public static final ProductIdSet EMPTY = new ProductIdSet(new long[0], new int[0]);
+
+    // ids[2i] = msb, ids[2i + 1] = lsb của phần tử thứ i
+    private final long[] ids;
+    private final int[] quantities;
+
+    private ProductIdSet(long[] ids, int[] quantities) {
+        this.ids = ids;
+        this.quantities = quantities;
+    }
+
+    // Tạo tập từ productId -> số lượng; số lượng < 1 bị bỏ qua
+    public static ProductIdSet of(Map<UUID, Integer> items) {
+        TreeMap<UUID, Integer> sorted = new TreeMap<>(ProductIdSet::compare);
+        items.forEach((productId, quantity) -> {
+            if (productId != null && quantity != null && quantity > 0) sorted.put(productId, quantity);
+        });
+        if (sorted.isEmpty()) return EMPTY;
+
+        long[] ids = new long[sorted.size() * 2];
+        int[] quantities = new int[sorted.size()];
+        int i = 0;
+        for (Map.Entry<UUID, Integer> entry : sorted.entrySet()) {
+            ids[2 * i] = entry.getKey().getMostSignificantBits();
+            ids[2 * i + 1] = entry.getKey().getLeastSignificantBits();
+            quantities[i++] = entry.getValue();
+        }
+        return new ProductIdSet(ids, quantities);
+    }
+
+    // Tập mới sau khi áp changes (productId -> số lượng mới; 0 = xoá khỏi tập)
+    public ProductIdSet with(Map<UUID, Integer> changes) {
+        if (changes.isEmpty()) return this;
+        Map<UUID, Integer> merged = toMap();
+        changes.forEach((productId, quantity) -> {
+            if (quantity == null || quantity < 1) merged.remove(productId);
+            else merged.put(productId, quantity);
+        });
+        return of(merged);
+    }
+
+    public boolean contains(UUID productId) {
+        return productId != null && indexOf(productId) >= 0;
+    }
+
+    // Số lượng mong muốn; 0 nếu sản phẩm không nằm trong tập
+    public int quantity(UUID productId) {
+        int index = productId == null ? -1 : indexOf(productId);
+        return index < 0 ? 0 : quantities[index];
+    }
+
+    public int size() {
+        return quantities.length;
+    }
+
+    public boolean isEmpty() {
+        return quantities.length == 0;
+    }
+
+    // productId -> số lượng theo thứ tự của tập
+    public Map<UUID, Integer> toMap() {
+        Map<UUID, Integer> map = new LinkedHashMap<>();
+        for (int i = 0; i < quantities.length; i++) {
+            map.put(new UUID(ids[2 * i], ids[2 * i + 1]), quantities[i]);
+        }
+        return map;
+    }
+
+    private int indexOf(UUID productId) {
+        long msb = productId.getMostSignificantBits();
+        long lsb = productId.getLeastSignificantBits();
+        int low = 0;
+        int high = quantities.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(ids[2 * mid], ids[2 * mid + 1], msb, lsb);
+            if (cmp < 0) low = mid + 1;
+            else if (cmp > 0) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private static int compare(UUID a, UUID b) {
+        return compare(a.getMostSignificantBits(), a.getLeastSignificantBits(),
+                b.getMostSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private static int compare(long msbA, long lsbA, long msbB, long lsbB) {
+        int cmp = Long.compare(msbA, msbB);
+        return cmp != 0 ? cmp : Long.compare(lsbA, lsbB);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProductIdSet that)) return false;
+        return Arrays.equals(ids, that.ids) && Arrays.equals(quantities, that.quantities);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(ids) + Arrays.hashCode(quantities);
+    }
+}
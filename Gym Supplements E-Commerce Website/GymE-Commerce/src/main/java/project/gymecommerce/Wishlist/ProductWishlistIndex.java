@@ -0,0 +1,65 @@
+package project.gymecommerce.Wishlist;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chỉ mục ngược productId -> các người dùng có sản phẩm đó trong wishlist.
+ * - Ý nghĩa: khi sản phẩm có hàng trở lại, danh sách người cần thông báo được lấy trực tiếp từ bộ nhớ
+ *   thay vì quét bảng wishlist_item cho từng sản phẩm.
+ * - Cập nhật: {@link #apply} nhận đúng các thay đổi vừa được ghi xuống wishlist_item (số lượng 0 = đã xoá);
+ *   {@link #rebuild} thay toàn bộ chỉ mục bằng dữ liệu đọc từ DB.
+ * - Lưu ý: mỗi người dùng chỉ có một wishlist (uk_wishlist_user) nên lưu user_account_id thay cho wishlist_id.
+ */
+public class ProductWishlistIndex {
+
+    private volatile Map<UUID, Set<UUID>> watchers = new ConcurrentHashMap<>();
+
+    // Thay toàn bộ chỉ mục; luồng đọc thấy chỉ mục cũ cho tới khi chỉ mục mới được gán
+    public void rebuild(Map<UUID, ? extends Collection<UUID>> usersByProduct) {
+        Map<UUID, Set<UUID>> rebuilt = new ConcurrentHashMap<>(Math.max(16, usersByProduct.size() * 2));
+        usersByProduct.forEach((productId, userAccountIds) -> {
+            if (userAccountIds.isEmpty()) return;
+            Set<UUID> users = ConcurrentHashMap.newKeySet(userAccountIds.size());
+            users.addAll(userAccountIds);
+            rebuilt.put(productId, users);
+        });
+        watchers = rebuilt;
+    }
+
+    /**
+     * Ghi nhận các thay đổi wishlist của một người dùng.
+     * - Hành vi: số lượng > 0 thêm người dùng vào sản phẩm, số lượng <= 0 bỏ người dùng khỏi sản phẩm;
+     *   sản phẩm không còn ai theo dõi bị xoá khỏi chỉ mục.
+     */
+    public void apply(UUID userAccountId, Map<UUID, Integer> changes) {
+        Map<UUID, Set<UUID>> current = watchers;
+        changes.forEach((productId, quantity) -> {
+            if (quantity != null && quantity > 0) {
+                current.compute(productId, (id, users) -> {
+                    Set<UUID> updated = users == null ? ConcurrentHashMap.newKeySet() : users;
+                    updated.add(userAccountId);
+                    return updated;
+                });
+            } else {
+                current.computeIfPresent(productId, (id, users) -> {
+                    users.remove(userAccountId);
+                    return users.isEmpty() ? null : users;
+                });
+            }
+        });
+    }
+
+    public List<UUID> watchers(UUID productId) {
+        Set<UUID> users = watchers.get(productId);
+        return users == null ? List.of() : List.copyOf(users);
+    }
+
+    public int productCount() {
+        return watchers.size();
+    }
+}
@@ -0,0 +1,111 @@
+package project.gymecommerce.Wishlist;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Wishlist của một người dùng trong bộ nhớ, kèm các thay đổi chưa được ghi xuống wishlist_item.
+ * - Đọc: {@link #items()} trả về {@link ProductIdSet} hiện tại (volatile), không khóa.
+ * - Ghi: addAll / removeAll được tuần tự hoá theo từng người dùng; mỗi lần ghi thay tập mới và ghi nhận thay đổi
+ *   vào pending (productId -> số lượng mới, 0 = xoá). Nhiều thay đổi trên cùng một sản phẩm trước lần ghi xuống DB
+ *   được gộp lại, chỉ trạng thái cuối cùng được ghi.
+ * - Ghi xuống DB: {@link #drainChanges()} lấy ra toàn bộ pending; nếu ghi thất bại, {@link #restoreChanges} đưa lại
+ *   những thay đổi chưa bị thay đổi mới hơn ghi đè. Sau khi ghi, {@link #rebase} thay tập bằng dữ liệu vừa đọc
+ *   lại từ DB (gồm cả thay đổi do instance khác ghi), các thay đổi chưa ghi vẫn được áp lên trên.
+ */
+public class UserWishlist {
+
+    private final UUID userAccountId;
+    private volatile UUID wishlistId;
+    private volatile ProductIdSet items;
+    private Map<UUID, Integer> pending = new HashMap<>();
+
+    public UserWishlist(UUID userAccountId, UUID wishlistId, ProductIdSet items) {
+        this.userAccountId = userAccountId;
+        this.wishlistId = wishlistId;
+        this.items = items == null ? ProductIdSet.EMPTY : items;
+    }
+
+    public UUID getUserAccountId() {
+        return userAccountId;
+    }
+
+    // null khi dòng wishlist của người dùng chưa được tạo trong DB
+    public UUID getWishlistId() {
+        return wishlistId;
+    }
+
+    public void setWishlistId(UUID wishlistId) {
+        this.wishlistId = wishlistId;
+    }
+
+    public ProductIdSet items() {
+        return items;
+    }
+
+    /**
+     * Thêm hoặc cập nhật số lượng của nhiều sản phẩm.
+     * - Hành vi: trả về số sản phẩm thực sự thay đổi; ném "Wishlist is full" nếu tổng số sản phẩm vượt quá maxItems
+     *   (khi đó không sản phẩm nào được thêm).
+     */
+    public synchronized int addAll(Map<UUID, Integer> lines, int maxItems) {
+        Map<UUID, Integer> changes = new LinkedHashMap<>();
+        int added = 0;
+        for (Map.Entry<UUID, Integer> line : lines.entrySet()) {
+            int quantity = line.getValue() == null || line.getValue() < 1 ? 1 : line.getValue();
+            int current = items.quantity(line.getKey());
+            if (current == quantity) continue;
+            if (current == 0) added++;
+            changes.put(line.getKey(), quantity);
+        }
+        if (changes.isEmpty()) return 0;
+        if (items.size() + added > maxItems) {
+            throw new RuntimeException("Wishlist is full");
+        }
+        apply(changes);
+        return changes.size();
+    }
+
+    // Xoá nhiều sản phẩm; trả về các sản phẩm đã bị xoá kèm số lượng mong muốn của chúng
+    public synchronized Map<UUID, Integer> removeAll(Collection<UUID> productIds) {
+        Map<UUID, Integer> removed = new LinkedHashMap<>();
+        Map<UUID, Integer> changes = new LinkedHashMap<>();
+        for (UUID productId : productIds) {
+            int quantity = items.quantity(productId);
+            if (quantity == 0) continue;
+            removed.put(productId, quantity);
+            changes.put(productId, 0);
+        }
+        apply(changes);
+        return removed;
+    }
+
+    public synchronized boolean isDirty() {
+        return !pending.isEmpty();
+    }
+
+    public synchronized Map<UUID, Integer> drainChanges() {
+        Map<UUID, Integer> changes = pending;
+        pending = new HashMap<>();
+        return changes;
+    }
+
+    // Đưa lại các thay đổi ghi thất bại; thay đổi mới hơn trên cùng sản phẩm được giữ nguyên
+    public synchronized void restoreChanges(Map<UUID, Integer> changes) {
+        changes.forEach(pending::putIfAbsent);
+    }
+
+    // Thay tập hiện tại bằng tập đọc từ DB, giữ các thay đổi chưa ghi
+    public synchronized void rebase(ProductIdSet stored) {
+        items = stored.with(pending);
+    }
+
+    private void apply(Map<UUID, Integer> changes) {
+        if (changes.isEmpty()) return;
+        items = items.with(changes);
+        pending.putAll(changes);
+    }
+}
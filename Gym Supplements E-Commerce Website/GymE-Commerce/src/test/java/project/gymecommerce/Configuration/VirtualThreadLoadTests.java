@@ -0,0 +1,124 @@
+package project.gymecommerce.Configuration;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import project.gymecommerce.GymECommerceApplication;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * So sánh throughput giữa thread pool platform của Tomcat và chế độ virtual thread với 2000 phiên đồng thời.
+ * Mỗi request chạy một query JDBC chặn 20 ms (SELECT SLEEP) để mô phỏng request đọc MySQL.
+ * Chạy bằng: mvn test -Pbenchmark (cần MySQL như cấu hình trong application.properties).
+ */
+@Tag("benchmark")
+class VirtualThreadLoadTests {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadLoadTests.class);
+
+    private static final int SESSIONS = 2_000;
+    private static final int REQUESTS_PER_SESSION = 10;
+
+    @Test
+    void compareThroughputAt2000Sessions() throws Exception {
+        double platformPerSecond = runLoad(false);
+        double virtualPerSecond = runLoad(true);
+
+        log.info("Platform threads: {} req/s, virtual threads: {} req/s (x{})",
+                String.format("%.0f", platformPerSecond),
+                String.format("%.0f", virtualPerSecond),
+                String.format("%.2f", virtualPerSecond / platformPerSecond));
+        assertTrue(platformPerSecond > 0 && virtualPerSecond > 0);
+    }
+
+    private double runLoad(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(GymECommerceApplication.class, LoadTestEndpoint.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.hikari.maximum-pool-size=100")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/load-test/query");
+
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+            AtomicInteger failures = new AtomicInteger();
+            long start = System.nanoTime();
+            try (ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>(SESSIONS);
+                for (int i = 0; i < SESSIONS; i++) {
+                    futures.add(sessions.submit(() -> {
+                        for (int r = 0; r < REQUESTS_PER_SESSION; r++) {
+                            try {
+                                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() != 200) failures.incrementAndGet();
+                            } catch (Exception e) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            int total = SESSIONS * REQUESTS_PER_SESSION;
+            log.info("virtual={} : {} request, {} lỗi, {} ms", virtualThreads, total, failures.get(), elapsedNanos / 1_000_000);
+            return (total - failures.get()) / (elapsedNanos / 1_000_000_000.0);
+        }
+    }
+
+    // Endpoint chỉ dùng cho load test: mở riêng /load-test/** để không phải đăng nhập
+    @RestController
+    static class LoadTestEndpoint {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        LoadTestEndpoint(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @GetMapping("/load-test/query")
+        public Integer query() {
+            return jdbcTemplate.queryForObject("SELECT SLEEP(0.02)", Integer.class);
+        }
+
+        @Bean
+        @Order(0)
+        SecurityFilterChain loadTestSecurityFilterChain(HttpSecurity http) throws Exception {
+            http.securityMatcher("/load-test/**")
+                    .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+            return http.build();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package project.gymecommerce.DTOs;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorDTOTests {
+
+    @Test
+    void roundTripsCreatedAtAndId() {
+        KeysetCursorDTO cursor = new KeysetCursorDTO(LocalDateTime.of(2026, 3, 1, 10, 15, 30, 123_000_000), UUID.randomUUID());
+
+        String encoded = cursor.encode();
+
+        assertFalse(encoded.contains("=") || encoded.contains("+") || encoded.contains("/"));
+        assertEquals(cursor, KeysetCursorDTO.decode(encoded));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        String noSeparator = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2026-03-01T10:15:30".getBytes(StandardCharsets.UTF_8));
+        String badId = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2026-03-01T10:15:30|not-a-uuid".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : new String[]{"***", noSeparator, badId}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> KeysetCursorDTO.decode(cursor));
+            assertEquals("Invalid cursor", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package project.gymecommerce.Models.Identifier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7GeneratorTests {
+
+    @AfterEach
+    void resetMode() {
+        UuidV7Generator.setMode(UuidV7Generator.Mode.V7);
+    }
+
+    @Test
+    void generatesVersion7WithRfcVariant() {
+        UUID uuid = UuidV7Generator.nextV7();
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertTrue(UuidV7Generator.isTimeOrdered(uuid));
+    }
+
+    @Test
+    void idsAreStrictlyIncreasingAsUnsignedBytes() {
+        UUID previous = UuidV7Generator.nextV7();
+        for (int i = 0; i < 100_000; i++) {
+            UUID current = UuidV7Generator.nextV7();
+            // BINARY(16) được MySQL so sánh theo byte không dấu: msb trước rồi tới lsb
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), current.getMostSignificantBits()) < 0);
+            previous = current;
+        }
+    }
+
+    @Test
+    void embedsCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7Generator.nextV7();
+        long after = System.currentTimeMillis();
+        long millis = UuidV7Generator.extractEpochMillis(uuid);
+        // bộ đếm tràn có thể đẩy timestamp lên trước vài mili giây
+        assertTrue(millis >= before && millis <= after + 5);
+        assertEquals(-1L, UuidV7Generator.extractEpochMillis(UUID.randomUUID()));
+    }
+
+    @Test
+    void keepsAssignedLegacyIdentifiers() {
+        UuidV7Generator generator = new UuidV7Generator();
+        UUID legacy = UUID.randomUUID();
+        assertSame(legacy, generator.generate(null, null, legacy, null));
+    }
+
+    @Test
+    void fallsBackToRandomUuidInV4Mode() {
+        UuidV7Generator.setMode(UuidV7Generator.Mode.V4);
+        UUID uuid = (UUID) new UuidV7Generator().generate(null, null, null, null);
+        assertEquals(4, uuid.version());
+        assertEquals(4, UuidV7Generator.nextId().version());
+    }
+}
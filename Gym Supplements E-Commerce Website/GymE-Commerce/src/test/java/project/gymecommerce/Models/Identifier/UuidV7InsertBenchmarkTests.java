@@ -0,0 +1,74 @@
+package project.gymecommerce.Models.Identifier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * So sánh tốc độ insert vào bảng InnoDB có khóa chính BINARY(16) giữa UUID v4 và UUID v7.
+ * Chạy bằng: mvn test -Pbenchmark (cần MySQL như cấu hình trong application.properties).
+ */
+@Tag("benchmark")
+@SpringBootTest
+class UuidV7InsertBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(UuidV7InsertBenchmarkTests.class);
+
+    private static final int ROWS = 200_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void dropTables() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS bench_uuid_v4");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS bench_uuid_v7");
+    }
+
+    @Test
+    void compareInsertThroughput() {
+        double v4RowsPerSecond = insertRows("bench_uuid_v4", UUID::randomUUID);
+        double v7RowsPerSecond = insertRows("bench_uuid_v7", UuidV7Generator::nextV7);
+
+        log.info("UUID v4: {} rows/s, UUID v7: {} rows/s (x{})",
+                String.format("%.0f", v4RowsPerSecond),
+                String.format("%.0f", v7RowsPerSecond),
+                String.format("%.2f", v7RowsPerSecond / v4RowsPerSecond));
+        assertTrue(v4RowsPerSecond > 0 && v7RowsPerSecond > 0);
+    }
+
+    private double insertRows(String table, Supplier<UUID> idSupplier) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        // Mô phỏng bảng order_item: khóa chính BINARY(16) + vài cột dữ liệu
+        jdbcTemplate.execute("CREATE TABLE " + table + " (" +
+                "id BINARY(16) NOT NULL PRIMARY KEY, " +
+                "quantity INT UNSIGNED NOT NULL, " +
+                "line_total DECIMAL(15,2) NOT NULL" +
+                ") ENGINE=InnoDB");
+
+        String sql = "INSERT INTO " + table + " (id, quantity, line_total) VALUES (?, ?, ?)";
+        long start = System.nanoTime();
+        for (int offset = 0; offset < ROWS; offset += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.add(new Object[]{UuidBytes.toBytes(idSupplier.get()), 1, 100_000});
+            }
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        return ROWS / (elapsedNanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,43 @@
+package project.gymecommerce.Models.Order;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static project.gymecommerce.Models.Order.Order.OrderStatus.*;
+
+class OrderStatusTransitionTests {
+
+    @Test
+    void followsTheOrderLifecycle() {
+        assertTrue(PENDING.canTransitionTo(CONFIRMED));
+        assertTrue(CONFIRMED.canTransitionTo(SHIPPING));
+        assertTrue(SHIPPING.canTransitionTo(COMPLETED));
+        assertTrue(COMPLETED.canTransitionTo(RETURNED));
+    }
+
+    @Test
+    void onlyUnshippedOrdersCanBeCancelled() {
+        assertTrue(PENDING.canTransitionTo(CANCELLED));
+        assertTrue(CONFIRMED.canTransitionTo(CANCELLED));
+        assertFalse(SHIPPING.canTransitionTo(CANCELLED));
+        assertFalse(COMPLETED.canTransitionTo(CANCELLED));
+    }
+
+    @Test
+    void terminalStatesHaveNoTransitions() {
+        for (Order.OrderStatus next : Order.OrderStatus.values()) {
+            assertFalse(CANCELLED.canTransitionTo(next));
+            assertFalse(RETURNED.canTransitionTo(next));
+        }
+    }
+
+    @Test
+    void setterRejectsSkippedSteps() {
+        Order order = new Order(null, null, null, null, PENDING, null);
+        assertThrows(IllegalStateException.class, () -> order.setOrderStatus(SHIPPING));
+        order.setOrderStatus(CONFIRMED);
+        order.setOrderStatus(SHIPPING);
+        assertEquals(SHIPPING, order.getOrderStatus());
+        assertThrows(IllegalStateException.class, () -> order.setOrderStatus(PENDING));
+    }
+}
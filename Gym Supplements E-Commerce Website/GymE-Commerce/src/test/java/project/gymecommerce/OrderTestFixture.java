@@ -0,0 +1,135 @@
+package project.gymecommerce;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.Models.Identifier.UuidBytes;
+import project.gymecommerce.Models.Order.Discount;
+import project.gymecommerce.Models.Order.ShippingUnit;
+import project.gymecommerce.Models.Product.Product;
+import project.gymecommerce.Models.User.UserAccount;
+import project.gymecommerce.Models.User.UserAddress;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Dữ liệu mẫu dùng chung cho các test chạy trên MySQL: một khách hàng có địa chỉ mặc định, cùng các sản phẩm,
+ * đơn vị vận chuyển và mã giảm giá do test thêm vào.
+ * - Tên, email, mã giảm giá có hậu tố ngẫu nhiên nên chạy lại test không vướng unique key.
+ * - Mỗi lần thêm dữ liệu chạy trong transaction riêng; entity trả về đã detached, test dùng id hoặc getReference.
+ * - cleanUp() xóa đơn hàng (kèm outbox) của khách và toàn bộ dữ liệu fixture đã tạo; gọi trong @AfterEach.
+ */
+public class OrderTestFixture {
+
+    private static final BigDecimal PRICE = new BigDecimal("350000");
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String prefix;
+    private final String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+    private UserAccount customer;
+    private UserAddress address;
+    private final List<Product> products = new ArrayList<>();
+    private final List<ShippingUnit> shippingUnits = new ArrayList<>();
+    private final List<Discount> discounts = new ArrayList<>();
+
+    private OrderTestFixture(String prefix, EntityManager entityManager, JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager) {
+        this.prefix = prefix;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Tạo khách hàng "<prefix>_<hậu tố>" kèm một địa chỉ mặc định
+    public static OrderTestFixture create(String prefix, EntityManager entityManager, JdbcTemplate jdbcTemplate,
+                                          PlatformTransactionManager transactionManager) {
+        OrderTestFixture fixture = new OrderTestFixture(prefix, entityManager, jdbcTemplate, transactionManager);
+        fixture.transactionTemplate.executeWithoutResult(status -> fixture.persistCustomer());
+        return fixture;
+    }
+
+    public Product addProduct(int quantity) {
+        Product product = new Product(prefix + " " + suffix + " " + products.size(), null, quantity, PRICE);
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(product));
+        products.add(product);
+        return product;
+    }
+
+    public ShippingUnit addShippingUnit() {
+        ShippingUnit shippingUnit = new ShippingUnit(prefix + " " + suffix + " " + shippingUnits.size(), "1900");
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(shippingUnit));
+        shippingUnits.add(shippingUnit);
+        return shippingUnit;
+    }
+
+    // Mã PERCENT còn hiệu lực 1 tháng; quantity = null -> không giới hạn lượt dùng
+    public Discount addDiscount(Integer quantity) {
+        String code = (prefix + suffix + discounts.size()).toUpperCase(Locale.ROOT);
+        Discount discount = new Discount(code, Discount.DiscountType.PERCENT, null, quantity, 1);
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(discount));
+        discounts.add(discount);
+        return discount;
+    }
+
+    public void cleanUp() {
+        byte[] customerId = UuidBytes.toBytes(customer.getUserAccountId());
+        jdbcTemplate.update("DELETE FROM order_outbox WHERE order_id IN (SELECT order_id FROM orders WHERE user_account_id = ?)",
+                (Object) customerId);
+        // order_item, discount_order bị xóa theo khóa ngoại ON DELETE CASCADE
+        jdbcTemplate.update("DELETE FROM orders WHERE user_account_id = ?", (Object) customerId);
+        // product_image, product_review, product_rating_summary bị xóa theo khóa ngoại ON DELETE CASCADE
+        for (Product product : products) {
+            jdbcTemplate.update("DELETE FROM product WHERE product_id = ?", (Object) UuidBytes.toBytes(product.getProductId()));
+        }
+        for (ShippingUnit shippingUnit : shippingUnits) {
+            jdbcTemplate.update("DELETE FROM shipping_unit WHERE shipping_unit_id = ?",
+                    (Object) UuidBytes.toBytes(shippingUnit.getShippingUnitId()));
+        }
+        for (Discount discount : discounts) {
+            jdbcTemplate.update("DELETE FROM discount WHERE discount_id = ?", (Object) UuidBytes.toBytes(discount.getDiscountId()));
+        }
+        jdbcTemplate.update("DELETE FROM user_address WHERE user_account_id = ?", (Object) customerId);
+        jdbcTemplate.update("DELETE FROM user_account WHERE user_account_id = ?", (Object) customerId);
+        products.clear();
+        shippingUnits.clear();
+        discounts.clear();
+    }
+
+    public UserAccount getCustomer() {
+        return customer;
+    }
+
+    public UserAddress getAddress() {
+        return address;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    private void persistCustomer() {
+        String userName = prefix.toLowerCase(Locale.ROOT) + "_" + suffix;
+        customer = new UserAccount();
+        customer.setUserName(userName);
+        customer.setEmail(userName + "@example.com");
+        customer.setHashedPassword("x");
+        entityManager.persist(customer);
+
+        address = new UserAddress();
+        address.setUserAccount(customer);
+        address.setHouseAddress("1");
+        address.setStreet(prefix);
+        address.setReceiverName(prefix);
+        address.setReceiverPhone("0900000000");
+        address.setIsDefault(true);
+        entityManager.persist(address);
+    }
+}
@@ -0,0 +1,95 @@
+package project.gymecommerce.Pipeline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchingStageTests {
+
+    @Test
+    void offerIsRejectedWhenQueueIsFull() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        List<Integer> handled = new CopyOnWriteArrayList<>();
+        try (BatchingStage<Integer> stage = new BatchingStage<>("test", "test.stage", 1, 2, 1, Duration.ofMillis(50),
+                batch -> {
+                    started.countDown();
+                    await(unblock);
+                    handled.addAll(batch);
+                }, batch -> {
+                }, meterRegistry)) {
+
+            // Phần tử đầu được worker lấy ra và giữ handler bận; hai phần tử tiếp theo lấp đầy hàng đợi
+            assertTrue(stage.offer(1));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertTrue(stage.offer(2));
+            assertTrue(stage.offer(3));
+
+            long start = System.nanoTime();
+            assertFalse(stage.offer(4));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+            assertEquals(2, stage.getQueueDepth());
+            assertEquals(1.0, meterRegistry.get("test.stage.rejected").tag("stage", "test").counter().count());
+
+            unblock.countDown();
+            waitUntil(() -> handled.size() == 3);
+            assertEquals(List.of(1, 2, 3), handled);
+            assertTrue(stage.offer(5));
+        }
+    }
+
+    @Test
+    void failedBatchIsHandedToOnFailure() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        List<Integer> failed = new CopyOnWriteArrayList<>();
+        try (BatchingStage<Integer> stage = new BatchingStage<>("failing", "test.stage", 1, 10, 10, Duration.ZERO,
+                batch -> {
+                    throw new RuntimeException("boom");
+                }, failed::addAll, meterRegistry)) {
+
+            assertTrue(stage.offer(1));
+            waitUntil(() -> failed.size() == 1);
+            assertTrue(stage.offer(2));
+            waitUntil(() -> failed.size() == 2);
+        }
+        assertEquals(List.of(1, 2), failed);
+        assertEquals(2.0, meterRegistry.get("test.stage.failed").tag("stage", "failing").counter().count());
+    }
+
+    @Test
+    void closedStageRejectsOffers() {
+        BatchingStage<Integer> stage = new BatchingStage<>("closed", "test.stage", 1, 10, 10, Duration.ZERO,
+                batch -> {
+                }, batch -> {
+                }, new SimpleMeterRegistry());
+        stage.close();
+        assertFalse(stage.offer(1));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Hết thời gian chờ");
+            Thread.sleep(10);
+        }
+    }
+}
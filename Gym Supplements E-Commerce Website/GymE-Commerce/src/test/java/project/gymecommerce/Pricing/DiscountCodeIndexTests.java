@@ -0,0 +1,146 @@
+package project.gymecommerce.Pricing;
+
+import org.junit.jupiter.api.Test;
+import project.gymecommerce.Models.Order.Discount;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscountCodeIndexTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+    private static final UUID DISCOUNT_ID = UUID.randomUUID();
+
+    // Giả lập cột discount.quantity: nhận hạn mức bằng CAS như UPDATE có điều kiện
+    private static DiscountCodeIndex.Allotter database(AtomicLong quantity) {
+        return (discountId, wanted) -> {
+            while (true) {
+                long current = quantity.get();
+                long amount = Math.min(current, wanted);
+                if (amount <= 0) return 0;
+                if (quantity.compareAndSet(current, current - amount)) return amount;
+            }
+        };
+    }
+
+    private static DiscountCodeIndex.Snapshot snapshot(String code, Long quantity) {
+        return new DiscountCodeIndex.Snapshot(DISCOUNT_ID, code, Discount.DiscountType.PERCENT,
+                NOW.minusDays(1), NOW.plusDays(1), true, quantity, BigDecimal.TEN, null);
+    }
+
+    @Test
+    void checksCodeCaseInsensitivelyAndByTimeWindow() {
+        DiscountCodeIndex index = new DiscountCodeIndex(10);
+        index.refresh(List.of(snapshot("Summer25", 5L)), NOW);
+
+        assertEquals(DiscountCodeIndex.Status.VALID, index.check(" summer25 ", NOW));
+        assertEquals(DiscountCodeIndex.Status.NOT_STARTED, index.check("SUMMER25", NOW.minusDays(2)));
+        assertEquals(DiscountCodeIndex.Status.EXPIRED, index.check("SUMMER25", NOW.plusDays(1)));
+        assertEquals(DiscountCodeIndex.Status.NOT_FOUND, index.check("WINTER", NOW));
+    }
+
+    @Test
+    void neverRedeemsMoreThanQuantityUnderContention() throws Exception {
+        AtomicLong quantity = new AtomicLong(100);
+        DiscountCodeIndex index = new DiscountCodeIndex(7);
+        index.refresh(List.of(snapshot("FLASH", 100L)), NOW);
+        DiscountCodeIndex.Allotter allotter = database(quantity);
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int redeemed = 0;
+                for (int i = 0; i < 50; i++) {
+                    if (index.redeem("FLASH", NOW, allotter) == DiscountCodeIndex.Status.VALID) redeemed++;
+                }
+                return redeemed;
+            }));
+        }
+        start.countDown();
+        int total = 0;
+        for (Future<Integer> result : results) total += result.get();
+        executor.shutdown();
+
+        assertEquals(100, total);
+        assertEquals(0, quantity.get());
+        assertEquals(100, index.redeemedCount("FLASH"));
+        assertEquals(DiscountCodeIndex.Status.EXHAUSTED, index.redeem("FLASH", NOW, allotter));
+    }
+
+    @Test
+    void returnsUnusedAllotmentWhenCodeIsDisabled() {
+        AtomicLong quantity = new AtomicLong(50);
+        DiscountCodeIndex index = new DiscountCodeIndex(20);
+        index.refresh(List.of(snapshot("VIP", 50L)), NOW);
+
+        assertEquals(DiscountCodeIndex.Status.VALID, index.redeem("VIP", NOW, database(quantity)));
+        assertEquals(30, quantity.get());
+        assertEquals(19, index.allotment("VIP"));
+
+        DiscountCodeIndex.Snapshot disabled = new DiscountCodeIndex.Snapshot(DISCOUNT_ID, "VIP", Discount.DiscountType.PERCENT,
+                NOW.minusDays(1), NOW.plusDays(1), false, quantity.get(), BigDecimal.TEN, null);
+        Map<UUID, Long> surplus = index.refresh(List.of(disabled), NOW);
+
+        assertEquals(Map.of(DISCOUNT_ID, 19L), surplus);
+        assertEquals(DiscountCodeIndex.Status.DISABLED, index.check("VIP", NOW));
+    }
+
+    @Test
+    void releaseMakesTheRedemptionAvailableAgain() {
+        AtomicLong quantity = new AtomicLong(1);
+        DiscountCodeIndex index = new DiscountCodeIndex(5);
+        index.refresh(List.of(snapshot("ONCE", 1L)), NOW);
+
+        assertEquals(DiscountCodeIndex.Status.VALID, index.redeem("ONCE", NOW, database(quantity)));
+        assertEquals(DiscountCodeIndex.Status.EXHAUSTED, index.redeem("ONCE", NOW, database(quantity)));
+        assertEquals(Map.of(), index.release("ONCE", DISCOUNT_ID));
+        assertEquals(DiscountCodeIndex.Status.VALID, index.redeem("ONCE", NOW, database(quantity)));
+    }
+
+    @Test
+    void releaseAfterCodeWasRemovedReturnsTheUseToTheDatabase() {
+        AtomicLong quantity = new AtomicLong(10);
+        DiscountCodeIndex index = new DiscountCodeIndex(5);
+        index.refresh(List.of(snapshot("GONE", 10L)), NOW);
+
+        assertEquals(DiscountCodeIndex.Status.VALID, index.redeem("GONE", NOW, database(quantity)));
+        // Admin xoá mã trong lúc đặt hàng: refresh trả 4 lượt chưa dùng, lượt đang giữ phải được release trả lại
+        assertEquals(Map.of(DISCOUNT_ID, 4L), index.refresh(List.of(), NOW));
+        assertEquals(Map.of(DISCOUNT_ID, 1L), index.release("GONE", DISCOUNT_ID));
+    }
+
+    @Test
+    void codeRecreatedWithNewIdReturnsOldAllotmentAndStartsFresh() {
+        AtomicLong quantity = new AtomicLong(10);
+        DiscountCodeIndex index = new DiscountCodeIndex(5);
+        index.refresh(List.of(snapshot("AGAIN", 10L)), NOW);
+        assertEquals(DiscountCodeIndex.Status.VALID, index.redeem("AGAIN", NOW, database(quantity)));
+
+        // Admin xoá rồi tạo lại mã cùng tên: hạn mức cũ trả về discountId cũ, mã mới không kế thừa bộ đếm
+        UUID recreatedId = UUID.randomUUID();
+        DiscountCodeIndex.Snapshot recreated = new DiscountCodeIndex.Snapshot(recreatedId, "AGAIN", Discount.DiscountType.PERCENT,
+                NOW.minusDays(1), NOW.plusDays(1), true, 3L, BigDecimal.TEN, null);
+        assertEquals(Map.of(DISCOUNT_ID, 4L), index.refresh(List.of(recreated), NOW));
+        assertEquals(recreatedId, index.find("AGAIN").orElseThrow().discountId());
+        assertEquals(0, index.allotment("AGAIN"));
+        assertEquals(0, index.redeemedCount("AGAIN"));
+
+        // Lượt đang giữ của mã cũ được trả về đúng discountId cũ
+        assertEquals(Map.of(DISCOUNT_ID, 1L), index.release("AGAIN", DISCOUNT_ID));
+    }
+}
@@ -0,0 +1,115 @@
+package project.gymecommerce.Pricing;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import project.gymecommerce.Models.Order.Discount;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Đo thời gian tính tiền giảm cho một giỏ hàng áp 3 mã (2 PERCENT, 1 FIXED_AMOUNT) bằng JMH.
+ * - engine: DiscountPricingEngine (long + basis point), mục tiêu dưới 1µs mỗi giỏ hàng.
+ * - bigDecimal: cùng phép tính bằng BigDecimal, chỉ để so sánh.
+ * Chạy bằng: mvn test -Pbenchmark (không cần MySQL).
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DiscountPricingEngineBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(DiscountPricingEngineBenchmarkTests.class);
+
+    private static final double TARGET_NANOS = 1_000;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private DiscountPricingEngine engine;
+    private List<DiscountCodeIndex.Snapshot> snapshots;
+    private Collection<UUID> discountIds;
+    private BigDecimal subtotal;
+    private LocalDateTime now;
+
+    @Setup
+    public void setUp() {
+        now = LocalDateTime.now();
+        snapshots = List.of(
+                snapshot(Discount.DiscountType.PERCENT, "10.00", "100000.00"),
+                snapshot(Discount.DiscountType.PERCENT, "5.00", null),
+                snapshot(Discount.DiscountType.FIXED_AMOUNT, "50000.00", null));
+        engine = new DiscountPricingEngine();
+        engine.compile(snapshots);
+        discountIds = snapshots.stream().map(DiscountCodeIndex.Snapshot::discountId).toList();
+        subtotal = new BigDecimal("1250000.00");
+    }
+
+    private DiscountCodeIndex.Snapshot snapshot(Discount.DiscountType type, String value, String cap) {
+        return new DiscountCodeIndex.Snapshot(UUID.randomUUID(), type.name(), type, now.minusDays(1), now.plusDays(1),
+                true, null, new BigDecimal(value), cap == null ? null : new BigDecimal(cap));
+    }
+
+    @Benchmark
+    public long engine() {
+        return engine.discountMinor(Money.toMinor(subtotal), discountIds, now);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (DiscountCodeIndex.Snapshot snapshot : snapshots) {
+            if (!snapshot.available() || now.isBefore(snapshot.startAt()) || !now.isBefore(snapshot.endAt())) continue;
+            BigDecimal amount = snapshot.discountType() == Discount.DiscountType.PERCENT
+                    ? subtotal.multiply(snapshot.discountValue()).divide(HUNDRED, 2, RoundingMode.HALF_UP)
+                    : snapshot.discountValue();
+            if (snapshot.maxDiscountAmount() != null) amount = amount.min(snapshot.maxDiscountAmount());
+            total = total.add(amount).min(subtotal);
+        }
+        return total;
+    }
+
+    @Test
+    void evaluatesCartUnderOneMicrosecond() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DiscountPricingEngineBenchmarkTests.class.getName())
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .forks(1)
+                .build();
+
+        double engineNanos = Double.NaN;
+        double bigDecimalNanos = Double.NaN;
+        for (RunResult result : new Runner(options).run()) {
+            double score = result.getPrimaryResult().getScore();
+            if (result.getParams().getBenchmark().endsWith(".engine")) engineNanos = score;
+            else bigDecimalNanos = score;
+        }
+
+        log.info("Tính tiền giảm mỗi giỏ hàng: engine {} ns, BigDecimal {} ns",
+                String.format("%.1f", engineNanos), String.format("%.1f", bigDecimalNanos));
+        assertTrue(engineNanos < TARGET_NANOS, "engine: " + engineNanos + " ns");
+    }
+}
@@ -0,0 +1,93 @@
+package project.gymecommerce.Pricing;
+
+import org.junit.jupiter.api.Test;
+import project.gymecommerce.Models.Order.Discount;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscountPricingEngineTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+    private static final UUID TEN_PERCENT = UUID.randomUUID();
+    private static final UUID CAPPED_PERCENT = UUID.randomUUID();
+    private static final UUID FIXED = UUID.randomUUID();
+    private static final UUID EXPIRED = UUID.randomUUID();
+
+    private static DiscountCodeIndex.Snapshot snapshot(UUID id, Discount.DiscountType type, String value, String cap,
+                                                      LocalDateTime endAt) {
+        return new DiscountCodeIndex.Snapshot(id, id.toString(), type, NOW.minusDays(1), endAt, true, null,
+                new BigDecimal(value), cap == null ? null : new BigDecimal(cap));
+    }
+
+    private static DiscountPricingEngine engine() {
+        DiscountPricingEngine engine = new DiscountPricingEngine();
+        engine.compile(List.of(
+                snapshot(TEN_PERCENT, Discount.DiscountType.PERCENT, "10.00", null, NOW.plusDays(1)),
+                snapshot(CAPPED_PERCENT, Discount.DiscountType.PERCENT, "50.00", "30000.00", NOW.plusDays(1)),
+                snapshot(FIXED, Discount.DiscountType.FIXED_AMOUNT, "20000.00", null, NOW.plusDays(1)),
+                snapshot(EXPIRED, Discount.DiscountType.FIXED_AMOUNT, "99999.00", null, NOW)));
+        return engine;
+    }
+
+    @Test
+    void stacksPercentAndFixedOnTheSameSubtotal() {
+        long subtotal = Money.toMinor(new BigDecimal("200000"));
+
+        // 10% (20000) + 50% chặn ở 30000 + 20000 cố định
+        long discount = engine().discountMinor(subtotal, List.of(TEN_PERCENT, CAPPED_PERCENT, FIXED), NOW);
+
+        assertEquals(new BigDecimal("70000.00"), Money.toBigDecimal(discount));
+        assertEquals(discount, engine().discountMinor(subtotal, List.of(FIXED, CAPPED_PERCENT, TEN_PERCENT), NOW));
+    }
+
+    @Test
+    void neverDiscountsMoreThanTheSubtotal() {
+        long subtotal = Money.toMinor(new BigDecimal("15000"));
+
+        assertEquals(subtotal, engine().discountMinor(subtotal, List.of(FIXED, TEN_PERCENT), NOW));
+    }
+
+    @Test
+    void roundsPercentHalfUpToTheMinorUnit() {
+        // 10% của 0.05 = 0.005 -> 0.01
+        assertEquals(1, engine().discountMinor(5, List.of(TEN_PERCENT), NOW));
+        // 10% của 0.04 = 0.004 -> 0.00
+        assertEquals(0, engine().discountMinor(4, List.of(TEN_PERCENT), NOW));
+    }
+
+    @Test
+    void skipsExpiredAndUnknownDiscounts() {
+        long subtotal = Money.toMinor(new BigDecimal("100000"));
+        DiscountPricingEngine engine = engine();
+
+        assertEquals(0, engine.discountMinor(subtotal, List.of(EXPIRED, UUID.randomUUID()), NOW));
+        assertFalse(engine.covers(List.of(TEN_PERCENT, UUID.randomUUID())));
+        assertTrue(engine.covers(List.of(TEN_PERCENT, EXPIRED)));
+    }
+
+    @Test
+    void clampsPercentAboveOneHundred() {
+        DiscountRule rule = DiscountPricingEngine.compile(
+                snapshot(TEN_PERCENT, Discount.DiscountType.PERCENT, "150.00", null, NOW.plusDays(1)));
+
+        assertEquals(DiscountRule.BASIS_POINTS, rule.getValue());
+        assertEquals(1_000, rule.amountFor(1_000));
+    }
+
+    @Test
+    void percentOfLargeSubtotalDoesNotOverflow() {
+        long subtotal = Long.MAX_VALUE - 5;
+        // 10% làm tròn HALF_UP, đúng như phép tính trên BigDecimal
+        long tenPercent = BigDecimal.valueOf(subtotal).divide(BigDecimal.TEN, 0, RoundingMode.HALF_UP).longValueExact();
+
+        assertEquals(tenPercent, engine().discountMinor(subtotal, List.of(TEN_PERCENT), NOW));
+        // 10% + 50% chặn ở 30000 + 20000 cố định
+        assertEquals(tenPercent + 5_000_000, engine().discountMinor(subtotal, List.of(TEN_PERCENT, CAPPED_PERCENT, FIXED), NOW));
+    }
+}
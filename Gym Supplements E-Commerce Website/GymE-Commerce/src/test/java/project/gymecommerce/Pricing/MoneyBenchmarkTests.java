@@ -0,0 +1,119 @@
+package project.gymecommerce.Pricing;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * So sánh tính tổng tiền giỏ hàng (lineTotal từng dòng -> originalPrice -> finalPrice) bằng JMH:
+ * - bigDecimal: cách cũ của OrderItem.recalculateLineTotal / Order.recalculateFinalPrice (mỗi phép tính tạo BigDecimal mới).
+ * - money: cùng phép tính trên long theo đơn vị nhỏ nhất ({@link Money}), không cấp phát.
+ * Chạy bằng: mvn test -Pbenchmark (không cần MySQL).
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(MoneyBenchmarkTests.class);
+
+    @Param({"10", "100", "1000"})
+    public int cartSize;
+
+    private BigDecimal[] unitPrices;
+    private long[] unitPricesMinor;
+    private int[] quantities;
+    private BigDecimal discount;
+    private long discountMinor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        unitPrices = new BigDecimal[cartSize];
+        unitPricesMinor = new long[cartSize];
+        quantities = new int[cartSize];
+        for (int i = 0; i < cartSize; i++) {
+            // giá từ 50.000 đến 2.000.000 đồng, có phần lẻ
+            unitPricesMinor[i] = 5_000_000L + random.nextInt(195_000_000);
+            unitPrices[i] = Money.toBigDecimal(unitPricesMinor[i]);
+            quantities[i] = 1 + random.nextInt(5);
+        }
+        discount = new BigDecimal("150000.00");
+        discountMinor = Money.toMinor(discount);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal originalPrice = BigDecimal.ZERO;
+        for (int i = 0; i < cartSize; i++) {
+            BigDecimal lineTotal = unitPrices[i].multiply(BigDecimal.valueOf(quantities[i]));
+            if (lineTotal.compareTo(BigDecimal.ZERO) < 0) lineTotal = BigDecimal.ZERO;
+            originalPrice = originalPrice.add(lineTotal);
+        }
+        BigDecimal finalPrice = originalPrice.subtract(discount);
+        return finalPrice.compareTo(BigDecimal.ZERO) < 0 ? BigDecimal.ZERO : finalPrice;
+    }
+
+    @Benchmark
+    public long money() {
+        long originalPrice = Money.ZERO;
+        for (int i = 0; i < cartSize; i++) {
+            long lineTotal = Math.max(Money.ZERO, Money.times(unitPricesMinor[i], quantities[i]));
+            originalPrice = Money.plus(originalPrice, lineTotal);
+        }
+        return Money.minusFloorZero(originalPrice, discountMinor);
+    }
+
+    @Test
+    void moneyIsFasterThanBigDecimal() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MoneyBenchmarkTests.class.getName())
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .forks(1)
+                .build();
+
+        Map<String, Double> bigDecimalNanos = new HashMap<>();
+        Map<String, Double> moneyNanos = new HashMap<>();
+        for (RunResult result : new Runner(options).run()) {
+            String size = result.getParams().getParam("cartSize");
+            double score = result.getPrimaryResult().getScore();
+            if (result.getParams().getBenchmark().endsWith(".money")) moneyNanos.put(size, score);
+            else bigDecimalNanos.put(size, score);
+        }
+
+        for (String size : moneyNanos.keySet()) {
+            log.info("Giỏ hàng {} dòng: BigDecimal {} ns, long {} ns (x{})", size,
+                    String.format("%.1f", bigDecimalNanos.get(size)),
+                    String.format("%.1f", moneyNanos.get(size)),
+                    String.format("%.2f", bigDecimalNanos.get(size) / moneyNanos.get(size)));
+        }
+        assertTrue(moneyNanos.get("1000") < bigDecimalNanos.get("1000"));
+    }
+}
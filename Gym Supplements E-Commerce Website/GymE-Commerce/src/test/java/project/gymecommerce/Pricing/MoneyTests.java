@@ -0,0 +1,63 @@
+package project.gymecommerce.Pricing;
+
+import org.junit.jupiter.api.Test;
+import project.gymecommerce.Models.Order.Order;
+import project.gymecommerce.Models.Order.OrderItem;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTests {
+
+    @Test
+    void convertsExactlyAtScaleTwo() {
+        assertEquals(12_500_050L, Money.toMinor(new BigDecimal("125000.50")));
+        assertEquals(new BigDecimal("125000.50"), Money.toBigDecimal(12_500_050L));
+        assertEquals(999_999_999_999_999L, Money.toMinor(new BigDecimal("9999999999999.99")));
+        assertEquals(0L, Money.toMinor(null));
+    }
+
+    @Test
+    void roundsExtraDecimalsHalfUp() {
+        assertEquals(101L, Money.toMinor(new BigDecimal("1.005")));
+        assertEquals(100L, Money.toMinor(new BigDecimal("1.004")));
+    }
+
+    @Test
+    void failsInsteadOfOverflowing() {
+        ArithmeticException e = assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, 3));
+        assertEquals("Amount out of range", e.getMessage());
+        assertThrows(ArithmeticException.class, () -> Money.plus(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.toMinor(new BigDecimal("1e30")));
+        assertEquals(0L, Money.minusFloorZero(100L, 250L));
+    }
+
+    @Test
+    void orderTotalsFollowItemEdits() {
+        Order order = new Order(null, null, null, BigDecimal.ZERO, Order.OrderStatus.PENDING, null);
+        OrderItem whey = item(order, "1250000.00", 2);
+        OrderItem creatine = item(order, "399000.50", 3);
+
+        order.addOrderItem(whey);
+        order.addOrderItem(creatine);
+        order.setDiscountAmount(new BigDecimal("100000"));
+
+        assertEquals(new BigDecimal("3697001.50"), order.getOriginalPrice());
+        assertEquals(new BigDecimal("3597001.50"), order.getFinalPrice());
+
+        order.removeOrderItem(whey);
+        assertEquals(new BigDecimal("1197001.50"), order.getOriginalPrice());
+
+        creatine.setQuantity(1);
+        order.recalculateOriginalPrice();
+        assertEquals(new BigDecimal("399000.50"), order.getOriginalPrice());
+        assertEquals(new BigDecimal("299000.50"), order.getFinalPrice());
+    }
+
+    private static OrderItem item(Order order, String unitPrice, int quantity) {
+        OrderItem item = new OrderItem(null, order, quantity);
+        item.setUnitPrice(new BigDecimal(unitPrice));
+        return item;
+    }
+}
@@ -0,0 +1,209 @@
+package project.gymecommerce.Repositories.OrderRepo;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.DTOs.Order.OrderHistoryDTO;
+import project.gymecommerce.Models.Order.Discount;
+import project.gymecommerce.Models.Order.Order;
+import project.gymecommerce.Models.Order.OrderItem;
+import project.gymecommerce.Models.Order.ShippingUnit;
+import project.gymecommerce.Models.Product.Product;
+import project.gymecommerce.Models.Product.ProductImage;
+import project.gymecommerce.Models.User.UserAccount;
+import project.gymecommerce.Models.User.UserAddress;
+import project.gymecommerce.OrderTestFixture;
+import project.gymecommerce.Repositories.SqlStatementCounter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Đếm số câu SQL của từng fetch profile trên OrderRepository (20 đơn, mỗi đơn 3 dòng hàng và 1 mã giảm giá),
+ * kể cả các query phát sinh khi view đọc association. Test thất bại nếu một profile vượt ngân sách query,
+ * tức là có N+1 quay lại (ví dụ thêm association LAZY mới được view đọc nhưng chưa có trong entity graph).
+ * Lịch sử đơn hàng (projection OrderHistoryDTO) phải luôn là đúng một query cho mỗi trang.
+ * Cần MySQL như cấu hình trong application.properties.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=project.gymecommerce.Repositories.SqlStatementCounter")
+class OrderFetchProfileTests {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderFetchProfileTests.class);
+
+    private static final int ORDERS = 20;
+    private static final int LINES_PER_ORDER = 3;
+    private static final String THUMBNAIL_URL = "https://cdn.example.com/profile.jpg";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+    private OrderTestFixture fixture;
+    private UserAccount customer;
+    private final List<UUID> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void createOrders() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        fixture = OrderTestFixture.create("Profile", entityManager, jdbcTemplate, transactionManager);
+        customer = fixture.getCustomer();
+        ShippingUnit shippingUnit = fixture.addShippingUnit();
+        Discount discount = fixture.addDiscount(null);
+        for (int i = 0; i < LINES_PER_ORDER; i++) {
+            fixture.addProduct(100);
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Product> products = fixture.getProducts().stream()
+                    .map(product -> entityManager.getReference(Product.class, product.getProductId()))
+                    .toList();
+            ProductImage thumbnail = new ProductImage(THUMBNAIL_URL, products.getFirst());
+            thumbnail.setIsDefault(true);
+            entityManager.persist(thumbnail);
+
+            UserAddress address = entityManager.getReference(UserAddress.class, fixture.getAddress().getUserAddressId());
+            ShippingUnit shippingUnitReference = entityManager.getReference(ShippingUnit.class, shippingUnit.getShippingUnitId());
+            Discount discountReference = entityManager.getReference(Discount.class, discount.getDiscountId());
+            UserAccount customerReference = entityManager.getReference(UserAccount.class, customer.getUserAccountId());
+            for (int i = 0; i < ORDERS; i++) {
+                Order order = new Order(customerReference, address, shippingUnitReference, BigDecimal.ZERO,
+                        Order.OrderStatus.PENDING, Order.PaymentMethod.COD);
+                for (Product product : products) {
+                    order.addOrderItem(new OrderItem(product, order, 1 + i % 3));
+                }
+                order.addDiscount(discountReference);
+                entityManager.persist(order);
+                orderIds.add(order.getOrderId());
+            }
+        });
+    }
+
+    @AfterEach
+    void deleteOrders() {
+        fixture.cleanUp();
+        orderIds.clear();
+    }
+
+    @Test
+    void summaryLoadsPageInOneQuery() {
+        List<String> statements = record(() -> {
+            List<Order> orders = orderRepository.findSummaryByUserAccount_UserAccountIdOrderByCreatedAtDesc(
+                    customer.getUserAccountId(), Limit.of(ORDERS));
+            assertEquals(ORDERS, orders.size());
+            orders.forEach(order -> {
+                order.getShippingUnit().getShippingUnitName();
+                order.getFinalPrice();
+                order.getOrderStatus();
+            });
+        });
+
+        assertAtMost(1, statements);
+    }
+
+    @Test
+    void detailLoadsItemsProductsAndDiscountsInTwoQueries() {
+        List<String> statements = record(() -> {
+            Order order = orderRepository.findDetailByOrderIdAndUserAccount_UserAccountId(orderIds.getFirst(), customer.getUserAccountId())
+                    .orElseThrow();
+            order.getUserAddress().getStreet();
+            order.getShippingUnit().getShippingUnitName();
+            order.getOrderItems().forEach(item -> item.getProduct().getProductName());
+            order.getDiscounts().forEach(Discount::getDiscountCode);
+            assertEquals(LINES_PER_ORDER, order.getOrderItems().size());
+            assertEquals(1, order.getDiscounts().size());
+        });
+
+        assertAtMost(2, statements);
+    }
+
+    @Test
+    void adminExportLoadsBatchInThreeQueries() {
+        List<String> statements = record(() -> {
+            List<UUID> ids = orderRepository.findExportIdsAfter(new UUID(0L, 0L), Limit.of(10_000));
+            assertTrue(ids.containsAll(orderIds));
+            List<Order> orders = orderRepository.findAdminExportByOrderIdInOrderByOrderId(orderIds);
+            assertEquals(ORDERS, orders.size());
+            touchAll(orders);
+        });
+
+        // id (keyset) + đơn kèm graph + mã giảm giá của cả lô (@BatchSize)
+        assertAtMost(3, statements);
+    }
+
+    @Test
+    void historyPagesAreOneQueryEach() {
+        List<OrderHistoryDTO> firstPage = new ArrayList<>();
+        List<String> first = record(() -> firstPage.addAll(
+                orderRepository.findHistoryPage(customer.getUserAccountId(), Limit.of(ORDERS / 2))));
+        OrderHistoryDTO last = firstPage.getLast();
+        List<OrderHistoryDTO> secondPage = new ArrayList<>();
+        List<String> second = record(() -> secondPage.addAll(orderRepository.findHistoryPageAfter(
+                customer.getUserAccountId(), last.createdAt(), last.orderId(), Limit.of(ORDERS))));
+
+        assertAtMost(1, first);
+        assertAtMost(1, second);
+        assertEquals(ORDERS / 2, firstPage.size());
+        assertEquals(ORDERS / 2, secondPage.size());
+        List<UUID> seen = new ArrayList<>();
+        firstPage.forEach(row -> seen.add(row.orderId()));
+        secondPage.forEach(row -> seen.add(row.orderId()));
+        assertTrue(seen.containsAll(orderIds));
+        for (OrderHistoryDTO row : firstPage) {
+            assertEquals(LINES_PER_ORDER, row.itemCount());
+            assertEquals(THUMBNAIL_URL, row.thumbnailUrl());
+        }
+    }
+
+    @Test
+    void lazyLoadingWithoutProfileIsSlower() {
+        List<String> lazy = record(() -> touchAll(orderRepository.findAllById(orderIds)));
+        List<String> profiled = record(() -> touchAll(orderRepository.findAdminExportByOrderIdInOrderByOrderId(orderIds)));
+
+        log.info("Không dùng fetch profile: {} query, admin-export: {} query", lazy.size(), profiled.size());
+        assertTrue(profiled.size() < lazy.size());
+    }
+
+    private List<String> record(Runnable work) {
+        return SqlStatementCounter.record(() -> readOnlyTransaction.executeWithoutResult(status -> work.run()));
+    }
+
+    private static void touchAll(List<Order> orders) {
+        orders.forEach(order -> {
+            order.getUserAccount().getEmail();
+            order.getUserAddress().getStreet();
+            order.getShippingUnit().getShippingUnitName();
+            order.getOrderItems().forEach(item -> item.getProduct().getProductName());
+            order.getDiscounts().forEach(Discount::getDiscountCode);
+        });
+    }
+
+    private static void assertAtMost(int budget, List<String> statements) {
+        assertTrue(statements.size() <= budget,
+                "Vượt ngân sách " + budget + " query (" + statements.size() + "):\n" + String.join("\n", statements));
+    }
+}
@@ -0,0 +1,38 @@
+package project.gymecommerce.Repositories;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StatementInspector ghi lại các câu SQL Hibernate gửi xuống DB trên thread đang đo.
+ * - Ý nghĩa: đếm số query của một thao tác đọc để phát hiện N+1; chỉ tính thread gọi {@link #record},
+ *   nên các tác vụ @Scheduled (outbox poller, đồng bộ mã giảm giá...) chạy song song không làm sai kết quả.
+ * - Cấu hình: spring.jpa.properties.hibernate.session_factory.statement_inspector=project.gymecommerce.Repositories.SqlStatementCounter
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> RECORDING = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = RECORDING.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    // Chạy work và trả về các câu SQL đã được chuẩn bị trong lúc chạy
+    public static List<String> record(Runnable work) {
+        List<String> statements = new ArrayList<>();
+        RECORDING.set(statements);
+        try {
+            work.run();
+        } finally {
+            RECORDING.remove();
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,86 @@
+package project.gymecommerce.Repositories.UserRepo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.Models.User.Role;
+import project.gymecommerce.Repositories.SqlStatementCounter;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kiểm tra second-level cache + query cache: sau lần gọi đầu tiên, RoleRepository.findByRoleName("ROLE_CUSTOMER")
+ * không gửi câu SQL nào xuống DB và được tính là hit của query cache và region reference.role.
+ * Cần MySQL như cấu hình trong application.properties.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=project.gymecommerce.Repositories.SqlStatementCounter")
+class RoleSecondLevelCacheTests {
+
+    private static final String CUSTOMER_ROLE_NAME = "ROLE_CUSTOMER";
+    private static final String ROLE_REGION = "reference.role";
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+    // role do test tạo (nếu DB chưa có ROLE_CUSTOMER), xóa lại sau test
+    private Role createdRole;
+
+    @BeforeEach
+    void ensureCustomerRole() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (roleRepository.findByRoleName(CUSTOMER_ROLE_NAME).isEmpty()) {
+                createdRole = roleRepository.save(new Role(CUSTOMER_ROLE_NAME));
+            }
+        });
+    }
+
+    @AfterEach
+    void deleteCreatedRole() {
+        if (createdRole != null) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> roleRepository.deleteById(createdRole.getRoleId()));
+            createdRole = null;
+        }
+    }
+
+    @Test
+    void findByRoleNameHitsCacheAfterWarmup() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertTrue(statistics.isStatisticsEnabled());
+
+        UUID roleId = readOnlyTransaction.execute(status ->
+                roleRepository.findByRoleName(CUSTOMER_ROLE_NAME).orElseThrow().getRoleId());
+
+        CacheRegionStatistics roleRegion = statistics.getDomainDataRegionStatistics(ROLE_REGION);
+        long queryHits = statistics.getQueryCacheHitCount();
+        long regionHits = roleRegion.getHitCount();
+
+        List<String> statements = SqlStatementCounter.record(() -> readOnlyTransaction.executeWithoutResult(status ->
+                assertEquals(roleId, roleRepository.findByRoleName(CUSTOMER_ROLE_NAME).orElseThrow().getRoleId())));
+
+        assertTrue(statements.isEmpty(), "Không được truy vấn DB sau warmup:\n" + String.join("\n", statements));
+        assertTrue(statistics.getQueryCacheHitCount() > queryHits);
+        assertTrue(roleRegion.getHitCount() > regionHits);
+    }
+}
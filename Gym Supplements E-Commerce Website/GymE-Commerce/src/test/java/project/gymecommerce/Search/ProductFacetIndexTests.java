@@ -0,0 +1,91 @@
+package project.gymecommerce.Search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import project.gymecommerce.DTOs.Product.ProductCatalogDTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFacetIndexTests {
+
+    private final UUID whey = UUID.randomUUID();
+    private final UUID mass = UUID.randomUUID();
+    private final UUID creatine = UUID.randomUUID();
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        index = new ProductFacetIndex(List.of(new BigDecimal("500000"), new BigDecimal("1000000")));
+        index.index(product(whey, "Optimum Nutrition", "Whey", 5, "1500000"));
+        index.index(product(mass, "MuscleTech", "Tăng cân", 2, "800000"));
+        index.index(product(creatine, "Optimum Nutrition", "Creatine", 0, "400000"));
+    }
+
+    @Test
+    void filtersByIntersectionAcrossGroups() {
+        ProductFacetIndex.Result result = index.query(
+                new ProductFacetIndex.Filter(Set.of("Optimum Nutrition"), null, true, null), 0, 10);
+        assertEquals(List.of(whey), result.productIds());
+        assertEquals(1, result.totalCount());
+    }
+
+    @Test
+    void facetCountsIgnoreOwnGroupFilter() {
+        ProductFacetIndex.Result result = index.query(
+                new ProductFacetIndex.Filter(Set.of("MuscleTech"), null, null, null), 0, 10);
+        assertEquals(2, result.brandCounts().get("Optimum Nutrition"));
+        assertEquals(1, result.brandCounts().get("MuscleTech"));
+        assertEquals(1, result.categoryCounts().get("Tăng cân"));
+        assertEquals(0, result.categoryCounts().get("Whey"));
+        assertEquals(1, result.priceBucketCounts().get("500000-1000000"));
+    }
+
+    @Test
+    void reindexMovesProductBetweenBuckets() {
+        index.index(product(creatine, "Optimum Nutrition", "Creatine", 3, "1200000"));
+        ProductFacetIndex.Result result = index.query(
+                new ProductFacetIndex.Filter(null, null, null, Set.of("1000000+")), 0, 10);
+        assertEquals(Set.of(whey, creatine), Set.copyOf(result.productIds()));
+        assertEquals(2, result.stockCounts().get(ProductFacetIndex.IN_STOCK));
+
+        index.remove(mass);
+        assertFalse(index.query(new ProductFacetIndex.Filter(null, null, null, null), 0, 10)
+                .brandCounts().containsKey("MuscleTech"));
+    }
+
+    @Test
+    void pagesThroughMatches() {
+        ProductFacetIndex.Filter all = new ProductFacetIndex.Filter(null, null, null, null);
+        assertEquals(2, index.query(all, 0, 2).productIds().size());
+        assertEquals(1, index.query(all, 2, 2).productIds().size());
+        assertEquals(3, index.query(all, 2, 2).totalCount());
+        assertTrue(index.query(all, Integer.MAX_VALUE, 2).productIds().isEmpty());
+    }
+
+    @Test
+    void hiddenProductsAreNotListedAndStockFollowsQuantity() {
+        ProductFacetIndex.Filter all = new ProductFacetIndex.Filter(null, null, null, null);
+        assertEquals(1, index.query(all, 0, 10).stockCounts().get(ProductFacetIndex.OUT_OF_STOCK));
+
+        // Ẩn sản phẩm (isAvailable = false) thì gỡ khỏi danh sách dù còn hàng
+        index.index(new ProductCatalogDTO(mass, "name", null, 2, new BigDecimal("800000"), false, null,
+                List.of("MuscleTech"), List.of("Tăng cân"), null));
+        assertEquals(Set.of(whey, creatine), Set.copyOf(index.query(all, 0, 10).productIds()));
+
+        // Nhập hàng cho creatine: chuyển sang còn hàng
+        index.index(product(creatine, "Optimum Nutrition", "Creatine", 4, "400000"));
+        ProductFacetIndex.Result inStock = index.query(new ProductFacetIndex.Filter(null, null, true, null), 0, 10);
+        assertEquals(Set.of(whey, creatine), Set.copyOf(inStock.productIds()));
+        assertEquals(0, inStock.stockCounts().get(ProductFacetIndex.OUT_OF_STOCK));
+    }
+
+    private static ProductCatalogDTO product(UUID id, String brand, String category, int quantity, String price) {
+        return new ProductCatalogDTO(id, "name", null, quantity, new BigDecimal(price), true, null,
+                List.of(brand), List.of(category), null);
+    }
+}
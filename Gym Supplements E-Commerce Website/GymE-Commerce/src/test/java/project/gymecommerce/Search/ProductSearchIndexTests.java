@@ -0,0 +1,62 @@
+package project.gymecommerce.Search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import project.gymecommerce.DTOs.Product.ProductCatalogDTO;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTests {
+
+    private final UUID wheyId = UUID.randomUUID();
+    private final UUID massId = UUID.randomUUID();
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        index = new ProductSearchIndex();
+        index.index(product(wheyId, "Whey Gold Standard", "Sữa tăng cơ", "Optimum Nutrition", "Sữa tăng cơ"));
+        index.index(product(massId, "Mass Tech", "Sữa tăng cân", "MuscleTech", "Tăng cân"));
+    }
+
+    @Test
+    void foldsVietnameseDiacritics() {
+        assertEquals(List.of("sua", "tang", "can", "duong"), VietnameseTokenizer.tokenize("Sữa TĂNG cân - Đường"));
+    }
+
+    @Test
+    void matchesWithOrWithoutDiacritics() {
+        assertEquals(massId, index.search("sua tang can", 5).getFirst().productId());
+        assertEquals(massId, index.search("sữa tăng cân", 5).getFirst().productId());
+    }
+
+    @Test
+    void matchesPrefixAndTypos() {
+        assertEquals(wheyId, index.search("opti", 5).getFirst().productId());
+        assertEquals(wheyId, index.search("wehy", 5).getFirst().productId());
+        assertTrue(index.search("xyz", 5).isEmpty());
+    }
+
+    @Test
+    void reindexReplacesPreviousTokens() {
+        index.index(product(wheyId, "Creatine Monohydrate", null, "Optimum Nutrition", "Creatine"));
+        assertTrue(index.search("whey", 5).isEmpty());
+        assertEquals(wheyId, index.search("creatine", 5).getFirst().productId());
+
+        index.remove(wheyId);
+        assertTrue(index.search("creatine", 5).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void returnsAtMostLimitHits() {
+        assertEquals(1, index.search("sua", 1).size());
+    }
+
+    private static ProductCatalogDTO product(UUID id, String name, String description, String brand, String category) {
+        return new ProductCatalogDTO(id, name, description, 1, null, true, null, List.of(brand), List.of(category), null);
+    }
+}
@@ -0,0 +1,193 @@
+package project.gymecommerce.Services;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.DTOs.Order.CheckoutRequestDTO;
+import project.gymecommerce.DTOs.Order.CheckoutResultDTO;
+import project.gymecommerce.Models.Identifier.UuidBytes;
+import project.gymecommerce.Models.Order.Order;
+import project.gymecommerce.Models.Order.OrderItem;
+import project.gymecommerce.Models.Product.Product;
+import project.gymecommerce.Models.User.UserAccount;
+import project.gymecommerce.Models.User.UserAddress;
+import project.gymecommerce.OrderTestFixture;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Kiểm tra chống trùng đặt hàng theo khóa idempotency của CheckoutServiceImplement:
+ * gửi lại request trả về đơn ban đầu, nhiều request đồng thời cùng khóa chỉ tạo một đơn,
+ * khi insert vi phạm unique (đơn do instance khác tạo) thì đơn đã tồn tại được đọc lại,
+ * và cùng khóa với nội dung request khác bị từ chối.
+ * Pipeline xử lý đơn được thay bằng mock để đơn giữ nguyên PENDING trong lúc test.
+ * Cần MySQL như cấu hình trong application.properties.
+ */
+@SpringBootTest
+class CheckoutIdempotencyTests {
+
+    private static final int CONCURRENT_REQUESTS = 8;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private OrderPipelineService orderPipelineService;
+
+    @MockitoSpyBean
+    private DiscountPricingService discountPricingService;
+
+    private OrderTestFixture fixture;
+    private UserAccount customer;
+    private UserAddress address;
+    private Product product;
+
+    @BeforeEach
+    void createCustomer() {
+        fixture = OrderTestFixture.create("Checkout", entityManager, jdbcTemplate, transactionManager);
+        customer = fixture.getCustomer();
+        address = fixture.getAddress();
+        product = fixture.addProduct(100);
+    }
+
+    @AfterEach
+    void deleteCustomer() {
+        fixture.cleanUp();
+    }
+
+    @Test
+    void replayReturnsTheOriginalOrder() {
+        String key = UUID.randomUUID().toString();
+
+        CheckoutResultDTO first = checkoutService.checkout(customer.getEmail(), key, request());
+        CheckoutResultDTO second = checkoutService.checkout(customer.getEmail(), key, request());
+
+        assertFalse(first.replayed());
+        assertTrue(second.replayed());
+        assertEquals(first.order(), second.order());
+        assertEquals(1, orderCount());
+    }
+
+    @Test
+    void sameKeyWithDifferentRequestIsRejected() {
+        String key = UUID.randomUUID().toString();
+        checkoutService.checkout(customer.getEmail(), key, request());
+
+        CheckoutRequestDTO changed = new CheckoutRequestDTO(address.getUserAddressId(), null, Order.PaymentMethod.COD,
+                List.of(new CheckoutRequestDTO.CheckoutLine(product.getProductId(), 3)), null);
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> checkoutService.checkout(customer.getEmail(), key, changed));
+
+        assertEquals("Idempotency key reused with a different request", error.getMessage());
+        assertEquals(1, orderCount());
+    }
+
+    @Test
+    void concurrentRequestsWithSameKeyCreateOneOrder() throws Exception {
+        String key = UUID.randomUUID().toString();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<CheckoutResultDTO>> requests = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            requests.add(() -> {
+                start.await();
+                return checkoutService.checkout(customer.getEmail(), key, request());
+            });
+        }
+
+        List<CheckoutResultDTO> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS)) {
+            List<Future<CheckoutResultDTO>> futures = new ArrayList<>();
+            for (Callable<CheckoutResultDTO> checkout : requests) {
+                futures.add(executor.submit(checkout));
+            }
+            start.countDown();
+            for (Future<CheckoutResultDTO> future : futures) {
+                results.add(future.get());
+            }
+        }
+
+        Set<UUID> orderIds = results.stream().map(result -> result.order().orderId()).collect(Collectors.toSet());
+        assertEquals(1, orderIds.size());
+        assertEquals(1, results.stream().filter(result -> !result.replayed()).count());
+        assertEquals(1, orderCount());
+    }
+
+    @Test
+    void uniqueViolationReadsBackTheExistingOrder() {
+        String key = UUID.randomUUID().toString();
+        // Mô phỏng instance khác: ngay trước khi đơn được insert, một transaction riêng đã commit đơn cùng khóa
+        List<UUID> competing = new ArrayList<>();
+        doAnswer(invocation -> {
+            if (competing.isEmpty()) {
+                competing.add(insertCompetingOrder(key));
+            }
+            return invocation.callRealMethod();
+        }).when(discountPricingService).applyTo(any(Order.class));
+
+        CheckoutResultDTO result = checkoutService.checkout(customer.getEmail(), key, request());
+
+        assertTrue(result.replayed());
+        assertEquals(competing.getFirst(), result.order().orderId());
+        assertEquals(1, orderCount());
+    }
+
+    private UUID insertCompetingOrder(String key) {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return requiresNew.execute(status -> {
+            Order order = new Order(entityManager.getReference(UserAccount.class, customer.getUserAccountId()),
+                    entityManager.getReference(UserAddress.class, address.getUserAddressId()),
+                    null, BigDecimal.ZERO, Order.OrderStatus.PENDING, Order.PaymentMethod.COD);
+            order.setIdempotencyKey(key);
+            order.addOrderItem(new OrderItem(entityManager.getReference(Product.class, product.getProductId()), order, 1));
+            entityManager.persist(order);
+            return order.getOrderId();
+        });
+    }
+
+    private CheckoutRequestDTO request() {
+        return new CheckoutRequestDTO(address.getUserAddressId(), null, Order.PaymentMethod.COD,
+                List.of(new CheckoutRequestDTO.CheckoutLine(product.getProductId(), 2)), null);
+    }
+
+    private int orderCount() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE user_account_id = ?",
+                Integer.class, (Object) UuidBytes.toBytes(customer.getUserAccountId()));
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,170 @@
+package project.gymecommerce.Services;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.Models.Identifier.UuidBytes;
+import project.gymecommerce.Models.Order.Discount;
+import project.gymecommerce.Models.Order.Order;
+import project.gymecommerce.Models.Order.OrderItem;
+import project.gymecommerce.Models.Order.ShippingUnit;
+import project.gymecommerce.Models.Product.Product;
+import project.gymecommerce.Models.User.UserAccount;
+import project.gymecommerce.Models.User.UserAddress;
+import project.gymecommerce.OrderTestFixture;
+import project.gymecommerce.Repositories.SqlStatementCounter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Đo số dòng / giây khi lưu 10.000 đơn hàng (mỗi đơn 3 dòng order_item, một nửa số đơn có 2 mã giảm giá):
+ * từng đơn một không batch so với OrderPersistenceService (JDBC batch + order_inserts + rewriteBatchedStatements).
+ * Với bản batch, số câu INSERT vào discount_order được đếm để kiểm tra bảng này cũng được ghi theo batch.
+ * Chạy bằng: mvn test -Pbenchmark (cần MySQL như cấu hình trong application.properties).
+ */
+@Tag("benchmark")
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=project.gymecommerce.Repositories.SqlStatementCounter")
+class OrderBatchInsertBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderBatchInsertBenchmarkTests.class);
+
+    private static final int ORDERS = 10_000;
+    private static final int LINES_PER_ORDER = 3;
+    private static final int DISCOUNTS_PER_ORDER = 2;
+    // Số dòng discount_order: đơn có chỉ số chẵn mang DISCOUNTS_PER_ORDER mã
+    private static final int DISCOUNT_ROWS = (ORDERS + 1) / 2 * DISCOUNTS_PER_ORDER;
+
+    @Autowired
+    private OrderPersistenceService orderPersistenceService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+
+    private OrderTestFixture fixture;
+    private UserAccount customer;
+    private UserAddress address;
+    private ShippingUnit shippingUnit;
+    private List<Product> products;
+    private List<Discount> discounts;
+
+    @BeforeEach
+    void createFixtures() {
+        fixture = OrderTestFixture.create("Benchmark", entityManager, jdbcTemplate, transactionManager);
+        customer = fixture.getCustomer();
+        address = fixture.getAddress();
+        shippingUnit = fixture.addShippingUnit();
+        for (int i = 0; i < LINES_PER_ORDER; i++) {
+            fixture.addProduct(1_000_000);
+        }
+        products = fixture.getProducts();
+        discounts = new ArrayList<>();
+        for (int i = 0; i < DISCOUNTS_PER_ORDER; i++) {
+            discounts.add(fixture.addDiscount(null));
+        }
+    }
+
+    @AfterEach
+    void deleteOrders() {
+        fixture.cleanUp();
+    }
+
+    @Test
+    void compareRowsPerSecond() {
+        double unbatched = measure(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Tắt batch cho session này: mỗi dòng một round trip như cấu hình trước đây
+            entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+            List<Product> productReferences = products.stream()
+                    .map(product -> entityManager.getReference(Product.class, product.getProductId()))
+                    .toList();
+            List<Discount> discountReferences = discounts.stream()
+                    .map(discount -> entityManager.getReference(Discount.class, discount.getDiscountId()))
+                    .toList();
+            for (Order order : newOrders(entityManager.getReference(UserAccount.class, customer.getUserAccountId()),
+                    entityManager.getReference(UserAddress.class, address.getUserAddressId()),
+                    entityManager.getReference(ShippingUnit.class, shippingUnit.getShippingUnitId()),
+                    productReferences, discountReferences)) {
+                entityManager.persist(order);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }));
+
+        List<String> statements = new ArrayList<>();
+        double batched = measure(() -> statements.addAll(SqlStatementCounter.record(() ->
+                assertEquals(ORDERS, orderPersistenceService.saveAll(newOrders(customer, address, shippingUnit, products, discounts))))));
+
+        // Mỗi lần flush (batchSize đơn) gửi discount_order thành batch: không quá một câu INSERT cho mỗi batchSize dòng
+        long discountInserts = statements.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).startsWith("insert into discount_order"))
+                .count();
+        int flushes = (ORDERS + batchSize - 1) / batchSize;
+        int discountBatches = (DISCOUNT_ROWS + batchSize - 1) / batchSize;
+        assertTrue(discountInserts <= Math.max(flushes, discountBatches),
+                "discount_order không được ghi theo batch: " + discountInserts + " câu INSERT");
+        assertEquals(2 * DISCOUNT_ROWS, discountOrderCount());
+
+        log.info("Không batch: {} dòng/s, batch: {} dòng/s (x{})",
+                String.format("%.0f", unbatched),
+                String.format("%.0f", batched),
+                String.format("%.2f", batched / unbatched));
+    }
+
+    private double measure(Runnable run) {
+        long start = System.nanoTime();
+        run.run();
+        long elapsedNanos = System.nanoTime() - start;
+        int rows = ORDERS * (1 + LINES_PER_ORDER) + DISCOUNT_ROWS;
+        return rows / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    private List<Order> newOrders(UserAccount customer, UserAddress address, ShippingUnit shippingUnit,
+                                  List<Product> products, List<Discount> discounts) {
+        List<Order> orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(customer, address, shippingUnit, BigDecimal.ZERO, Order.OrderStatus.PENDING, Order.PaymentMethod.COD);
+            for (Product product : products) {
+                order.addOrderItem(new OrderItem(product, order, 1 + i % 3));
+            }
+            if (i % 2 == 0) {
+                order.getDiscounts().addAll(discounts);
+            }
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    // Dòng discount_order của cả hai lần đo (đơn không batch + đơn batch)
+    private int discountOrderCount() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM discount_order d JOIN orders o ON o.order_id = d.order_id WHERE o.user_account_id = ?",
+                Integer.class, (Object) UuidBytes.toBytes(customer.getUserAccountId()));
+        return count == null ? 0 : count;
+    }
+}
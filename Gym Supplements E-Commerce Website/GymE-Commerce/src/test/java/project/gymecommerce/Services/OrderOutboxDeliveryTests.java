@@ -0,0 +1,118 @@
+package project.gymecommerce.Services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.Events.OrderStatusChangedEvent;
+import project.gymecommerce.Models.Identifier.UuidBytes;
+import project.gymecommerce.Models.Order.Order;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static project.gymecommerce.Models.Order.Order.OrderStatus.*;
+
+/**
+ * Kiểm tra poller của order_outbox: sự kiện của cùng một đơn được gửi đúng thứ tự (mỗi lô chỉ lấy sự kiện cũ nhất
+ * chưa gửi của mỗi đơn) và sự kiện bị một instance khác lấy rồi bỏ dở được gửi lại khi lease hết hạn.
+ * Poller của ứng dụng được giãn ra 1h để chỉ instance do test tạo đọc bảng order_outbox.
+ * Cần MySQL như cấu hình trong application.properties.
+ */
+@SpringBootTest(properties = "app.outbox.poll-interval=1h")
+class OrderOutboxDeliveryTests {
+
+    private static final Duration LEASE = Duration.ofSeconds(1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<OrderStatusChangedEvent> received = new CopyOnWriteArrayList<>();
+    private final UUID firstOrderId = UUID.randomUUID();
+    private final UUID secondOrderId = UUID.randomUUID();
+    private OrderOutboxServiceImplement outbox;
+
+    @BeforeEach
+    void createOutbox() {
+        outbox = new OrderOutboxServiceImplement(jdbcTemplate,
+                event -> received.add((OrderStatusChangedEvent) event), transactionManager, new SimpleMeterRegistry(),
+                4, 1000, LEASE, Duration.ZERO, Duration.ZERO, Duration.ofDays(7));
+    }
+
+    @AfterEach
+    void deleteEvents() {
+        outbox.close();
+        jdbcTemplate.update("DELETE FROM order_outbox WHERE order_id IN (?, ?)",
+                UuidBytes.toBytes(firstOrderId), UuidBytes.toBytes(secondOrderId));
+    }
+
+    @Test
+    void eventsOfOneOrderAreDeliveredInOrder() {
+        append(firstOrderId, PENDING, CONFIRMED);
+        append(secondOrderId, PENDING, CANCELLED);
+        append(firstOrderId, CONFIRMED, SHIPPING);
+        append(firstOrderId, SHIPPING, COMPLETED);
+
+        outbox.drain();
+        // Lô đầu: chỉ sự kiện cũ nhất của mỗi đơn
+        assertEquals(List.of(CONFIRMED), statusesOf(firstOrderId));
+        assertEquals(List.of(CANCELLED), statusesOf(secondOrderId));
+
+        while (outbox.drain() > 0) {
+            // gửi hết các sự kiện còn lại
+        }
+        assertEquals(List.of(CONFIRMED, SHIPPING, COMPLETED), statusesOf(firstOrderId));
+        assertEquals(List.of(CANCELLED), statusesOf(secondOrderId));
+        assertEquals(0, unpublishedCount());
+    }
+
+    @Test
+    void abandonedClaimIsRedeliveredAfterLeaseExpires() throws InterruptedException {
+        append(firstOrderId, PENDING, CONFIRMED);
+        // Instance khác đã lấy sự kiện (đặt lease rồi commit) và dừng trước khi gửi
+        jdbcTemplate.update("UPDATE order_outbox SET available_at = ? WHERE order_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().plus(LEASE)), UuidBytes.toBytes(firstOrderId));
+
+        outbox.drain();
+        assertTrue(statusesOf(firstOrderId).isEmpty());
+
+        Thread.sleep(LEASE.toMillis() + 200);
+        outbox.drain();
+        assertEquals(List.of(CONFIRMED), statusesOf(firstOrderId));
+        assertNotNull(jdbcTemplate.queryForObject("SELECT published_at FROM order_outbox WHERE order_id = ?",
+                Timestamp.class, (Object) UuidBytes.toBytes(firstOrderId)));
+    }
+
+    private void append(UUID orderId, Order.OrderStatus from, Order.OrderStatus to) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> outbox.append(List.of(orderId), from, to));
+    }
+
+    private List<Order.OrderStatus> statusesOf(UUID orderId) {
+        return received.stream()
+                .filter(event -> event.orderId().equals(orderId))
+                .map(OrderStatusChangedEvent::newStatus)
+                .toList();
+    }
+
+    private int unpublishedCount() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_outbox WHERE order_id IN (?, ?) AND published_at IS NULL",
+                Integer.class, UuidBytes.toBytes(firstOrderId), UuidBytes.toBytes(secondOrderId));
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,186 @@
+package project.gymecommerce.Services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.Models.Identifier.UuidBytes;
+import project.gymecommerce.Models.Order.Order;
+import project.gymecommerce.Models.Order.OrderItem;
+import project.gymecommerce.Models.Product.Product;
+import project.gymecommerce.Models.User.UserAccount;
+import project.gymecommerce.Models.User.UserAddress;
+import project.gymecommerce.OrderTestFixture;
+import project.gymecommerce.Repositories.OrderRepo.OrderRepository;
+import project.gymecommerce.Repositories.OrderRepo.ShippingUnitRepository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kiểm tra pipeline xử lý đơn chỉ trừ kho một lần cho mỗi đơn, kể cả khi cùng một đơn được đưa vào
+ * pipeline của hai instance và sweeper cùng lúc (orders.stock_reserved_at được đánh dấu bằng UPDATE có điều kiện).
+ * Instance thứ hai được tạo thủ công từ cùng các bean, có bộ nhớ inFlight riêng như một app instance khác.
+ * Cần MySQL như cấu hình trong application.properties.
+ */
+@SpringBootTest
+class OrderPipelineStockTests {
+
+    private static final int STOCK = 10;
+    private static final int ORDERED = 3;
+
+    @Autowired
+    private OrderPipelineService orderPipelineService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ShippingUnitRepository shippingUnitRepository;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderStatusService orderStatusService;
+
+    @Autowired
+    private DiscountPricingService discountPricingService;
+
+    @Autowired
+    private DiscountCodeService discountCodeService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OrderPipelineServiceImplement otherInstance;
+    private OrderTestFixture fixture;
+    private Product product;
+    private UUID orderId;
+
+    @BeforeEach
+    void createPendingOrder() {
+        otherInstance = new OrderPipelineServiceImplement(orderRepository, shippingUnitRepository, inventoryService,
+                orderStatusService, discountPricingService, discountCodeService, transactionManager, new SimpleMeterRegistry(),
+                2, 100, 10, Duration.ofSeconds(1), Duration.ofMinutes(2), 500);
+
+        fixture = OrderTestFixture.create("Pipeline", entityManager, jdbcTemplate, transactionManager);
+        product = fixture.addProduct(STOCK);
+        orderId = new TransactionTemplate(transactionManager).execute(status -> {
+            Order order = new Order(entityManager.getReference(UserAccount.class, fixture.getCustomer().getUserAccountId()),
+                    entityManager.getReference(UserAddress.class, fixture.getAddress().getUserAddressId()),
+                    null, BigDecimal.ZERO, Order.OrderStatus.PENDING, Order.PaymentMethod.COD);
+            order.addOrderItem(new OrderItem(entityManager.getReference(Product.class, product.getProductId()), order, ORDERED));
+            entityManager.persist(order);
+            return order.getOrderId();
+        });
+        // Đơn đủ cũ để sweeper đưa lại vào pipeline
+        jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE order_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(10)), UuidBytes.toBytes(orderId));
+    }
+
+    @AfterEach
+    void deleteOrder() {
+        otherInstance.close();
+        fixture.cleanUp();
+    }
+
+    @Test
+    void sameOrderInTwoPipelinesAndSweeperIsReservedOnce() throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            executor.execute(() -> {
+                awaitQuietly(start);
+                orderPipelineService.submit(orderId);
+            });
+            executor.execute(() -> {
+                awaitQuietly(start);
+                otherInstance.submit(orderId);
+            });
+            executor.execute(() -> {
+                awaitQuietly(start);
+                otherInstance.sweepStalePendingOrders();
+            });
+            start.countDown();
+        }
+
+        waitForStatus(Order.OrderStatus.CONFIRMED);
+        assertEquals(STOCK - ORDERED, productQuantity());
+        assertNotNull(stockReservedAt());
+    }
+
+    @Test
+    void sweeperDoesNotReserveAgainAfterInterruptedRun() throws InterruptedException {
+        // Lần chạy trước đã trừ kho rồi dừng trước bước xác nhận (app restart), đơn vẫn PENDING
+        jdbcTemplate.update("UPDATE product SET quantity = ? WHERE product_id = ?",
+                STOCK - ORDERED, UuidBytes.toBytes(product.getProductId()));
+        jdbcTemplate.update("UPDATE orders SET stock_reserved_at = ? WHERE order_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(5)), UuidBytes.toBytes(orderId));
+
+        otherInstance.sweepStalePendingOrders();
+
+        waitForStatus(Order.OrderStatus.CONFIRMED);
+        assertEquals(STOCK - ORDERED, productQuantity());
+    }
+
+    private void waitForStatus(Order.OrderStatus expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!expected.name().equals(orderStatus())) {
+            assertTrue(System.nanoTime() < deadline, "Đơn chưa chuyển sang " + expected + ", hiện là " + orderStatus());
+            Thread.sleep(50);
+        }
+        // Chờ các lần chạy trùng còn lại rời pipeline
+        long idleDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (orderPipelineService.inFlight() > 0 || otherInstance.inFlight() > 0) {
+            assertTrue(System.nanoTime() < idleDeadline, "Pipeline chưa xử lý xong");
+            Thread.sleep(50);
+        }
+    }
+
+    private String orderStatus() {
+        return jdbcTemplate.queryForObject("SELECT order_status FROM orders WHERE order_id = ?",
+                String.class, (Object) UuidBytes.toBytes(orderId));
+    }
+
+    private Timestamp stockReservedAt() {
+        return jdbcTemplate.queryForObject("SELECT stock_reserved_at FROM orders WHERE order_id = ?",
+                Timestamp.class, (Object) UuidBytes.toBytes(orderId));
+    }
+
+    private int productQuantity() {
+        Integer quantity = jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE product_id = ?",
+                Integer.class, (Object) UuidBytes.toBytes(product.getProductId()));
+        return quantity == null ? 0 : quantity;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
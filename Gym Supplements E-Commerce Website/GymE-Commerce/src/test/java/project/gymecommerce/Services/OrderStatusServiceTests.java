@@ -0,0 +1,160 @@
+package project.gymecommerce.Services;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.Controllers.RestController.OrderController;
+import project.gymecommerce.DTOs.Order.StatusTransitionResultDTO;
+import project.gymecommerce.Models.Identifier.UuidBytes;
+import project.gymecommerce.Models.Order.Order;
+import project.gymecommerce.Models.User.UserAccount;
+import project.gymecommerce.Models.User.UserAddress;
+import project.gymecommerce.OrderTestFixture;
+import project.gymecommerce.Repositories.OrderRepo.OrderRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static project.gymecommerce.Models.Order.Order.OrderStatus.*;
+
+/**
+ * Kiểm tra OrderStatusServiceImplement trên DB thật:
+ * - khách huỷ đơn đúng lúc nhân viên xác nhận: compare-and-set của khách thua, cancelByCustomer trả về false
+ *   và OrderController trả về 409, đơn giữ trạng thái nhân viên vừa đặt;
+ * - transitionAll chia theo bulk-chunk-size (2 trong test), mỗi lô ghi outbox cho đúng các đơn đã chuyển.
+ * Cần MySQL như cấu hình trong application.properties.
+ */
+@SpringBootTest(properties = "app.orders.status.bulk-chunk-size=2")
+class OrderStatusServiceTests {
+
+    @Autowired
+    private OrderStatusService orderStatusService;
+
+    @Autowired
+    private OrderController orderController;
+
+    @MockitoSpyBean
+    private OrderRepository orderRepository;
+
+    @MockitoSpyBean
+    private OrderOutboxService orderOutboxService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OrderTestFixture fixture;
+    private UserAccount customer;
+    private UserAddress address;
+
+    @BeforeEach
+    void createCustomer() {
+        fixture = OrderTestFixture.create("Status", entityManager, jdbcTemplate, transactionManager);
+        customer = fixture.getCustomer();
+        address = fixture.getAddress();
+        fixture.addProduct(100);
+    }
+
+    @AfterEach
+    void deleteCustomer() {
+        fixture.cleanUp();
+    }
+
+    @Test
+    void customerLosesCancelRaceAndGetsConflict() {
+        UUID orderId = createOrder(PENDING);
+        // Nhân viên xác nhận đơn ngay sau khi cancelByCustomer đọc trạng thái PENDING
+        doAnswer(invocation -> {
+            Object current = invocation.callRealMethod();
+            assertTrue(orderStatusService.transition(orderId, PENDING, CONFIRMED));
+            return current;
+        }).when(orderRepository).findStatusByOrderIdAndUserAccountId(eq(orderId), any(UUID.class));
+
+        assertFalse(orderStatusService.cancelByCustomer(customer.getEmail(), orderId));
+        assertEquals(CONFIRMED.name(), orderStatus(orderId));
+        assertEquals(List.of(CONFIRMED.name()), outboxStatuses(orderId));
+
+        // Lần gọi tiếp theo qua controller cũng thua (đơn đã sang SHIPPING ngay sau khi đọc CONFIRMED)
+        doAnswer(invocation -> {
+            Object current = invocation.callRealMethod();
+            assertTrue(orderStatusService.transition(orderId, CONFIRMED, SHIPPING));
+            return current;
+        }).when(orderRepository).findStatusByOrderIdAndUserAccountId(eq(orderId), any(UUID.class));
+
+        ResponseEntity<Void> response = orderController.cancelOrder(
+                new TestingAuthenticationToken(customer.getEmail(), null), orderId);
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(SHIPPING.name(), orderStatus(orderId));
+    }
+
+    @Test
+    void transitionAllRunsInChunksAndAppendsOutboxForAppliedOrders() {
+        List<UUID> pending = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            pending.add(createOrder(PENDING));
+        }
+        UUID cancelled = createOrder(CANCELLED);
+        List<UUID> requested = new ArrayList<>(pending);
+        requested.add(1, cancelled);
+
+        StatusTransitionResultDTO result = orderStatusService.transitionAll(requested, PENDING, CONFIRMED);
+
+        assertEquals(Set.copyOf(pending), Set.copyOf(result.applied()));
+        assertEquals(List.of(cancelled), result.rejected());
+        // 5 đơn, mỗi lô 2 đơn: 3 lô, lô nào cũng có ít nhất một đơn được chuyển
+        verify(orderOutboxService, times(3)).append(anyCollection(), eq(PENDING), eq(CONFIRMED));
+        for (UUID orderId : pending) {
+            assertEquals(CONFIRMED.name(), orderStatus(orderId));
+            assertEquals(List.of(CONFIRMED.name()), outboxStatuses(orderId));
+        }
+        assertEquals(CANCELLED.name(), orderStatus(cancelled));
+        assertTrue(outboxStatuses(cancelled).isEmpty());
+    }
+
+    private UUID createOrder(Order.OrderStatus status) {
+        return new TransactionTemplate(transactionManager).execute(tx -> {
+            Order order = new Order(entityManager.getReference(UserAccount.class, customer.getUserAccountId()),
+                    entityManager.getReference(UserAddress.class, address.getUserAddressId()),
+                    null, BigDecimal.ZERO, status, Order.PaymentMethod.COD);
+            entityManager.persist(order);
+            return order.getOrderId();
+        });
+    }
+
+    private String orderStatus(UUID orderId) {
+        return jdbcTemplate.queryForObject("SELECT order_status FROM orders WHERE order_id = ?",
+                String.class, (Object) UuidBytes.toBytes(orderId));
+    }
+
+    private List<String> outboxStatuses(UUID orderId) {
+        return jdbcTemplate.queryForList("SELECT to_status FROM order_outbox WHERE order_id = ? ORDER BY outbox_id",
+                String.class, (Object) UuidBytes.toBytes(orderId));
+    }
+}
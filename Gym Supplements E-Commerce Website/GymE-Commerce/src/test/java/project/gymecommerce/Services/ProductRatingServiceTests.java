@@ -0,0 +1,142 @@
+package project.gymecommerce.Services;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.DTOs.Product.ProductRatingDTO;
+import project.gymecommerce.Models.Identifier.UuidBytes;
+import project.gymecommerce.Models.Product.Product;
+import project.gymecommerce.Models.Product.ProductReview;
+import project.gymecommerce.Models.User.UserAccount;
+import project.gymecommerce.OrderTestFixture;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Kiểm tra product_rating_summary và bộ nhớ của ProductRatingServiceImplement luôn khớp với product_review
+ * sau khi tạo, sửa, xóa review (kể cả transaction bị rollback) và sau khi nạp lại từ bảng tổng hợp.
+ * Cần MySQL như cấu hình trong application.properties.
+ */
+@SpringBootTest
+class ProductRatingServiceTests {
+
+    private static final String FROM_REVIEWS_SQL =
+            "SELECT COUNT(*) AS review_count, COALESCE(SUM(rating), 0) AS rating_sum, " +
+                    "COALESCE(SUM(rating = 1), 0) AS star_1, COALESCE(SUM(rating = 2), 0) AS star_2, " +
+                    "COALESCE(SUM(rating = 3), 0) AS star_3, COALESCE(SUM(rating = 4), 0) AS star_4, " +
+                    "COALESCE(SUM(rating = 5), 0) AS star_5 " +
+                    "FROM product_review WHERE product_id = ?";
+    private static final String FROM_SUMMARY_SQL =
+            "SELECT review_count, rating_sum, star_1, star_2, star_3, star_4, star_5 " +
+                    "FROM product_rating_summary WHERE product_id = ?";
+
+    @Autowired
+    private ProductRatingService productRatingService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private OrderTestFixture fixture;
+    private UserAccount reviewer;
+    private Product product;
+
+    @BeforeEach
+    void createProduct() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        fixture = OrderTestFixture.create("Rating", entityManager, jdbcTemplate, transactionManager);
+        reviewer = fixture.getCustomer();
+        product = fixture.addProduct(100);
+    }
+
+    @AfterEach
+    void deleteProduct() {
+        fixture.cleanUp();
+    }
+
+    @Test
+    void createUpdateDeleteKeepSummaryInSync() {
+        UUID[] ids = new UUID[2];
+        transactionTemplate.executeWithoutResult(status -> {
+            ids[0] = persistReview(5);
+            ids[1] = persistReview(3);
+        });
+        assertConsistent(new ProductRatingDTO(product.getProductId(), 2, 8, 0, 0, 1, 0, 1));
+
+        transactionTemplate.executeWithoutResult(status -> entityManager.find(ProductReview.class, ids[1]).setRating(4));
+        assertConsistent(new ProductRatingDTO(product.getProductId(), 2, 9, 0, 0, 0, 1, 1));
+
+        transactionTemplate.executeWithoutResult(status -> entityManager.remove(entityManager.find(ProductReview.class, ids[0])));
+        assertConsistent(new ProductRatingDTO(product.getProductId(), 1, 4, 0, 0, 0, 1, 0));
+    }
+
+    @Test
+    void rolledBackReviewDoesNotChangeSummary() {
+        transactionTemplate.executeWithoutResult(status -> persistReview(2));
+        ProductRatingDTO before = new ProductRatingDTO(product.getProductId(), 1, 2, 0, 1, 0, 0, 0);
+        assertConsistent(before);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            persistReview(5);
+            entityManager.flush();
+            status.setRollbackOnly();
+        });
+        assertConsistent(before);
+    }
+
+    @Test
+    void reloadRestoresSummaryFromTable() {
+        transactionTemplate.executeWithoutResult(status -> {
+            persistReview(1);
+            persistReview(4);
+            persistReview(4);
+        });
+        ProductRatingDTO expected = new ProductRatingDTO(product.getProductId(), 3, 9, 1, 0, 0, 2, 0);
+        assertConsistent(expected);
+
+        productRatingService.reload();
+        assertEquals(expected, productRatingService.findByProductId(product.getProductId()));
+    }
+
+    private UUID persistReview(int rating) {
+        ProductReview review = new ProductReview(entityManager.getReference(Product.class, product.getProductId()),
+                entityManager.getReference(UserAccount.class, reviewer.getUserAccountId()), rating, null);
+        entityManager.persist(review);
+        return review.getProductReviewId();
+    }
+
+    // product_review (nguồn), product_rating_summary và bộ nhớ phải cùng bằng expected
+    private void assertConsistent(ProductRatingDTO expected) {
+        assertEquals(expected, rating(FROM_REVIEWS_SQL));
+        assertEquals(expected, rating(FROM_SUMMARY_SQL));
+        assertEquals(expected, productRatingService.findByProductId(product.getProductId()));
+    }
+
+    private ProductRatingDTO rating(String sql) {
+        UUID productId = product.getProductId();
+        return jdbcTemplate.query(sql, rs -> rs.next()
+                ? new ProductRatingDTO(productId,
+                rs.getInt("review_count"),
+                rs.getLong("rating_sum"),
+                rs.getInt("star_1"),
+                rs.getInt("star_2"),
+                rs.getInt("star_3"),
+                rs.getInt("star_4"),
+                rs.getInt("star_5"))
+                : ProductRatingDTO.empty(productId), (Object) UuidBytes.toBytes(productId));
+    }
+}
@@ -0,0 +1,108 @@
+package project.gymecommerce.Services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.gymecommerce.Models.User.Role;
+import project.gymecommerce.Models.User.UserAccount;
+import project.gymecommerce.Repositories.UserRepo.RoleRepository;
+import project.gymecommerce.Repositories.UserRepo.UserAccountRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * So sánh số lượt đăng ký / giây giữa cách cũ (3 query exists + findByRoleName + insert)
+ * và register() hiện tại (insert trước, dựa vào ràng buộc unique).
+ * Chạy bằng: mvn test -Pbenchmark (cần MySQL như cấu hình trong application.properties).
+ */
+@Tag("benchmark")
+@SpringBootTest
+class RegistrationBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistrationBenchmarkTests.class);
+
+    private static final int REGISTRATIONS = 500;
+
+    @Autowired
+    private UserAccountServiceImplement userAccountService;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<UUID> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void deleteCreatedUsers() {
+        userAccountRepository.deleteAllById(createdIds);
+        createdIds.clear();
+    }
+
+    @Test
+    void compareRegistrationThroughput() {
+        double legacyPerSecond = registerUsers("legacy", this::legacyRegister);
+        double currentPerSecond = registerUsers("current", account -> createdIds.add(userAccountService.register(account).getUserAccountId()));
+
+        log.info("Đăng ký cũ: {} lượt/s, đăng ký mới: {} lượt/s (x{})",
+                String.format("%.1f", legacyPerSecond),
+                String.format("%.1f", currentPerSecond),
+                String.format("%.2f", currentPerSecond / legacyPerSecond));
+        assertTrue(legacyPerSecond > 0 && currentPerSecond > 0);
+    }
+
+    private double registerUsers(String prefix, Consumer<UserAccount> register) {
+        long start = System.nanoTime();
+        for (int i = 0; i < REGISTRATIONS; i++) {
+            register.accept(newAccount(prefix, i));
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        return REGISTRATIONS / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    // Mô phỏng register() trước đây: 5 round trip cho mỗi lượt đăng ký (chạy trong một transaction như khi có OSIV)
+    private void legacyRegister(UserAccount account) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> legacyRegisterInTransaction(account));
+    }
+
+    private void legacyRegisterInTransaction(UserAccount account) {
+        if (userAccountRepository.existsByEmail(account.getEmail())
+                || userAccountRepository.existsByUserName(account.getUserName())
+                || userAccountRepository.existsByPhoneNumber(account.getPhoneNumber())) {
+            throw new IllegalStateException("Duplicate benchmark account");
+        }
+        account.setHashedPassword(passwordEncoder.encode(account.getHashedPassword()));
+        Role customerRole = roleRepository.findByRoleName("ROLE_CUSTOMER").orElseThrow();
+        account.getRoles().add(customerRole);
+        createdIds.add(userAccountRepository.save(account).getUserAccountId());
+    }
+
+    private UserAccount newAccount(String prefix, int index) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        UserAccount account = new UserAccount();
+        account.setUserName("bench_" + prefix + "_" + index + "_" + suffix);
+        account.setEmail("bench_" + prefix + "_" + index + "_" + suffix + "@example.com");
+        account.setPhoneNumber(String.format("09%08d", Math.floorMod((prefix + index + suffix).hashCode(), 100_000_000)));
+        account.setHashedPassword("Benchmark@123");
+        return account;
+    }
+}
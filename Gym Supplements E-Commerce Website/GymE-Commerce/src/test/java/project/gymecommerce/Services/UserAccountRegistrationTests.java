@@ -0,0 +1,72 @@
+package project.gymecommerce.Services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import project.gymecommerce.Models.User.UserAccount;
+import project.gymecommerce.Repositories.UserRepo.UserAccountRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Kiểm tra register(): insert trước, trường bị trùng được xác định sau khi ràng buộc unique
+ * (uk_user_name, uk_user_email, uk_user_phone) từ chối bản ghi.
+ * Cần MySQL như cấu hình trong application.properties.
+ */
+@SpringBootTest
+class UserAccountRegistrationTests {
+
+    @Autowired
+    private UserAccountServiceImplement userAccountService;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    private final List<UUID> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void deleteCreatedUsers() {
+        userAccountRepository.deleteAllById(createdIds);
+        createdIds.clear();
+    }
+
+    @Test
+    void duplicateEmailIsReportedByConstraint() {
+        UserAccount first = newAccount(0);
+        createdIds.add(userAccountService.register(first).getUserAccountId());
+
+        UserAccount second = newAccount(1);
+        second.setEmail(first.getEmail());
+        RuntimeException e = assertThrows(RuntimeException.class, () -> userAccountService.register(second));
+        assertEquals("Email already exists", e.getMessage());
+    }
+
+    @Test
+    void duplicateUserNameIsReportedByConstraint() {
+        UserAccount first = newAccount(0);
+        createdIds.add(userAccountService.register(first).getUserAccountId());
+
+        UserAccount second = newAccount(1);
+        second.setUserName(first.getUserName());
+        RuntimeException e = assertThrows(RuntimeException.class, () -> userAccountService.register(second));
+        assertEquals("UserName already exists", e.getMessage());
+        assertFalse(userAccountRepository.existsByEmail(second.getEmail()));
+    }
+
+    private UserAccount newAccount(int index) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        UserAccount account = new UserAccount();
+        account.setUserName("reg_" + index + "_" + suffix);
+        account.setEmail("reg_" + index + "_" + suffix + "@example.com");
+        account.setPhoneNumber(String.format("08%08d", Math.floorMod((index + suffix).hashCode(), 100_000_000)));
+        account.setHashedPassword("Register@123");
+        return account;
+    }
+}
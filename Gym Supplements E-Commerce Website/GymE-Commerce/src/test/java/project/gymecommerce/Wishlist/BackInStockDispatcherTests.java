@@ -0,0 +1,67 @@
+package project.gymecommerce.Wishlist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackInStockDispatcherTests {
+
+    private static final UUID WHEY = UUID.randomUUID();
+    private static final UUID CREATINE = UUID.randomUUID();
+
+    @Test
+    void indexFollowsWishlistChanges() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        ProductWishlistIndex index = new ProductWishlistIndex();
+        index.rebuild(Map.of(WHEY, List.of(alice)));
+
+        index.apply(bob, Map.of(WHEY, 2, CREATINE, 1));
+        index.apply(alice, Map.of(WHEY, 0));
+
+        assertEquals(List.of(bob), index.watchers(WHEY));
+        assertEquals(List.of(bob), index.watchers(CREATINE));
+
+        index.apply(bob, Map.of(WHEY, 0, CREATINE, 0));
+        assertTrue(index.watchers(WHEY).isEmpty());
+        assertEquals(0, index.productCount());
+    }
+
+    @Test
+    void sendsEveryWatcherInBatchesWithinRate() {
+        ProductWishlistIndex index = new ProductWishlistIndex();
+        for (int i = 0; i < 25; i++) {
+            index.apply(UUID.randomUUID(), Map.of(WHEY, 1));
+        }
+        for (int i = 0; i < 5; i++) {
+            index.apply(UUID.randomUUID(), Map.of(CREATINE, 1));
+        }
+
+        // đồng hồ giả: sleep chỉ đẩy thời gian lên
+        AtomicLong clock = new AtomicLong();
+        List<Integer> batchSizes = new ArrayList<>();
+        List<Long> sentAt = new ArrayList<>();
+        Set<BackInStockDispatcher.Notification> notifications = new HashSet<>();
+        BackInStockDispatcher dispatcher = new BackInStockDispatcher(index::watchers, batch -> {
+            batchSizes.add(batch.size());
+            sentAt.add(clock.get());
+            notifications.addAll(batch);
+        }, 10, 100, clock::get, clock::addAndGet);
+
+        int sent = dispatcher.dispatch(List.of(WHEY, CREATINE, WHEY, UUID.randomUUID()));
+
+        assertEquals(30, sent);
+        assertEquals(30, notifications.size());
+        assertEquals(List.of(10, 10, 10), batchSizes);
+        // 100 thông báo / giây -> mỗi lô 10 thông báo cách nhau 100 ms
+        assertEquals(List.of(0L, 100_000_000L, 200_000_000L), sentAt);
+    }
+}
@@ -0,0 +1,109 @@
+package project.gymecommerce.Wishlist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserWishlistTests {
+
+    private static final UUID USER = UUID.randomUUID();
+
+    private static Map<UUID, Integer> lines(Object... productAndQuantity) {
+        Map<UUID, Integer> lines = new LinkedHashMap<>();
+        for (int i = 0; i < productAndQuantity.length; i += 2) {
+            lines.put((UUID) productAndQuantity[i], (Integer) productAndQuantity[i + 1]);
+        }
+        return lines;
+    }
+
+    @Test
+    void productIdSetFindsEveryMemberByBinarySearch() {
+        Map<UUID, Integer> items = new LinkedHashMap<>();
+        for (int i = 0; i < 500; i++) {
+            items.put(UUID.randomUUID(), 1 + i % 4);
+        }
+        ProductIdSet set = ProductIdSet.of(items);
+
+        assertEquals(500, set.size());
+        items.forEach((productId, quantity) -> {
+            assertTrue(set.contains(productId));
+            assertEquals((int) quantity, set.quantity(productId));
+        });
+        assertFalse(set.contains(UUID.randomUUID()));
+        assertEquals(items, Map.copyOf(set.toMap()));
+    }
+
+    @Test
+    void coalescesChangesUntilDrained() {
+        UUID whey = UUID.randomUUID();
+        UUID creatine = UUID.randomUUID();
+        UserWishlist wishlist = new UserWishlist(USER, null, ProductIdSet.EMPTY);
+
+        assertEquals(2, wishlist.addAll(lines(whey, 1, creatine, 2), 10));
+        assertEquals(1, wishlist.addAll(lines(whey, 3), 10));
+        assertEquals(Map.of(creatine, 2), wishlist.removeAll(List.of(creatine, UUID.randomUUID())));
+
+        assertTrue(wishlist.items().contains(whey));
+        assertFalse(wishlist.items().contains(creatine));
+        // chỉ trạng thái cuối của mỗi sản phẩm được ghi xuống DB
+        assertEquals(Map.of(whey, 3, creatine, 0), wishlist.drainChanges());
+        assertFalse(wishlist.isDirty());
+    }
+
+    @Test
+    void unchangedQuantityIsNotDirty() {
+        UUID whey = UUID.randomUUID();
+        UserWishlist wishlist = new UserWishlist(USER, UUID.randomUUID(), ProductIdSet.of(Map.of(whey, 2)));
+
+        assertEquals(0, wishlist.addAll(lines(whey, 2), 10));
+        assertFalse(wishlist.isDirty());
+    }
+
+    @Test
+    void rejectsAddsBeyondLimitWithoutPartialChanges() {
+        UserWishlist wishlist = new UserWishlist(USER, null, ProductIdSet.of(Map.of(UUID.randomUUID(), 1)));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> wishlist.addAll(lines(UUID.randomUUID(), 1, UUID.randomUUID(), 1), 2));
+
+        assertEquals("Wishlist is full", e.getMessage());
+        assertEquals(1, wishlist.items().size());
+        assertFalse(wishlist.isDirty());
+    }
+
+    @Test
+    void failedFlushDoesNotOverwriteNewerChanges() {
+        UUID whey = UUID.randomUUID();
+        UserWishlist wishlist = new UserWishlist(USER, null, ProductIdSet.EMPTY);
+        wishlist.addAll(lines(whey, 1), 10);
+
+        Map<UUID, Integer> drained = wishlist.drainChanges();
+        wishlist.removeAll(List.of(whey));
+        wishlist.restoreChanges(drained);
+
+        assertEquals(Map.of(whey, 0), wishlist.drainChanges());
+    }
+
+    @Test
+    void rebaseTakesStoredItemsAndKeepsUnflushedChanges() {
+        UUID whey = UUID.randomUUID();
+        UUID creatine = UUID.randomUUID();
+        UUID otherInstance = UUID.randomUUID();
+        UserWishlist wishlist = new UserWishlist(USER, UUID.randomUUID(), ProductIdSet.EMPTY);
+        wishlist.addAll(lines(whey, 1), 10);
+        wishlist.drainChanges();
+        // thay đổi mới trong lúc đang ghi
+        wishlist.addAll(lines(creatine, 2), 10);
+
+        // DB sau khi ghi: whey của instance này và một sản phẩm do instance khác thêm
+        wishlist.rebase(ProductIdSet.of(Map.of(whey, 1, otherInstance, 4)));
+
+        assertEquals(Map.of(whey, 1, creatine, 2, otherInstance, 4), Map.copyOf(wishlist.items().toMap()));
+        assertEquals(Map.of(creatine, 2), wishlist.drainChanges());
+    }
+}